@@ -0,0 +1,28 @@
+package de.golfgl.lightblocks;
+
+import com.badlogic.gdx.Gdx;
+
+import de.golfgl.lightblocks.engine.ILogger;
+
+/**
+ * Leitet das Logging der Engine an Gdx.app weiter, damit die Log Level des Spiels auch dort gelten
+ */
+public class GdxLogger implements ILogger {
+    @Override
+    public void log(String tag, String message) {
+        Gdx.app.log(tag, message);
+    }
+
+    @Override
+    public void debug(String tag, String message) {
+        Gdx.app.debug(tag, message);
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable exception) {
+        if (exception != null)
+            Gdx.app.error(tag, message, exception);
+        else
+            Gdx.app.error(tag, message);
+    }
+}
@@ -29,6 +29,7 @@ import de.golfgl.gdxgamesvcs.gamestate.ILoadGameStateResponseListener;
 import de.golfgl.gdxpushmessages.IPushMessageListener;
 import de.golfgl.gdxpushmessages.IPushMessageProvider;
 import de.golfgl.lightblocks.backend.BackendManager;
+import de.golfgl.lightblocks.engine.Engine;
 import de.golfgl.lightblocks.gpgs.GaHelper;
 import de.golfgl.lightblocks.gpgs.IMultiplayerGsClient;
 import de.golfgl.lightblocks.menu.MultiplayerMenuScreen;
@@ -161,6 +162,7 @@ public class LightBlocksGame extends Game implements IGameServiceListener, IPush
         } else {
             Gdx.app.setLogLevel(Application.LOG_ERROR);
         }
+        Engine.logger = new GdxLogger();
 
         Preferences lbPrefs = app.getPreferences("lightblocks");
         localPrefs = new LocalPrefs(lbPrefs);
@@ -0,0 +1,30 @@
+package de.golfgl.lightblocks.input;
+
+import com.badlogic.gdx.controllers.AdvancedController;
+
+/**
+ * Identifies a game controller
+ */
+public class GameControllerInput implements InputIdentifier {
+    private final String gameControllerId;
+    public AdvancedController lastControllerRef;
+
+    public GameControllerInput(AdvancedController controller) {
+        this.gameControllerId = controller.getUniqueId();
+        this.lastControllerRef = controller;
+    }
+
+    public String getGameControllerId() {
+        return gameControllerId;
+    }
+
+    @Override
+    public boolean isSameInput(InputIdentifier inputIdentifier) {
+        if (this == inputIdentifier) return true;
+        if (!(inputIdentifier instanceof GameControllerInput)) {
+            return false;
+        }
+        GameControllerInput that = (GameControllerInput) inputIdentifier;
+        return gameControllerId.equals(that.gameControllerId);
+    }
+}
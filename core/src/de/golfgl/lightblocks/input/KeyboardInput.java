@@ -0,0 +1,23 @@
+package de.golfgl.lightblocks.input;
+
+/**
+ * Identifies the keyboard of a player
+ */
+public class KeyboardInput implements InputIdentifier {
+    private final int playerIndex;
+
+    public KeyboardInput(int playerIndex) {
+        this.playerIndex = playerIndex;
+    }
+
+    @Override
+    public boolean isSameInput(InputIdentifier inputIdentifier) {
+        if (this == inputIdentifier) return true;
+        if (!(inputIdentifier instanceof KeyboardInput)) {
+            return false;
+        }
+
+        KeyboardInput that = (KeyboardInput) inputIdentifier;
+        return this.playerIndex == that.playerIndex;
+    }
+}
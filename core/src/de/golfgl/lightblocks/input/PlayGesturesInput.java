@@ -45,7 +45,7 @@ public class PlayGesturesInput extends PlayScreenInput {
     // Flipped Mode: Tap löst horizontale Bewegung aus, Swipe rotiert
     private static final boolean flippedMode = false;
 
-    private final InputIdentifier inputId = new InputIdentifier.TouchscreenInput();
+    private final InputIdentifier inputId = new TouchscreenInput();
 
     public Color rotateRightColor = new Color(.1f, 1, .3f, .8f);
     public Color rotateLeftColor = new Color(.2f, .8f, 1, .8f);
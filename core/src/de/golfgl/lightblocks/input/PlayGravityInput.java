@@ -38,7 +38,7 @@ public class PlayGravityInput extends PlayScreenInput {
     private GameBlocker.CallibrationGameBlocker gravityInputBlocker = new GameBlocker.CallibrationGameBlocker();
 
     public PlayGravityInput() {
-        inputId = new InputIdentifier.TouchscreenInput();
+        inputId = new TouchscreenInput();
         currentInputVector = new Vector3();
         calibrationVector = new Vector3();
         updateFromSensor(calibrationVector);
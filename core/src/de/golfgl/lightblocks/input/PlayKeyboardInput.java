@@ -28,7 +28,7 @@ public class PlayKeyboardInput extends PlayScreenInput {
     public static final String INPUT_KEY_KEYBOARD = "keyboard";
     public static final String INPUT_KEY_CONTROLLER = "controller";
     // TODO #10 support keyboard mappings for second player
-    private final InputIdentifier.KeyboardInput keyboardFirstPlayerId;
+    private final KeyboardInput keyboardFirstPlayerId;
     private LocalPrefs.TvRemoteKeyConfig tvRemoteKeyConfig;
 
     // this field increments for every controller event and decrements for every keyboard event
@@ -42,7 +42,7 @@ public class PlayKeyboardInput extends PlayScreenInput {
     public PlayKeyboardInput() {
         controllerEventsVsKeyboardEvents = Controllers.getControllers().size > 0 ? 2 : 0;
         Gdx.input.setCatchMenuKey(LightBlocksGame.isOnAndroidTV());
-        keyboardFirstPlayerId = new InputIdentifier.KeyboardInput(0);
+        keyboardFirstPlayerId = new KeyboardInput(0);
     }
 
     private boolean playsWithController() {
@@ -132,8 +132,8 @@ public class PlayKeyboardInput extends PlayScreenInput {
         AdvancedController controllerToVibrate;
         if (fixedInput == null && playsWithController()) {
             controllerToVibrate = (AdvancedController) lastControllerInUse;
-        } else if (fixedInput instanceof InputIdentifier.GameControllerInput) {
-            controllerToVibrate = ((InputIdentifier.GameControllerInput) fixedInput).lastControllerRef;
+        } else if (fixedInput instanceof GameControllerInput) {
+            controllerToVibrate = ((GameControllerInput) fixedInput).lastControllerRef;
         } else {
             controllerToVibrate = null;
         }
@@ -286,12 +286,12 @@ public class PlayKeyboardInput extends PlayScreenInput {
     }
 
     private class ControllerInputAdapter extends InputAdapter {
-        private final List<InputIdentifier.GameControllerInput> inputIds = new ArrayList<>(2);
+        private final List<GameControllerInput> inputIds = new ArrayList<>(2);
 
         @Override
         public boolean keyDown(int keycode) {
             lastControllerInUse = app.controllerMappings.getControllerInUse();
-            InputIdentifier.GameControllerInput inputId = getInputId(lastControllerInUse);
+            GameControllerInput inputId = getInputId(lastControllerInUse);
 
             if (!isPaused() && keycode == Input.Keys.UP && !app.controllerMappings.hasHardDropMapping(lastControllerInUse))
                 keycode = Input.Keys.CONTROL_RIGHT;
@@ -306,7 +306,7 @@ public class PlayKeyboardInput extends PlayScreenInput {
         @Override
         public boolean keyUp(int keycode) {
             lastControllerInUse = app.controllerMappings.getControllerInUse();
-            InputIdentifier.GameControllerInput inputId = getInputId(lastControllerInUse);
+            GameControllerInput inputId = getInputId(lastControllerInUse);
 
             if (!isPaused() && keycode == Input.Keys.UP && !app.controllerMappings.hasHardDropMapping(lastControllerInUse))
                 keycode = Input.Keys.CONTROL_RIGHT;
@@ -314,12 +314,12 @@ public class PlayKeyboardInput extends PlayScreenInput {
             return keyUpInternal(inputId, keycode);
         }
 
-        private InputIdentifier.GameControllerInput getInputId(Controller controller) {
+        private GameControllerInput getInputId(Controller controller) {
             AdvancedController advancedController = (AdvancedController) controller;
             String controllerId = advancedController.getUniqueId();
             // there are typically one or two inputs, so I hope this list is more leightweight and
             // as fast as using a HashMap. Prove me wrong.
-            for (InputIdentifier.GameControllerInput inputIdentifier : inputIds) {
+            for (GameControllerInput inputIdentifier : inputIds) {
                 if (controllerId.equals(inputIdentifier.getGameControllerId())) {
                     inputIdentifier.lastControllerRef = advancedController;
                     return inputIdentifier;
@@ -327,7 +327,7 @@ public class PlayKeyboardInput extends PlayScreenInput {
             }
 
             // not found, add it
-            InputIdentifier.GameControllerInput inputIdentifier = new InputIdentifier.GameControllerInput(advancedController);
+            GameControllerInput inputIdentifier = new GameControllerInput(advancedController);
             inputIds.add(inputIdentifier);
 
             return inputIdentifier;
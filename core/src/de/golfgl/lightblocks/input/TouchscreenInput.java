@@ -0,0 +1,13 @@
+package de.golfgl.lightblocks.input;
+
+/**
+ * Identifies the touchscreen
+ */
+public class TouchscreenInput implements InputIdentifier {
+
+    @Override
+    public boolean isSameInput(InputIdentifier inputIdentifier) {
+        if (this == inputIdentifier) return true;
+        return (inputIdentifier instanceof TouchscreenInput);
+    }
+}
@@ -1,17 +1,17 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.ByteArray;
 import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.Queue;
 
 import de.golfgl.lightblocks.LightBlocksGame;
 import de.golfgl.lightblocks.backend.MatchEntity;
 import de.golfgl.lightblocks.backend.MatchTurnRequestInfo;
-import de.golfgl.lightblocks.screen.PlayScreen;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
+import de.golfgl.lightblocks.engine.IntList;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 import de.golfgl.lightblocks.state.Replay;
 
@@ -61,8 +61,8 @@ public class BackendBattleModel extends GameModel {
     }
 
     @Override
-    public void setUserInterface(LightBlocksGame app, PlayScreen playScreen, IGameModelListener uiGameboard) {
-        super.setUserInterface(app, playScreen, uiGameboard);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
         if (!beginPaused)
             uiGameboard.showMotivation(IGameModelListener.MotivationTypes.prepare, null);
         else
@@ -81,8 +81,8 @@ public class BackendBattleModel extends GameModel {
     }
 
     @Override
-    public Color getShownTimeColor() {
-        return sendingGarbage ? app.theme.focussedColor : app.theme.getScoreColorOrWhite();
+    public TimeHighlight getShownTimeHighlight() {
+        return sendingGarbage ? TimeHighlight.focussed : TimeHighlight.normal;
     }
 
     @Override
@@ -91,7 +91,8 @@ public class BackendBattleModel extends GameModel {
     }
 
     @Override
-    public void startNewGame(InitGameParameters newGameParams) {
+    public void startNewGame(GameParameters gameParams) {
+        InitGameParameters newGameParams = (InitGameParameters) gameParams;
         matchEntity = newGameParams.getMatchEntity();
         beginPaused = newGameParams.isStartPaused();
         infoForServer = new MatchTurnRequestInfo();
@@ -296,6 +297,7 @@ public class BackendBattleModel extends GameModel {
         infoForServer.droppedOut = !success;
         if (!getScore().isFraudDetected())
             infoForServer.replay = replay.toString();
+        LightBlocksGame app = GameModelClient.of(this).app;
         infoForServer.platform = app.backendManager.getPlatformString();
         infoForServer.inputType = ""; //TODO
 
@@ -308,7 +310,7 @@ public class BackendBattleModel extends GameModel {
         if (completeDrawyer.size < blocks + 1)
             completeDrawyer.add(getNextTetromino().getTetrominoType());
 
-        IntArray onDrawyer = this.drawyer.getDrawyerQueue();
+        IntList onDrawyer = this.drawyer.getDrawyerQueue();
         for (int i = 0; i < onDrawyer.size; i++)
             if (completeDrawyer.size < blocks + 2 + i)
                 completeDrawyer.add(onDrawyer.get(i));
@@ -335,18 +337,18 @@ public class BackendBattleModel extends GameModel {
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
+    public void read(IStateReader reader) {
         throw new UnsupportedOperationException("Not allowed in battle mode");
     }
 
     @Override
-    public void write(Json json) {
+    public void write(IStateWriter writer) {
         throw new UnsupportedOperationException("Not allowed in battle mode");
     }
 
     @Override
-    public String saveGameModel() {
-        return null;
+    public boolean isSaveAllowed() {
+        return false;
     }
 
     @Override
@@ -1,6 +1,7 @@
 package de.golfgl.lightblocks.model;
 
 import de.golfgl.lightblocks.multiplayer.ai.ArtificialPlayer;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 
 public class BotMultiplayerModel extends AbstractMultiplayerModel<BotMultiplayerModel> {
@@ -9,13 +10,16 @@ public class BotMultiplayerModel extends AbstractMultiplayerModel<BotMultiplayer
 
     @Override
     public InitGameParameters getInitParameters() {
-        InitGameParameters retVal = super.getInitParameters();
+        InitGameParameters retVal = new InitGameParameters();
+        retVal.setBeginningLevel(getScore().getStartingLevel());
+        retVal.setInputKey(inputTypeKey);
+        retVal.setModeType(modeType);
         // TODO retVal.setGameMode(InitGameParameters.GameMode.DeviceMultiplayer);
         return retVal;
     }
 
     @Override
-    protected BotMultiplayerModel createSecondGameModel(InitGameParameters newGameParams) {
+    protected BotMultiplayerModel createSecondGameModel(GameParameters newGameParams) {
         BotMultiplayerModel botMultiplayerModel = new BotMultiplayerModel();
         botMultiplayerModel.aiPlayer = new ArtificialPlayer(botMultiplayerModel, this);
         return botMultiplayerModel;
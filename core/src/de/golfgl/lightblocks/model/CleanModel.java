@@ -1,7 +1,8 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
 
 /**
  * Type B: Vorgegebene Garbage wegcleanen
@@ -52,12 +53,12 @@ public class CleanModel extends MissionModel {
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
-        super.read(json, jsonData);
+    public void read(IStateReader reader) throws IOException {
+        super.read(reader);
 
         // Der Wert darf nicht wieder gespeichert werden, um die Garbage nicht bei jedem Laden
         // wieder einzufügen
-        int insertGarbage = jsonData.getInt("initialGarbage", 0);
+        int insertGarbage = reader.getInt("initialGarbage", 0);
         getGameboard().initGarbage(insertGarbage);
 
         setReplayValidOnFirstStart();
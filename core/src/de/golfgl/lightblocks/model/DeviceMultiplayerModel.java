@@ -11,6 +11,7 @@ import de.golfgl.lightblocks.input.InputIdentifier;
 import de.golfgl.lightblocks.screen.AbstractScreen;
 import de.golfgl.lightblocks.screen.PlayScreen;
 import de.golfgl.lightblocks.screen.VetoException;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 
 /**
@@ -22,7 +23,10 @@ public class DeviceMultiplayerModel extends AbstractMultiplayerModel<DeviceMulti
 
     @Override
     public InitGameParameters getInitParameters() {
-        InitGameParameters retVal = super.getInitParameters();
+        InitGameParameters retVal = new InitGameParameters();
+        retVal.setBeginningLevel(getScore().getStartingLevel());
+        retVal.setInputKey(inputTypeKey);
+        retVal.setModeType(modeType);
         retVal.setGameMode(InitGameParameters.GameMode.DeviceMultiplayer);
 
         if (isFirstPlayer()) {
@@ -37,7 +41,9 @@ public class DeviceMultiplayerModel extends AbstractMultiplayerModel<DeviceMulti
         return MODEL_ID;
     }
 
-    @Override
+    /**
+     * checks if the game can be played on this device, called by the playscreen before the game is started
+     */
     public void checkPrerequisites(LightBlocksGame app) throws VetoException {
         int inputDevices = Controllers.getControllers().size +
                 ((Gdx.input.isPeripheralAvailable(Input.Peripheral.HardwareKeyboard)) ? 1 : 0);
@@ -48,7 +54,8 @@ public class DeviceMultiplayerModel extends AbstractMultiplayerModel<DeviceMulti
     }
 
     @Override
-    protected DeviceMultiplayerModel createSecondGameModel(InitGameParameters newGameParams) {
+    protected DeviceMultiplayerModel createSecondGameModel(GameParameters gameParams) {
+        InitGameParameters newGameParams = (InitGameParameters) gameParams;
         DeviceMultiplayerModel deviceMultiplayerModel = new DeviceMultiplayerModel();
         if (newGameParams.getFirstPlayerInputId() != null && newGameParams.getSecondPlayerInputId() != null) {
             myInputId = newGameParams.getFirstPlayerInputId();
@@ -58,10 +65,10 @@ public class DeviceMultiplayerModel extends AbstractMultiplayerModel<DeviceMulti
     }
 
     @Override
-    public void setUserInterface(LightBlocksGame app, PlayScreen userInterface, IGameModelListener uiGameboard) {
-        super.setUserInterface(app, userInterface, uiGameboard);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
         if (isFirstPlayer() && myInputId == null) {
-            playScreen.showOverlayMessage("labelDevMultiChooseDevice", String.valueOf(1));
+            GameModelClient.of(this).playScreen.showOverlayMessage("labelDevMultiChooseDevice", String.valueOf(1));
         }
     }
 
@@ -71,6 +78,7 @@ public class DeviceMultiplayerModel extends AbstractMultiplayerModel<DeviceMulti
         }
 
         if (getSecondGameModel().myInputId == null) {
+            PlayScreen playScreen = GameModelClient.of(this).playScreen;
             if (!inputId.isSameInput(myInputId) && !playScreen.isPaused()) {
                 getSecondGameModel().myInputId = inputId;
                 playScreen.showOverlayMessage(null);
@@ -83,6 +91,7 @@ public class DeviceMultiplayerModel extends AbstractMultiplayerModel<DeviceMulti
 
     private boolean isMyInput(InputIdentifier inputId) {
         if (myInputId == null) {
+            PlayScreen playScreen = GameModelClient.of(this).playScreen;
             if (!playScreen.isPaused()) {
                 // input not set yet, set it now
                 myInputId = inputId;
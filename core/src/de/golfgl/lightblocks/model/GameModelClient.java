@@ -0,0 +1,146 @@
+package de.golfgl.lightblocks.model;
+
+import de.golfgl.lightblocks.LightBlocksGame;
+import de.golfgl.lightblocks.gpgs.GaHelper;
+import de.golfgl.lightblocks.gpgs.GpgsHelper;
+import de.golfgl.lightblocks.screen.PlayScreen;
+import de.golfgl.lightblocks.state.BestScore;
+import de.golfgl.lightblocks.state.TotalScore;
+
+/**
+ * Verbindet ein GameModel mit dem Spiel: Gesamtpunktzahl, Bestenliste, GPGS und Playscreen.
+ * <p>
+ * Achievements werden über die Methoden des GameModels gemeldet, damit Unterklassen sie abfangen
+ * können
+ */
+public class GameModelClient implements IGameModelClient {
+    public final LightBlocksGame app;
+    public final PlayScreen playScreen;
+    public final TotalScore totalScore;
+    public final BestScore bestScore;
+
+    public GameModelClient(LightBlocksGame app, PlayScreen playScreen, TotalScore totalScore,
+                           BestScore bestScore) {
+        this.app = app;
+        this.playScreen = playScreen;
+        this.totalScore = totalScore;
+        this.bestScore = bestScore;
+    }
+
+    /**
+     * @return der Client des übergebenen Models, das auf einem Playscreen laufen muss
+     */
+    public static GameModelClient of(GameModel model) {
+        return (GameModelClient) model.getClient();
+    }
+
+    @Override
+    public boolean setMaxComboCount(int comboCount) {
+        boolean newMaxCombo = totalScore.setMaxComboCount(comboCount);
+        if (newMaxCombo)
+            totalScore.checkAchievements(app.gpgsClient);
+        return newMaxCombo;
+    }
+
+    @Override
+    public void setGameboardCriticalFill(boolean critical) {
+        playScreen.setGameboardCriticalFill(critical);
+    }
+
+    @Override
+    public boolean pieceDropped(GameModel model, int gainedScore, int removedLines) {
+        // Alle 10 Tetros auch Ereignis an GPGS melden
+        final int drawnTetrominos = model.getScore().getDrawnTetrominos();
+        if (Math.floor(drawnTetrominos / 10) > Math.floor((drawnTetrominos - 1) / 10))
+            model.submitEvent(GpgsHelper.EVENT_BLOCK_DROP, 10);
+
+        boolean isBestScore = bestScore.setBestScores(model.getScore());
+        totalScore.addScore(gainedScore);
+        totalScore.addClearedLines(removedLines);
+        totalScore.incDrawnTetrominos();
+        return isBestScore;
+    }
+
+    @Override
+    public void linesCleared(GameModel model, int removedLines, int gameboardFill) {
+        model.submitEvent(GpgsHelper.EVENT_LINES_CLEARED, removedLines);
+
+        final int clearedLines = model.getScore().getClearedLines();
+        if (clearedLines >= 100 && clearedLines - removedLines < 100)
+            model.gpgsUpdateAchievement(GpgsHelper.ACH_LONGCLEANER);
+
+        if (model.getScore().getDrawnTetrominos() > 10 && gameboardFill == 0)
+            model.gpgsUpdateAchievement(GpgsHelper.ACH_CLEAN_COMPLETE);
+
+        float fTotalClearedLines = totalScore.getClearedLines();
+        model.gpgsUpdateAchievement(GpgsHelper.ACH_ADDICTION_LEVEL_1, removedLines, fTotalClearedLines / 500);
+        model.gpgsUpdateAchievement(GpgsHelper.ACH_ADDICTION_LEVEL_2, removedLines, fTotalClearedLines / 5000);
+        model.gpgsUpdateAchievement(GpgsHelper.ACH_HIGH_LEVEL_ADDICTION, removedLines, fTotalClearedLines / 10000);
+    }
+
+    @Override
+    public void tSpin(GameModel model) {
+        totalScore.incTSpins();
+        model.gpgsUpdateAchievement(GpgsHelper.ACH_TSPIN);
+        model.gpgsUpdateAchievement(GpgsHelper.ACH_10_TSPINS, 1, (float) totalScore.getTSpins() / 10);
+    }
+
+    @Override
+    public void fourLinesCleared(GameModel model) {
+        totalScore.incFourLineCount();
+        model.gpgsUpdateAchievement(GpgsHelper.ACH_FOUR_LINES);
+        model.gpgsUpdateAchievement(GpgsHelper.ACH_100_FOUR_LINES, 1, (float) totalScore.getFourLineCount() / 100);
+    }
+
+    @Override
+    public void doubleSpecial(GameModel model, int specialRowChainNum) {
+        totalScore.incDoubles();
+
+        if (specialRowChainNum == 5)
+            model.gpgsUpdateAchievement(GpgsHelper.ACH_SPECIAL_CHAIN);
+        else
+            model.gpgsUpdateAchievement(GpgsHelper.ACH_DOUBLE_SPECIAL);
+    }
+
+    @Override
+    public void submitEvent(GameModel model, String eventId, int inc) {
+        if (app.gpgsClient != null)
+            app.gpgsClient.submitEvent(eventId, inc);
+
+        GaHelper.submitGameModelEvent(app, eventId, inc, model);
+    }
+
+    @Override
+    public void unlockAchievement(String achievementId) {
+        if (app.gpgsClient != null && app.gpgsClient.isSessionActive()) {
+            app.gpgsClient.unlockAchievement(achievementId);
+        }
+    }
+
+    @Override
+    public void incrementAchievement(String achievementId, int incNum, float completionPercentage) {
+        if (app.gpgsClient != null && app.gpgsClient.isSessionActive()) {
+            app.gpgsClient.incrementAchievement(achievementId, incNum, completionPercentage);
+        }
+    }
+
+    @Override
+    public void setGameOver() {
+        playScreen.setGameOver();
+    }
+
+    @Override
+    public void gameEnded(GameModel model, boolean success) {
+        String leaderboardId = GpgsHelper.getLeaderBoardIdByModelId(model.getIdentifier());
+        GameScore score = model.getScore();
+
+        if (leaderboardId != null && app.gpgsClient != null && app.gpgsClient.isSessionActive()) {
+            int leaderboardScore = score.getLeaderboardScore();
+            if (leaderboardScore > 0)
+                app.gpgsClient.submitToLeaderboard(leaderboardId, leaderboardScore, score.getLeaderboardTag());
+        }
+
+        model.submitEvent(GpgsHelper.EVENT_BLOCK_DROP, score.getDrawnTetrominos() % 10);
+        GaHelper.endGameEvent(app.gameAnalytics, model, success);
+    }
+}
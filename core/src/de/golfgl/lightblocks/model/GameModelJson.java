@@ -0,0 +1,53 @@
+package de.golfgl.lightblocks.model;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+import java.io.IOException;
+
+import de.golfgl.lightblocks.state.JsonStateReader;
+import de.golfgl.lightblocks.state.JsonStateWriter;
+
+/**
+ * Speichert und lädt GameModels als Json, für Spielstände und Missionen. Die Klasse des Models
+ * steht wie bei der libGDX-Serialisierung im Feld "class"
+ */
+public class GameModelJson {
+    private static final String KEY_CLASS = "class";
+
+    /**
+     * @return json string or null if saving the state is not allowed or supported
+     */
+    public static String toJson(GameModel gameModel) {
+        if (!gameModel.isSaveAllowed())
+            return null;
+
+        JsonStateWriter writer = new JsonStateWriter();
+        try {
+            writer.writeValue(KEY_CLASS, gameModel.getClass().getName());
+            gameModel.write(writer);
+        } catch (IOException e) {
+            // wird vom JsonStateWriter nicht geworfen
+            throw new IllegalStateException(e);
+        }
+        return writer.toJson();
+    }
+
+    public static GameModel fromJson(String json) {
+        JsonValue jsonData = new JsonReader().parse(json);
+
+        GameModel gameModel;
+        try {
+            gameModel = (GameModel) ClassReflection.newInstance(
+                    ClassReflection.forName(jsonData.getString(KEY_CLASS)));
+            gameModel.read(new JsonStateReader(jsonData));
+        } catch (ReflectionException e) {
+            throw new IllegalArgumentException("Unknown game model: " + jsonData.getString(KEY_CLASS, null), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Game model could not be read.", e);
+        }
+        return gameModel;
+    }
+}
@@ -1,8 +1,11 @@
 package de.golfgl.lightblocks.model;
 
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
+
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 
 /**
  * Mission mit Garbage
@@ -42,17 +45,17 @@ public class GarbageModel extends MissionModel {
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
-        super.read(json, jsonData);
-        this.garbageChance = jsonData.getFloat("garbageChance", 0.5f);
+    public void read(IStateReader reader) throws IOException {
+        super.read(reader);
+        this.garbageChance = reader.getFloat("garbageChance", 0.5f);
         
         setReplayValidOnFirstStart();
     }
 
     @Override
-    public void write(Json json) {
-        super.write(json);
-        json.writeValue("garbageChance", garbageChance);
+    public void write(IStateWriter writer) throws IOException {
+        super.write(writer);
+        writer.writeValue("garbageChance", garbageChance);
     }
 
 }
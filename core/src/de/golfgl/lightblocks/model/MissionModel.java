@@ -1,12 +1,12 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
 
-import de.golfgl.lightblocks.LightBlocksGame;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 import de.golfgl.lightblocks.input.InputIdentifier;
-import de.golfgl.lightblocks.screen.PlayScreen;
 import de.golfgl.lightblocks.state.BestScore;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 import de.golfgl.lightblocks.state.Replay;
 
@@ -61,7 +61,7 @@ public abstract class MissionModel extends GameModel {
     protected void addBonusScore(int bonusScore) {
         if (bonusScore > 0) {
             getScore().addBonusScore(bonusScore);
-            totalScore.addScore(bonusScore);
+            GameModelClient.of(this).totalScore.addScore(bonusScore);
             uiGameboard.updateScore(getScore(), bonusScore);
             uiGameboard.showMotivation(IGameModelListener.MotivationTypes.bonusScore, String.valueOf(bonusScore));
         }
@@ -76,7 +76,7 @@ public abstract class MissionModel extends GameModel {
             newRating = 7;
 
         getScore().setRating(newRating);
-        bestScore.setBestScores(getScore());
+        GameModelClient.of(this).bestScore.setBestScores(getScore());
 
         super.setGameOverWon(type);
     }
@@ -100,7 +100,7 @@ public abstract class MissionModel extends GameModel {
     }
 
     @Override
-    public void startNewGame(InitGameParameters newGameParams) {
+    public void startNewGame(GameParameters newGameParams) {
         throw new IllegalStateException("New game started with mission - not allowed");
     }
 
@@ -110,8 +110,9 @@ public abstract class MissionModel extends GameModel {
     }
 
     @Override
-    public void setUserInterface(LightBlocksGame app, PlayScreen playScreen, IGameModelListener uiGameboard) {
-        super.setUserInterface(app, playScreen, uiGameboard);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
+        GameModelClient.of(this).bestScore.setComparisonMethod(BestScore.ComparisonMethod.rating);
         if (welcomeMsgNum > 0)
             showNextWelcomeMsg();
     }
@@ -120,37 +121,35 @@ public abstract class MissionModel extends GameModel {
         curMsgIdx++;
 
         if (curMsgIdx <= welcomeMsgNum)
-            playScreen.showOverlayMessage(welcomeMsg + Integer.toString(curMsgIdx));
+            GameModelClient.of(this).playScreen.showOverlayMessage(welcomeMsg + Integer.toString(curMsgIdx));
         else {
             // Eigentliches Spiel beginnen
-            playScreen.showOverlayMessage(null);
+            GameModelClient.of(this).playScreen.showOverlayMessage(null);
             setCurrentSpeed();
         }
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
-        super.read(json, jsonData);
-        this.modelId = jsonData.getString("modelId");
-        this.welcomeMsgNum = jsonData.getInt("welcomeMsgNum", 0);
+    public void read(IStateReader reader) throws IOException {
+        super.read(reader);
+        this.modelId = reader.getString("modelId", null);
+        this.welcomeMsgNum = reader.getInt("welcomeMsgNum", 0);
         if (welcomeMsgNum > 0) {
-            this.welcomeMsg = jsonData.getString("welcomeMsgPref");
+            this.welcomeMsg = reader.getString("welcomeMsgPref", null);
             currentSpeed = 0;
         }
-        setMaxBlocksToUse(jsonData.getInt("maxBlocksToUse", 0));
-        this.topRatingScore = jsonData.getInt("topRatingScore", 0);
-        this.pauseMsg = jsonData.getString("pauseMsg", null);
+        setMaxBlocksToUse(reader.getInt("maxBlocksToUse", 0));
+        this.topRatingScore = reader.getInt("topRatingScore", 0);
+        this.pauseMsg = reader.getString("pauseMsg", null);
     }
 
     @Override
-    public void write(Json json) {
-        super.write(json);
-        json.writeValue("modelId", modelId);
-        if (getMaxBlocksToUse() > 0)
-            json.writeValue("maxBlocksToUse", getMaxBlocksToUse());
-        json.writeValue("topRatingScore", topRatingScore);
-        if (pauseMsg != null)
-            json.writeValue("pauseMsg", pauseMsg);
+    public void write(IStateWriter writer) throws IOException {
+        super.write(writer);
+        writer.writeValue("modelId", modelId);
+        writer.writeValue("maxBlocksToUse", getMaxBlocksToUse());
+        writer.writeValue("topRatingScore", topRatingScore);
+        writer.writeValue("pauseMsg", pauseMsg);
     }
 
     @Override
@@ -158,12 +157,6 @@ public abstract class MissionModel extends GameModel {
         return welcomeMsgNum == 0;
     }
 
-    @Override
-    public void setBestScore(BestScore bestScore) {
-        super.setBestScore(bestScore);
-        bestScore.setComparisonMethod(BestScore.ComparisonMethod.rating);
-    }
-
     @Override
     public boolean isHoldMoveAllowedByModel() {
         return false;
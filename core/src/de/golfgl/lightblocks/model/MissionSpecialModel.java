@@ -1,7 +1,9 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 
 /**
  * Spezialmission
@@ -60,18 +62,18 @@ public class MissionSpecialModel extends MissionModel {
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
-        super.read(json, jsonData);
-        this.numFourLines = jsonData.getInt("numFourLines", 0);
-        this.numTSpins = jsonData.getInt("numTSpins", 0);
-        this.numDoubleSpecials = jsonData.getInt("numDoubleSpecials", 0);
+    public void read(IStateReader reader) throws IOException {
+        super.read(reader);
+        this.numFourLines = reader.getInt("numFourLines", 0);
+        this.numTSpins = reader.getInt("numTSpins", 0);
+        this.numDoubleSpecials = reader.getInt("numDoubleSpecials", 0);
     }
 
     @Override
-    public void write(Json json) {
-        super.write(json);
-        json.writeValue("numTSpins", numTSpins);
-        json.writeValue("numFourLines", numFourLines);
-        json.writeValue("numDoubleSpecials", numDoubleSpecials);
+    public void write(IStateWriter writer) throws IOException {
+        super.write(writer);
+        writer.writeValue("numFourLines", numFourLines);
+        writer.writeValue("numTSpins", numTSpins);
+        writer.writeValue("numDoubleSpecials", numDoubleSpecials);
     }
 }
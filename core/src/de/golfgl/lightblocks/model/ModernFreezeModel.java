@@ -1,16 +1,18 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
 
-import de.golfgl.lightblocks.LightBlocksGame;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
+import de.golfgl.lightblocks.engine.IntList;
 import de.golfgl.lightblocks.gpgs.GpgsHelper;
 import de.golfgl.lightblocks.input.InputIdentifier;
-import de.golfgl.lightblocks.screen.PlayScreen;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 import de.golfgl.lightblocks.state.Replay;
 
@@ -64,7 +66,7 @@ public class ModernFreezeModel extends GameModel {
             isFreezed = true;
             freezeBonusMultiplier = freezeloadms >= MAX_FREEZEMS ? 2 : 1;
             freezedClearedLines = 0;
-            playScreen.startFreezeMode();
+            GameModelClient.of(this).playScreen.startFreezeMode();
             gpgsUpdateAchievement(GpgsHelper.ACH_FREEZER);
         }
 
@@ -122,8 +124,8 @@ public class ModernFreezeModel extends GameModel {
 
         // die vollen Reihen sammeln, außer natürlich die untersten
         int fullLinesNum = 0;
-        IntArray removedLines = new IntArray();
-        IntArray fullLines = new IntArray();
+        IntList removedLines = new IntList();
+        IntList fullLines = new IntList();
         boolean hadNonFullLine = false;
         for (int i = 0; i < Gameboard.GAMEBOARD_ALLROWS; i++) {
             if (getGameboard().isRowFull(i)) {
@@ -155,7 +157,7 @@ public class ModernFreezeModel extends GameModel {
             int removedLinesNum = fullLinesNum - freezedClearedLines;
             getScore().addBonusScore(freezeBonusMultiplier *
                     getScore().getClearedLinesScore(removedLinesNum, isTSpin));
-            totalScore.addClearedLines(removedLinesNum);
+            GameModelClient.of(this).totalScore.addClearedLines(removedLinesNum);
             freezedClearedLines = fullLinesNum;
 
             if (freezedClearedLines >= 10)
@@ -197,7 +199,7 @@ public class ModernFreezeModel extends GameModel {
         getScore().addBonusScore(100 * freezedClearedLines);
         freezedClearedLines = 0;
 
-        IntArray removedLines = new IntArray();
+        IntList removedLines = new IntList();
         for (int i = 0; i < Gameboard.GAMEBOARD_ALLROWS; i++) {
             if (getGameboard().isRowFull(i)) {
                 removedLines.add(i);
@@ -225,7 +227,7 @@ public class ModernFreezeModel extends GameModel {
             uiGameboard.showMotivation(IGameModelListener.MotivationTypes.endFreezeMode, String.valueOf(removedLineNum));
             clearAndInsertLines(removedLines, removedLineNum >= 8, null);
         }
-        playScreen.endFreezeMode();
+        GameModelClient.of(this).playScreen.endFreezeMode();
 
         setCurrentSpeed();
 
@@ -250,7 +252,7 @@ public class ModernFreezeModel extends GameModel {
     }
 
     @Override
-    public void startNewGame(InitGameParameters newGameParams) {
+    public void startNewGame(GameParameters newGameParams) {
         difficulty = newGameParams.getBeginningLevel();
         createAndFillSliceSpeed();
 
@@ -295,44 +297,44 @@ public class ModernFreezeModel extends GameModel {
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
-        super.read(json, jsonData);
-        difficulty = jsonData.getInt("difficulty");
-        freezeloadms = jsonData.getInt("freezeloadms");
-        freezeloadlines = jsonData.getInt("freezeloadlines");
-        isFreezed = jsonData.getBoolean("isFreezed");
-        freezedClearedLines = jsonData.getInt("freezedClearedLines");
-        freezeBonusMultiplier = jsonData.getInt("freezeBonusMultiplier");
-        sliceSpeed = new IntArray(json.readValue("sliceSpeed", int[].class, jsonData));
+    public void read(IStateReader reader) throws IOException {
+        super.read(reader);
+        difficulty = reader.getInt("difficulty", 0);
+        freezeloadms = reader.getInt("freezeloadms", 0);
+        freezeloadlines = reader.getInt("freezeloadlines", 0);
+        isFreezed = reader.getBoolean("isFreezed", false);
+        freezedClearedLines = reader.getInt("freezedClearedLines", 0);
+        freezeBonusMultiplier = reader.getInt("freezeBonusMultiplier", 0);
+        sliceSpeed = new IntArray(reader.getIntArray("sliceSpeed"));
     }
 
     @Override
-    public void setUserInterface(LightBlocksGame app, PlayScreen playScreen, IGameModelListener uiGameboard) {
-        super.setUserInterface(app, playScreen, uiGameboard);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
 
         if (isFreezed) {
             // volle reihen wieder markieren
-            IntArray fullLines = new IntArray();
+            IntList fullLines = new IntList();
             for (int i = 0; i < Gameboard.GAMEBOARD_ALLROWS; i++) {
                 if (getGameboard().isRowFull(i)) {
                     fullLines.add(i);
                 }
             }
 
-            uiGameboard.markAndMoveFreezedLines(false, new IntArray(), fullLines);
+            uiGameboard.markAndMoveFreezedLines(false, new IntList(), fullLines);
         }
     }
 
     @Override
-    public void write(Json json) {
-        super.write(json);
-        json.writeValue("difficulty", difficulty);
-        json.writeValue("freezeloadms", freezeloadms);
-        json.writeValue("freezeloadlines", freezeloadlines);
-        json.writeValue("isFreezed", isFreezed);
-        json.writeValue("freezedClearedLines", freezedClearedLines);
-        json.writeValue("freezeBonusMultiplier", freezeBonusMultiplier);
-        json.writeValue("sliceSpeed", sliceSpeed.items);
+    public void write(IStateWriter writer) throws IOException {
+        super.write(writer);
+        writer.writeValue("difficulty", difficulty);
+        writer.writeValue("freezeloadms", freezeloadms);
+        writer.writeValue("freezeloadlines", freezeloadlines);
+        writer.writeValue("isFreezed", isFreezed);
+        writer.writeValue("freezedClearedLines", freezedClearedLines);
+        writer.writeValue("freezeBonusMultiplier", freezeBonusMultiplier);
+        writer.writeValue("sliceSpeed", sliceSpeed.items);
     }
 
     @Override
@@ -346,9 +348,9 @@ public class ModernFreezeModel extends GameModel {
     }
 
     @Override
-    public Color getShownTimeColor() {
-        return isFreezed && freezeloadms > 100 ? app.theme.emphasizeColor :
-                freezeloadms >= MAX_FREEZEMS ? app.theme.focussedColor : app.theme.getScoreColorOrWhite();
+    public TimeHighlight getShownTimeHighlight() {
+        return isFreezed && freezeloadms > 100 ? TimeHighlight.emphasized :
+                freezeloadms >= MAX_FREEZEMS ? TimeHighlight.focussed : TimeHighlight.normal;
     }
 
     @Override
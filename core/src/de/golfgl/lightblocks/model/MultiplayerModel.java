@@ -2,8 +2,6 @@ package de.golfgl.lightblocks.model;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.Timer;
 
 import java.util.HashMap;
@@ -11,13 +9,15 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-import de.golfgl.lightblocks.LightBlocksGame;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 import de.golfgl.lightblocks.gpgs.GpgsHelper;
 import de.golfgl.lightblocks.multiplayer.AbstractMultiplayerRoom;
 import de.golfgl.lightblocks.multiplayer.MultiPlayerObjects;
 import de.golfgl.lightblocks.screen.MultiplayerPlayScreen;
-import de.golfgl.lightblocks.screen.PlayScreen;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
+import de.golfgl.lightblocks.state.TotalScore;
 import de.golfgl.lightblocks.state.MultiplayerMatch;
 
 /**
@@ -68,9 +68,9 @@ public class MultiplayerModel extends GameModel {
     }
 
     @Override
-    public String saveGameModel() {
+    public boolean isSaveAllowed() {
         // Saving multiplayer gamestate is unfortunately impossible
-        return null;
+        return false;
     }
 
     @Override
@@ -116,8 +116,8 @@ public class MultiplayerModel extends GameModel {
     }
 
     @Override
-    public void startNewGame(InitGameParameters newGameParams) {
-        playerRoom = newGameParams.getMultiplayerRoom();
+    public void startNewGame(GameParameters newGameParams) {
+        playerRoom = ((InitGameParameters) newGameParams).getMultiplayerRoom();
 
         Set<String> playersInRoom = playerRoom.getPlayers();
         playerInGame = new HashMap<String, MultiPlayerObjects.PlayerInGame>(playersInRoom.size());
@@ -286,6 +286,7 @@ public class MultiplayerModel extends GameModel {
                 @Override
                 public void run() {
                     if (!isGameOver()) {
+                        TotalScore totalScore = GameModelClient.of(MultiplayerModel.this).totalScore;
                         totalScore.incMultiPlayerMatchesWon();
                         totalScore.incMultiPlayerMatchesStarted();
                         setGameOverWon();
@@ -428,7 +429,8 @@ public class MultiplayerModel extends GameModel {
                             sp.playerId = null;
                             sp.nowPaused = false;
                             playerRoom.sendToAllPlayers(sp);
-                            ((MultiplayerPlayScreen) playScreen).multiPlayerGotModelMessage(sp);
+                            ((MultiplayerPlayScreen) GameModelClient.of(MultiplayerModel.this).playScreen)
+                                    .multiPlayerGotModelMessage(sp);
                         }
                     }
 
@@ -461,7 +463,7 @@ public class MultiplayerModel extends GameModel {
                 Gdx.app.postRunnable(new Runnable() {
                     @Override
                     public void run() {
-                        playScreen.playersInGameChanged(pig);
+                        GameModelClient.of(MultiplayerModel.this).playScreen.playersInGameChanged(pig);
                     }
                 });
 
@@ -477,7 +479,7 @@ public class MultiplayerModel extends GameModel {
             Gdx.app.postRunnable(new Runnable() {
                 @Override
                 public void run() {
-                    playScreen.playersGameboardChanged(gameboardInfo);
+                    GameModelClient.of(MultiplayerModel.this).playScreen.playersGameboardChanged(gameboardInfo);
                 }
             });
         }
@@ -489,8 +491,9 @@ public class MultiplayerModel extends GameModel {
             public void run() {
                 getScore().addBonusScore(score);
                 // Highscores updaten
-                bestScore.setBestScores(getScore());
-                totalScore.addScore(score);
+                GameModelClient client = GameModelClient.of(MultiplayerModel.this);
+                client.bestScore.setBestScores(getScore());
+                client.totalScore.addScore(score);
                 uiGameboard.updateScore(getScore(), score);
             }
         });
@@ -513,7 +516,7 @@ public class MultiplayerModel extends GameModel {
             Gdx.app.postRunnable(new Runnable() {
                 @Override
                 public void run() {
-                    playScreen.playersInGameChanged(pig);
+                    GameModelClient.of(MultiplayerModel.this).playScreen.playersInGameChanged(pig);
 
                     if (!isGameOver())
                         uiGameboard.showMotivation(IGameModelListener.MotivationTypes.playerOver, playerId);
@@ -567,18 +570,18 @@ public class MultiplayerModel extends GameModel {
         final MultiPlayerObjects.PlayerIsOver playerOverMsg = new MultiPlayerObjects.PlayerIsOver();
         playerOverMsg.playerId = playerRoom.getMyPlayerId();
         playerRoom.sendToReferee(playerOverMsg);
-        totalScore.incMultiPlayerMatchesStarted();
+        GameModelClient.of(this).totalScore.incMultiPlayerMatchesStarted();
 
         super.setGameOverBoardFull();
     }
 
     @Override
-    public void setUserInterface(LightBlocksGame app, PlayScreen playScreen, IGameModelListener uiGameboard) {
-        super.setUserInterface(app, playScreen, uiGameboard);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
 
         synchronized (playerInGame) {
             for (MultiPlayerObjects.PlayerInGame pig : playerInGame.values())
-                this.playScreen.playersInGameChanged(pig);
+                GameModelClient.of(this).playScreen.playersInGameChanged(pig);
         }
 
     }
@@ -597,12 +600,12 @@ public class MultiplayerModel extends GameModel {
     }
 
     @Override
-    public void write(Json json) {
+    public void write(IStateWriter writer) {
         throw new UnsupportedOperationException("Not allowed in multiplayer");
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
+    public void read(IStateReader reader) {
         throw new UnsupportedOperationException("Not allowed in multiplayer");
     }
 
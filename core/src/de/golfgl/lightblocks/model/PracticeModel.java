@@ -1,12 +1,16 @@
 package de.golfgl.lightblocks.model;
 
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
 
+import java.io.IOException;
+
 import de.golfgl.lightblocks.LightBlocksGame;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 import de.golfgl.lightblocks.state.BestScore;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 
 /**
@@ -58,7 +62,7 @@ public class PracticeModel extends GameModel {
     }
 
     @Override
-    public void startNewGame(InitGameParameters newGameParams) {
+    public void startNewGame(GameParameters newGameParams) {
         modeType = newGameParams.getModeType();
         super.startNewGame(newGameParams);
     }
@@ -82,10 +86,10 @@ public class PracticeModel extends GameModel {
     }
 
     @Override
-    public void setBestScore(BestScore bestScore) {
-        super.setBestScore(bestScore);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
         // bei Practice sind die meisten abgelegten Blöcke maßgeblich
-        bestScore.setComparisonMethod(BestScore.ComparisonMethod.blocks);
+        GameModelClient.of(this).bestScore.setComparisonMethod(BestScore.ComparisonMethod.blocks);
     }
 
     @Override
@@ -107,14 +111,15 @@ public class PracticeModel extends GameModel {
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
-        modeType = jsonData.getInt("modeType", InitGameParameters.TYPE_CLASSIC);
-        super.read(json, jsonData);
+    public void read(IStateReader reader) throws IOException {
+        modeType = reader.getInt("modeType", InitGameParameters.TYPE_CLASSIC);
+        super.read(reader);
     }
 
     @Override
-    public void write(Json json) {
-        super.write(json);
-        json.writeValue("modeType", modeType);
+    public void write(IStateWriter writer) throws IOException {
+        // vor dem GameModel, weil die Rotation davon abhängt
+        writer.writeValue("modeType", modeType);
+        super.write(writer);
     }
 }
@@ -1,7 +1,9 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 
 /**
  * Type A "Relax" Modell mit Ziel eine bestimmte Anzahl Reihen oder Score mit begrenzten Blöcken zu machen
@@ -39,16 +41,16 @@ public class RelaxModel extends MissionModel {
 
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
-        super.read(json, jsonData);
-        this.linesToClear = jsonData.getInt("linesToClear", 0);
+    public void read(IStateReader reader) throws IOException {
+        super.read(reader);
+        this.linesToClear = reader.getInt("linesToClear", 0);
 
         setReplayValidOnFirstStart();
     }
 
     @Override
-    public void write(Json json) {
-        super.write(json);
-        json.writeValue("linesToClear", linesToClear);
+    public void write(IStateWriter writer) throws IOException {
+        super.write(writer);
+        writer.writeValue("linesToClear", linesToClear);
     }
 }
@@ -10,7 +10,7 @@ import de.golfgl.lightblocks.state.InitGameParameters;
 
 public class SprintModel extends GameModel {
     public static final String MODEL_SPRINT_ID = "sprint40";
-    public static final int NUM_LINES_TO_CLEAR = 40;
+    public static final int NUM_LINES_TO_CLEAR = GameScore.SPRINT_LINES_TO_CLEAR;
 
     public static boolean isUnlocked(LightBlocksGame app) {
         return app.savegame.getBestScore(Mission.MISSION10ACHIEVEMENT).getRating() > 0
@@ -62,10 +62,10 @@ public class SprintModel extends GameModel {
     }
 
     @Override
-    public void setBestScore(BestScore bestScore) {
-        super.setBestScore(bestScore);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
         // bei Practice sind die meisten abgelegten Blöcke maßgeblich
-        bestScore.setComparisonMethod(BestScore.ComparisonMethod.sprint);
+        GameModelClient.of(this).bestScore.setComparisonMethod(BestScore.ComparisonMethod.sprint);
     }
 
     @Override
@@ -85,9 +85,9 @@ public class SprintModel extends GameModel {
     }
 
     @Override
-    public String saveGameModel() {
+    public boolean isSaveAllowed() {
         // speichern unterdrücken
-        return null;
+        return false;
     }
 
     @Override
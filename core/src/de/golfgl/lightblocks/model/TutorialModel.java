@@ -1,12 +1,11 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
-
-import de.golfgl.lightblocks.LightBlocksGame;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 import de.golfgl.lightblocks.input.InputIdentifier;
 import de.golfgl.lightblocks.input.PlayScreenInput;
-import de.golfgl.lightblocks.screen.PlayScreen;
+import de.golfgl.lightblocks.state.BestScore;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 
 /**
@@ -37,10 +36,10 @@ public class TutorialModel extends GameModel {
         tutorialStep++;
 
         if (tutorialStep <= 14)
-            playScreen.showOverlayMessage("tutorialStep" + Integer.toString(tutorialStep));
+            GameModelClient.of(this).playScreen.showOverlayMessage("tutorialStep" + Integer.toString(tutorialStep));
         else {
             // Eigentliches Spiel beginnen
-            playScreen.showOverlayMessage(null);
+            GameModelClient.of(this).playScreen.showOverlayMessage(null);
             setCurrentSpeed();
         }
     }
@@ -64,6 +63,7 @@ public class TutorialModel extends GameModel {
 
             score.setRating(currentRating);
 
+            BestScore bestScore = GameModelClient.of(this).bestScore;
             if (bestScore.getRating() < currentRating)
                 bestScore.setRating(currentRating);
 
@@ -142,12 +142,12 @@ public class TutorialModel extends GameModel {
     }
 
     @Override
-    public void write(Json json) {
+    public void write(IStateWriter writer) {
         throw new UnsupportedOperationException("Not allowed for tutorial");
     }
 
     @Override
-    public void read(Json json, JsonValue jsonData) {
+    public void read(IStateReader reader) {
         throw new UnsupportedOperationException("Not allowed for tutorial");
     }
 
@@ -157,7 +157,7 @@ public class TutorialModel extends GameModel {
     }
 
     @Override
-    public void startNewGame(InitGameParameters newGameParams) {
+    public void startNewGame(GameParameters newGameParams) {
         super.startNewGame(newGameParams);
 
         // und immer nur Eingabe per Touch
@@ -165,8 +165,8 @@ public class TutorialModel extends GameModel {
     }
 
     @Override
-    public void setUserInterface(LightBlocksGame app, PlayScreen playScreen, IGameModelListener uiGameboard) {
-        super.setUserInterface(app, playScreen, uiGameboard);
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        super.setUserInterface(client, uiGameboard);
         nextTutorialStep();
     }
 
@@ -197,9 +197,9 @@ public class TutorialModel extends GameModel {
     }
 
     @Override
-    public String saveGameModel() {
+    public boolean isSaveAllowed() {
         // Saving gamestate is not necessary for tutorial
-        return null;
+        return false;
     }
 
 }
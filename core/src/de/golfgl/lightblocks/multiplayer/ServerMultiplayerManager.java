@@ -5,6 +5,7 @@ import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
 import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.Timer;
 import com.github.czyzby.websocket.WebSocket;
 import com.github.czyzby.websocket.WebSocketListener;
 import com.github.czyzby.websocket.WebSockets;
@@ -16,8 +17,20 @@ public class ServerMultiplayerManager {
     public static final String ID_SERVERINFO = "HSH";
     public static final String ID_PLAYERINFO = "PIN";
     public static final String ID_MATCHINFO = "MCH";
+    public static final String ID_SESSIONINFO = "SSN";
+    // server version supporting the protocol version negotiation
+    public static final int SERVER_VERSION_PROTOCOL = 2;
+    public static final int PROTOCOL_VERSION_BINARY = 1;
+    public static final int SERVER_VERSION_RESUME = 3;
+    // binary protocol plus session resume
+    public static final int PROTOCOL_VERSION_RESUME = 2;
+    public static final int SERVER_VERSION_COMPACT_BOARD = 4;
+    // the server keeps the slot 15 seconds after the connection was lost
+    private static final int MAX_RESUME_ATTEMPTS = 5;
+    private static final float RESUME_DELAY = 2f;
     private final LightBlocksGame app;
 
+    private String address;
     private WebSocket socket;
     private long startTimePing;
     private int pingMs = -1;
@@ -26,6 +39,17 @@ public class ServerMultiplayerManager {
     private JsonReader jsonReader = new JsonReader();
     private ServerModels.ServerInfo serverInfo;
     private ServerMultiplayerModel gameModel;
+    // session of the running game to resume after the connection was lost, null if the server can't
+    private String sessionToken;
+    // sequence number of the last binary frame received, sent back on a resume
+    private long eventSeq;
+    private int resumeAttempts;
+    private final Timer.Task resumeTask = new Timer.Task() {
+        @Override
+        public void run() {
+            resume();
+        }
+    };
 
     public ServerMultiplayerManager(LightBlocksGame app) {
         this.app = app;
@@ -41,19 +65,51 @@ public class ServerMultiplayerManager {
     public void connect(String address) {
         if (isClosed()) {
             lastErrorMsg = null;
-            this.socket = WebSockets.newSocket(address);
-            socket.setSendGracefully(true);
-            socket.addListener(new SocketListener());
-            try {
-                socket.connect();
-                state = PlayState.CONNECTING;
-            } catch (Throwable t) {
-                lastErrorMsg = t.getMessage();
-                clear();
-            }
+            this.address = address;
+            state = PlayState.CONNECTING;
+            openSocket();
         }
     }
 
+    private void openSocket() {
+        this.socket = WebSockets.newSocket(address);
+        socket.setSendGracefully(true);
+        socket.addListener(new SocketListener());
+        try {
+            socket.connect();
+        } catch (Throwable t) {
+            lastErrorMsg = t.getMessage();
+            clear();
+        }
+    }
+
+    /**
+     * connects again after the connection was lost during a game, the session is resumed when the
+     * server sent its information
+     */
+    private void resume() {
+        if (state != PlayState.RESUMING || gameModel == null)
+            return;
+
+        resumeAttempts++;
+        Gdx.app.log("WS", "Resuming session, attempt " + resumeAttempts);
+        openSocket();
+    }
+
+    /**
+     * @return true if the session is resumed with the next attempt, false if the game is lost
+     */
+    private boolean scheduleResume() {
+        if (state != PlayState.IN_GAME && state != PlayState.RESUMING || gameModel == null
+                || sessionToken == null || resumeAttempts >= MAX_RESUME_ATTEMPTS)
+            return false;
+
+        state = PlayState.RESUMING;
+        if (!resumeTask.isScheduled())
+            Timer.schedule(resumeTask, RESUME_DELAY);
+        return true;
+    }
+
     public void disconnect() {
         if (!isClosed() && socket.isClosed()) {
             clear();
@@ -82,6 +138,13 @@ public class ServerMultiplayerManager {
         return state == PlayState.LOBBY || state == PlayState.IN_GAME;
     }
 
+    /**
+     * @return true while the connection is established again after it was lost during a game
+     */
+    public boolean isResuming() {
+        return state == PlayState.RESUMING;
+    }
+
     public void doPing() {
         if (isConnected()) {
             pingMs = -1;
@@ -92,20 +155,50 @@ public class ServerMultiplayerManager {
 
     public void doStartGame(ServerMultiplayerModel serverMultiplayerModel) {
         this.gameModel = serverMultiplayerModel;
+        sessionToken = null;
+        resumeAttempts = 0;
         // starting the game by sending player information
+        socket.send(ID_PLAYERINFO + newPlayerInfo().toJson(JsonWriter.OutputType.json));
+        state = PlayState.IN_GAME;
+    }
+
+    private void sendResume() {
+        JsonValue playerInfo = newPlayerInfo();
+        playerInfo.addChild("resumeToken", new JsonValue(sessionToken));
+        playerInfo.addChild("lastEventSeq", new JsonValue(eventSeq));
+
+        socket.send(ID_PLAYERINFO + playerInfo.toJson(JsonWriter.OutputType.json));
+        state = PlayState.IN_GAME;
+    }
+
+    private JsonValue newPlayerInfo() {
         JsonValue playerInfo = new JsonValue(JsonValue.ValueType.object);
         playerInfo.addChild("nickName", new JsonValue(app.player.getName()));
         if (app.backendManager.hasUserId()) {
             playerInfo.addChild("userId", new JsonValue(app.backendManager.ownUserId()));
         }
-
-        socket.send(ID_PLAYERINFO + playerInfo.toJson(JsonWriter.OutputType.json));
-        state = PlayState.IN_GAME;
+        if (serverInfo != null && serverInfo.version >= SERVER_VERSION_PROTOCOL) {
+            // older servers would refuse the unknown field
+            playerInfo.addChild("protocolVersion", new JsonValue(serverInfo.version >= SERVER_VERSION_RESUME
+                    ? PROTOCOL_VERSION_RESUME : PROTOCOL_VERSION_BINARY));
+        }
+        if (serverInfo != null && serverInfo.version >= SERVER_VERSION_COMPACT_BOARD) {
+            playerInfo.addChild("compactBoard", new JsonValue(true));
+        }
+        return playerInfo;
     }
 
     public void doStopGame() {
         this.gameModel = null;
-        if (isConnected()) {
+        sessionToken = null;
+        if (isResuming()) {
+            // the lost connection is not noticed by the listener anymore
+            resumeTask.cancel();
+            WebSocket resumingSocket = socket;
+            clear();
+            if (!resumingSocket.isClosed())
+                resumingSocket.close();
+        } else if (isConnected()) {
             socket.close();
         }
     }
@@ -124,10 +217,23 @@ public class ServerMultiplayerManager {
         serverInfo.owner = jsonValue.getString("owner", null);
         serverInfo.version = jsonValue.getInt("version");
 
+        if (state == PlayState.RESUMING) {
+            sendResume();
+            return;
+        }
         state = PlayState.LOBBY;
         doPing();
     }
 
+    private void handleSessionInfo(String json) {
+        JsonValue jsonValue = this.jsonReader.parse(json);
+
+        // the session was started or resumed, the following binary frames are counted from here
+        sessionToken = jsonValue.getString("token");
+        eventSeq = jsonValue.getLong("eventSeq");
+        resumeAttempts = 0;
+    }
+
     public int getLastPingTime() {
         return pingMs;
     }
@@ -138,7 +244,7 @@ public class ServerMultiplayerManager {
         }
     }
 
-    public enum PlayState {CONNECTING, LOBBY, IN_GAME, CLOSED}
+    public enum PlayState {CONNECTING, LOBBY, IN_GAME, RESUMING, CLOSED}
 
     private class SocketListener implements WebSocketListener {
         @Override
@@ -148,7 +254,16 @@ public class ServerMultiplayerManager {
 
         @Override
         public boolean onClose(WebSocket webSocket, WebSocketCloseCode code, String reason) {
+            if (webSocket != socket) {
+                // an earlier connection of a resumed session
+                return false;
+            }
             Gdx.app.debug("WS", "Closed: " + webSocket.getUrl());
+
+            // only a lost connection is resumed, not one the server closed on purpose
+            if (code == WebSocketCloseCode.ABNORMAL && scheduleResume()) {
+                return false;
+            }
             clear();
 
             if (code != WebSocketCloseCode.NORMAL && reason != null) {
@@ -162,6 +277,9 @@ public class ServerMultiplayerManager {
 
         @Override
         public boolean onMessage(WebSocket webSocket, String packet) {
+            if (webSocket != socket) {
+                return true;
+            }
             Gdx.app.debug("WS", "Received: " + packet);
 
             try {
@@ -173,6 +291,9 @@ public class ServerMultiplayerManager {
                 if (packet.startsWith(ID_SERVERINFO)) {
                     handleServerInfo(packet.substring(ID_SERVERINFO.length()));
                     return true;
+                } else if (packet.startsWith(ID_SESSIONINFO)) {
+                    handleSessionInfo(packet.substring(ID_SESSIONINFO.length()));
+                    return true;
                 } else if (gameModel != null) {
                     gameModel.queueMessage(packet);
                     return true;
@@ -187,16 +308,29 @@ public class ServerMultiplayerManager {
 
         @Override
         public boolean onMessage(WebSocket webSocket, byte[] packet) {
-            return false;
+            if (webSocket != socket) {
+                return true;
+            }
+            if (sessionToken != null)
+                eventSeq++;
+            if (gameModel != null) {
+                gameModel.queueMessage(packet);
+                return true;
+            }
+            Gdx.app.error("Server", "Unhandled binary message, length " + packet.length);
+            return true;
         }
 
         @Override
         public boolean onError(WebSocket webSocket, Throwable error) {
             Gdx.app.error("Server", "Error received", error);
+            if (webSocket != socket) {
+                return true;
+            }
 
             lastErrorMsg = error.getMessage();
 
-            if (socket.isClosed()) {
+            if (socket.isClosed() && !scheduleResume()) {
                 clear();
             }
 
@@ -2,25 +2,43 @@ package de.golfgl.lightblocks.multiplayer;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Base64Coder;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.Queue;
 
-import de.golfgl.lightblocks.LightBlocksGame;
+import de.golfgl.lightblocks.engine.IntList;
 import de.golfgl.lightblocks.input.InputIdentifier;
 import de.golfgl.lightblocks.input.PlayScreenInput;
 import de.golfgl.lightblocks.model.GameModel;
+import de.golfgl.lightblocks.model.GameModelClient;
 import de.golfgl.lightblocks.model.GameScore;
 import de.golfgl.lightblocks.model.Gameboard;
+import de.golfgl.lightblocks.model.IGameModelClient;
 import de.golfgl.lightblocks.model.IGameModelListener;
 import de.golfgl.lightblocks.model.Tetromino;
 import de.golfgl.lightblocks.screen.PlayScreen;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.InitGameParameters;
 
 public class ServerMultiplayerModel extends GameModel {
     public static final String MODEL_ID = "serverMultiplayer";
-    private final Queue<String> messageQueue = new Queue<>();
+    // binary protocol, see server's BinaryProtocol
+    private static final int BINARY_FLAG_OPPONENT = 0x80;
+    private static final int BINARY_MOVE = 1;
+    private static final int BINARY_ROTATE = 2;
+    private static final int BINARY_CLEAR_AND_INSERT = 3;
+    private static final int BINARY_GAME_OVER = 4;
+    private static final int BINARY_NEXT_PIECE = 5;
+    private static final int BINARY_ACTIVATE_NEXT = 6;
+    private static final int BINARY_HOLD = 7;
+    private static final int BINARY_HOLD_AND_ACTIVE = 8;
+    private static final int BINARY_PIN = 9;
+    private static final int BINARY_SCORE = 10;
+    private static final int BINARY_CONFLICT = 11;
+    private static final int BINARY_MOTIVATION = 12;
+    private static final int BINARY_GARBAGE_AMOUNT = 13;
+    private final Queue<Object> messageQueue = new Queue<>();
     private final ServerMultiplayerModel secondModel;
     private ServerMultiplayerManager serverMultiplayerManager;
     private ServerScore serverScore;
@@ -30,6 +48,7 @@ public class ServerMultiplayerModel extends GameModel {
     private boolean isFirst;
     private boolean isModern;
     private boolean isClosed;
+    private boolean isResuming;
 
     public ServerMultiplayerModel() {
         this(true);
@@ -60,8 +79,8 @@ public class ServerMultiplayerModel extends GameModel {
     }
 
     @Override
-    public String saveGameModel() {
-        return null;
+    public boolean isSaveAllowed() {
+        return false;
     }
 
     @Override
@@ -84,9 +103,10 @@ public class ServerMultiplayerModel extends GameModel {
     public void update(float delta) {
         synchronized (messageQueue) {
             while (messageQueue.notEmpty()) {
-                String packet = messageQueue.removeFirst();
+                Object packet = messageQueue.removeFirst();
                 try {
-                    boolean processed = processMessage(packet);
+                    boolean processed = packet instanceof byte[] ? processBinaryMessage((byte[]) packet)
+                            : processMessage((String) packet);
                     if (!processed) {
                         Gdx.app.error("Server", "Unhandled message message: " + packet);
                     }
@@ -96,7 +116,16 @@ public class ServerMultiplayerModel extends GameModel {
             }
         }
 
-        if (!isClosed && !serverMultiplayerManager.isConnected()) {
+        PlayScreen playScreen = GameModelClient.of(this).playScreen;
+        if (isResuming != serverMultiplayerManager.isResuming()) {
+            isResuming = !isResuming;
+            if (isResuming)
+                playScreen.showOverlayMessage("", "Connection lost, reconnecting...");
+            else
+                playScreen.showOverlayMessage(null);
+        }
+
+        if (!isClosed && !isResuming && !serverMultiplayerManager.isConnected()) {
             isClosed = true;
             if (serverMultiplayerManager.getLastErrorMsg() != null)
                 playScreen.showOverlayMessage("", serverMultiplayerManager.getLastErrorMsg());
@@ -115,8 +144,8 @@ public class ServerMultiplayerModel extends GameModel {
     }
 
     @Override
-    public void startNewGame(InitGameParameters newGameParams) {
-        serverMultiplayerManager = newGameParams.getServerMultiplayerManager();
+    public void startNewGame(GameParameters newGameParams) {
+        serverMultiplayerManager = ((InitGameParameters) newGameParams).getServerMultiplayerManager();
         inputTypeKey = PlayScreenInput.KEY_KEYORTOUCH;
         serverScore = new ServerScore();
 
@@ -131,9 +160,8 @@ public class ServerMultiplayerModel extends GameModel {
     }
 
     @Override
-    public void setUserInterface(LightBlocksGame app, PlayScreen userInterface, IGameModelListener uiGameboard) {
-        this.app = app;
-        this.playScreen = userInterface;
+    public void setUserInterface(IGameModelClient client, IGameModelListener uiGameboard) {
+        this.client = client;
         this.uiGameboard = uiGameboard;
 
         if (isFirst) {
@@ -150,6 +178,10 @@ public class ServerMultiplayerModel extends GameModel {
         final int dx = Integer.parseInt(sdx);
         final int dy = Integer.parseInt(sdy);
 
+        onTetroMoved(dx, dy, ghostPieceDistance);
+    }
+
+    private void onTetroMoved(int dx, int dy, int ghostPieceDistance) {
         if (!gameOver) {
             uiGameboard.moveTetro(ServerMultiplayerModel.this.activePiecePos, dx, dy, ghostPieceDistance);
 
@@ -230,14 +262,19 @@ public class ServerMultiplayerModel extends GameModel {
         }
 
         final int[][] gameboard = new int[Gameboard.GAMEBOARD_ALLROWS][Gameboard.GAMEBOARD_COLUMNS];
-        String gameboardString = playerJson.getString("gameboard");
-        for (int y = 0; y < Gameboard.GAMEBOARD_ALLROWS; y++) {
-            for (int x = 0; x < Gameboard.GAMEBOARD_COLUMNS; x++) {
-                int pos = y * Gameboard.GAMEBOARD_COLUMNS + x;
-                if (gameboardString.length() > pos)
-                    gameboard[y][x] = Gameboard.gameboardCharToSquare(gameboardString.charAt(pos));
-                else
-                    gameboard[y][x] = Gameboard.SQUARE_EMPTY;
+        String compactBoard = playerJson.getString("board", null);
+        if (compactBoard != null) {
+            readCompactBoard(Base64Coder.decode(compactBoard), gameboard);
+        } else {
+            String gameboardString = playerJson.getString("gameboard");
+            for (int y = 0; y < Gameboard.GAMEBOARD_ALLROWS; y++) {
+                for (int x = 0; x < Gameboard.GAMEBOARD_COLUMNS; x++) {
+                    int pos = y * Gameboard.GAMEBOARD_COLUMNS + x;
+                    if (gameboardString.length() > pos)
+                        gameboard[y][x] = Gameboard.gameboardCharToSquare(gameboardString.charAt(pos));
+                    else
+                        gameboard[y][x] = Gameboard.SQUARE_EMPTY;
+                }
             }
         }
 
@@ -247,6 +284,33 @@ public class ServerMultiplayerModel extends GameModel {
         gameOver = false;
     }
 
+    /**
+     * decodes a board encoded by the server's BoardCodec: row count, bitplane of occupied squares,
+     * run-length encoded square types
+     */
+    private static void readCompactBoard(byte[] board, int[][] gameboard) {
+        final int rowCount = board[0] & 0xff;
+        int runPos = 1 + (rowCount * Gameboard.GAMEBOARD_COLUMNS + 7) / 8;
+        int runType = 0;
+        int runLength = 0;
+        for (int y = 0; y < Gameboard.GAMEBOARD_ALLROWS; y++) {
+            for (int x = 0; x < Gameboard.GAMEBOARD_COLUMNS; x++) {
+                int bit = y * Gameboard.GAMEBOARD_COLUMNS + x;
+                if (y >= rowCount || (board[1 + bit / 8] & (0x80 >> (bit % 8))) == 0) {
+                    gameboard[y][x] = Gameboard.SQUARE_EMPTY;
+                    continue;
+                }
+                if (runLength == 0) {
+                    runType = (board[runPos] & 0xff) >> 4;
+                    runLength = (board[runPos] & 0xf) + 1;
+                    runPos++;
+                }
+                gameboard[y][x] = runType;
+                runLength--;
+            }
+        }
+    }
+
     private int parsePieceString(String pieceString, Integer[][] boardBlockPositions) {
         int pos = parseBlockPositions(pieceString, 0, boardBlockPositions);
         final String strBlockType = parseUntilNext(pieceString, pos, "-");
@@ -260,6 +324,10 @@ public class ServerMultiplayerModel extends GameModel {
         final String strGhostDis = parseUntilNext(payload, pos, "-");
         final int ghostPieceDistance = Integer.parseInt(strGhostDis);
 
+        onRotateTetro(boardBlockPositions, ghostPieceDistance);
+    }
+
+    private void onRotateTetro(Integer[][] boardBlockPositions, int ghostPieceDistance) {
         if (!gameOver) {
             uiGameboard.rotateTetro(ServerMultiplayerModel.this.activePiecePos, boardBlockPositions, ghostPieceDistance);
             ServerMultiplayerModel.this.activePiecePos = boardBlockPositions;
@@ -273,23 +341,27 @@ public class ServerMultiplayerModel extends GameModel {
         final boolean isSpecial = specialString.equals("S");
         int nextPos = 1 + clearLinesString.length() + 1 + specialString.length() + 1;
 
-        final IntArray linesToRemove = parseToIntArray(clearLinesString, "|");
+        final IntList linesToRemove = parseToIntArray(clearLinesString, "|");
 
-        final IntArray gapPos;
+        final IntList gapPos;
         if (payload.length() > nextPos) {
             String gapPosString = parseUntilNext(payload, nextPos, "-");
             gapPos = parseToIntArray(gapPosString, "|");
         } else {
-            gapPos = new IntArray();
+            gapPos = new IntList();
         }
 
+        onClearInsert(linesToRemove, isSpecial, gapPos.toArray());
+    }
+
+    private void onClearInsert(IntList linesToRemove, boolean isSpecial, int[] gapPos) {
         if (!gameOver) {
-            uiGameboard.clearAndInsertLines(linesToRemove, isSpecial, gapPos.toArray());
+            uiGameboard.clearAndInsertLines(linesToRemove, isSpecial, gapPos);
         }
     }
 
-    private IntArray parseToIntArray(String payload, String delimiter) {
-        IntArray retVal = new IntArray();
+    private IntList parseToIntArray(String payload, String delimiter) {
+        IntList retVal = new IntList();
         int pos = 0;
         while (pos < payload.length()) {
             String nextVal = parseUntilNext(payload, pos, delimiter);
@@ -310,10 +382,13 @@ public class ServerMultiplayerModel extends GameModel {
         final String blockTypeString = parseUntilNext(payload, pos, "-");
         final int blockType = Integer.parseInt(blockTypeString);
 
+        onNextTetro(boardBlockPositions, blockType);
+    }
+
+    private void onNextTetro(Integer[][] boardBlockPositions, int blockType) {
         if (!gameOver) {
             uiGameboard.showNextTetro(boardBlockPositions, blockType);
         }
-
     }
 
     private void handleActivateNextTetro(final String payload) {
@@ -324,6 +399,10 @@ public class ServerMultiplayerModel extends GameModel {
         final String strGhostDis = parseUntilNext(payload, pos + strBlockType.length() + 1, "-");
         final int ghostPieceDistance = Integer.parseInt(strGhostDis);
 
+        onActivateNextTetro(boardBlockPositions, blockType, ghostPieceDistance);
+    }
+
+    private void onActivateNextTetro(Integer[][] boardBlockPositions, int blockType, int ghostPieceDistance) {
         if (!gameOver) {
             ServerMultiplayerModel.this.activePiecePos = boardBlockPositions;
             uiGameboard.activateNextTetro(boardBlockPositions, blockType, ghostPieceDistance);
@@ -364,6 +443,10 @@ public class ServerMultiplayerModel extends GameModel {
             activePiecePos = null;
         }
 
+        onSwapHoldAndActive(holdPiecePos, ghostPieceDistance, activePiecePos);
+    }
+
+    private void onSwapHoldAndActive(Integer[][] holdPiecePos, int ghostPieceDistance, Integer[][] activePiecePos) {
         if (!gameOver) {
             uiGameboard.swapHoldAndActivePiece(holdPiecePos, ServerMultiplayerModel.this.activePiecePos, activePiecePos,
                     ghostPieceDistance, 0);
@@ -386,12 +469,32 @@ public class ServerMultiplayerModel extends GameModel {
         }
     }
 
+    private void onScore(int score, int level, int lines) {
+        if (!gameOver) {
+            serverScore.setScoreInformation(score, level, lines);
+            uiGameboard.updateScore(serverScore, 0);
+        }
+    }
+
     private void handleMotivation(String payload) {
-        uiGameboard.showMotivation(IGameModelListener.MotivationTypes.freeText, payload.substring(1));
+        onMotivation(payload.substring(1));
+    }
+
+    private void onMotivation(String text) {
+        uiGameboard.showMotivation(IGameModelListener.MotivationTypes.freeText, text);
     }
 
     private void handleConflict(String payload) {
-        // TODO
+        // YCNF-3-5, the block the active piece was moved against
+        final String sx = parseUntilNext(payload, 1, "-");
+        final String sy = parseUntilNext(payload, 1 + sx.length() + 1, "-");
+        onConflict(Integer.parseInt(sx), Integer.parseInt(sy));
+    }
+
+    private void onConflict(int x, int y) {
+        if (!gameOver) {
+            uiGameboard.markConflict(x, y);
+        }
     }
 
     private void handleGarbageAmount(String payload) {
@@ -407,6 +510,111 @@ public class ServerMultiplayerModel extends GameModel {
         }
     }
 
+    public void queueMessage(byte[] packet) {
+        synchronized (messageQueue) {
+            messageQueue.addLast(packet);
+        }
+    }
+
+    private boolean processBinaryMessage(byte[] packet) {
+        int pos = 0;
+        while (pos >= 0 && pos < packet.length) {
+            int opcode = packet[pos] & 0xff;
+            boolean other = (opcode & BINARY_FLAG_OPPONENT) != 0;
+            opcode = opcode & ~BINARY_FLAG_OPPONENT;
+            if (!other) {
+                pos = processBinaryEvent(packet, pos + 1, opcode);
+            } else
+                pos = secondModel.processBinaryEvent(packet, pos + 1, opcode);
+        }
+        return pos >= 0;
+    }
+
+    /**
+     * @return position of the next event, -1 if opcode is unknown
+     */
+    private int processBinaryEvent(byte[] packet, int pos, int opcode) {
+        switch (opcode) {
+            case BINARY_MOVE:
+                onTetroMoved(packet[pos], packet[pos + 1], packet[pos + 2]);
+                return pos + 3;
+            case BINARY_ROTATE:
+                onRotateTetro(readBlockPositions(packet, pos), packet[pos + 4]);
+                return pos + 5;
+            case BINARY_CLEAR_AND_INSERT: {
+                final int removeLines = packet[pos] & 0x7f;
+                final boolean isSpecial = (packet[pos] & 0x80) != 0;
+                pos++;
+                final IntList linesToRemove = new IntList(removeLines);
+                for (int i = 0; i < removeLines; i++)
+                    linesToRemove.add(packet[pos + i]);
+                pos = pos + removeLines;
+                final int[] gapPos = new int[packet[pos] & 0xff];
+                pos++;
+                for (int i = 0; i < gapPos.length; i++)
+                    gapPos[i] = packet[pos + i];
+                onClearInsert(linesToRemove, isSpecial, gapPos);
+                return pos + gapPos.length;
+            }
+            case BINARY_GAME_OVER:
+                handleGameOver();
+                return pos;
+            case BINARY_NEXT_PIECE:
+                onNextTetro(readBlockPositions(packet, pos), packet[pos + 4]);
+                return pos + 5;
+            case BINARY_ACTIVATE_NEXT:
+                onActivateNextTetro(readBlockPositions(packet, pos), packet[pos + 4], packet[pos + 5]);
+                return pos + 6;
+            case BINARY_HOLD:
+                onSwapHoldAndActive(readBlockPositions(packet, pos), packet[pos + 4], null);
+                return pos + 5;
+            case BINARY_HOLD_AND_ACTIVE:
+                onSwapHoldAndActive(readBlockPositions(packet, pos), packet[pos + 4],
+                        readBlockPositions(packet, pos + 5));
+                return pos + 9;
+            case BINARY_PIN:
+                handlePinTetro();
+                return pos;
+            case BINARY_SCORE:
+                onScore(readInt(packet, pos), readShort(packet, pos + 4), readShort(packet, pos + 6));
+                return pos + 8;
+            case BINARY_CONFLICT:
+                onConflict(packet[pos], packet[pos + 1]);
+                return pos + 2;
+            case BINARY_MOTIVATION: {
+                final int length = packet[pos] & 0xff;
+                final char[] text = new char[length];
+                for (int i = 0; i < length; i++)
+                    text[i] = (char) packet[pos + 1 + i];
+                onMotivation(new String(text));
+                return pos + 1 + length;
+            }
+            case BINARY_GARBAGE_AMOUNT:
+                uiGameboard.showGarbageAmount(packet[pos] & 0xff);
+                return pos + 1;
+        }
+        return -1;
+    }
+
+    private Integer[][] readBlockPositions(byte[] packet, int pos) {
+        final Integer[][] blockPositions = new Integer[Tetromino.TETROMINO_BLOCKCOUNT][2];
+        for (int i = 0; i < Tetromino.TETROMINO_BLOCKCOUNT; i++) {
+            int cell = packet[pos + i] & 0xff;
+            blockPositions[i][0] = cell % Gameboard.GAMEBOARD_COLUMNS;
+            blockPositions[i][1] = cell / Gameboard.GAMEBOARD_COLUMNS;
+        }
+        return blockPositions;
+    }
+
+    private static int readInt(byte[] packet, int pos) {
+        return (packet[pos] & 0xff) << 24 | (packet[pos + 1] & 0xff) << 16 | (packet[pos + 2] & 0xff) << 8
+                | (packet[pos + 3] & 0xff);
+    }
+
+    private static int readShort(byte[] packet, int pos) {
+        return (short) ((packet[pos] & 0xff) << 8 | (packet[pos + 1] & 0xff));
+    }
+
     private boolean processMessage(String packet) {
         Gdx.app.log("ServerMultiplayer", "Process message " + packet);
         if (packet.startsWith(ServerMultiplayerManager.ID_MATCHINFO)) {
@@ -489,6 +697,12 @@ public class ServerMultiplayerModel extends GameModel {
             lines = scoreJson.getInt("lines", 0);
         }
 
+        public void setScoreInformation(int score, int level, int lines) {
+            this.score = score;
+            this.level = level;
+            this.lines = lines;
+        }
+
         @Override
         public int getScore() {
             return score;
@@ -18,6 +18,7 @@ import de.golfgl.lightblocks.LightBlocksGame;
 import de.golfgl.lightblocks.input.InputIdentifier;
 import de.golfgl.lightblocks.model.GameModel;
 import de.golfgl.lightblocks.input.PlayGesturesInput;
+import de.golfgl.lightblocks.input.TouchscreenInput;
 import de.golfgl.lightblocks.screen.PlayScreen;
 import de.golfgl.lightblocks.state.OnScreenGamepadConfig;
 
@@ -45,7 +46,7 @@ public class OnScreenGamepad extends Group {
                            EventListener touchPadListener, InputListener holdInputListener,
                            InputListener freezeButtonInputListener) {
         this.app = app;
-        this.inputId = new InputIdentifier.TouchscreenInput();
+        this.inputId = new TouchscreenInput();
 
         touchpad = new Touchpad(0, app.skin, app.localPrefs.isShowDpadOnScreenGamepad()
                 ? LightBlocksGame.SKIN_TOUCHPAD_DPAD : LightBlocksGame.SKIN_DEFAULT);
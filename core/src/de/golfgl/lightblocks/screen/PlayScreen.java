@@ -16,7 +16,6 @@ import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Scaling;
 
 import java.util.HashSet;
@@ -29,8 +28,11 @@ import de.golfgl.lightblocks.gpgs.GpgsHelper;
 import de.golfgl.lightblocks.input.PlayScreenInput;
 import de.golfgl.lightblocks.menu.PauseDialog;
 import de.golfgl.lightblocks.menu.RoundOverScoreScreen;
+import de.golfgl.lightblocks.model.DeviceMultiplayerModel;
 import de.golfgl.lightblocks.model.GameBlocker;
 import de.golfgl.lightblocks.model.GameModel;
+import de.golfgl.lightblocks.model.GameModelClient;
+import de.golfgl.lightblocks.model.GameModelJson;
 import de.golfgl.lightblocks.model.Gameboard;
 import de.golfgl.lightblocks.model.Mission;
 import de.golfgl.lightblocks.model.MissionModel;
@@ -45,6 +47,7 @@ import de.golfgl.lightblocks.scene2d.OverlayMessage;
 import de.golfgl.lightblocks.scene2d.ScaledLabel;
 import de.golfgl.lightblocks.scene2d.ScoreLabel;
 import de.golfgl.lightblocks.scene2d.VetoDialog;
+import de.golfgl.lightblocks.state.BestScore;
 import de.golfgl.lightblocks.state.InitGameParameters;
 
 /**
@@ -114,7 +117,7 @@ public class PlayScreen extends AbstractScreen implements OnScreenGamepad.IOnScr
 
         playerArea.gameType.setText(modelIdLabel);
         pauseDialog.setTitle(modelIdLabel);
-        pauseDialog.addRetryButton(gameModel.getInitParameters());
+        pauseDialog.addRetryButton((InitGameParameters) gameModel.getInitParameters());
         final String goalDescription = gameModel.getGoalDescription();
         if (goalDescription != null && !goalDescription.isEmpty()) {
             String[] goalParams = gameModel.getGoalParams();
@@ -131,7 +134,7 @@ public class PlayScreen extends AbstractScreen implements OnScreenGamepad.IOnScr
 
         // if the tutorial is not available and this is the very first game, but not multiplayer,
         // we show a short help how to control the game
-        if (!TutorialModel.tutorialAvailable() && gameModel.totalScore.getClearedLines() < 1
+        if (!TutorialModel.tutorialAvailable() && GameModelClient.of(gameModel).totalScore.getClearedLines() < 1
                 && (gameModel.beginPaused() || gameModel instanceof MissionModel)) {
             // postRunnable needed, because mission overly window uses it and would overlay the help
             Gdx.app.postRunnable(new Runnable() {
@@ -217,13 +220,10 @@ public class PlayScreen extends AbstractScreen implements OnScreenGamepad.IOnScr
         if (initGameParametersParams == null && !app.savegame.hasSavedGame()) {
             throw new VetoException("No savegame available!");
         } else if (initGameParametersParams == null) {
-            Json json = new Json();
-            gameModel = json.fromJson(GameModel.class, app.savegame.loadGame());
+            gameModel = GameModelJson.fromJson(app.savegame.loadGame());
         } else if (initGameParametersParams.getMissionId() != null) {
-            Json json = new Json();
             try {
-                gameModel = json.fromJson(GameModel.class,
-                        app.savegame.loadMission(initGameParametersParams.getMissionId()));
+                gameModel = GameModelJson.fromJson(app.savegame.loadMission(initGameParametersParams.getMissionId()));
             } catch (Throwable t) {
                 Gdx.app.error("Gamestate", "Error loading mission", t);
                 throw new IllegalStateException("Mission corrupted.", t);
@@ -238,12 +238,17 @@ public class PlayScreen extends AbstractScreen implements OnScreenGamepad.IOnScr
             } catch (Exception e) {
                 throw new IllegalArgumentException("Given game model class is not appropriate.", e);
             }
-            gameModel.checkPrerequisites(app);
+            if (gameModel instanceof DeviceMultiplayerModel)
+                ((DeviceMultiplayerModel) gameModel).checkPrerequisites(app);
             gameModel.startNewGame(initGameParametersParams);
         }
 
+        // Highscores
+        GameModelClient gameModelClient = new GameModelClient(app, this, app.savegame.getTotalScore(),
+                app.savegame.getBestScore(gameModel.getIdentifier()));
+
         playerArea.gameModel = gameModel;
-        gameModel.setUserInterface(app, this, playerArea);
+        gameModel.setUserInterface(gameModelClient, playerArea);
 
         // input initialisieren
         inputAdapter = PlayScreenInput.getPlayInput(gameModel.inputTypeKey, app);
@@ -254,16 +259,11 @@ public class PlayScreen extends AbstractScreen implements OnScreenGamepad.IOnScr
                 addGameBlocker(usePortraitGameBlocker);
         }
 
-        // Highscores
-        gameModel.totalScore = app.savegame.getTotalScore();
-        //TODO would be better in game model, but game model can't access the saved states
-        gameModel.setBestScore(app.savegame.getBestScore(gameModel.getIdentifier()));
-
         if (gameModel.hasSecondGameboard()) {
             secondPlayer = new PlayerArea(app, this);
             stage.getRoot().addActorAfter(playerArea, secondPlayer);
             secondPlayer.gameModel = gameModel.getSecondGameModel();
-            secondPlayer.gameModel.setUserInterface(app, this, secondPlayer);
+            secondPlayer.gameModel.setUserInterface(gameModelClient, secondPlayer);
             secondPlayer.gameModelInitialized();
         }
 
@@ -352,7 +352,7 @@ public class PlayScreen extends AbstractScreen implements OnScreenGamepad.IOnScr
     private void saveGameState() {
         app.savegame.saveTotalScore();
         app.savegame.saveBestScores();
-        app.savegame.saveGame(gameModel.saveGameModel());
+        app.savegame.saveGame(GameModelJson.toJson(gameModel));
     }
 
     @Override
@@ -430,10 +430,11 @@ public class PlayScreen extends AbstractScreen implements OnScreenGamepad.IOnScr
             scoreScreen.setSecondReplay(gameModel.getSecondGameModel().getReplay());
         } else {
             scoreScreen.addScoreToShow(gameModel.getScore(), app.TEXTS.get("labelRoundScore"));
-            scoreScreen.setBest(gameModel.getBestScore());
-            scoreScreen.addScoreToShow(gameModel.getBestScore(), app.TEXTS.get("labelBestScore"));
+            BestScore bestScore = GameModelClient.of(gameModel).bestScore;
+            scoreScreen.setBest(bestScore);
+            scoreScreen.addScoreToShow(bestScore, app.TEXTS.get("labelBestScore"));
         }
-        scoreScreen.setNewGameParams(gameModel.getInitParameters());
+        scoreScreen.setNewGameParams((InitGameParameters) gameModel.getInitParameters());
         scoreScreen.setBackScreen(this.backScreen);
         scoreScreen.setReplay(gameModel.getReplay());
         scoreScreen.initializeUI();
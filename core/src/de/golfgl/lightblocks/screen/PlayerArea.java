@@ -22,7 +22,8 @@ import com.badlogic.gdx.utils.Timer;
 import javax.annotation.Nullable;
 
 import de.golfgl.lightblocks.LightBlocksGame;
-import de.golfgl.lightblocks.input.InputIdentifier;
+import de.golfgl.lightblocks.engine.IntList;
+import de.golfgl.lightblocks.input.TouchscreenInput;
 import de.golfgl.lightblocks.input.VibrationType;
 import de.golfgl.lightblocks.menu.ScoreTable;
 import de.golfgl.lightblocks.model.BackendBattleModel;
@@ -223,7 +224,7 @@ public class PlayerArea extends Group implements IGameModelListener {
             timeLabel.addListener(new InputListener() {
                 @Override
                 public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-                    return gameModel.inputTimelabelTouched(new InputIdentifier.TouchscreenInput());
+                    return gameModel.inputTimelabelTouched(new TouchscreenInput());
                 }
             });
         }
@@ -340,7 +341,7 @@ public class PlayerArea extends Group implements IGameModelListener {
     }
 
     @Override
-    public void clearAndInsertLines(IntArray linesToRemove, boolean special, int[] garbageHolePosition) {
+    public void clearAndInsertLines(IntList linesToRemove, boolean special, int[] garbageHolePosition) {
         final float moveActorsTime = .1f;
 
         int linesToInsert = (garbageHolePosition == null ? 0 : garbageHolePosition.length);
@@ -514,7 +515,7 @@ public class PlayerArea extends Group implements IGameModelListener {
     }
 
     @Override
-    public void markAndMoveFreezedLines(boolean playSoundAndMove, IntArray movedLines, IntArray fullLines) {
+    public void markAndMoveFreezedLines(boolean playSoundAndMove, IntList movedLines, IntList fullLines) {
         if (movedLines.size == 0 && fullLines.size == 0)
             return;
 
@@ -872,7 +873,7 @@ public class PlayerArea extends Group implements IGameModelListener {
                 timeLabel.clearActions();
 
                 String timeDesc = gameModel.getShownTimeDescription();
-                Color timeLabelColor = gameModel.getShownTimeColor();
+                Color timeLabelColor = getTimeHighlightColor(gameModel.getShownTimeHighlight());
 
                 String formattedTime = ScoreTable.formatTimeString(timeMs, 1);
 
@@ -888,6 +889,21 @@ public class PlayerArea extends Group implements IGameModelListener {
         }
     }
 
+    @Nullable
+    private Color getTimeHighlightColor(@Nullable GameModel.TimeHighlight highlight) {
+        if (highlight == null)
+            return null;
+
+        switch (highlight) {
+            case focussed:
+                return app.theme.focussedColor;
+            case emphasized:
+                return app.theme.emphasizeColor;
+            default:
+                return app.theme.getScoreColorOrWhite();
+        }
+    }
+
     public void setGameOver() {
         blockGroup.setGhostPieceVisibility(false);
         // forces a last refresh on next render() call
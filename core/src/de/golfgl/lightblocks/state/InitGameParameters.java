@@ -17,20 +17,14 @@ import de.golfgl.lightblocks.multiplayer.ServerMultiplayerManager;
 import de.golfgl.lightblocks.multiplayer.ServerMultiplayerModel;
 
 /**
- * This class defines new games parameters.
+ * This class defines new games parameters, with everything the client needs in addition to the game engine.
  * <p>
  * Created by Benjamin Schulte on 21.02.2017.
  */
 
-public class InitGameParameters {
-    public static final int TYPE_CLASSIC = 0;
-    public static final int TYPE_MODERN = 1;
-
-    private int inputKey;
-    private int beginningLevel;
+public class InitGameParameters extends GameParameters {
     private String missionId;
     private GameMode gameMode;
-    private int modeType;
 
     // for Multiplayer
     private AbstractMultiplayerRoom multiplayerRoom;
@@ -51,26 +45,10 @@ public class InitGameParameters {
         this.missionId = missionId;
     }
 
-    public int getInputKey() {
-        return inputKey;
-    }
-
-    public void setInputKey(int inputKey) {
-        this.inputKey = inputKey;
-    }
-
     public boolean isMultiplayer() {
         return GameMode.Multiplayer.equals(gameMode);
     }
 
-    public int getBeginningLevel() {
-        return beginningLevel;
-    }
-
-    public void setBeginningLevel(int beginningLevel) {
-        this.beginningLevel = beginningLevel;
-    }
-
     public GameMode getGameMode() {
         return gameMode;
     }
@@ -132,14 +110,6 @@ public class InitGameParameters {
         this.startPaused = startPaused;
     }
 
-    public int getModeType() {
-        return modeType;
-    }
-
-    public void setModeType(int modeType) {
-        this.modeType = modeType;
-    }
-
     public GameModel newGameModelInstance() {
         switch (gameMode) {
             case Sprint:
@@ -0,0 +1,49 @@
+package de.golfgl.lightblocks.state;
+
+import com.badlogic.gdx.utils.JsonValue;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+
+/**
+ * Reads a game model's state from json, written by {@link JsonStateWriter} or defined in a mission
+ * file
+ */
+public class JsonStateReader implements IStateReader {
+    private final JsonValue jsonData;
+
+    public JsonStateReader(JsonValue jsonData) {
+        this.jsonData = jsonData;
+    }
+
+    @Override
+    public int getInt(String name, int defaultValue) {
+        return jsonData.getInt(name, defaultValue);
+    }
+
+    @Override
+    public float getFloat(String name, float defaultValue) {
+        return jsonData.getFloat(name, defaultValue);
+    }
+
+    @Override
+    public boolean getBoolean(String name, boolean defaultValue) {
+        return jsonData.getBoolean(name, defaultValue);
+    }
+
+    @Override
+    public String getString(String name, String defaultValue) {
+        return jsonData.getString(name, defaultValue);
+    }
+
+    @Override
+    public int[] getIntArray(String name) {
+        JsonValue array = jsonData.get(name);
+        return array != null && array.isArray() ? array.asIntArray() : null;
+    }
+
+    @Override
+    public IStateReader get(String name) {
+        JsonValue object = jsonData.get(name);
+        return object != null && object.isObject() ? new JsonStateReader(object) : null;
+    }
+}
@@ -0,0 +1,61 @@
+package de.golfgl.lightblocks.state;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+
+import de.golfgl.lightblocks.engine.IStateWriter;
+
+/**
+ * Writes a game model's state as json for the savegame, see {@link JsonStateReader}
+ */
+public class JsonStateWriter implements IStateWriter {
+    private final JsonValue root = new JsonValue(JsonValue.ValueType.object);
+    private final Array<JsonValue> objects = new Array<>();
+    private JsonValue current = root;
+
+    @Override
+    public void writeValue(String name, int value) {
+        current.addChild(name, new JsonValue(value));
+    }
+
+    @Override
+    public void writeValue(String name, float value) {
+        current.addChild(name, new JsonValue(value));
+    }
+
+    @Override
+    public void writeValue(String name, boolean value) {
+        current.addChild(name, new JsonValue(value));
+    }
+
+    @Override
+    public void writeValue(String name, String value) {
+        current.addChild(name, new JsonValue(value));
+    }
+
+    @Override
+    public void writeValue(String name, int[] value) {
+        JsonValue array = new JsonValue(JsonValue.ValueType.array);
+        for (int i : value)
+            array.addChild(new JsonValue(i));
+        current.addChild(name, array);
+    }
+
+    @Override
+    public void writeObjectStart(String name) {
+        JsonValue object = new JsonValue(JsonValue.ValueType.object);
+        current.addChild(name, object);
+        objects.add(current);
+        current = object;
+    }
+
+    @Override
+    public void writeObjectEnd() {
+        current = objects.pop();
+    }
+
+    public String toJson() {
+        return root.toJson(JsonWriter.OutputType.json);
+    }
+}
@@ -0,0 +1,23 @@
+package de.golfgl.lightblocks.engine;
+
+/**
+ * Logs to the standard streams, used until the platform sets its own logger
+ */
+public class DefaultLogger implements ILogger {
+    @Override
+    public void log(String tag, String message) {
+        System.out.println(tag + ": " + message);
+    }
+
+    @Override
+    public void debug(String tag, String message) {
+        // nur das Nötigste
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable exception) {
+        System.err.println(tag + ": " + message);
+        if (exception != null)
+            exception.printStackTrace();
+    }
+}
@@ -0,0 +1,25 @@
+package de.golfgl.lightblocks.engine;
+
+import java.util.Random;
+
+/**
+ * Random numbers by {@link Random}, used until the platform sets its own generator
+ */
+public class DefaultRandom implements IRandom {
+    private final Random random = new Random();
+
+    @Override
+    public int random(int range) {
+        return random.nextInt(range + 1);
+    }
+
+    @Override
+    public int random(int start, int end) {
+        return start + random.nextInt(end - start + 1);
+    }
+
+    @Override
+    public boolean randomBoolean() {
+        return random.nextBoolean();
+    }
+}
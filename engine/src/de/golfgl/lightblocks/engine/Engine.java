@@ -0,0 +1,14 @@
+package de.golfgl.lightblocks.engine;
+
+/**
+ * Services the game engine needs from the platform it runs on. The engine is shared by the client
+ * and the server and does not depend on libGDX, so that the platforms plug in their own
+ * implementations here on startup.
+ */
+public class Engine {
+    public static ILogger logger = new DefaultLogger();
+    public static IRandom random = new DefaultRandom();
+
+    private Engine() {
+    }
+}
@@ -0,0 +1,12 @@
+package de.golfgl.lightblocks.engine;
+
+/**
+ * Logging of the game engine, see {@link Engine#logger}
+ */
+public interface ILogger {
+    void log(String tag, String message);
+
+    void debug(String tag, String message);
+
+    void error(String tag, String message, Throwable exception);
+}
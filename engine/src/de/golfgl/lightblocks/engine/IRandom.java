@@ -0,0 +1,18 @@
+package de.golfgl.lightblocks.engine;
+
+/**
+ * Random numbers of the game engine, see {@link Engine#random}
+ */
+public interface IRandom {
+    /**
+     * @return random number between 0 and range, both inclusive
+     */
+    int random(int range);
+
+    /**
+     * @return random number between start and end, both inclusive
+     */
+    int random(int start, int end);
+
+    boolean randomBoolean();
+}
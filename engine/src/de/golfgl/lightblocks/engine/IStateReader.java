@@ -0,0 +1,27 @@
+package de.golfgl.lightblocks.engine;
+
+import java.io.IOException;
+
+/**
+ * Reads a state written by an {@link IStateWriter}, in the order it was written. Named formats
+ * return the default value for values that are missing.
+ */
+public interface IStateReader {
+    int getInt(String name, int defaultValue) throws IOException;
+
+    float getFloat(String name, float defaultValue) throws IOException;
+
+    boolean getBoolean(String name, boolean defaultValue) throws IOException;
+
+    String getString(String name, String defaultValue) throws IOException;
+
+    /**
+     * @return the array, or null if missing
+     */
+    int[] getIntArray(String name) throws IOException;
+
+    /**
+     * @return reader for the object written with the given name, or null if missing
+     */
+    IStateReader get(String name) throws IOException;
+}
@@ -0,0 +1,26 @@
+package de.golfgl.lightblocks.engine;
+
+import java.io.IOException;
+
+/**
+ * Writes the state of a game model, see {@link IStateReader}. Values are named, but formats
+ * without names might drop them, so that a state must be read in the order it was written.
+ */
+public interface IStateWriter {
+    void writeValue(String name, int value) throws IOException;
+
+    void writeValue(String name, float value) throws IOException;
+
+    void writeValue(String name, boolean value) throws IOException;
+
+    /**
+     * @param value may be null
+     */
+    void writeValue(String name, String value) throws IOException;
+
+    void writeValue(String name, int[] value) throws IOException;
+
+    void writeObjectStart(String name) throws IOException;
+
+    void writeObjectEnd() throws IOException;
+}
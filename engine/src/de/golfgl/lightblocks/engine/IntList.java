@@ -0,0 +1,96 @@
+package de.golfgl.lightblocks.engine;
+
+/**
+ * Growing list of primitive ints, to not box the values
+ */
+public class IntList {
+    public int[] items;
+    public int size;
+
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    public IntList(IntList list) {
+        this(list.size);
+        System.arraycopy(list.items, 0, items, 0, list.size);
+        size = list.size;
+    }
+
+    public IntList(int[] array) {
+        this(array.length);
+        System.arraycopy(array, 0, items, 0, array.length);
+        size = array.length;
+    }
+
+    public void add(int value) {
+        if (size == items.length) {
+            int[] newItems = new int[Math.max(8, size * 2)];
+            System.arraycopy(items, 0, newItems, 0, size);
+            items = newItems;
+        }
+        items[size++] = value;
+    }
+
+    public int get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+        return items[index];
+    }
+
+    public void set(int index, int value) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+        items[index] = value;
+    }
+
+    public int removeIndex(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+        int value = items[index];
+        size--;
+        System.arraycopy(items, index + 1, items, index, size - index);
+        return value;
+    }
+
+    public void swap(int first, int second) {
+        if (first >= size || second >= size)
+            throw new IndexOutOfBoundsException("index can't be >= size: " + Math.max(first, second) + " >= " + size);
+        int firstValue = items[first];
+        items[first] = items[second];
+        items[second] = firstValue;
+    }
+
+    public boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == value)
+                return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        System.arraycopy(items, 0, array, 0, size);
+        return array;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(items[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
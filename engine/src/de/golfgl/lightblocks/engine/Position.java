@@ -0,0 +1,32 @@
+package de.golfgl.lightblocks.engine;
+
+/**
+ * Position on the gameboard, or offset of a block to its piece's position
+ */
+public class Position {
+    public int x;
+    public int y;
+
+    public Position() {
+    }
+
+    public Position(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public Position set(int x, int y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Position set(Position position) {
+        return set(position.x, position.y);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + "," + y + ")";
+    }
+}
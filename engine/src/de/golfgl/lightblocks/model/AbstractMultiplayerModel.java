@@ -0,0 +1,489 @@
+package de.golfgl.lightblocks.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.golfgl.lightblocks.engine.Engine;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
+import de.golfgl.lightblocks.state.GameParameters;
+
+/**
+ * Superclass for every (future) multiplayer mode, to keep things clean and separated. The first
+ * player's model creates the models of all other players and updates them. There are two players
+ * by default, see {@link #setPlayerNum}.
+ */
+public abstract class AbstractMultiplayerModel<T extends AbstractMultiplayerModel<T>> extends GameModel {
+    public static final int MAX_PLAYERS = 16;
+    private static final int GARBAGEGAP_CHANGECOUNT = 9;
+    protected int modeType;
+    protected T secondGameModel;
+    // all players' models in board order, only set for the first player
+    private List<T> gameModels;
+    // copied to the other players' models by the first one
+    int playerNum = 2;
+    private GarbageTargeting garbageTargeting = GarbageTargeting.RANDOM;
+    ModelConnector modelConnector;
+    // 0 for the first player
+    int boardIndex;
+    private int currentGarbageGapPosIndex = 0;
+    private int currentGarbageGapPosUsed = 0;
+
+    @Override
+    public GameParameters getInitParameters() {
+        GameParameters retVal = new GameParameters();
+
+        retVal.setBeginningLevel(getScore().getStartingLevel());
+        retVal.setInputKey(inputTypeKey);
+        retVal.setModeType(modeType);
+
+        return retVal;
+    }
+
+    /**
+     * sets the number of players, to be called on the first player's model before the game is started
+     */
+    public void setPlayerNum(int playerNum) {
+        if (playerNum < 2 || playerNum > MAX_PLAYERS)
+            throw new IllegalArgumentException("Unsupported number of players: " + playerNum);
+        this.playerNum = playerNum;
+    }
+
+    public int getPlayerNum() {
+        return playerNum;
+    }
+
+    /**
+     * sets who gets the sent garbage, to be called on the first player's model before the game is started
+     */
+    public void setGarbageTargeting(GarbageTargeting garbageTargeting) {
+        this.garbageTargeting = garbageTargeting;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void startNewGame(GameParameters newGameParams) {
+        modeType = newGameParams.getModeType();
+        if (modelConnector == null) {
+            gameModels = new ArrayList<>(playerNum);
+            gameModels.add((T) this);
+            for (int i = 1; i < playerNum; i++) {
+                gameModels.add(createSecondGameModel(newGameParams));
+            }
+            secondGameModel = gameModels.get(1);
+        }
+
+        super.startNewGame(newGameParams);
+
+        if (isFirstPlayer()) {
+            for (int i = 1; i < playerNum; i++) {
+                T gameModel = gameModels.get(i);
+                gameModel.modelConnector = this.modelConnector;
+                gameModel.boardIndex = i;
+                gameModel.playerNum = playerNum;
+                gameModel.startNewGame(newGameParams);
+            }
+        }
+    }
+
+    protected abstract T createSecondGameModel(GameParameters newGameParams);
+
+    @Override
+    protected void initDrawyer() {
+        if (isFirstPlayer()) {
+            super.initDrawyer();
+            modelConnector = new ModelConnector(modeType, garbageTargeting, gameModels, drawyer);
+        } else {
+            drawyer = modelConnector.drawers[boardIndex];
+        }
+    }
+
+    @Override
+    protected void activeTetrominoDropped() {
+        super.activeTetrominoDropped();
+        modelConnector.syncDrawers(boardIndex);
+    }
+
+    protected boolean isFirstPlayer() {
+        return secondGameModel != null;
+    }
+
+    @Override
+    public boolean isSaveAllowed() {
+        // saving multiplayer is not supported
+        return false;
+    }
+
+    @Override
+    public boolean hasSecondGameboard() {
+        return true;
+    }
+
+    @Override
+    public T getSecondGameModel() {
+        return secondGameModel;
+    }
+
+    /**
+     * @param boardIndex 0 for the first player's model, only to be called on it
+     */
+    public T getGameModel(int boardIndex) {
+        return gameModels.get(boardIndex);
+    }
+
+    /**
+     * @return true if this player won the game, only meaningful when the game is over
+     */
+    public boolean isGameWon() {
+        return modelConnector.isGameWon(boardIndex);
+    }
+
+    /**
+     * @return true if the game is over for all players, either because one is left as the winner or
+     * because none is left. Players who are out wait for this while the others go on.
+     */
+    public boolean isGameDecided() {
+        return modelConnector.isGameOver;
+    }
+
+    @Override
+    public boolean isModernRotation() {
+        return modeType == GameParameters.TYPE_MODERN;
+    }
+
+    @Override
+    protected int getLockDelayMs() {
+        return modeType == GameParameters.TYPE_MODERN ? 500 : super.getLockDelayMs();
+    }
+
+    @Override
+    public void update(float delta) {
+        super.update(delta);
+
+        if (isFirstPlayer()) {
+            for (int i = 1; i < playerNum; i++) {
+                gameModels.get(i).update(delta);
+            }
+        }
+        uiGameboard.showGarbageAmount(modelConnector.getWaitingGarbage(boardIndex));
+        if (!isGameOver() && modelConnector.isGameWon(boardIndex)) {
+            setGameOverWon();
+        }
+    }
+
+    @Override
+    protected void submitGameEnded(boolean success) {
+        // don't submit game ended for every player, so only do it for the first one
+        if (isFirstPlayer()) {
+            super.submitGameEnded(success);
+        }
+    }
+
+    @Override
+    protected int[] drawGarbageLines(int removedLines) {
+        // Garbage gap is defined by model connector (all players share the very same).
+        // 9 lines will get the same gap, then we switch over to the next
+
+        int numOfLines = modelConnector.removeGarbage(boardIndex, removedLines);
+
+        int[] retVal = new int[numOfLines];
+
+        for (int garbageLine = 0; garbageLine < numOfLines; garbageLine++) {
+            retVal[garbageLine] = modelConnector.garbageGapPos[currentGarbageGapPosIndex];
+            currentGarbageGapPosUsed++;
+
+            if (currentGarbageGapPosUsed >= GARBAGEGAP_CHANGECOUNT) {
+                currentGarbageGapPosUsed = 0;
+                currentGarbageGapPosIndex++;
+
+                if (currentGarbageGapPosIndex >= modelConnector.garbageGapPos.length)
+                    currentGarbageGapPosIndex = 0;
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    protected void linesRemoved(int lineCount, boolean isSpecial, boolean doubleSpecial) {
+        modelConnector.linesRemoved(boardIndex, lineCount, isSpecial, doubleSpecial);
+    }
+
+    @Override
+    protected void setGameOverBoardFull() {
+        modelConnector.setBoardFull(boardIndex);
+        super.setGameOverBoardFull();
+    }
+
+    /**
+     * the first player's model writes the shared state and the other players' games, too
+     */
+    @Override
+    public void write(IStateWriter writer) throws IOException {
+        super.write(writer);
+        writer.writeValue("garbageGapPosIndex", currentGarbageGapPosIndex);
+        writer.writeValue("garbageGapPosUsed", currentGarbageGapPosUsed);
+        if (isFirstPlayer()) {
+            writer.writeObjectStart("connector");
+            modelConnector.write(writer);
+            writer.writeObjectEnd();
+            for (int i = 1; i < playerNum; i++) {
+                writer.writeObjectStart("player" + i);
+                gameModels.get(i).write(writer);
+                writer.writeObjectEnd();
+            }
+        }
+    }
+
+    /**
+     * to be called on a started game with the same number of players
+     */
+    @Override
+    public void read(IStateReader reader) throws IOException {
+        super.read(reader);
+        currentGarbageGapPosIndex = reader.getInt("garbageGapPosIndex", 0);
+        currentGarbageGapPosUsed = reader.getInt("garbageGapPosUsed", 0);
+        if (isFirstPlayer()) {
+            modelConnector.read(reader.get("connector"));
+            for (int i = 1; i < playerNum; i++) {
+                gameModels.get(i).read(reader.get("player" + i));
+            }
+        }
+    }
+
+    public int[][] getGameboardSquares() {
+        return getGameboard().getGameboardSquares();
+    }
+
+    public String getSerializedGameboard() {
+        int[][] gameboardSquares = getGameboard().getGameboardSquares();
+        char[] gameboardChars = new char[Gameboard.GAMEBOARD_ALLROWS * Gameboard.GAMEBOARD_COLUMNS];
+        int lastChar = 0;
+        for (byte row = 0; row < Gameboard.GAMEBOARD_ALLROWS; row++) {
+            for (byte column = 0; column < Gameboard.GAMEBOARD_COLUMNS; column++) {
+                int pos = row * Gameboard.GAMEBOARD_COLUMNS + column;
+                gameboardChars[pos] = Gameboard.gameboardSquareToChar
+                        (gameboardSquares[row][column]);
+                if (gameboardSquares[row][column] != Gameboard.SQUARE_EMPTY)
+                    lastChar = pos;
+            }
+        }
+        String message = new String(gameboardChars);
+        if (lastChar < message.length())
+            message = message.substring(0, lastChar + 1);
+        return message;
+    }
+
+    /**
+     * Shared connector between the game models of all players. Manages the tetromino drawers,
+     * sent lines and end of game
+     */
+    private static class ModelConnector {
+        private final int modeType;
+        private final GarbageTargeting garbageTargeting;
+        private final List<? extends AbstractMultiplayerModel<?>> gameModels;
+        private final TetrominoDrawyer[] drawers;
+        private final int[] garbageGapPos;
+        private final int[] waitingGarbage;
+        // board that sent garbage to the board the last time, -1 if none did
+        private final int[] lastAttacker;
+        private final boolean[] boardFull;
+        private int playersLeft;
+
+        private boolean isGameOver = false;
+        // -1 if nobody won
+        private int winner = -1;
+
+        public ModelConnector(int modeType, GarbageTargeting garbageTargeting,
+                              List<? extends AbstractMultiplayerModel<?>> gameModels, TetrominoDrawyer drawer) {
+            this.modeType = modeType;
+            this.garbageTargeting = garbageTargeting;
+            this.gameModels = gameModels;
+            int playerNum = gameModels.size();
+            playersLeft = playerNum;
+            waitingGarbage = new int[playerNum];
+            lastAttacker = new int[playerNum];
+            boardFull = new boolean[playerNum];
+            drawers = new TetrominoDrawyer[playerNum];
+            drawers[0] = drawer;
+            drawer.determineNextTetrominos();
+            int[] firstTetrominos = drawer.getDrawyerQueue().toArray();
+            for (int i = 1; i < playerNum; i++) {
+                drawers[i] = new TetrominoDrawyer();
+                drawers[i].queueNextTetrominos(firstTetrominos);
+                lastAttacker[i] = -1;
+            }
+            lastAttacker[0] = -1;
+
+            garbageGapPos = new int[10];
+            for (byte i = 0; i < garbageGapPos.length; i++) {
+                garbageGapPos[i] = Engine.random.random(0, Gameboard.GAMEBOARD_COLUMNS - 1);
+            }
+        }
+
+        /**
+         * only the drawer of the board that dropped its piece shrank, so that only this one is checked
+         */
+        private void syncDrawers(int board) {
+            if (drawers[board].drawyer.size < 5) {
+                // time to get the next tetros. We always use the first drawer
+                TetrominoDrawyer firstDrawer = drawers[0];
+                int offset = firstDrawer.drawyer.size;
+                firstDrawer.determineNextTetrominos();
+                int drawnTetros = firstDrawer.drawyer.size - offset;
+
+                int[] nextTetrominos = new int[drawnTetros];
+
+                for (int i = 0; i < drawnTetros; i++) {
+                    nextTetrominos[i] = firstDrawer.drawyer.get(i + offset);
+                }
+
+                // knocked out boards do not draw anymore, their drawers would only grow
+                for (int i = 1; i < drawers.length; i++) {
+                    if (!boardFull[i])
+                        drawers[i].queueNextTetrominos(nextTetrominos);
+                }
+                if (boardFull[0])
+                    firstDrawer.clear();
+            }
+        }
+
+        private void write(IStateWriter writer) throws IOException {
+            writer.writeValue("waitingGarbage", waitingGarbage);
+            writer.writeValue("lastAttacker", lastAttacker);
+            for (int i = 0; i < boardFull.length; i++)
+                writer.writeValue("boardFull" + i, boardFull[i]);
+            writer.writeValue("garbageGapPos", garbageGapPos);
+            writer.writeValue("isGameOver", isGameOver);
+            writer.writeValue("winner", winner);
+        }
+
+        private void read(IStateReader reader) throws IOException {
+            readArray(reader, "waitingGarbage", waitingGarbage);
+            readArray(reader, "lastAttacker", lastAttacker);
+            playersLeft = boardFull.length;
+            for (int i = 0; i < boardFull.length; i++) {
+                boardFull[i] = reader.getBoolean("boardFull" + i, false);
+                if (boardFull[i])
+                    playersLeft--;
+            }
+            readArray(reader, "garbageGapPos", garbageGapPos);
+            isGameOver = reader.getBoolean("isGameOver", false);
+            winner = reader.getInt("winner", -1);
+        }
+
+        private static void readArray(IStateReader reader, String name, int[] target) throws IOException {
+            int[] values = reader.getIntArray(name);
+            if (values == null || values.length != target.length)
+                throw new IOException("Game state does not fit the players: " + name);
+            System.arraycopy(values, 0, target, 0, target.length);
+        }
+
+        public int removeGarbage(int board, int removedLines) {
+            if (modeType == GameParameters.TYPE_MODERN && removedLines > 0) {
+                // modern mode: insert garbage is postponed on every clear
+                return 0;
+            } else {
+                int garbage = waitingGarbage[board];
+                waitingGarbage[board] = 0;
+                return garbage;
+            }
+        }
+
+        public int getWaitingGarbage(int board) {
+            return waitingGarbage[board];
+        }
+
+        public void linesRemoved(int board, int linesRemoved, boolean isSpecial, boolean doubleSpecial) {
+            if (linesRemoved == 0) {
+                return;
+            }
+
+            int garbageToSend = isSpecial ? 4 : linesRemoved - 1;
+
+            // modern: double adds one more, garbage is removed from own waiting garbage,
+            // garbage is postponed on each line clear
+            if (modeType == GameParameters.TYPE_MODERN) {
+
+                if (doubleSpecial) {
+                    garbageToSend++;
+                }
+
+                int removeFromWaiting = Math.min(waitingGarbage[board], garbageToSend);
+                waitingGarbage[board] = waitingGarbage[board] - removeFromWaiting;
+                garbageToSend = garbageToSend - removeFromWaiting;
+            }
+
+            // add garbage to the target's waiting queue
+            int target = garbageToSend > 0 ? findTarget(board) : -1;
+            if (target >= 0) {
+                waitingGarbage[target] = waitingGarbage[target] + garbageToSend;
+                lastAttacker[target] = board;
+            }
+        }
+
+        /**
+         * @return board of the opponent to get the garbage of the given board, -1 if none is left
+         */
+        private int findTarget(int board) {
+            switch (garbageTargeting) {
+                case ATTACKER:
+                    int attacker = lastAttacker[board];
+                    if (attacker >= 0 && !boardFull[attacker])
+                        return attacker;
+                    break;
+                case LEADER:
+                    int leader = -1;
+                    int leaderScore = -1;
+                    for (int i = 0; i < boardFull.length; i++) {
+                        int score = gameModels.get(i).getScore().getScore();
+                        if (isOpponent(board, i) && score > leaderScore) {
+                            leader = i;
+                            leaderScore = score;
+                        }
+                    }
+                    return leader;
+            }
+
+            int opponentNum = 0;
+            for (int i = 0; i < boardFull.length; i++) {
+                if (isOpponent(board, i))
+                    opponentNum++;
+            }
+            // no random number is drawn with only one opponent, like in every two player game
+            int chosen = opponentNum > 1 ? Engine.random.random(opponentNum - 1) : 0;
+            for (int i = 0; i < boardFull.length; i++) {
+                if (isOpponent(board, i)) {
+                    if (chosen == 0)
+                        return i;
+                    chosen--;
+                }
+            }
+            return -1;
+        }
+
+        private boolean isOpponent(int board, int otherBoard) {
+            return otherBoard != board && !boardFull[otherBoard];
+        }
+
+        public boolean isGameWon(int board) {
+            return isGameOver && board == winner;
+        }
+
+        public void setBoardFull(int board) {
+            if (!boardFull[board]) {
+                boardFull[board] = true;
+                playersLeft--;
+                drawers[board].clear();
+            }
+            if (!isGameOver && playersLeft <= 1) {
+                isGameOver = true;
+                for (int i = 0; i < boardFull.length; i++) {
+                    if (!boardFull[i])
+                        winner = i;
+                }
+            }
+        }
+    }
+}
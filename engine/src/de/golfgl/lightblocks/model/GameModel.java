@@ -1,31 +1,26 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
-import com.badlogic.gdx.utils.JsonWriter;
+import java.io.IOException;
 
 import javax.annotation.Nullable;
 
-import de.golfgl.lightblocks.LightBlocksGame;
-import de.golfgl.lightblocks.gpgs.GaHelper;
-import de.golfgl.lightblocks.gpgs.GpgsHelper;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
+import de.golfgl.lightblocks.engine.IntList;
+import de.golfgl.lightblocks.engine.Position;
 import de.golfgl.lightblocks.input.InputIdentifier;
 import de.golfgl.lightblocks.multiplayer.ai.AiAcessibleGameModel;
-import de.golfgl.lightblocks.screen.PlayScreen;
-import de.golfgl.lightblocks.screen.VetoException;
-import de.golfgl.lightblocks.state.BestScore;
-import de.golfgl.lightblocks.state.InitGameParameters;
+import de.golfgl.lightblocks.state.GameParameters;
 import de.golfgl.lightblocks.state.Replay;
-import de.golfgl.lightblocks.state.TotalScore;
 
 /**
  * Created by Benjamin Schulte on 23.01.2017.
+ *
+ * The game model is shared by client and server. Everything besides the game itself, like
+ * achievements, highscores and the screen, is done by the {@link IGameModelClient}.
  */
 
-public abstract class GameModel implements Json.Serializable, AiAcessibleGameModel {
+public abstract class GameModel implements AiAcessibleGameModel {
     // das Spielgeschehen
     public static final String GAMEMODEL_VERSION = "1.0.0";
     public static final float DURATION_REMOVE_DELAY = .15f;
@@ -37,19 +32,16 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
     private static final float REPEAT_INTERVAL = 0.05f;
     protected static final float SOFT_DROP_SPEED = 30.0f;
     private static final float MAX_DROP_SCORE = 2f;
-    // Speicherhaltung
-    public TotalScore totalScore;
-    protected LightBlocksGame app;
     /**
      * hier am GameModel verwaltet, da die Eingabemethode mit dem Modell ins Savegame kommt (und von dort geladen wird)
      */
     public int inputTypeKey = -1;
-    protected BestScore bestScore;
     // wieviel ist der aktuelle Stein schon ungerundet gefallen
     protected float currentSpeed;
-    protected PlayScreen playScreen;
+    protected IGameModelClient client;
     protected IGameModelListener uiGameboard;
     protected TetrominoDrawyer drawyer;
+    // null, wenn das Spiel nicht aufgezeichnet wird
     protected Replay replay;
     private GameScore score;
     private boolean isBestScore = false;
@@ -84,26 +76,22 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
     private int maxBlocksToUse;
 
     // von removeLines geschrieben, für ui.clearAndInsertLines aufbewahrt
-    private final IntArray removedLines;
+    private final IntList removedLines;
     private int[] garbageLines;
     private boolean removeWasSpecial;
+    // Positionen vor Rotation oder Hold, wiederverwendet um Garbage Collection zu verhindern
+    private final Integer[][] oldBlockPositions = new Integer[Tetromino.TETROMINO_BLOCKCOUNT][2];
+    private final Integer[][] holdBlockPositions = new Integer[Tetromino.TETROMINO_BLOCKCOUNT][2];
 
     public GameModel() {
 
-        removedLines = new IntArray(Gameboard.GAMEBOARD_ALLROWS);
+        removedLines = new IntList(Gameboard.GAMEBOARD_ALLROWS);
         isGameOver = false;
 
         replay = new Replay();
     }
 
-    /**
-     * called right after constructor
-     * @throws VetoException if game might not be started
-     */
-    public void checkPrerequisites(LightBlocksGame app) throws VetoException {
-    }
-
-    protected Tetromino getActiveTetromino() {
+    public Tetromino getActiveTetromino() {
         return activeTetromino;
     }
 
@@ -212,13 +200,14 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
             distanceRemainder -= distance;
             lastMovementMs = score.getTimeMs();
             activeTetromino.incLockDelayCount(0);
-            replay.addMovePieceStep(lastMovementMs, false, (byte) maxDistance);
+            if (replay != null)
+                replay.addMovePieceStep(lastMovementMs, false, (byte) maxDistance);
         }
     }
 
     private void dropActiveTetromino() {
 
-        Replay.ReplayStep replayStep = replay.addDropStep(score.getTimeMs(), activeTetromino);
+        Replay.ReplayStep replayStep = replay != null ? replay.addDropStep(score.getTimeMs(), activeTetromino) : null;
         activeTetrominoWillDrop();
         gameboard.pinTetromino(activeTetromino);
         uiGameboard.pinTetromino(activeTetromino.getCurrentBlockPositions());
@@ -250,17 +239,17 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         if (isComboScoreAllowedByModel()) {
             int comboHeight = score.setComboCounter(removedLines > 0);
             uiGameboard.showComboHeight(comboHeight);
-            boolean newMaxCombo = totalScore.setMaxComboCount(comboHeight);
+            boolean newMaxCombo = client != null && client.setMaxComboCount(comboHeight);
             if (newMaxCombo && comboHeight >= 3 || comboHeight >= 5)
                 uiGameboard.showMotivation(IGameModelListener.MotivationTypes.comboCount,
                         String.valueOf(comboHeight));
-            if (newMaxCombo)
-                totalScore.checkAchievements(app.gpgsClient);
         }
 
         int gainedScore = score.flushScore();
-        replayStep.setScore(score.getScore());
-        replayStep.setRemovedLines(removedLines);
+        if (replayStep != null) {
+            replayStep.setScore(score.getScore());
+            replayStep.setRemovedLines(removedLines);
+        }
 
         // Auswertung Achievements für GPGS und UI
 
@@ -269,7 +258,8 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
             uiGameboard.showMotivation(IGameModelListener.MotivationTypes.tSpin, null);
 
         int gameboardFill = gameboard.calcGameboardFill();
-        playScreen.setGameboardCriticalFill(isGameboardCriticalFill(gameboardFill));
+        if (client != null)
+            client.setGameboardCriticalFill(isGameboardCriticalFill(gameboardFill));
 
         if (removedLines > 0)
             achievementsClearedLines(levelBeforeRemove, removedLines, gameboardFill);
@@ -280,20 +270,13 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
             uiGameboard.showMotivation(IGameModelListener.MotivationTypes.hundredBlocksDropped, Integer.toString(
                     drawnTetrominos));
 
-        // Alle 10 Tetros auch Ereignis an GPGS melden
-        if (Math.floor(drawnTetrominos / 10) > Math.floor((drawnTetrominos - 1) / 10))
-            submitEvent(GpgsHelper.EVENT_BLOCK_DROP, 10);
-
-        // Highscores updaten
-        if (bestScore.setBestScores(score)) {
+        // Highscores und Gesamtpunktzahl updaten
+        if (client != null && client.pieceDropped(this, gainedScore, removedLines)) {
             // nur einmal rausgeben - und auch nur wenn nicht trivial
             if (!isBestScore)
                 uiGameboard.showMotivation(IGameModelListener.MotivationTypes.newHighscore, null);
             isBestScore = true;
         }
-        totalScore.addScore(gainedScore);
-        totalScore.addClearedLines(removedLines);
-        totalScore.incDrawnTetrominos();
         if (removedLines == 4)
             achievementFourLines();
         if (tSpin)
@@ -313,7 +296,7 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         if (!isGameOver()) {
             // dem Spieler ein bißchen ARE gönnen (wiki/ARE) - je weiter oben, je mehr
             // evtl. wurde schon vom UI gefreezet um Animationen abzuspielen, die ARE kommt oben drauf
-            freezeCountdown = Math.max(0, freezeCountdown) + .015f * (10 + activeTetromino.getPosition().y / 2);
+            freezeCountdown = Math.max(0, freezeCountdown) + .015f * (10 + activeTetromino.getPosition().y / 2f);
             // hiernach keine Zugriffe mehr auf activeTetromino!
             activateNextTetromino();
 
@@ -321,7 +304,7 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         }
     }
 
-    protected void clearAndInsertLines(IntArray linesToRemove, boolean special, int[] garbageHolePosition) {
+    protected void clearAndInsertLines(IntList linesToRemove, boolean special, int[] garbageHolePosition) {
         if (linesToRemove.size > 0 || garbageHolePosition != null && garbageHolePosition.length > 0) {
             setFreezeInterval(DURATION_REMOVE_DELAY);
         }
@@ -377,33 +360,24 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
             uiGameboard.showMotivation(IGameModelListener.MotivationTypes.tenLinesCleared, Integer.toString((int)
                     Math.floor(clearedLines / 10) * 10));
 
-        if (clearedLines >= 100 && clearedLines - removedLines < 100)
-            gpgsUpdateAchievement(GpgsHelper.ACH_LONGCLEANER);
+        if (client != null)
+            client.linesCleared(this, removedLines, gameboardFill);
 
         if (score.getDrawnTetrominos() > 10 && gameboardFill == 0) {
-            gpgsUpdateAchievement(GpgsHelper.ACH_CLEAN_COMPLETE);
-
             if (score.addPerfectClear())
                 uiGameboard.showMotivation(IGameModelListener.MotivationTypes.boardCleared, null);
         }
 
-        float fTotalClearedLines = totalScore.getClearedLines();
-        gpgsUpdateAchievement(GpgsHelper.ACH_ADDICTION_LEVEL_1, removedLines, fTotalClearedLines / 500);
-        gpgsUpdateAchievement(GpgsHelper.ACH_ADDICTION_LEVEL_2, removedLines, fTotalClearedLines / 5000);
-        gpgsUpdateAchievement(GpgsHelper.ACH_HIGH_LEVEL_ADDICTION, removedLines, fTotalClearedLines / 10000);
-
     }
 
     protected void achievementTSpin() {
-        totalScore.incTSpins();
-        gpgsUpdateAchievement(GpgsHelper.ACH_TSPIN);
-        gpgsUpdateAchievement(GpgsHelper.ACH_10_TSPINS, 1, (float) totalScore.getTSpins() / 10);
+        if (client != null)
+            client.tSpin(this);
     }
 
     protected void achievementFourLines() {
-        totalScore.incFourLineCount();
-        gpgsUpdateAchievement(GpgsHelper.ACH_FOUR_LINES);
-        gpgsUpdateAchievement(GpgsHelper.ACH_100_FOUR_LINES, 1, (float) totalScore.getFourLineCount() / 100);
+        if (client != null)
+            client.fourLinesCleared(this);
     }
 
     /**
@@ -447,7 +421,6 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
             boolean doubleSpecial = score.incClearedLines(removeLinesCount, removeWasSpecial, isTSpin);
             achievementDoubleSpecial(doubleSpecial);
 
-            submitEvent(GpgsHelper.EVENT_LINES_CLEARED, removeLinesCount);
             linesRemoved(removeLinesCount, removeWasSpecial, doubleSpecial);
 
             setCurrentSpeed();
@@ -473,13 +446,10 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
     protected void achievementDoubleSpecial(boolean doubleSpecial) {
         if (doubleSpecial) {
             specialRowChainNum++;
-            totalScore.incDoubles();
             uiGameboard.showMotivation(IGameModelListener.MotivationTypes.doubleSpecial, null);
 
-            if (specialRowChainNum == 5)
-                gpgsUpdateAchievement(GpgsHelper.ACH_SPECIAL_CHAIN);
-            else
-                gpgsUpdateAchievement(GpgsHelper.ACH_DOUBLE_SPECIAL);
+            if (client != null)
+                client.doubleSpecial(this, specialRowChainNum);
         } else
             // auf 1 initialisieren, weil bei Double das erste Mal erhöht wird!
             specialRowChainNum = 1;
@@ -520,7 +490,8 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
             activeTetromino.setLastMovementType(0);
             lastMovementMs = score.getTimeMs();
             activeTetromino.incLockDelayCount(Math.abs(maxDistance));
-            replay.addMovePieceStep(lastMovementMs, true, (byte) maxDistance);
+            if (replay != null)
+                replay.addMovePieceStep(lastMovementMs, true, (byte) maxDistance);
         }
 
         if (maxDistance != distance) {
@@ -540,7 +511,7 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
 
         boolean foundValidPosition = gameboard.isValidPosition(activeTetromino, activeTetromino.getPosition(),
                 newRotation);
-        Vector2 wallkickPos = null;
+        Position wallkickPos = null;
 
         if (!foundValidPosition && isModernRotation() && activeTetromino.getTetrominoType() != Tetromino.TETRO_IDX_O) {
             // Wallkicks testen
@@ -552,9 +523,10 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
 
         if (foundValidPosition) {
 
-            // Die Position und auch die Einzelteile darin muss geclonet werden, um nicht
-            // durch die Rotation verloren zu gehen
-            Integer[][] oldBlockPositionsNewArray = cloneDoubleIntegerArray(activeTetromino.getCurrentBlockPositions());
+            // Die Position und auch die Einzelteile darin muss kopiert werden, um nicht
+            // durch die Rotation verloren zu gehen. Die Listener dürfen sie nicht aufbewahren.
+            Integer[][] oldBlockPositionsNewArray = copyDoubleIntegerArray(activeTetromino.getCurrentBlockPositions(),
+                    oldBlockPositions);
 
             if (wallkickPos != null)
                 activeTetromino.getPosition().set(wallkickPos);
@@ -565,17 +537,17 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
                     ghostPieceDistance);
             lastMovementMs = score.getTimeMs();
             activeTetromino.incLockDelayCount(1);
-            replay.addRotatePieceStep(lastMovementMs, activeTetromino);
+            if (replay != null)
+                replay.addRotatePieceStep(lastMovementMs, activeTetromino);
         }
     }
 
-    private Integer[][] cloneDoubleIntegerArray(Integer[][] arrayToClone) {
-        Integer[][] clonedArray = new Integer[arrayToClone.length][2];
-        for (int i = 0; i < arrayToClone.length; i++) {
-            clonedArray[i][0] = new Integer(arrayToClone[i][0]);
-            clonedArray[i][1] = new Integer(arrayToClone[i][1]);
+    private static Integer[][] copyDoubleIntegerArray(Integer[][] arrayToCopy, Integer[][] copiedArray) {
+        for (int i = 0; i < arrayToCopy.length; i++) {
+            copiedArray[i][0] = arrayToCopy[i][0];
+            copiedArray[i][1] = arrayToCopy[i][1];
         }
-        return clonedArray;
+        return copiedArray;
     }
 
     /**
@@ -597,8 +569,10 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         if (!isHoldMoveAllowedByModel() || noDropSinceHoldMove || isGameOver)
             return false;
 
-        Integer[][] newHoldPositions = cloneDoubleIntegerArray(activeTetromino.getRelativeBlockPositions());
-        Integer[][] oldActivePositions = cloneDoubleIntegerArray(activeTetromino.getCurrentBlockPositions());
+        Integer[][] newHoldPositions = copyDoubleIntegerArray(activeTetromino.getRelativeBlockPositions(),
+                holdBlockPositions);
+        Integer[][] oldActivePositions = copyDoubleIntegerArray(activeTetromino.getCurrentBlockPositions(),
+                oldBlockPositions);
 
         if (onHoldTetromino < 0) {
             // Der erste durchgeführte Hold
@@ -621,7 +595,8 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
 
             // rotate ist natürlich nicht ganz richtig, aber dadurch wird der jetzt geänderte Tetromino komplett
             // gespeichert
-            replay.addRotatePieceStep(score.getTimeMs(), activeTetromino);
+            if (replay != null)
+                replay.addRotatePieceStep(score.getTimeMs(), activeTetromino);
         }
 
         noDropSinceHoldMove = true;
@@ -656,7 +631,8 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
             score.incDrawnTetrominos();
             if (uiGameboard != null)
                 uiGameboard.updateScore(score, 0);
-            replay.addNextPieceStep(score.getTimeMs(), gameboard, activeTetromino);
+            if (replay != null)
+                replay.addNextPieceStep(score.getTimeMs(), gameboard, activeTetromino);
         }
     }
 
@@ -684,7 +660,8 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         isGameOver = true;
         uiGameboard.showMotivation(IGameModelListener.MotivationTypes.gameOver, null);
         uiGameboard.setGameOver();
-        playScreen.setGameOver();
+        if (client != null)
+            client.setGameOver();
 
         submitGameEnded(false);
     }
@@ -697,22 +674,15 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         isGameOver = true;
         uiGameboard.showMotivation(type, null);
         uiGameboard.setGameOver();
-        playScreen.setGameOver();
+        if (client != null)
+            client.setGameOver();
 
         submitGameEnded(true);
     }
 
     protected void submitGameEnded(boolean success) {
-        String leaderboardId = GpgsHelper.getLeaderBoardIdByModelId(getIdentifier());
-
-        if (leaderboardId != null && app.gpgsClient != null && app.gpgsClient.isSessionActive()) {
-            int leaderboardScore = score.getLeaderboardScore();
-            if (leaderboardScore > 0)
-                app.gpgsClient.submitToLeaderboard(leaderboardId, leaderboardScore, score.getLeaderboardTag());
-        }
-
-        submitEvent(GpgsHelper.EVENT_BLOCK_DROP, score.getDrawnTetrominos() % 10);
-        GaHelper.endGameEvent(app.gameAnalytics, this, success);
+        if (client != null)
+            client.gameEnded(this, success);
     }
 
     /**
@@ -782,7 +752,7 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
     /**
      * starts a new game
      */
-    public void startNewGame(InitGameParameters newGameParams) {
+    public void startNewGame(GameParameters newGameParams) {
         gameboard = new Gameboard();
         initGameScore(newGameParams.getBeginningLevel());
         setCurrentSpeed();
@@ -812,15 +782,17 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
     /**
      * returns the parameters to initialize a new game of same type for retrying
      */
-    public abstract InitGameParameters getInitParameters();
+    public abstract GameParameters getInitParameters();
 
     public String getScoreboardParameters() {
         return null;
     }
 
-    public void setUserInterface(LightBlocksGame app, PlayScreen userInterface, IGameModelListener uiGameboard) {
-        this.app = app;
-        this.playScreen = userInterface;
+    /**
+     * @param client null if the game is not played on a client, like on the server
+     */
+    public void setUserInterface(@Nullable IGameModelClient client, IGameModelListener uiGameboard) {
+        this.client = client;
         this.uiGameboard = uiGameboard;
 
         // Und dann das UI mal aufbauen
@@ -843,19 +815,17 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         uiGameboard.updateScore(score, 0);
     }
 
+    @Nullable
+    public IGameModelClient getClient() {
+        return client;
+    }
+
     /**
-     * Called to return game model to save
-     *
-     * @return json string or null if saving the state is not allowed or supported
+     * @return false if saving the state with {@link #write} to continue the game later is not
+     * allowed or supported
      */
-    public String saveGameModel() {
-        if (isGameOver)
-            return null;
-        else {
-            Json json = new Json();
-            json.setOutputType(JsonWriter.OutputType.json);
-            return json.toJson(this, GameModel.class);
-        }
+    public boolean isSaveAllowed() {
+        return !isGameOver;
     }
 
     public void setCurrentSpeed() {
@@ -915,22 +885,18 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
      * GPGS sumbit event convencience - Check auf null
      */
     protected void submitEvent(String eventId, int inc) {
-        if (app.gpgsClient != null)
-            app.gpgsClient.submitEvent(eventId, inc);
-
-        GaHelper.submitGameModelEvent(app, eventId, inc, this);
+        if (client != null)
+            client.submitEvent(this, eventId, inc);
     }
 
     protected void gpgsUpdateAchievement(String achievementId) {
-        if (app.gpgsClient != null && app.gpgsClient.isSessionActive()) {
-            app.gpgsClient.unlockAchievement(achievementId);
-        }
+        if (client != null)
+            client.unlockAchievement(achievementId);
     }
 
     protected void gpgsUpdateAchievement(String achievementId, int incNum, float completionPercentage) {
-        if (app.gpgsClient != null && app.gpgsClient.isSessionActive()) {
-            app.gpgsClient.incrementAchievement(achievementId, incNum, completionPercentage);
-        }
+        if (client != null)
+            client.incrementAchievement(achievementId, incNum, completionPercentage);
     }
 
     /**
@@ -949,64 +915,94 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         return gameboard;
     }
 
-    @Override
-    public void write(Json json) {
-        json.writeValue("gameModelVersion", GAMEMODEL_VERSION);
-        json.writeValue("board", gameboard);
-        json.writeValue("drawyer", drawyer);
-        json.writeValue("active", activeTetromino);
-        json.writeValue("next", nextTetromino.getTetrominoType());
-        json.writeValue("hold", onHoldTetromino);
-        json.writeValue("noDropSinceHold", noDropSinceHoldMove);
-        json.writeValue("score", score);
-        json.writeValue("inputType", inputTypeKey);
-        json.writeValue("replay", replay.toString());
+    /**
+     * writes the game, so that it can be continued with {@link #read}. Inputs in progress are not
+     * included.
+     */
+    public void write(IStateWriter writer) throws IOException {
+        writer.writeValue("gameModelVersion", GAMEMODEL_VERSION);
+        writer.writeObjectStart("board");
+        gameboard.write(writer);
+        writer.writeObjectEnd();
+        writer.writeObjectStart("drawyer");
+        drawyer.write(writer);
+        writer.writeObjectEnd();
+        writer.writeObjectStart("active");
+        activeTetromino.write(writer);
+        writer.writeObjectEnd();
+        writer.writeValue("next", nextTetromino.getTetrominoType());
+        writer.writeValue("hold", onHoldTetromino);
+        writer.writeValue("noDropSinceHold", noDropSinceHoldMove);
+        writer.writeObjectStart("score");
+        score.write(writer);
+        writer.writeObjectEnd();
+        writer.writeValue("inputType", inputTypeKey);
+        writer.writeValue("distanceRemainder", distanceRemainder);
+        writer.writeValue("freezeCountdown", freezeCountdown);
+        writer.writeValue("inputFreezeCountdown", inputFreezeCountdown);
+        writer.writeValue("lastMovementMs", lastMovementMs);
+        writer.writeValue("isGameOver", isGameOver);
+        writer.writeValue("specialRowChainNum", specialRowChainNum);
+        writer.writeValue("replay", replay != null ? replay.toString() : null);
     }
 
-    @Override
-    public void read(Json json, JsonValue jsonData) {
+    /**
+     * reads a game written by {@link #write}, or a new game defined by the values that are set,
+     * like missions do. Values are read in the order they are written. Models that were started
+     * before keep their drawyer, so that multiplayer models stay connected.
+     */
+    public void read(IStateReader reader) throws IOException {
+        reader.getString("gameModelVersion", GAMEMODEL_VERSION);
+
         // Gameboard (if set)
         this.gameboard = new Gameboard();
-        final JsonValue board = jsonData.get("board");
+        final IStateReader board = reader.get("board");
         if (board != null)
-            this.gameboard.read(json, board);
+            this.gameboard.read(board);
 
         // Drawyer (if set)
-        initDrawyer();
-        final JsonValue drawyer = jsonData.get("drawyer");
+        if (this.drawyer == null)
+            initDrawyer();
+        final IStateReader drawyer = reader.get("drawyer");
         if (drawyer != null)
-            this.drawyer.read(json, drawyer);
+            this.drawyer.read(drawyer);
+
+        // den aktiven Tetromino hier einzeln herausfummeln wegen des
+        // parametrisierten Konstruktors (when set)
+        final IStateReader tetromino = reader.get("active");
+        activeTetromino = tetromino != null ? Tetromino.read(tetromino, isModernRotation()) : null;
+        int next = reader.getInt("next", -1);
+        this.onHoldTetromino = reader.getInt("hold", -1);
+        this.noDropSinceHoldMove = reader.getBoolean("noDropSinceHold", false);
 
         // Score (if set)
-        this.score = json.readValue("score", GameScore.class, jsonData);
-        if (this.score == null) {
-            initGameScore(jsonData.getInt("beginningLevel", 0));
-        }
+        final IStateReader score = reader.get("score");
+        if (score != null) {
+            this.score = new GameScore();
+            this.score.read(score);
+        } else
+            initGameScore(reader.getInt("beginningLevel", 0));
 
         // Input Type (if set)
-        this.inputTypeKey = jsonData.getInt("inputType", -1);
+        this.inputTypeKey = reader.getInt("inputType", -1);
 
-        // den aktiven Tetromino hier einzeln herausfummeln wegen des
-        // parametrisierten Konstruktors (when set)
-        JsonValue tetromino = jsonData.get("active");
-        if (tetromino != null) {
-            this.nextTetromino = new Tetromino(jsonData.getInt("next"), isModernRotation());
-            activeTetromino = new Tetromino(tetromino.getInt("tetrominoIndex"), isModernRotation());
-            activeTetromino.setRotation(tetromino.getInt("currentRotation"));
-            // unbedingt nach setRotation!
-            activeTetromino.setLastMovementType(tetromino.getInt("lastMovementType"));
-            Vector2 posFromJson = json.readValue(Vector2.class, tetromino.get("position"));
-            activeTetromino.getPosition().set(posFromJson);
-        } else {
-            activeTetromino = null;
+        distanceRemainder = reader.getFloat("distanceRemainder", 0);
+        freezeCountdown = reader.getFloat("freezeCountdown", 0);
+        inputFreezeCountdown = reader.getFloat("inputFreezeCountdown", 0);
+        lastMovementMs = reader.getInt("lastMovementMs", 0);
+        isGameOver = reader.getBoolean("isGameOver", false);
+        specialRowChainNum = reader.getInt("specialRowChainNum", 0);
+
+        if (activeTetromino != null)
+            this.nextTetromino = new Tetromino(next, isModernRotation());
+        else
             initializeActiveAndNextTetromino();
-        }
-        this.onHoldTetromino = jsonData.getInt("hold", -1);
-        this.noDropSinceHoldMove = jsonData.getBoolean("noDropSinceHold", false);
 
         setCurrentSpeed();
 
-        replay.fromString(jsonData.getString("replay", null));
+        String replay = reader.getString("replay", null);
+        if (this.replay != null)
+            this.replay.fromString(replay);
     }
 
     public boolean beginPaused() {
@@ -1063,20 +1059,16 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
         return null;
     }
 
-    public Color getShownTimeColor() {
+    /**
+     * @return how to show the time in the playscreen, null to leave it like it is
+     */
+    @Nullable
+    public TimeHighlight getShownTimeHighlight() {
         return null;
     }
 
-    public BestScore getBestScore() {
-        return bestScore;
-    }
-
-    public void setBestScore(BestScore bestScore) {
-        this.bestScore = bestScore;
-    }
-
     public Replay getReplay() {
-        return (replay.isValid() ? replay : null);
+        return (replay != null && replay.isValid() ? replay : null);
     }
 
     /**
@@ -1113,4 +1105,6 @@ public abstract class GameModel implements Json.Serializable, AiAcessibleGameMod
     public void dispose() {
 
     }
+
+    public enum TimeHighlight {normal, focussed, emphasized}
 }
@@ -1,11 +1,13 @@
 package de.golfgl.lightblocks.model;
 
-import de.golfgl.lightblocks.LightBlocksGame;
-import de.golfgl.lightblocks.state.GameStateHandler;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
 import de.golfgl.lightblocks.state.IRoundScore;
 
 /**
- * Diese Klasse verwaltet alle Punktstände eines Spiels oder der Gesamtspiele. Save/Load über Reflection :-/
+ * Diese Klasse verwaltet alle Punktstände eines Spiels oder der Gesamtspiele.
  * <p>
  * Created by Benjamin Schulte on 29.01.2017.
  */
@@ -17,7 +19,17 @@ public class GameScore implements IRoundScore {
     protected static final int TYPE_RETRO89 = 3;
     protected static final int TYPE_MODERNFREEZE = 4;
 
+    // Sprint ist geschafft, wenn so viele Reihen abgebaut sind
+    public static final int SPRINT_LINES_TO_CLEAR = 40;
+
     private static final int COMBO_COUNT_RESET = -1;
+    // Schlüssel für den Hash gegen Manipulation, darf sich nicht ändern da er in Spielständen steckt
+    private static final byte[] HASH_KEY = {'b', 'i', 'g', 'b', 'i', 'g', 'o', 'u', 't', 'l', 'i', 'n', 'e'};
+    private static final char[] BASE64_CHARS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    // der Punktestand wird auf mindestens 10 Zeichen verdoppelt, also höchstens 18 mit Vorzeichen
+    private static final int HASH_INPUT_LENGTH = 20;
+    private static final int HASH_LENGTH = (HASH_INPUT_LENGTH + 2) / 3 * 4;
 
     // der aktuelle Punktestand
     private int score;
@@ -38,7 +50,11 @@ public class GameScore implements IRoundScore {
     private float secondFraction;
     private boolean lastClearLinesWasSpecial = false;
     private boolean fraudDetected = false;
-    private String hashValue;
+    // der Hash wird bei jedem Tetromino geprüft und neu berechnet, darum ohne neue Objekte
+    private final char[] hashValue = new char[HASH_LENGTH];
+    private int hashValueLength;
+    private final char[] hashCheck = new char[HASH_LENGTH];
+    private final byte[] hashInput = new byte[HASH_INPUT_LENGTH];
 
     private int scoringType = TYPE_NORMAL;
 
@@ -63,7 +79,7 @@ public class GameScore implements IRoundScore {
             case TYPE_PRACTICE:
                 return getDrawnTetrominos();
             case TYPE_SPRINT:
-                return (getClearedLines() >= SprintModel.NUM_LINES_TO_CLEAR ? getTimeMs() : -1);
+                return (getClearedLines() >= SPRINT_LINES_TO_CLEAR ? getTimeMs() : -1);
             default:
                 return getScore();
         }
@@ -276,20 +292,54 @@ public class GameScore implements IRoundScore {
     }
 
     private void saveHashValue() {
-        hashValue = calcHash();
+        hashValueLength = calcHash(hashValue);
     }
 
-    private String calcHash() {
-        String s = String.valueOf(score);
-        while (s.length() < 10)
-            s = s + s;
-        return GameStateHandler.encode(s, LightBlocksGame.SKIN_FONT_TITLE);
+    /**
+     * XOR des Punktestands mit dem Schlüssel und danach Base64, wie beim Spielstand
+     *
+     * @return Länge des Hashs in hash
+     */
+    private int calcHash(char[] hash) {
+        // der Punktestand als Text, so oft verdoppelt bis er mindestens 10 Zeichen hat
+        long value = Math.abs((long) score);
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest = rest / 10)
+            digits++;
+        int length = score < 0 ? digits + 1 : digits;
+        hashInput[0] = '-';
+        for (int i = length - 1; i >= length - digits; i--) {
+            hashInput[i] = (byte) ('0' + value % 10);
+            value = value / 10;
+        }
+        while (length < 10) {
+            System.arraycopy(hashInput, 0, hashInput, length, length);
+            length = length * 2;
+        }
+
+        for (int i = 0; i < length; i++)
+            hashInput[i] = (byte) (hashInput[i] ^ HASH_KEY[i % HASH_KEY.length]);
+
+        int hashLength = 0;
+        for (int i = 0; i < length; i += 3) {
+            int b0 = hashInput[i] & 0xff;
+            int b1 = i + 1 < length ? hashInput[i + 1] & 0xff : 0;
+            int b2 = i + 2 < length ? hashInput[i + 2] & 0xff : 0;
+            hash[hashLength++] = BASE64_CHARS[b0 >>> 2];
+            hash[hashLength++] = BASE64_CHARS[((b0 & 3) << 4) | (b1 >>> 4)];
+            hash[hashLength++] = i + 1 < length ? BASE64_CHARS[((b1 & 0xf) << 2) | (b2 >>> 6)] : '=';
+            hash[hashLength++] = i + 2 < length ? BASE64_CHARS[b2 & 0x3f] : '=';
+        }
+        return hashLength;
     }
 
     private void checkHashValue() {
         if (score > 100 && !fraudDetected) {
-            String shouldBe = calcHash();
-            if (!shouldBe.equals(hashValue))
+            int checkLength = calcHash(hashCheck);
+            boolean equal = checkLength == hashValueLength;
+            for (int i = 0; equal && i < checkLength; i++)
+                equal = hashCheck[i] == hashValue[i];
+            if (!equal)
                 fraudDetected = true;
         }
     }
@@ -306,4 +356,39 @@ public class GameScore implements IRoundScore {
             return true;
         }
     }
+
+    void write(IStateWriter writer) throws IOException {
+        writer.writeValue("score", score);
+        writer.writeValue("clearedLines", clearedLines);
+        writer.writeValue("startingLevel", startingLevel);
+        writer.writeValue("dropScore", dropScore);
+        writer.writeValue("comboCounter", comboCounter);
+        writer.writeValue("drawnTetrominos", drawnTetrominos);
+        writer.writeValue("rating", rating);
+        writer.writeValue("seconds", seconds);
+        writer.writeValue("secondFraction", secondFraction);
+        writer.writeValue("lastClearLinesWasSpecial", lastClearLinesWasSpecial);
+        writer.writeValue("fraudDetected", fraudDetected);
+        writer.writeValue("hashValue", hashValueLength > 0 ? new String(hashValue, 0, hashValueLength) : null);
+        writer.writeValue("scoringType", scoringType);
+    }
+
+    void read(IStateReader reader) throws IOException {
+        score = reader.getInt("score", 0);
+        clearedLines = reader.getInt("clearedLines", 0);
+        startingLevel = reader.getInt("startingLevel", 0);
+        dropScore = reader.getFloat("dropScore", 0);
+        comboCounter = reader.getInt("comboCounter", COMBO_COUNT_RESET);
+        drawnTetrominos = reader.getInt("drawnTetrominos", 0);
+        rating = reader.getInt("rating", 0);
+        seconds = reader.getInt("seconds", 0);
+        secondFraction = reader.getFloat("secondFraction", 0);
+        lastClearLinesWasSpecial = reader.getBoolean("lastClearLinesWasSpecial", false);
+        fraudDetected = reader.getBoolean("fraudDetected", false);
+        String hash = reader.getString("hashValue", null);
+        hashValueLength = hash != null ? Math.min(hash.length(), HASH_LENGTH) : 0;
+        if (hash != null)
+            hash.getChars(0, hashValueLength, hashValue, 0);
+        scoringType = reader.getInt("scoringType", TYPE_NORMAL);
+    }
 }
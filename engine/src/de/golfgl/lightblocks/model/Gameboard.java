@@ -1,16 +1,18 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.Json;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.Engine;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
+import de.golfgl.lightblocks.engine.IntList;
+import de.golfgl.lightblocks.engine.Position;
 
 /**
  * Created by Benjamin Schulte on 23.01.2017.
  */
 
-public class Gameboard implements Json.Serializable {
+public class Gameboard {
     public static final int GAMEBOARD_ALLROWS = 22;
     // normalerweise sind nur 20 Zeilen im Spiel, die 2 oberen sind nur
     // nötig im Multiplayer wenn hochgedrückt wird
@@ -21,7 +23,7 @@ public class Gameboard implements Json.Serializable {
 
     // Der Tetromino-Index an dieser Position (y/x)
     private final int[][] gameboardSquare;
-    Vector2 tempPos;
+    Position tempPos;
 
     Gameboard() {
         gameboardSquare = new int[GAMEBOARD_ALLROWS][GAMEBOARD_COLUMNS];
@@ -31,7 +33,7 @@ public class Gameboard implements Json.Serializable {
             }
         }
 
-        tempPos = new Vector2();
+        tempPos = new Position();
 
     }
 
@@ -94,7 +96,7 @@ public class Gameboard implements Json.Serializable {
      * prüft ob der übergebene Tetromino an der übergebenen Position
      * mit der übergebenen Rotation eine valide Position hätte
      */
-    public boolean isValidPosition(Tetromino tetromino, Vector2 testPosition, int testRotation) {
+    public boolean isValidPosition(Tetromino tetromino, Position testPosition, int testRotation) {
         for (Integer[] coord : tetromino.getBlockPositions(testPosition, testRotation)) {
             if (isValidCoordinate(coord[0], coord[1]) != 0) {
                 return false;
@@ -132,15 +134,15 @@ public class Gameboard implements Json.Serializable {
     }
 
     public void pinTetromino(Tetromino activeTetromino) {
-        for (Vector2 coord : activeTetromino.getRotationVectors(activeTetromino.getCurrentRotation())) {
-            int x = (int) activeTetromino.getPosition().x + (int) coord.x;
-            int y = (int) activeTetromino.getPosition().y + (int) coord.y;
+        for (Position coord : activeTetromino.getRotationVectors(activeTetromino.getCurrentRotation())) {
+            int x = activeTetromino.getPosition().x + coord.x;
+            int y = activeTetromino.getPosition().y + coord.y;
             gameboardSquare[y][x] = activeTetromino.getTetrominoType();
         }
 
     }
 
-    public void clearLines(IntArray linesToRemove) {
+    public void clearLines(IntList linesToRemove) {
         for (int i = linesToRemove.size - 1; i >= 0; i--) {
 
             for (int y = linesToRemove.get(i); y < GAMEBOARD_ALLROWS; y++) {
@@ -194,27 +196,26 @@ public class Gameboard implements Json.Serializable {
         return retVal;
     }
 
-    // JSON
-    // Die JSON für das Spielbrett sind einfach alle Blöcke hintereinander weg geschrieben
+    // Das Spielbrett wird einfach als alle Blöcke hintereinander weg geschrieben
     // Ist der Block leer, kommt ein Leerzeichen. Ansonsten der ASCII-Wert des Blocks + 65
     // (so ist Blockwert 0 -> A, Blockwert 1 -> B usw.)
-    @Override
-    public void write(Json json) {
-        String jsonString = "";
+    void write(IStateWriter writer) throws IOException {
+        StringBuilder fields = new StringBuilder(GAMEBOARD_ALLROWS * GAMEBOARD_COLUMNS);
         for (int y = 0; y < GAMEBOARD_ALLROWS; y++) {
             for (int x = 0; x < GAMEBOARD_COLUMNS; x++) {
-                jsonString += gameboardSquareToChar(gameboardSquare[y][x]);
+                fields.append(gameboardSquareToChar(gameboardSquare[y][x]));
             }
         }
-        json.writeValue("fields", jsonString);
+        writer.writeValue("fields", fields.toString());
     }
 
-    @Override
-    public void read(Json json, JsonValue jsonData) {
-        String jsonString = jsonData.getString("fields");
+    void read(IStateReader reader) throws IOException {
+        String fields = reader.getString("fields", null);
+        if (fields == null)
+            return;
         for (int y = 0; y < GAMEBOARD_ALLROWS; y++) {
             for (int x = 0; x < GAMEBOARD_COLUMNS; x++) {
-                gameboardSquare[y][x] = gameboardCharToSquare(jsonString.charAt(y * GAMEBOARD_COLUMNS + x));
+                gameboardSquare[y][x] = gameboardCharToSquare(fields.charAt(y * GAMEBOARD_COLUMNS + x));
             }
         }
 
@@ -239,7 +240,7 @@ public class Gameboard implements Json.Serializable {
             // aber sicherstellen dass die zeile nicht schon von Anfang an voll ist!
             boolean hasGap = false;
             for (int x = 0; x < GAMEBOARD_COLUMNS; x++) {
-                if (MathUtils.randomBoolean() && (hasGap || x < GAMEBOARD_COLUMNS - 1))
+                if (Engine.random.randomBoolean() && (hasGap || x < GAMEBOARD_COLUMNS - 1))
                     gameboardSquare[y][x] = SQUARE_GARBAGE;
                 else
                     hasGap = true;
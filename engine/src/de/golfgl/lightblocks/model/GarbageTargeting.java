@@ -0,0 +1,15 @@
+package de.golfgl.lightblocks.model;
+
+/**
+ * Decides which opponent gets the garbage lines a player sends in a game with more than two
+ * players. Only opponents still playing are targeted, in a two player game every strategy
+ * targets the one opponent.
+ */
+public enum GarbageTargeting {
+    // a random opponent
+    RANDOM,
+    // the opponent that sent garbage to the player the last time, a random one before
+    ATTACKER,
+    // the opponent with the highest score
+    LEADER
+}
@@ -0,0 +1,42 @@
+package de.golfgl.lightblocks.model;
+
+/**
+ * Alles was ein GameModel auf dem Client auslöst, aber nicht zum Spiel selbst gehört: Gesamtpunktzahl,
+ * Bestenliste, Achievements, Events und der Playscreen.
+ * <p>
+ * Wird auf dem Server nicht gesetzt
+ */
+public interface IGameModelClient {
+
+    /**
+     * @return true wenn das eine neue maximale Combo ist
+     */
+    boolean setMaxComboCount(int comboCount);
+
+    void setGameboardCriticalFill(boolean critical);
+
+    /**
+     * ein Tetromino ist gefallen und die Punkte sind vergeben
+     *
+     * @return true wenn der aktuelle Score ein neuer Bestwert ist
+     */
+    boolean pieceDropped(GameModel model, int gainedScore, int removedLines);
+
+    void linesCleared(GameModel model, int removedLines, int gameboardFill);
+
+    void tSpin(GameModel model);
+
+    void fourLinesCleared(GameModel model);
+
+    void doubleSpecial(GameModel model, int specialRowChainNum);
+
+    void submitEvent(GameModel model, String eventId, int inc);
+
+    void unlockAchievement(String achievementId);
+
+    void incrementAchievement(String achievementId, int incNum, float completionPercentage);
+
+    void setGameOver();
+
+    void gameEnded(GameModel model, boolean success);
+}
@@ -1,10 +1,8 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.utils.IntArray;
-
 import javax.annotation.Nullable;
 
-import de.golfgl.lightblocks.multiplayer.MultiPlayerObjects;
+import de.golfgl.lightblocks.engine.IntList;
 
 /**
  * Created by Benjamin Schulte on 23.01.2017.
@@ -27,9 +25,9 @@ public interface IGameModelListener {
      *                            zusammenhängend sind.
      * @param garbageHolePosition für Garbage: definiert an welcher Stelle die Freistelle ist
      */
-    void clearAndInsertLines(IntArray linesToRemove, boolean special, int[] garbageHolePosition);
+    void clearAndInsertLines(IntList linesToRemove, boolean special, int[] garbageHolePosition);
 
-    void markAndMoveFreezedLines(boolean playSoundAndMove, IntArray removedLines, IntArray fullLines);
+    void markAndMoveFreezedLines(boolean playSoundAndMove, IntList removedLines, IntList fullLines);
 
     void setGameOver();
 
@@ -1,6 +1,10 @@
 package de.golfgl.lightblocks.model;
 
-import com.badlogic.gdx.math.Vector2;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
+import de.golfgl.lightblocks.engine.Position;
 
 import static de.golfgl.lightblocks.model.Gameboard.GAMEBOARD_COLUMNS;
 import static de.golfgl.lightblocks.model.Gameboard.GAMEBOARD_NORMALROWS;
@@ -24,97 +28,97 @@ public class Tetromino {
 
     //Die 7 Tetrominos
     // wiki/Nintendo_Rotation_System
-    private static Vector2[][][] nrsTemplates = {
+    private static Position[][][] nrsTemplates = {
             // das I
-            {{new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(3, 1)},
-                    {new Vector2(2, 0), new Vector2(2, 1), new Vector2(2, 2), new Vector2(2, 3)}
+            {{new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(3, 1)},
+                    {new Position(2, 0), new Position(2, 1), new Position(2, 2), new Position(2, 3)}
             },
 
             // T
-            {{new Vector2(1, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(1, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(1, 2)},
-                    {new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2)}
+            {{new Position(1, 0), new Position(0, 1), new Position(1, 1), new Position(2, 1)},
+                    {new Position(1, 0), new Position(0, 1), new Position(1, 1), new Position(1, 2)},
+                    {new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(1, 2)},
+                    {new Position(1, 0), new Position(1, 1), new Position(2, 1), new Position(1, 2)}
             },
 
-            {{new Vector2(0, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(0, 2), new Vector2(1, 2)},
-                    {new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(2, 2)},
-                    {new Vector2(1, 0), new Vector2(2, 0), new Vector2(1, 1), new Vector2(1, 2)}
+            {{new Position(0, 0), new Position(0, 1), new Position(1, 1), new Position(2, 1)},
+                    {new Position(1, 0), new Position(1, 1), new Position(0, 2), new Position(1, 2)},
+                    {new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(2, 2)},
+                    {new Position(1, 0), new Position(2, 0), new Position(1, 1), new Position(1, 2)}
             },
 
-            {{new Vector2(2, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(0, 0), new Vector2(1, 0), new Vector2(1, 1), new Vector2(1, 2)},
-                    {new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(0, 2)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(1, 2), new Vector2(2, 2)}
+            {{new Position(2, 0), new Position(0, 1), new Position(1, 1), new Position(2, 1)},
+                    {new Position(0, 0), new Position(1, 0), new Position(1, 1), new Position(1, 2)},
+                    {new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(0, 2)},
+                    {new Position(1, 0), new Position(1, 1), new Position(1, 2), new Position(2, 2)}
             },
 
             // Z
-            {{new Vector2(1, 0), new Vector2(2, 0), new Vector2(0, 1), new Vector2(1, 1)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(2, 1), new Vector2(2, 2)}},
+            {{new Position(1, 0), new Position(2, 0), new Position(0, 1), new Position(1, 1)},
+                    {new Position(1, 0), new Position(1, 1), new Position(2, 1), new Position(2, 2)}},
 
             // S
-            {{new Vector2(0, 0), new Vector2(1, 0), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(2, 0), new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2)}},
+            {{new Position(0, 0), new Position(1, 0), new Position(1, 1), new Position(2, 1)},
+                    {new Position(2, 0), new Position(1, 1), new Position(2, 1), new Position(1, 2)}},
 
             // O
-            {{new Vector2(1, 0), new Vector2(2, 0), new Vector2(1, 1), new Vector2(2, 1)}}};
+            {{new Position(1, 0), new Position(2, 0), new Position(1, 1), new Position(2, 1)}}};
 
     // wiki/SRS
-    private static Vector2[][][] srsTemplates = {
+    private static Position[][][] srsTemplates = {
             // das I
-            {{new Vector2(0, 2), new Vector2(1, 2), new Vector2(2, 2), new Vector2(3, 2)},
-                    {new Vector2(2, 0), new Vector2(2, 1), new Vector2(2, 2), new Vector2(2, 3)},
-                    {new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(3, 1)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(1, 2), new Vector2(1, 3)},
+            {{new Position(0, 2), new Position(1, 2), new Position(2, 2), new Position(3, 2)},
+                    {new Position(2, 0), new Position(2, 1), new Position(2, 2), new Position(2, 3)},
+                    {new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(3, 1)},
+                    {new Position(1, 0), new Position(1, 1), new Position(1, 2), new Position(1, 3)},
             },
 
             // T
-            {{new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2)},
-                    {new Vector2(1, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(1, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(1, 2)}
+            {{new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(1, 2)},
+                    {new Position(1, 0), new Position(1, 1), new Position(2, 1), new Position(1, 2)},
+                    {new Position(1, 0), new Position(0, 1), new Position(1, 1), new Position(2, 1)},
+                    {new Position(1, 0), new Position(0, 1), new Position(1, 1), new Position(1, 2)}
             },
 
-            {{new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(2, 2)},
-                    {new Vector2(1, 0), new Vector2(2, 0), new Vector2(1, 1), new Vector2(1, 2)},
-                    {new Vector2(0, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(0, 2), new Vector2(1, 2)}
+            {{new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(2, 2)},
+                    {new Position(1, 0), new Position(2, 0), new Position(1, 1), new Position(1, 2)},
+                    {new Position(0, 0), new Position(0, 1), new Position(1, 1), new Position(2, 1)},
+                    {new Position(1, 0), new Position(1, 1), new Position(0, 2), new Position(1, 2)}
             },
 
-            {{new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1), new Vector2(0, 2)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(1, 2), new Vector2(2, 2)},
-                    {new Vector2(2, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(0, 0), new Vector2(1, 0), new Vector2(1, 1), new Vector2(1, 2)}
+            {{new Position(0, 1), new Position(1, 1), new Position(2, 1), new Position(0, 2)},
+                    {new Position(1, 0), new Position(1, 1), new Position(1, 2), new Position(2, 2)},
+                    {new Position(2, 0), new Position(0, 1), new Position(1, 1), new Position(2, 1)},
+                    {new Position(0, 0), new Position(1, 0), new Position(1, 1), new Position(1, 2)}
             },
 
             // Z
-            {{new Vector2(1, 1), new Vector2(2, 1), new Vector2(0, 2), new Vector2(1, 2)},
-                    {new Vector2(1, 0), new Vector2(1, 1), new Vector2(2, 1), new Vector2(2, 2)},
-                    {new Vector2(1, 0), new Vector2(2, 0), new Vector2(0, 1), new Vector2(1, 1)},
-                    {new Vector2(0, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(1, 2)}
+            {{new Position(1, 1), new Position(2, 1), new Position(0, 2), new Position(1, 2)},
+                    {new Position(1, 0), new Position(1, 1), new Position(2, 1), new Position(2, 2)},
+                    {new Position(1, 0), new Position(2, 0), new Position(0, 1), new Position(1, 1)},
+                    {new Position(0, 0), new Position(0, 1), new Position(1, 1), new Position(1, 2)}
             },
 
             // S
-            {{new Vector2(0, 1), new Vector2(1, 1), new Vector2(1, 2), new Vector2(2, 2)},
-                    {new Vector2(2, 0), new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2)},
-                    {new Vector2(0, 0), new Vector2(1, 0), new Vector2(1, 1), new Vector2(2, 1)},
-                    {new Vector2(1, 0), new Vector2(0, 1), new Vector2(1, 1), new Vector2(0, 2)}
+            {{new Position(0, 1), new Position(1, 1), new Position(1, 2), new Position(2, 2)},
+                    {new Position(2, 0), new Position(1, 1), new Position(2, 1), new Position(1, 2)},
+                    {new Position(0, 0), new Position(1, 0), new Position(1, 1), new Position(2, 1)},
+                    {new Position(1, 0), new Position(0, 1), new Position(1, 1), new Position(0, 2)}
             },
 
             // O
-            {{new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2), new Vector2(2, 2)},
-                    {new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2), new Vector2(2, 2)},
-                    {new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2), new Vector2(2, 2)},
-                    {new Vector2(1, 1), new Vector2(2, 1), new Vector2(1, 2), new Vector2(2, 2)}
+            {{new Position(1, 1), new Position(2, 1), new Position(1, 2), new Position(2, 2)},
+                    {new Position(1, 1), new Position(2, 1), new Position(1, 2), new Position(2, 2)},
+                    {new Position(1, 1), new Position(2, 1), new Position(1, 2), new Position(2, 2)},
+                    {new Position(1, 1), new Position(2, 1), new Position(1, 2), new Position(2, 2)}
             }};
 
-    private transient final Vector2[][][] tetrominoTemplates;
+    private transient final Position[][][] tetrominoTemplates;
     private transient final boolean srs;
 
     private final int tetrominoIndex;
-    private final Vector2 position;
-    private transient final Vector2 wallkickPos;
+    private final Position position;
+    private transient final Position wallkickPos;
     // wird immer wieder verwendet um Garbage Collection zu verhindern
     // also aufpassen und ggf. kopieren
     private transient final Integer[][] blockPosition;
@@ -132,14 +136,14 @@ public class Tetromino {
         this.blockPosition = new Integer[TETROMINO_BLOCKCOUNT][2];
 
         // Die Startposition jedes Tetrominos
-        this.position = new Vector2(GAMEBOARD_COLUMNS / 2 - 2, GAMEBOARD_NORMALROWS - 2);
-        lowestMovementYPos = (int) position.y;
+        this.position = new Position(GAMEBOARD_COLUMNS / 2 - 2, GAMEBOARD_NORMALROWS - 2);
+        lowestMovementYPos = position.y;
         currentRotation = 0;
 
-        wallkickPos = srs ? new Vector2() : null;
+        wallkickPos = srs ? new Position() : null;
     }
 
-    public Vector2[] getRotationVectors(int rotation) {
+    public Position[] getRotationVectors(int rotation) {
         rotation = normalizeRotation(rotation);
         return tetrominoTemplates[tetrominoIndex][rotation];
     }
@@ -148,7 +152,7 @@ public class Tetromino {
      * Prüft ob die Rotation innerhalb der Arraygrenzen liegt
      */
     private int normalizeRotation(int rotation) {
-        final Vector2[][] thisTetromino = tetrominoTemplates[tetrominoIndex];
+        final Position[][] thisTetromino = tetrominoTemplates[tetrominoIndex];
         if (rotation < 0)
             rotation = rotation + thisTetromino.length;
         rotation = rotation % thisTetromino.length;
@@ -163,7 +167,7 @@ public class Tetromino {
         return currentRotation;
     }
 
-    public Vector2 getPosition() {
+    public Position getPosition() {
         return position;
     }
 
@@ -171,7 +175,7 @@ public class Tetromino {
         return tetrominoIndex;
     }
 
-    public Vector2[] getCurrentRotationVectors() {
+    public Position[] getCurrentRotationVectors() {
         return getRotationVectors(getCurrentRotation());
     }
 
@@ -183,14 +187,14 @@ public class Tetromino {
     }
 
     public Integer[][] getRelativeBlockPositions() {
-        return getBlockPositions(new Vector2(0, 0), 0);
+        return getBlockPositions(new Position(0, 0), 0);
     }
 
-    protected Integer[][] getBlockPositions(Vector2 position, int rotation) {
+    protected Integer[][] getBlockPositions(Position position, int rotation) {
         int i = 0;
-        for (Vector2 v : getRotationVectors(rotation)) {
-            blockPosition[i][0] = ((int) v.x + (int) position.x);
-            blockPosition[i][1] = ((int) v.y + (int) position.y);
+        for (Position v : getRotationVectors(rotation)) {
+            blockPosition[i][0] = v.x + position.x;
+            blockPosition[i][1] = v.y + position.y;
             i++;
         }
         return blockPosition;
@@ -224,7 +228,7 @@ public class Tetromino {
         this.lastMovementType = lastMovementType;
     }
 
-    public Vector2 getWallkickPosition(int i, boolean clockwise) {
+    public Position getWallkickPosition(int i, boolean clockwise) {
         if (!srs || getTetrominoType() == TETRO_IDX_O)
             return getPosition();
 
@@ -373,7 +377,7 @@ public class Tetromino {
     public void incLockDelayCount(int count) {
         if (position.y < lowestMovementYPos) {
             lockDelayCount = 0;
-            lowestMovementYPos = (int) position.y;
+            lowestMovementYPos = position.y;
         }
         lockDelayCount = lockDelayCount + count;
     }
@@ -381,4 +385,30 @@ public class Tetromino {
     public int getLockDelayCount() {
         return lockDelayCount;
     }
+
+    void write(IStateWriter writer) throws IOException {
+        writer.writeValue("tetrominoIndex", tetrominoIndex);
+        writer.writeValue("currentRotation", currentRotation);
+        writer.writeValue("lastMovementType", lastMovementType);
+        writer.writeObjectStart("position");
+        writer.writeValue("x", position.x);
+        writer.writeValue("y", position.y);
+        writer.writeObjectEnd();
+        writer.writeValue("lowestMovementYPos", lowestMovementYPos);
+        writer.writeValue("lockDelayCount", lockDelayCount);
+    }
+
+    static Tetromino read(IStateReader reader, boolean srs) throws IOException {
+        Tetromino tetromino = new Tetromino(reader.getInt("tetrominoIndex", 0), srs);
+        tetromino.setRotation(reader.getInt("currentRotation", 0));
+        // unbedingt nach setRotation!
+        tetromino.setLastMovementType(reader.getInt("lastMovementType", 0));
+        IStateReader position = reader.get("position");
+        if (position != null)
+            tetromino.position.set(position.getInt("x", tetromino.position.x),
+                    position.getInt("y", tetromino.position.y));
+        tetromino.lowestMovementYPos = reader.getInt("lowestMovementYPos", tetromino.position.y);
+        tetromino.lockDelayCount = reader.getInt("lockDelayCount", 0);
+        return tetromino;
+    }
 }
@@ -0,0 +1,92 @@
+package de.golfgl.lightblocks.model;
+
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.Engine;
+import de.golfgl.lightblocks.engine.IStateReader;
+import de.golfgl.lightblocks.engine.IStateWriter;
+import de.golfgl.lightblocks.engine.IntList;
+
+/**
+ * This is the Tetromino draywer
+ * <p>
+ * Created by Benjamin Schulte on 27.01.2017.
+ */
+
+class TetrominoDrawyer {
+    protected final IntList drawyer = new IntList();
+
+    /**
+     * returns the next tetromino
+     */
+    public Tetromino getNextTetromino(boolean useSrs) {
+
+        Tetromino retVal;
+
+        synchronized (drawyer) {
+            if (drawyer.size < 1)
+                determineNextTetrominos();
+
+            retVal = new Tetromino(drawyer.get(0), useSrs);
+
+            // Position weiterschieben
+            drawyer.removeIndex(0);
+        }
+
+        return retVal;
+    }
+
+    protected void determineNextTetrominos() {
+        // die sieben nächsten Steine bestimmen
+        synchronized (drawyer) {
+            int sizeBeforeAdding = drawyer.size;
+
+            for (int i = 0; i < 7; i++)
+                drawyer.add(i);
+
+            for (int i = sizeBeforeAdding; i < drawyer.size - 2; i++) {
+                int swapWith = Engine.random.random(i, drawyer.size - 1);
+                drawyer.swap(i, swapWith);
+            }
+        }
+    }
+
+    protected void queueNextTetrominos(int[] newTetros) {
+        synchronized (drawyer) {
+            for (int i = 0; i < newTetros.length; i++)
+                drawyer.add(newTetros[i]);
+        }
+    }
+
+    protected void clear() {
+        synchronized (drawyer) {
+            drawyer.clear();
+        }
+    }
+
+    protected IntList getDrawyerQueue() {
+        return new IntList(drawyer);
+    }
+
+    // da es nur von 0 bis 6 geht, einfach in einen String. Die Drawyer eines Multiplayer-Matchs
+    // wachsen mit den Steinen des führenden Spielers, sind also nicht auf wenige begrenzt
+    void write(IStateWriter writer) throws IOException {
+        StringBuilder blocks = new StringBuilder(drawyer.size);
+        synchronized (drawyer) {
+            for (int i = 0; i < drawyer.size; i++) {
+                blocks.append((char) (65 + (drawyer.get(i))));
+            }
+        }
+        writer.writeValue("onDrawyer", blocks.toString());
+    }
+
+    void read(IStateReader reader) throws IOException {
+        String onDraywerString = reader.getString("onDrawyer", "");
+        synchronized (drawyer) {
+            drawyer.clear();
+            for (int i = 0; i < onDraywerString.length(); i++) {
+                drawyer.add((int) (onDraywerString.charAt(i) - 65));
+            }
+        }
+    }
+}
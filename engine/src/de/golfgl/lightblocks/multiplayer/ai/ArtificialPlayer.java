@@ -1,11 +1,12 @@
 package de.golfgl.lightblocks.multiplayer.ai;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Queue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
+import de.golfgl.lightblocks.engine.Engine;
+import de.golfgl.lightblocks.engine.Position;
 import de.golfgl.lightblocks.model.GameModel;
 import de.golfgl.lightblocks.model.Gameboard;
 import de.golfgl.lightblocks.model.Tetromino;
@@ -19,9 +20,10 @@ public class ArtificialPlayer {
     private final AiAcessibleGameModel aiGameModel;
     private final AiAcessibleGameModel opponentGameModel;
 
-    private final Vector2 tempPos = new Vector2();
-    private final Queue<Movement> movementArrayList = new Queue<>();
-    private final Queue<Movement> holdArrayList = new Queue<>();
+    private static final float SCORE_ROUNDING_ERROR = 0.000001f;
+    private final Position tempPos = new Position();
+    private final Deque<Movement> movementArrayList = new ArrayDeque<>();
+    private final Deque<Movement> holdArrayList = new ArrayDeque<>();
     private final float heightFactor;
     private final float completeLinesFactor;
     private final float holesFactor;
@@ -52,7 +54,7 @@ public class ArtificialPlayer {
 
         Tetromino nextPiece = aiGameModel.getNextTetromino();
 
-        Array<Tetromino> nextPieces = new Array<>();
+        List<Tetromino> nextPieces = new ArrayList<>();
         nextPieces.add(activePiece);
         nextPieces.add(nextPiece);
 
@@ -71,17 +73,17 @@ public class ArtificialPlayer {
             float holdMoveScore = checkAllRotationsAndDropPlaces(new AiGameboard(gameboard), nextPieces, 0, bestScore, holdArrayList);
 
             if (holdMoveScore > bestScore) {
-                Gdx.app.debug("AI", "Hold the piece");
+                Engine.logger.debug("AI", "Hold the piece");
                 movementArrayList.clear();
                 movementArrayList.addFirst(Movement.HOLD);
-                while (holdArrayList.notEmpty())
+                while (!holdArrayList.isEmpty())
                     movementArrayList.addLast(holdArrayList.removeFirst());
             }
         }
         slowDown = .2f;
     }
 
-    private float checkAllRotationsAndDropPlaces(AiGameboard gameboard, Array<Tetromino> nextPieces, int depth, float overallBestScore, Queue<Movement> movementArrayList) {
+    private float checkAllRotationsAndDropPlaces(AiGameboard gameboard, List<Tetromino> nextPieces, int depth, float overallBestScore, Deque<Movement> movementArrayList) {
         Tetromino activePiece = nextPieces.get(depth);
         int bestRotation = 0;
         int bestHorizontalMove = 0;
@@ -106,14 +108,14 @@ public class ArtificialPlayer {
                     if (dropVerticalMove >= 0) {
                         // we have found the drop position for the current rotation
                         // and pretend to pin the tetromino here
-                        for (Vector2 coord : activePiece.getRotationVectors(rotation)) {
-                            int x = (int) activePiece.getPosition().x + (int) coord.x + horizontalMove;
-                            int y = (int) activePiece.getPosition().y + (int) coord.y - dropVerticalMove;
+                        for (Position coord : activePiece.getRotationVectors(rotation)) {
+                            int x = activePiece.getPosition().x + coord.x + horizontalMove;
+                            int y = activePiece.getPosition().y + coord.y - dropVerticalMove;
                             aiGameboard.setPosition(x, y, true);
                         }
 
                         float score;
-                        if (depth == nextPieces.size - 1) {
+                        if (depth == nextPieces.size() - 1) {
                             score = calculateScoreOfPosition(aiGameboard);
                         } else {
                             score = checkAllRotationsAndDropPlaces(aiGameboard, nextPieces, depth + 1, 0, null);
@@ -121,7 +123,7 @@ public class ArtificialPlayer {
 
                         if (score > bestScore ||
                                 // if we found an equal score, use it to prevent a left-hang
-                                MathUtils.isEqual(score, bestScore) && MathUtils.randomBoolean()
+                                Math.abs(score - bestScore) <= SCORE_ROUNDING_ERROR && Engine.random.randomBoolean()
                                         // but avoid unnecessary rotations
                                         && bestHorizontalMove != horizontalMove) {
                             bestRotation = rotation;
@@ -137,7 +139,7 @@ public class ArtificialPlayer {
 
         // now we found the best position, add the necessary movements to the queue
         if (movementArrayList != null && bestScore > overallBestScore) {
-            Gdx.app.debug("AI", "Move: h " + bestHorizontalMove + ", rotate " + bestRotation);
+            Engine.logger.debug("AI", "Move: h " + bestHorizontalMove + ", rotate " + bestRotation);
             movementArrayList.clear();
 
             switch (bestRotation) {
@@ -212,7 +214,7 @@ public class ArtificialPlayer {
                     numFull++;
 
                 if (!gameboard.isPositionFull(x, y) && numFull > 0)
-                    holes = holes + 1 + (MathUtils.log2(numFull));
+                    holes = holes + 1 + (float) (Math.log(numFull) / Math.log(2));
             }
         }
 
@@ -320,10 +322,10 @@ public class ArtificialPlayer {
             return (!isPositionFull(x, y));
         }
 
-        public boolean isValidPosition(Tetromino tetromino, Vector2 testPosition, int testRotation) {
-            for (Vector2 v : tetromino.getRotationVectors(testRotation)) {
-                int posX = ((int) v.x + (int) testPosition.x);
-                int posY = ((int) v.y + (int) testPosition.y);
+        public boolean isValidPosition(Tetromino tetromino, Position testPosition, int testRotation) {
+            for (Position v : tetromino.getRotationVectors(testRotation)) {
+                int posX = v.x + testPosition.x;
+                int posY = v.y + testPosition.y;
 
                 if (!isValidCoordinate(posX, posY)) {
                     return false;
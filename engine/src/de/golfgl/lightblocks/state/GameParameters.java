@@ -1,19 +1,29 @@
 package de.golfgl.lightblocks.state;
 
 /**
- * This class defines new games parameters.
+ * This class defines the parameters of a new game the game engine needs. The client extends it,
+ * see InitGameParameters.
  * <p>
  * Created by Benjamin Schulte on 21.02.2017.
  */
 
-public class InitGameParameters {
+public class GameParameters {
     public static final int TYPE_CLASSIC = 0;
     public static final int TYPE_MODERN = 1;
     public static final int TYPE_MIX = -1;
 
+    private int inputKey;
     private int beginningLevel;
     private int modeType;
 
+    public int getInputKey() {
+        return inputKey;
+    }
+
+    public void setInputKey(int inputKey) {
+        this.inputKey = inputKey;
+    }
+
     public int getBeginningLevel() {
         return beginningLevel;
     }
@@ -1,7 +1,5 @@
 package de.golfgl.lightblocks.state;
 
-import com.badlogic.gdx.utils.StringBuilder;
-
 import java.util.ArrayList;
 import java.util.LinkedList;
 
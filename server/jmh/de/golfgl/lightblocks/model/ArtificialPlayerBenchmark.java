@@ -0,0 +1,58 @@
+package de.golfgl.lightblocks.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import de.golfgl.lightblocks.multiplayer.ai.ArtificialPlayer;
+import de.golfgl.lightblocks.server.BenchmarkSupport;
+import de.golfgl.lightblocks.server.ServerMultiplayerModel;
+import de.golfgl.lightblocks.state.GameParameters;
+
+/**
+ * Planning of a new piece on an empty board, a board with some and a board with lots of garbage
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtificialPlayerBenchmark {
+    @Param({"0", "6", "12"})
+    public int garbageLines;
+
+    private ServerMultiplayerModel gameModel;
+    private ArtificialPlayer artificialPlayer;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.initGdx();
+        gameModel = new ServerMultiplayerModel();
+        GameParameters gameParams = new GameParameters();
+        gameParams.setModeType(GameParameters.TYPE_MODERN);
+        gameModel.startNewGame(gameParams);
+        artificialPlayer = new ArtificialPlayer(gameModel, gameModel.getSecondGameModel());
+
+        int[] holePositions = new int[garbageLines];
+        for (int i = 0; i < garbageLines; i++) {
+            holePositions[i] = (i * 7) % Gameboard.GAMEBOARD_COLUMNS;
+        }
+        gameModel.getGameboard().insertLines(holePositions);
+    }
+
+    @Benchmark
+    public void onNextPiece() {
+        artificialPlayer.onNextPiece(gameModel.getGameboard(), gameModel.getActiveTetromino());
+    }
+}
@@ -0,0 +1,39 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+
+import java.net.InetSocketAddress;
+
+public final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * the game models and the AI need Gdx.app for logging
+     */
+    public static void initGdx() {
+        if (Gdx.app == null) {
+            new ServerApplication(new ApplicationAdapter() {
+            });
+        }
+        Gdx.app.setLogLevel(Application.LOG_NONE);
+    }
+
+    /**
+     * @return a server that is not started, but can host matches
+     */
+    static LightblocksServer createServer() {
+        initGdx();
+        return new LightblocksServer(new InetSocketAddress(0),
+                new ServerConfiguration(new String[]{"--server.threads=1", "--verbosity=" + Application.LOG_NONE}));
+    }
+
+    static Player createPlayer(LightblocksServer server, boolean binaryProtocol) {
+        Player player = new Player(server, new NullWebSocket());
+        player.nickName = "bench";
+        player.binaryProtocol = binaryProtocol;
+        return player;
+    }
+}
@@ -0,0 +1,107 @@
+package de.golfgl.lightblocks.server;
+
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import de.golfgl.lightblocks.engine.IntList;
+import de.golfgl.lightblocks.model.GameScore;
+
+/**
+ * One human player connected with a discarding connection, the AI plays the second board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchBenchmark {
+    private static final float TICK = 1 / 60f;
+    private static final Integer[][] BLOCKS = {{3, 18}, {4, 18}, {4, 19}, {5, 19}};
+    private static final Integer[][] ROTATED = {{4, 17}, {4, 18}, {5, 18}, {5, 19}};
+
+    @Param({"binary", "text"})
+    public String protocol;
+
+    private Match match;
+    private Player player;
+    private Match.Listener listener;
+    // two different scores to report alternately, so that every update is a change
+    private GameScore score;
+    private GameScore otherScore;
+    private IntList clearedLines;
+    private int[] garbage;
+
+    @Setup
+    public void setUp() {
+        LightblocksServer server = BenchmarkSupport.createServer();
+        match = new Match(server, 1);
+        player = BenchmarkSupport.createPlayer(server, protocol.equals("binary"));
+        match.connectPlayer(player);
+        // creates the game model
+        match.update(TICK);
+
+        listener = match.new Listener(0);
+        score = new GameScore();
+        score.addBonusScore(100);
+        otherScore = new GameScore();
+        otherScore.addBonusScore(200);
+        clearedLines = new IntList(new int[]{0, 1});
+        garbage = new int[]{3, 3};
+    }
+
+    @Benchmark
+    public void update() {
+        match.update(TICK);
+    }
+
+    @Benchmark
+    public void sendFullInformation() {
+        match.sendFullInformation();
+    }
+
+    @Benchmark
+    public void encodeMove() {
+        listener.moveTetro(BLOCKS, 1, 0, 10);
+        match.broadcaster.flush();
+    }
+
+    @Benchmark
+    public void encodeRotate() {
+        listener.rotateTetro(BLOCKS, ROTATED, 10);
+        match.broadcaster.flush();
+    }
+
+    @Benchmark
+    public void encodeActivateNext() {
+        listener.activateNextTetro(BLOCKS, 3, 10);
+        match.broadcaster.flush();
+    }
+
+    @Benchmark
+    public void encodeClearAndInsert() {
+        listener.clearAndInsertLines(clearedLines, false, garbage);
+        match.broadcaster.flush();
+    }
+
+    @Benchmark
+    public void encodeChangedScore() {
+        GameScore changedScore = otherScore;
+        otherScore = score;
+        score = changedScore;
+        listener.updateScore(score, 100);
+        match.broadcaster.flush();
+    }
+}
@@ -0,0 +1,66 @@
+package de.golfgl.lightblocks.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import de.golfgl.lightblocks.model.GameScore;
+import de.golfgl.lightblocks.server.model.MatchInfo;
+import de.golfgl.lightblocks.server.model.ServerInfo;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+    private static final String PLAYER_INFO = "PIN{\"nickName\":\"bench\",\"userId\":\"4711\",\"protocolVersion\":1}";
+    private static final String INPUT = "IGMDRH";
+
+    private Serializer serializer;
+    private ServerInfo serverInfo;
+    private MatchInfo.ScoreInfo scoreInfo;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.initGdx();
+        serializer = new Serializer();
+        serverInfo = new ServerInfo();
+        serverInfo.name = "Lightblocks Server";
+        serverInfo.owner = "me";
+        serverInfo.version = 2;
+        GameScore score = new GameScore();
+        score.addBonusScore(1234);
+        scoreInfo = new MatchInfo.ScoreInfo(score);
+    }
+
+    @Benchmark
+    public String serializeScore() {
+        return serializer.serialize(scoreInfo);
+    }
+
+    @Benchmark
+    public String serializeServerInfo() {
+        return serializer.serialize(serverInfo);
+    }
+
+    @Benchmark
+    public Object deserializePlayerInfo() {
+        return serializer.deserialize(PLAYER_INFO);
+    }
+
+    @Benchmark
+    public int deserializeInput() {
+        return serializer.deserializeInput(INPUT);
+    }
+}
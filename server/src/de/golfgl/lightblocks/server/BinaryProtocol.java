@@ -0,0 +1,111 @@
+package de.golfgl.lightblocks.server;
+
+import java.nio.ByteBuffer;
+
+import de.golfgl.lightblocks.model.Gameboard;
+
+/**
+ * Binary encoding of the in-game events sent from server to client. Clients announce support with
+ * {@link de.golfgl.lightblocks.server.model.PlayerInfo#protocolVersion}, all other clients get the
+ * text protocol.
+ * <p>
+ * Every event starts with one byte holding the opcode. Its highest bit is set when the event
+ * belongs to the opponent's gameboard ("O" in the text protocol). The length of every event is
+ * known from its opcode and content, so several events can follow each other in one frame.
+ * Block positions are packed into one unsigned byte each: y * GAMEBOARD_COLUMNS + x
+ * <p>
+ * Battles with more than two players have no opponent flag. Instead, a {@link #BOARD} event tells
+ * which player's board the following events belong to, every frame starts with one.
+ */
+public final class BinaryProtocol {
+    public static final int PROTOCOL_VERSION = 1;
+    // binary protocol plus session resume, see SessionInfo
+    public static final int RESUME_PROTOCOL_VERSION = 2;
+    // resume protocol plus battles, see BOARD
+    public static final int BATTLE_PROTOCOL_VERSION = 3;
+
+    public static final int FLAG_OPPONENT = 0x80;
+
+    // dx, dy, ghost piece distance
+    public static final byte MOVE = 1;
+    // 4 blocks, ghost piece distance
+    public static final byte ROTATE = 2;
+    // removed line count (highest bit: special), removed lines, garbage line count, gap positions
+    public static final byte CLEAR_AND_INSERT = 3;
+    public static final byte GAME_OVER = 4;
+    // 4 blocks relative, block type
+    public static final byte NEXT_PIECE = 5;
+    // 4 blocks, block type, ghost piece distance
+    public static final byte ACTIVATE_NEXT = 6;
+    // 4 blocks hold piece relative, ghost piece distance
+    public static final byte HOLD = 7;
+    // 4 blocks hold piece relative, ghost piece distance, 4 blocks active piece
+    public static final byte HOLD_AND_ACTIVE = 8;
+    public static final byte PIN = 9;
+    // score (int), level (short), lines (short)
+    public static final byte SCORE = 10;
+    // x, y
+    public static final byte CONFLICT = 11;
+    // length, ASCII text
+    public static final byte MOTIVATION = 12;
+    // garbage lines
+    public static final byte GARBAGE_AMOUNT = 13;
+    // slot of the player the following events belong to, battles only
+    public static final byte BOARD = 14;
+
+    // enough for the biggest event: a motivation text or a clear with lots of garbage
+    public static final int MAX_EVENT_SIZE = 512;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * @return length of the event starting at the given position including its opcode, or -1 if
+     * the opcode is unknown
+     */
+    public static int getEventLength(ByteBuffer buffer, int position) {
+        switch (buffer.get(position) & 0xff & ~FLAG_OPPONENT) {
+            case GAME_OVER:
+            case PIN:
+                return 1;
+            case GARBAGE_AMOUNT:
+            case BOARD:
+                return 2;
+            case CONFLICT:
+                return 3;
+            case MOVE:
+                return 4;
+            case ROTATE:
+            case NEXT_PIECE:
+            case HOLD:
+                return 6;
+            case ACTIVATE_NEXT:
+                return 7;
+            case SCORE:
+                return 9;
+            case HOLD_AND_ACTIVE:
+                return 10;
+            case MOTIVATION:
+                return 2 + (buffer.get(position + 1) & 0xff);
+            case CLEAR_AND_INSERT:
+                int removedLines = buffer.get(position + 1) & 0x7f;
+                return 3 + removedLines + (buffer.get(position + 2 + removedLines) & 0xff);
+            default:
+                return -1;
+        }
+    }
+
+    public static void writeBlockPositions(ByteBuffer buffer, Integer[][] blockPositions) {
+        for (Integer[] block : blockPositions) {
+            buffer.put((byte) (block[1] * Gameboard.GAMEBOARD_COLUMNS + block[0]));
+        }
+    }
+
+    public static void writeAscii(ByteBuffer buffer, String text) {
+        int length = Math.min(text.length(), 255);
+        buffer.put((byte) length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.golfgl.lightblocks.server;
+
+import java.nio.ByteBuffer;
+
+import de.golfgl.lightblocks.model.Gameboard;
+
+/**
+ * Compact binary encoding of a gameboard, replacing the 220 characters of
+ * {@link de.golfgl.lightblocks.model.AbstractMultiplayerModel#getSerializedGameboard()} for
+ * clients announcing {@link de.golfgl.lightblocks.server.model.PlayerInfo#compactBoard}. JSON
+ * messages carry it base64 encoded.
+ * <p>
+ * Only the rows up to the highest one with a block are encoded, all rows above are empty:
+ * <ul>
+ * <li>row count (byte)</li>
+ * <li>bitplane of the occupied squares, row by row from the bottom and column by column from
+ * the left, highest bit first, padded to a full byte</li>
+ * <li>the square types of the occupied squares in the same order, run-length encoded: one
+ * byte per run with the type in the high nibble and the run length - 1 in the low nibble</li>
+ * </ul>
+ * An empty board is one byte, garbage lines take two bytes each.
+ */
+public final class BoardCodec {
+    public static final int MAX_ENCODED_SIZE = 1 + (Gameboard.GAMEBOARD_ALLROWS * Gameboard.GAMEBOARD_COLUMNS + 7) / 8
+            + Gameboard.GAMEBOARD_ALLROWS * Gameboard.GAMEBOARD_COLUMNS;
+    private static final int MAX_RUN_LENGTH = 16;
+
+    private BoardCodec() {
+    }
+
+    /**
+     * @param squares gameboard squares [row][column], see {@link Gameboard#getGameboardSquares()}
+     */
+    public static void write(ByteBuffer out, int[][] squares) {
+        int rowCount = Gameboard.GAMEBOARD_ALLROWS;
+        while (rowCount > 0 && isRowEmpty(squares[rowCount - 1]))
+            rowCount--;
+        out.put((byte) rowCount);
+
+        int bits = 0;
+        int bitCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < Gameboard.GAMEBOARD_COLUMNS; column++) {
+                bits = bits << 1 | (squares[row][column] != Gameboard.SQUARE_EMPTY ? 1 : 0);
+                bitCount++;
+                if (bitCount == 8) {
+                    out.put((byte) bits);
+                    bits = 0;
+                    bitCount = 0;
+                }
+            }
+        }
+        if (bitCount > 0)
+            out.put((byte) (bits << (8 - bitCount)));
+
+        int runType = -1;
+        int runLength = 0;
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < Gameboard.GAMEBOARD_COLUMNS; column++) {
+                int square = squares[row][column];
+                if (square == Gameboard.SQUARE_EMPTY)
+                    continue;
+                if (square != runType || runLength == MAX_RUN_LENGTH) {
+                    if (runLength > 0)
+                        out.put((byte) (runType << 4 | (runLength - 1)));
+                    runType = square;
+                    runLength = 0;
+                }
+                runLength++;
+            }
+        }
+        if (runLength > 0)
+            out.put((byte) (runType << 4 | (runLength - 1)));
+    }
+
+    public static byte[] encode(int[][] squares) {
+        ByteBuffer out = ByteBuffer.allocate(MAX_ENCODED_SIZE);
+        write(out, squares);
+        byte[] encoded = new byte[out.position()];
+        out.flip();
+        out.get(encoded);
+        return encoded;
+    }
+
+    /**
+     * decodes a board written by {@link #write} into the given squares
+     */
+    public static void read(ByteBuffer in, int[][] squares) {
+        int rowCount = in.get() & 0xff;
+        int bitplaneStart = in.position();
+        in.position(bitplaneStart + (rowCount * Gameboard.GAMEBOARD_COLUMNS + 7) / 8);
+
+        int runType = 0;
+        int runLength = 0;
+        for (int row = 0; row < Gameboard.GAMEBOARD_ALLROWS; row++) {
+            for (int column = 0; column < Gameboard.GAMEBOARD_COLUMNS; column++) {
+                int bit = row * Gameboard.GAMEBOARD_COLUMNS + column;
+                boolean occupied = row < rowCount
+                        && (in.get(bitplaneStart + bit / 8) & (0x80 >> (bit % 8))) != 0;
+                if (!occupied) {
+                    squares[row][column] = Gameboard.SQUARE_EMPTY;
+                    continue;
+                }
+                if (runLength == 0) {
+                    int run = in.get() & 0xff;
+                    runType = run >> 4;
+                    runLength = (run & 0xf) + 1;
+                }
+                squares[row][column] = runType;
+                runLength--;
+            }
+        }
+    }
+
+    private static boolean isRowEmpty(int[] row) {
+        for (int square : row) {
+            if (square != Gameboard.SQUARE_EMPTY)
+                return false;
+        }
+        return true;
+    }
+}
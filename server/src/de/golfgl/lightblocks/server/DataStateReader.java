@@ -0,0 +1,52 @@
+package de.golfgl.lightblocks.server;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateReader;
+
+/**
+ * Reads a state written by {@link DataStateWriter}. Every value is present, so that the
+ * default values are never used.
+ */
+public class DataStateReader implements IStateReader {
+    private final DataInput in;
+
+    public DataStateReader(DataInput in) {
+        this.in = in;
+    }
+
+    @Override
+    public int getInt(String name, int defaultValue) throws IOException {
+        return in.readInt();
+    }
+
+    @Override
+    public float getFloat(String name, float defaultValue) throws IOException {
+        return in.readFloat();
+    }
+
+    @Override
+    public boolean getBoolean(String name, boolean defaultValue) throws IOException {
+        return in.readBoolean();
+    }
+
+    @Override
+    public String getString(String name, String defaultValue) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public int[] getIntArray(String name) throws IOException {
+        int[] value = new int[in.readUnsignedShort()];
+        for (int i = 0; i < value.length; i++)
+            value[i] = in.readInt();
+        return value;
+    }
+
+    @Override
+    public IStateReader get(String name) {
+        // objects are written inline
+        return this;
+    }
+}
@@ -0,0 +1,56 @@
+package de.golfgl.lightblocks.server;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.engine.IStateWriter;
+
+/**
+ * Writes a game model's state binary for {@link MatchSnapshot}, see {@link DataStateReader}.
+ * Names are dropped and objects are written inline, so that the state is read in the order it
+ * was written.
+ */
+public class DataStateWriter implements IStateWriter {
+    private final DataOutput out;
+
+    public DataStateWriter(DataOutput out) {
+        this.out = out;
+    }
+
+    @Override
+    public void writeValue(String name, int value) throws IOException {
+        out.writeInt(value);
+    }
+
+    @Override
+    public void writeValue(String name, float value) throws IOException {
+        out.writeFloat(value);
+    }
+
+    @Override
+    public void writeValue(String name, boolean value) throws IOException {
+        out.writeBoolean(value);
+    }
+
+    @Override
+    public void writeValue(String name, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    @Override
+    public void writeValue(String name, int[] value) throws IOException {
+        out.writeShort(value.length);
+        for (int i : value)
+            out.writeInt(i);
+    }
+
+    @Override
+    public void writeObjectStart(String name) {
+    }
+
+    @Override
+    public void writeObjectEnd() {
+    }
+}
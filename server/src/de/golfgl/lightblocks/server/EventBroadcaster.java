@@ -0,0 +1,223 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import org.java_websocket.framing.BinaryFrame;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nullable;
+
+import de.golfgl.lightblocks.server.replay.RecordingBuffer;
+
+/**
+ * Fans out the in-game events of a match to its players. Every event is encoded only once,
+ * no matter how many recipients get it.
+ * <p>
+ * In a duel, binary events of a tick are collected in the first player's perspective. On
+ * {@link #flush}, a copy with the opponent flag of every event flipped is made for the second
+ * player, and each perspective is sent as one prepared frame to all of its recipients. Text events
+ * are sent right away, with the Y/O prefixed messages built once for all text recipients.
+ * <p>
+ * In a battle, there is no perspective. Events are collected with a {@link BinaryProtocol#BOARD}
+ * event before every run of events of the same board, and the same frame is sent to all players
+ * and spectators. A tick costs one encoding of its events and one send per recipient, no matter
+ * how many boards there are. Battles have no text recipients.
+ * <p>
+ * Spectators get the first player's perspective. Players and spectators whose connection can't
+ * keep up get no movement events until they are resynced with the full match information, see
+ * {@link Player#checkSendBacklog}, so that they never make the match wait or buffer without bounds.
+ * Pieces locking, garbage, scores and the game's end still reach them right away, only the active
+ * piece is where they saw it last until the resync.
+ * <p>
+ * Only to be used from the match's worker thread.
+ */
+class EventBroadcaster {
+    private static final int INITIAL_BUFFER_SIZE = 2048;
+
+    // the match's slots
+    private final Player[] players;
+    private final Array<Player> spectators;
+    private final boolean battle;
+    private final IntArray eventStarts = new IntArray();
+    // prepared frames, the payload buffer is rewound by the WebSocket implementation after each send
+    private final BinaryFrame firstFrame = new BinaryFrame();
+    private final BinaryFrame secondFrame = new BinaryFrame();
+    private ByteBuffer events = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer flippedEvents = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    // events without the movements for congested connections, built when the first of them needs it
+    private final BinaryFrame congestedFrame = new BinaryFrame();
+    private ByteBuffer congestedEvents = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private boolean congestedEventsBuilt;
+    // battles only: board of the last collected event, -1 at the beginning of every batch
+    private int eventsBoard = -1;
+    // only created for matches with players that can resume their session
+    @Nullable
+    EventLog eventLog;
+    // set by the match while its game is recorded
+    @Nullable
+    RecordingBuffer recording;
+    long recordedGameId;
+    int recordedTick;
+
+    EventBroadcaster(Player[] players, Array<Player> spectators) {
+        this.players = players;
+        this.spectators = spectators;
+        battle = players.length > 2;
+    }
+
+    /**
+     * starts a binary event
+     *
+     * @param board slot of the player the event belongs to
+     * @return buffer to write the event's content to
+     */
+    ByteBuffer beginEvent(int board, byte opcode) {
+        if (events.remaining() < BinaryProtocol.MAX_EVENT_SIZE) {
+            ByteBuffer newEvents = ByteBuffer.allocate(events.capacity() * 2);
+            events.flip();
+            newEvents.put(events);
+            events = newEvents;
+            flippedEvents = ByteBuffer.allocate(newEvents.capacity());
+            congestedEvents = ByteBuffer.allocate(newEvents.capacity());
+        }
+        if (battle) {
+            if (board != eventsBoard) {
+                events.put(BinaryProtocol.BOARD).put((byte) board);
+                eventsBoard = board;
+            }
+            events.put(opcode);
+        } else {
+            eventStarts.add(events.position());
+            events.put((byte) (board == 1 ? opcode | BinaryProtocol.FLAG_OPPONENT : opcode));
+        }
+        return events;
+    }
+
+    /**
+     * sends all binary events collected since the last flush
+     */
+    void flush() {
+        if (events.position() == 0)
+            return;
+
+        events.flip();
+        if (eventLog != null)
+            eventLog.append(events);
+        if (recording != null)
+            recording.events(recordedGameId, recordedTick, events);
+        congestedEventsBuilt = false;
+        if (battle) {
+            for (Player player : players) {
+                sendFirstFrame(player);
+            }
+        } else {
+            sendFirstFrame(players[0]);
+        }
+        for (int i = 0; i < spectators.size; i++) {
+            sendFirstFrame(spectators.get(i));
+        }
+        Player player2 = players[1];
+        if (!battle && player2 != null && player2.binaryProtocol) {
+            flippedEvents.clear();
+            flippedEvents.put(events);
+            events.rewind();
+            for (int i = 0; i < eventStarts.size; i++) {
+                int start = eventStarts.get(i);
+                flippedEvents.put(start, (byte) (flippedEvents.get(start) ^ BinaryProtocol.FLAG_OPPONENT));
+            }
+            flippedEvents.flip();
+            if (!player2.resyncNeeded) {
+                secondFrame.setPayload(flippedEvents);
+                player2.send(secondFrame);
+            } else {
+                removeMovements(flippedEvents);
+                sendCongestedFrame(player2);
+            }
+        }
+
+        events.clear();
+        eventStarts.clear();
+        eventsBoard = -1;
+    }
+
+    private void sendFirstFrame(@Nullable Player player) {
+        if (player == null || !player.binaryProtocol)
+            return;
+
+        if (!player.resyncNeeded) {
+            firstFrame.setPayload(events);
+            player.send(firstFrame);
+        } else {
+            if (!congestedEventsBuilt) {
+                removeMovements(events);
+                congestedEventsBuilt = true;
+            }
+            sendCongestedFrame(player);
+        }
+    }
+
+    private void sendCongestedFrame(Player player) {
+        if (congestedEvents.hasRemaining()) {
+            congestedFrame.setPayload(congestedEvents);
+            player.send(congestedFrame);
+        }
+    }
+
+    /**
+     * copies all events but the movements to the congested events. Board events of battles are only
+     * copied when an event of the board follows.
+     */
+    private void removeMovements(ByteBuffer events) {
+        congestedEvents.clear();
+        int boardEvent = -1;
+        int position = events.position();
+        while (position < events.limit()) {
+            int length = BinaryProtocol.getEventLength(events, position);
+            if (length < 0)
+                break;
+            int opcode = events.get(position) & 0xff & ~BinaryProtocol.FLAG_OPPONENT;
+            if (opcode == BinaryProtocol.BOARD) {
+                boardEvent = position;
+            } else if (opcode != BinaryProtocol.MOVE && opcode != BinaryProtocol.ROTATE) {
+                if (boardEvent >= 0) {
+                    congestedEvents.put(events.get(boardEvent)).put(events.get(boardEvent + 1));
+                    boardEvent = -1;
+                }
+                for (int i = 0; i < length; i++) {
+                    congestedEvents.put(events.get(position + i));
+                }
+            }
+            position = position + length;
+        }
+        congestedEvents.flip();
+    }
+
+    /**
+     * sends a text event to all players using the text protocol, only used in duels
+     *
+     * @param board    slot of the player the event belongs to
+     * @param movement true for MOV and ROT, which congested connections don't get
+     */
+    void sendText(int board, String msg, boolean movement) {
+        boolean secondBoard = board == 1;
+        String firstPerspective = null;
+        Player player1 = players[0];
+        Player player2 = players[1];
+        if (player1 != null && !player1.binaryProtocol && !(movement && player1.resyncNeeded)) {
+            firstPerspective = (secondBoard ? "O" : "Y") + msg;
+            player1.send(firstPerspective);
+        }
+        if (player2 != null && !player2.binaryProtocol && !(movement && player2.resyncNeeded))
+            player2.send((secondBoard ? "Y" : "O") + msg);
+        for (int i = 0; i < spectators.size; i++) {
+            Player spectator = spectators.get(i);
+            if (!spectator.binaryProtocol && !(movement && spectator.resyncNeeded)) {
+                if (firstPerspective == null)
+                    firstPerspective = (secondBoard ? "O" : "Y") + msg;
+                spectator.send(firstPerspective);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.golfgl.lightblocks.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ring buffer of the recent binary event batches of a match, as sent to the first player or
+ * to all players of a battle. Every
+ * batch is one frame and gets the next sequence number, so a player resuming its session can be
+ * sent just the batches it missed instead of the full match information.
+ * <p>
+ * Old batches are dropped when the batch or byte capacity is exceeded. Only to be used from the
+ * match's worker thread.
+ */
+class EventLog {
+    static final int BATCH_CAPACITY = 256;
+    static final int DATA_CAPACITY = 16384;
+
+    private final byte[] data = new byte[DATA_CAPACITY];
+    private final int[] offsets = new int[BATCH_CAPACITY];
+    private final int[] lengths = new int[BATCH_CAPACITY];
+    // the first batch gets sequence number 1
+    private long firstSeq = 1;
+    private long lastSeq;
+    private int writePos;
+    private int usedBytes;
+
+    /**
+     * appends the remaining bytes of the buffer as the next batch, without changing its position
+     */
+    void append(ByteBuffer batch) {
+        int length = batch.remaining();
+        if (length > DATA_CAPACITY) {
+            // can't be kept, nobody can catch up past it
+            lastSeq++;
+            firstSeq = lastSeq + 1;
+            usedBytes = 0;
+            return;
+        }
+
+        while (firstSeq <= lastSeq && (lastSeq - firstSeq + 1 >= BATCH_CAPACITY || usedBytes + length > DATA_CAPACITY)) {
+            usedBytes = usedBytes - lengths[index(firstSeq)];
+            firstSeq++;
+        }
+
+        lastSeq++;
+        int index = index(lastSeq);
+        offsets[index] = writePos;
+        lengths[index] = length;
+        int position = batch.position();
+        for (int i = 0; i < length; i++) {
+            data[(writePos + i) % DATA_CAPACITY] = batch.get(position + i);
+        }
+        writePos = (writePos + length) % DATA_CAPACITY;
+        usedBytes = usedBytes + length;
+    }
+
+    /**
+     * @return sequence number of the last appended batch, 0 if none was appended yet
+     */
+    long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * @return true if all batches from the given sequence number on are still available. This is
+     * also the case if there is no such batch yet.
+     */
+    boolean isAvailableFrom(long seq) {
+        return seq >= firstSeq && seq <= lastSeq + 1;
+    }
+
+    /**
+     * @param fromSeq     first batch to copy, must be available
+     * @param secondBoard true to flip the opponent flag of every event for the second player of a duel
+     * @return the batches from the given one on concatenated, ready to be sent as one frame
+     */
+    ByteBuffer copyFrom(long fromSeq, boolean secondBoard) {
+        int length = 0;
+        for (long seq = fromSeq; seq <= lastSeq; seq++) {
+            length = length + lengths[index(seq)];
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(length);
+        for (long seq = fromSeq; seq <= lastSeq; seq++) {
+            int index = index(seq);
+            for (int i = 0; i < lengths[index]; i++) {
+                out.put(data[(offsets[index] + i) % DATA_CAPACITY]);
+            }
+        }
+        out.flip();
+
+        if (secondBoard) {
+            int position = 0;
+            while (position < out.limit()) {
+                int eventLength = BinaryProtocol.getEventLength(out, position);
+                out.put(position, (byte) (out.get(position) ^ BinaryProtocol.FLAG_OPPONENT));
+                if (eventLength <= 0)
+                    break;
+                position = position + eventLength;
+            }
+        }
+        return out;
+    }
+
+    void clear() {
+        firstSeq = 1;
+        lastSeq = 0;
+        writePos = 0;
+        usedBytes = 0;
+    }
+
+    private static int index(long seq) {
+        return (int) (seq % BATCH_CAPACITY);
+    }
+}
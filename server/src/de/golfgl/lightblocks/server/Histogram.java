@@ -0,0 +1,64 @@
+package de.golfgl.lightblocks.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with fixed buckets, written in Prometheus text format by
+ * {@link ServerMetrics}. Can be recorded to from any thread.
+ */
+public class Histogram {
+    // tick and update durations in nanoseconds, the tick interval is 16.6ms at 60 ticks per second
+    public static final long[] DURATION_BUCKETS = {50000L, 100000L, 250000L, 500000L, 1000000L,
+            2500000L, 5000000L, 10000000L, 16666667L, 25000000L, 50000000L, 100000000L};
+    // waiting times of players in nanoseconds, up to the matchmaking timeout and beyond
+    public static final long[] WAIT_BUCKETS = {250000000L, 500000000L, 1000000000L, 2000000000L, 5000000000L,
+            10000000000L, 20000000000L, 30000000000L, 60000000000L};
+    public static final long[] DEPTH_BUCKETS = {0, 1, 2, 4, 8, 16, 32, 64};
+
+    private final long[] upperBounds;
+    // the last count is the +Inf bucket
+    private final AtomicLongArray counts;
+    private final AtomicLong sum = new AtomicLong();
+
+    public Histogram(long[] upperBounds) {
+        this.upperBounds = upperBounds;
+        counts = new AtomicLongArray(upperBounds.length + 1);
+    }
+
+    public void record(long value) {
+        int bucket = 0;
+        while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        sum.addAndGet(value);
+    }
+
+    /**
+     * @return sum of all recorded values
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * @param labels label list without braces, may be empty
+     * @param scale  factor to convert the recorded values to the metric's unit
+     */
+    void write(StringBuilder out, String name, String labels, double scale) {
+        String labelPrefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulated = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            cumulated = cumulated + counts.get(i);
+            out.append(name).append("_bucket{").append(labelPrefix).append("le=\"")
+                    .append(upperBounds[i] * scale).append("\"} ").append(cumulated).append('\n');
+        }
+        cumulated = cumulated + counts.get(upperBounds.length);
+        out.append(name).append("_bucket{").append(labelPrefix).append("le=\"+Inf\"} ")
+                .append(cumulated).append('\n');
+        String braceLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(braceLabels).append(' ').append(sum.get() * scale).append('\n');
+        out.append(name).append("_count").append(braceLabels).append(' ').append(cumulated).append('\n');
+    }
+}
@@ -0,0 +1,124 @@
+package de.golfgl.lightblocks.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer for the inputs of one player. Inputs are decoded to primitive
+ * opcodes by {@link Serializer#deserializeInput} on the WebSocket threads (multiple producers)
+ * and drained by the match's worker thread (single consumer), so the tick never has to lock or
+ * compare strings.
+ * <p>
+ * Every slot has a sequence number telling whether it is free for the producer claiming the
+ * position or already written for the consumer, so producers only contend on the tail counter.
+ */
+public class InputQueue {
+    public static final int NONE = -1;
+    public static final int MOVE_LEFT = 0;
+    public static final int MOVE_RIGHT = 1;
+    public static final int MOVE_END = 2;
+    public static final int HOLD = 3;
+    public static final int ROTATE_RIGHT = 4;
+    public static final int ROTATE_LEFT = 5;
+    public static final int DROP_NONE = 6;
+    public static final int DROP_SOFT = 7;
+    public static final int DROP_HARD = 8;
+
+    /**
+     * @return true for inputs ending a movement or soft drop the player started before
+     */
+    public static boolean isRelease(int opcode) {
+        return opcode == MOVE_END || opcode == DROP_NONE;
+    }
+
+    private final int mask;
+    private final int[] opcodes;
+    private final long[] timestamps;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // only touched by the consumer
+    private long head;
+    private long polledTimestamp;
+
+    /**
+     * @param capacity maximum number of pending inputs, must be a power of two
+     */
+    public InputQueue(int capacity) {
+        if (Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be a power of two");
+
+        mask = capacity - 1;
+        opcodes = new int[capacity];
+        timestamps = new long[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * adds an input, can be called from any thread
+     *
+     * @param timestamp arrival time in nanoseconds
+     * @return false if the queue is full and the input was dropped
+     */
+    public boolean offer(int opcode, long timestamp) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available < 0) {
+                // the consumer did not free this slot yet
+                return false;
+            }
+            if (available == 0 && tail.compareAndSet(position, position + 1))
+                break;
+        }
+
+        opcodes[index] = opcode;
+        timestamps[index] = timestamp;
+        // publishes the slot's content to the consumer
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    /**
+     * removes the oldest input. Must only be called by the consumer thread.
+     *
+     * @return the input's opcode, or {@link #NONE} if the queue is empty
+     */
+    public int poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1)
+            return NONE;
+
+        int opcode = opcodes[index];
+        polledTimestamp = timestamps[index];
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return opcode;
+    }
+
+    /**
+     * @return arrival time of the input returned by the last {@link #poll()}
+     */
+    public long getPolledTimestamp() {
+        return polledTimestamp;
+    }
+
+    /**
+     * @return number of pending inputs. Must only be called by the consumer thread.
+     */
+    public int size() {
+        return (int) (tail.get() - head);
+    }
+
+    /**
+     * drops all pending inputs. Must only be called by the consumer thread.
+     */
+    public void clear() {
+        while (poll() != NONE) ;
+    }
+}
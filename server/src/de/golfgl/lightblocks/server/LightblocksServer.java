@@ -1,58 +1,123 @@
 package de.golfgl.lightblocks.server;
 
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.ApplicationListener;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.backends.headless.HeadlessApplication;
-import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
-import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.TimeUtils;
 
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.annotation.Nullable;
 import javax.jmdns.JmDNS;
 import javax.jmdns.ServiceInfo;
 
 import de.golfgl.lightblocks.server.model.ServerInfo;
+import de.golfgl.lightblocks.server.replay.ReplayRecorder;
 
 public class LightblocksServer extends WebSocketServer implements ApplicationListener {
+    // close code for connections ended because the server drains or stops
+    public static final int CLOSE_SHUTDOWN = 4105;
+    // close code for a player's connection when its session was resumed on a new one
+    public static final int CLOSE_RESUMED = 4107;
+    private static final long DRAIN_CHECK_INTERVAL = 100;
+    private static final long RATING_SAVE_INTERVAL = 5 * 60 * 1000;
     final ServerConfiguration serverConfig;
     final Serializer serializer = new Serializer();
+    final ServerMetrics metrics;
     private final ServerInfo serverInfo = new ServerInfo();
-    private final Match[] matches;
-    private boolean running = true;
+    final Matchmaker matchmaker;
+    final RatingStore ratings = new RatingStore();
+    final SessionRegistry sessions;
+    private final MatchScheduler scheduler;
+    // handles the messages of every connection on virtual threads, null handles them on the
+    // WebSocket worker threads
+    @Nullable
+    final ThreadFactory connectionThreads;
+    @Nullable
+    final ReplayRecorder recorder;
+    // logged on create(), there is no Gdx.app yet when the server is constructed
+    @Nullable
+    private IOException recordingError;
     private JmDNS jmdns;
+    private MetricsEndpoint metricsEndpoint;
+    @Nullable
+    private RouterRegistration routerRegistration;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+    private volatile boolean draining;
+    private long lastRatingSave;
 
     public LightblocksServer(InetSocketAddress address, ServerConfiguration serverConfiguration) {
         super(address);
+        // lets players know how much they have still to be written, see Player.checkSendBacklog
+        setWebSocketFactory(new WriteCountingFactory());
         this.serverConfig = serverConfiguration;
-        this.matches = new Match[serverConfig.threadNum];
+        ThreadFactory matchThreads = null;
+        ThreadFactory connectionThreads = null;
+        if (serverConfig.virtualThreads) {
+            matchThreads = VirtualThreads.createFactory("Match");
+            connectionThreads = VirtualThreads.createFactory("Connection");
+        }
+        this.connectionThreads = connectionThreads;
+        this.metrics = new ServerMetrics(matchThreads != null ? 0 : serverConfig.threadNum);
+        // tokens only need the node id when a router sends the resuming players back
+        this.sessions = new SessionRegistry(serverConfig.routerUrl != null ? serverConfig.nodeId : null);
+        this.recorder = openRecorder();
+        this.scheduler = new MatchScheduler(this, serverConfig.threadNum, serverConfig.maxMatches, matchThreads);
+        this.matchmaker = new Matchmaker(this, scheduler, ratings);
     }
 
     public static void main(String[] arg) {
-        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
         ServerConfiguration serverConfig = new ServerConfiguration(arg);
 
         final LightblocksServer server = new LightblocksServer(new InetSocketAddress(serverConfig.port), serverConfig);
-        new HeadlessApplication(server, config) {
+        // matches run on the scheduler's threads, the render loop only saves the ratings
+        new ServerApplication(server, 1f) {
             @Override
             public void exit() {
-                server.running = false;
-                // Unregister all services
-                if (server.jmdns != null) {
-                    server.jmdns.unregisterAllServices();
-                }
+                server.shutdown();
                 super.exit();
             }
         };
+        // a restart normally stops the process without exit() being called. The JVM keeps
+        // running until the hook is done, so the matches can still end meanwhile.
+        Runtime.getRuntime().addShutdownHook(new Thread("Shutdown") {
+            @Override
+            public void run() {
+                // with a snapshot, the running matches continue after the restart instead
+                if (server.serverConfig.snapshotFile == null)
+                    server.drain(server.serverConfig.drainTimeout);
+                server.shutdown();
+                server.closeConnections();
+            }
+        });
 
-        server.startThreads(config.renderInterval);
+        if (server.recorder != null) {
+            server.recorder.start();
+        }
+        if (serverConfig.ratingFile != null) {
+            server.readRatings(new File(serverConfig.ratingFile));
+        }
+        if (serverConfig.snapshotFile != null) {
+            server.restoreSnapshot(new File(serverConfig.snapshotFile));
+        }
+        server.scheduler.start(serverConfig.tickRate, serverConfig.maxCatchUpTicks);
+        server.matchmaker.start();
+        if (serverConfig.metricsPort > 0) {
+            server.startMetricsEndpoint(serverConfig.metricsPort);
+        }
+        if (serverConfig.routerUrl != null) {
+            server.startRouterRegistration(serverConfig);
+        }
 
         // this will block when successful, so don't do it inside create()
         server.run();
@@ -60,60 +125,202 @@ public class LightblocksServer extends WebSocketServer implements ApplicationLis
         Gdx.app.exit();
     }
 
-    private void startThreads(float configRenderInterval) {
-        // thread 1 was started by HeadlessApplication - start up the other threads
-        final long renderInterval = configRenderInterval > 0 ? (long) (configRenderInterval * 1000000000f) : (configRenderInterval < 0 ? -1 : 0);
-        for (int i = 1; i < serverConfig.threadNum; i++) {
-            final int threadNum = i;
-            matches[i] = new Match(this);
-            new Thread("Render" + i) {
-                @Override
-                public void run() {
-                    try {
-                        long lastTime = TimeUtils.nanoTime();
-                        long nextTime = TimeUtils.nanoTime() + renderInterval;
-                        if (renderInterval >= 0f) {
-                            while (running) {
-                                final long n = TimeUtils.nanoTime();
-                                if (nextTime > n) {
-                                    try {
-                                        long sleep = nextTime - n;
-                                        Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
-                                    } catch (InterruptedException ignored) {
-                                    }
-                                    nextTime = nextTime + renderInterval;
-                                } else {
-                                    nextTime = n + renderInterval;
-                                }
-
-                                long now = System.nanoTime();
-                                float deltaTime = (now - lastTime) / 1000000000.0f;
-                                lastTime = now;
-
-                                renderThread(threadNum, deltaTime);
-                            }
-                        }
-                    } catch (Throwable t) {
-                        if (t instanceof RuntimeException)
-                            throw (RuntimeException) t;
-                        else
-                            throw new GdxRuntimeException(t);
-                    }
+    /**
+     * stops placing new players and waits until all running matches ended
+     *
+     * @param timeout maximum time to wait in seconds
+     */
+    void drain(int timeout) {
+        if (shutDown.get())
+            return;
+
+        synchronized (this) {
+            if (!draining) {
+                draining = true;
+                metrics.draining = true;
+                Gdx.app.log("Server", "Draining, waiting up to " + timeout + " s for "
+                        + scheduler.getActiveMatchNum() + " matches to end");
+                // no new players should find this server
+                if (jmdns != null) {
+                    jmdns.unregisterAllServices();
                 }
-            }.start();
+            }
         }
+
+        long deadline = TimeUtils.millis() + timeout * 1000L;
+        while (scheduler.getActiveMatchNum() > 0 && TimeUtils.millis() < deadline) {
+            try {
+                Thread.sleep(DRAIN_CHECK_INTERVAL);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        Gdx.app.log("Server", "Drained, " + scheduler.getActiveMatchNum() + " matches still running");
+    }
+
+    /**
+     * drains the server in the background and stops it afterwards, called by an admin
+     */
+    void startDrain() {
+        if (draining)
+            return;
+
+        Thread drainThread = new Thread("Drain") {
+            @Override
+            public void run() {
+                drain(serverConfig.drainTimeout);
+                shutdown();
+                closeConnections();
+                try {
+                    // lets run() in main return, which exits the application
+                    LightblocksServer.this.stop();
+                } catch (IOException | InterruptedException e) {
+                    Gdx.app.error("Server", "Error while stopping server.", e);
+                }
+            }
+        };
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * tells all clients still connected why their connection ends
+     */
+    private void closeConnections() {
+        for (WebSocket conn : getConnections()) {
+            conn.close(CLOSE_SHUTDOWN, "Server is shutting down.");
+        }
+    }
+
+    /**
+     * stops the matches and writes their snapshot if configured, only done once
+     */
+    private void shutdown() {
+        if (!shutDown.compareAndSet(false, true))
+            return;
+
+        if (routerRegistration != null) {
+            routerRegistration.stop();
+        }
+        matchmaker.stop();
+        scheduler.stop();
+        if (serverConfig.snapshotFile != null) {
+            writeSnapshot(new File(serverConfig.snapshotFile));
+        }
+        if (serverConfig.ratingFile != null) {
+            writeRatings(new File(serverConfig.ratingFile));
+        }
+        if (recorder != null) {
+            recorder.stop();
+        }
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
+        // Unregister all services
+        if (jmdns != null) {
+            jmdns.unregisterAllServices();
+        }
+    }
+
+    private void writeSnapshot(File file) {
+        long start = TimeUtils.millis();
+        try {
+            int matchNum = MatchSnapshot.write(file, scheduler.getRunningMatches());
+            Gdx.app.log("Server", "Wrote " + matchNum + " matches to " + file + " in " + TimeUtils.timeSinceMillis(start) + " ms");
+        } catch (IOException e) {
+            Gdx.app.error("Server", "Could not write snapshot " + file, e);
+        }
+    }
+
+    private void restoreSnapshot(File file) {
+        if (!file.exists())
+            return;
+
+        long start = TimeUtils.millis();
+        try {
+            int matchNum = MatchSnapshot.read(file, this, scheduler);
+            Gdx.app.log("Server", "Restored " + matchNum + " matches from " + file + " in " + TimeUtils.timeSinceMillis(start) + " ms");
+        } catch (IOException e) {
+            Gdx.app.error("Server", "Could not restore snapshot " + file, e);
+        }
+    }
+
+    private void readRatings(File file) {
+        if (!file.exists())
+            return;
+
+        try {
+            ratings.read(file);
+            Gdx.app.log("Server", "Read ratings of " + ratings.getPlayerNum() + " players from " + file);
+        } catch (IOException e) {
+            Gdx.app.error("Server", "Could not read ratings " + file, e);
+        }
+    }
+
+    private void writeRatings(File file) {
+        try {
+            ratings.write(file);
+            Gdx.app.debug("Server", "Wrote ratings of " + ratings.getPlayerNum() + " players to " + file);
+        } catch (IOException e) {
+            Gdx.app.error("Server", "Could not write ratings " + file, e);
+        }
+    }
+
+    @Nullable
+    private ReplayRecorder openRecorder() {
+        if (serverConfig.recordingDir == null)
+            return null;
+
+        try {
+            return ReplayRecorder.open(new File(serverConfig.recordingDir), serverConfig.recordingSegmentSize);
+        } catch (IOException e) {
+            recordingError = e;
+            return null;
+        }
+    }
+
+    private void startMetricsEndpoint(int port) {
+        metricsEndpoint = new MetricsEndpoint(this);
+        try {
+            metricsEndpoint.start(port);
+        } catch (IOException e) {
+            Gdx.app.error("Server", "Could not start metrics endpoint on port " + port, e);
+            metricsEndpoint = null;
+        }
+    }
+
+    private void startRouterRegistration(ServerConfiguration serverConfig) {
+        try {
+            routerRegistration = new RouterRegistration(this, scheduler, serverConfig.routerUrl,
+                    serverConfig.nodeId, serverConfig.publicAddress);
+            routerRegistration.start();
+        } catch (IOException e) {
+            Gdx.app.error("Server", "Could not register with router " + serverConfig.routerUrl, e);
+        }
+    }
+
+    void writeMetrics(StringBuilder out) {
+        metrics.write(out, scheduler, matchmaker, getConnections(), serializer, sessions, recorder);
     }
 
     @Override
     public void create() {
         Gdx.app.setLogLevel(serverConfig.loglevel);
-
-        matches[0] = new Match(this);
+        if (serverConfig.virtualThreads && connectionThreads == null)
+            Gdx.app.log("Server", "Virtual threads need Java 21 or newer, running matches on platform threads.");
+        if (recordingError != null)
+            Gdx.app.error("Server", "Could not open " + serverConfig.recordingDir + ", games are not recorded", recordingError);
 
         serverInfo.authRequired = false;
         serverInfo.name = "Lightblocks Server";
         serverInfo.owner = "me";
-        serverInfo.version = 1;
+        // version 2 accepts the protocol version in player info, version 3 the resume token,
+        // version 4 compact boards
+        serverInfo.version = 4;
     }
 
     @Override
@@ -140,29 +347,17 @@ public class LightblocksServer extends WebSocketServer implements ApplicationLis
 
     @Override
     public void render() {
-        // update game state here
-        try {
-            renderThread(0, Gdx.graphics.getDeltaTime());
-        } catch (Throwable t) {
-            Gdx.app.error("Server", "Uncaught error ", t);
+        // matches are updated by the scheduler's worker threads, only the ratings are saved from time to time
+        if (serverConfig.ratingFile != null && TimeUtils.timeSinceMillis(lastRatingSave) > RATING_SAVE_INTERVAL) {
+            lastRatingSave = TimeUtils.millis();
+            if (ratings.isChanged() && !shutDown.get())
+                writeRatings(new File(serverConfig.ratingFile));
         }
     }
 
-    public void renderThread(int thread, float delta) {
-        // update corresponding game model
-        // Gdx.app.debug("Match" + thread, "update with delta " + delta);
-        matches[thread].update(delta);
-    }
-
-    public synchronized Match findMatchForPlayer(Player player) {
-        for (int i = 0; i < serverConfig.threadNum; i++) {
-            if (matches[i].connectPlayer(player)) {
-                Gdx.app.debug("Server", "Connected player to match " + i);
-                return matches[i];
-            }
-        }
-
-        return null;
+    @Nullable
+    public Match findMatchToSpectate(int matchId) {
+        return scheduler.findRunningMatch(matchId);
     }
 
     @Override
@@ -189,7 +384,9 @@ public class LightblocksServer extends WebSocketServer implements ApplicationLis
     public void onOpen(WebSocket conn, ClientHandshake handshake) {
         synchronized (serializer) {
             conn.setAttachment(new Player(this, conn));
-            conn.send(serializer.serialize(this.serverInfo)); //This method sends a message to the new client
+            String serverInfo = serializer.serialize(this.serverInfo);
+            conn.send(serverInfo); //This method sends a message to the new client
+            metrics.messageSent(Player.getUtf8Length(serverInfo));
             Gdx.app.debug("Server", "new connection to " + conn.getRemoteSocketAddress());
         }
     }
@@ -197,16 +394,52 @@ public class LightblocksServer extends WebSocketServer implements ApplicationLis
     @Override
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
         Gdx.app.debug("Server", "closed " + conn.getRemoteSocketAddress() + " with exit code " + code + " additional info: " + reason);
-        if (conn.getAttachment() != null) {
-            conn.<Player>getAttachment().disconnected();
+        final Player player = conn.getAttachment();
+        if (player == null)
+            return;
+        if (player.messageExecutor != null) {
+            // after the messages still waiting
+            final int closeCode = code;
+            player.messageExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    player.disconnected(closeCode);
+                }
+            });
+        } else {
+            player.disconnected(code);
         }
     }
 
     @Override
-    public void onMessage(WebSocket conn, String message) {
-        Gdx.app.debug("Server", "received message from " + conn.getRemoteSocketAddress() + ": " + message);
+    public void onMessage(final WebSocket conn, final String message) {
+        metrics.messageReceived(Player.getUtf8Length(message));
+        Player player = conn.getAttachment();
+        if (player != null && player.messageExecutor != null) {
+            player.messageExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    handleMessage(conn, message);
+                }
+            });
+        } else {
+            handleMessage(conn, message);
+        }
+    }
+
+    private void handleMessage(WebSocket conn, String message) {
+        if (Gdx.app.getLogLevel() >= Application.LOG_DEBUG)
+            Gdx.app.debug("Server", "received message from " + conn.getRemoteSocketAddress() + ": " + message);
         if (message.equals("PING") || message.isEmpty()) {
             conn.send("PONG");
+        } else if (conn.getAttachment() != null && Serializer.isInGameMessage(message)) {
+            // in-game messages are the hot path, they are decoded without any allocation
+            int input = serializer.deserializeInput(message);
+            if (input != InputQueue.NONE) try {
+                conn.<Player>getAttachment().onInput(input);
+            } catch (Player.UnexpectedException e) {
+                conn.close(4101, "Message unexpected.");
+            }
         } else if (conn.getAttachment() != null) {
             Object object = serializer.deserialize(message);
             if (object != null) try {
@@ -223,6 +456,8 @@ public class LightblocksServer extends WebSocketServer implements ApplicationLis
 
     @Override
     public void onMessage(WebSocket conn, ByteBuffer message) {
+        metrics.messageReceived(message.remaining());
+        // the binary protocol is for events sent to the client only, inputs are sent as text
         Gdx.app.debug("Server", "received ByteBuffer from " + conn.getRemoteSocketAddress());
     }
 
@@ -2,202 +2,818 @@ package de.golfgl.lightblocks.server;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.Queue;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import org.java_websocket.framing.BinaryFrame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nullable;
 
+import de.golfgl.lightblocks.engine.IntList;
 import de.golfgl.lightblocks.model.GameModel;
 import de.golfgl.lightblocks.model.GameScore;
 import de.golfgl.lightblocks.model.IGameModelListener;
-import de.golfgl.lightblocks.model.ServerMultiplayerModel;
 import de.golfgl.lightblocks.model.Tetromino;
-import de.golfgl.lightblocks.multiplayer.ai.ArtificialPlayer;
-import de.golfgl.lightblocks.server.model.InGameMessage;
 import de.golfgl.lightblocks.server.model.MatchInfo;
-import de.golfgl.lightblocks.state.InitGameParameters;
+import de.golfgl.lightblocks.server.model.SessionInfo;
+import de.golfgl.lightblocks.server.replay.RecordingBuffer;
+import de.golfgl.lightblocks.state.GameParameters;
 
+/**
+ * A match between the players in its slots, the AI plays the boards of empty slots. A match has
+ * two slots for a duel, or more for a battle which only clients supporting
+ * {@link BinaryProtocol#BATTLE_PROTOCOL_VERSION} can play or watch.
+ */
 public class Match {
     public static final float WAIT_TIME_GAME_OVER = 5f;
-    private final InitGameParameters gameParams;
+    // time a player's slot is kept after its connection was lost
+    public static final float RESUME_WAIT_TIME = 15f;
+    private final GameParameters gameParams;
     private final LightblocksServer server;
-    private final Queue<InGameMessage> p1Queue = new Queue<>();
-    private final Queue<InGameMessage> p2Queue = new Queue<>();
-    private Player player1;
-    private Player player2;
+    private final int id;
+    // managed by the Matchmaker, true while the match is in its queue of matches against the AI
+    final AtomicBoolean openSlotQueued = new AtomicBoolean();
+    public static final int INPUT_QUEUE_CAPACITY = 64;
+    private final int slotNum;
+    // the slot is the player's board in the game model
+    private final Player[] players;
+    // the players of the slots at the last update, only used by the worker to find players who left
+    private final Player[] lastPlayers;
+    private final InputQueue[] inputQueues;
+    private final float[] awayTimes;
     private ServerMultiplayerModel gameModel;
     private float waitGameOver = WAIT_TIME_GAME_OVER;
+    private boolean retired;
+    private volatile boolean fullInformationRequested;
+    // set by the worker running the match if games are recorded
+    @Nullable
+    RecordingBuffer recording;
+    private long gameId;
+    private int gameTick;
+    // spectators are handed over to the worker thread, which is the only one to touch the array
+    private final ConcurrentLinkedQueue<Player> joiningSpectators = new ConcurrentLinkedQueue<>();
+    private final Array<Player> spectators = new Array<>();
+    private boolean hasTextSpectator;
+    private boolean hasBinarySpectator;
+    // protocols of the players in the slots, updated when a slot changes instead of checked on every event
+    private volatile boolean hasPlayer;
+    private volatile boolean hasTextPlayer;
+    private volatile boolean hasBinaryPlayer;
+    // players resuming their session are handed over to the worker thread like spectators
+    private final ConcurrentLinkedQueue<Player> resumingPlayers = new ConcurrentLinkedQueue<>();
+    // event log sequence number the last full information was sent at, no resume can catch up to before
+    private long fullInformationSeq;
+    final EventBroadcaster broadcaster;
+    // game state read from a snapshot, continued by the worker when it creates the game model
+    @Nullable
+    private byte[] restoredGame;
+
+    public Match(LightblocksServer server, int id) {
+        this(server, id, 2);
+    }
 
-    public Match(LightblocksServer server) {
+    /**
+     * @param slotNum number of players, 2 for a duel
+     */
+    public Match(LightblocksServer server, int id, int slotNum) {
         this.server = server;
-        gameParams = new InitGameParameters();
+        this.id = id;
+        this.slotNum = slotNum;
+        players = new Player[slotNum];
+        lastPlayers = new Player[slotNum];
+        inputQueues = new InputQueue[slotNum];
+        for (int i = 0; i < slotNum; i++) {
+            inputQueues[i] = new InputQueue(INPUT_QUEUE_CAPACITY);
+        }
+        awayTimes = new float[slotNum];
+        broadcaster = new EventBroadcaster(players, spectators);
+        gameParams = new GameParameters();
         gameParams.setBeginningLevel(server.serverConfig.beginningLevel);
+        chooseModeType();
+    }
+
+    private void chooseModeType() {
         int modeType = server.serverConfig.modeType;
-        if (modeType == InitGameParameters.TYPE_MIX) {
-            modeType = MathUtils.randomBoolean() ? InitGameParameters.TYPE_CLASSIC : InitGameParameters.TYPE_MODERN;
+        if (modeType == GameParameters.TYPE_MIX) {
+            modeType = MathUtils.randomBoolean() ? GameParameters.TYPE_CLASSIC : GameParameters.TYPE_MODERN;
         }
         gameParams.setModeType(modeType);
     }
 
+    public int getId() {
+        return id;
+    }
+
+    public int getSlotNum() {
+        return slotNum;
+    }
+
+    /**
+     * @return true if the match has more than two slots
+     */
+    public boolean isBattle() {
+        return slotNum > 2;
+    }
+
     public void update(float delta) {
-        if (getConnectedPlayerNum() == 0) {
+        resumePlayers();
+        for (int i = 0; i < slotNum; i++) {
+            awayTimes[i] = isAway(players[i]) ? awayTimes[i] + delta : 0;
+            if (awayTimes[i] > RESUME_WAIT_TIME) {
+                server.metrics.expiredSessions.incrementAndGet();
+                removePlayer(players[i]);
+            }
+        }
+        rateLeavers();
+
+        checkSendBacklogs(delta);
+
+        if (!hasPlayer) {
+            // all players left, the match is abandoned and can be recycled
+            endGame();
             return;
         }
 
         // update game model
         if (gameModel == null) {
+            if (server.isDraining()) {
+                // the game is over, and no new one is started anymore
+                closePlayers();
+                return;
+            }
             initGameModel();
-            sendFullInformation();
+            fullInformationRequested = true;
         }
-
-        gameModel.setAiEnabled(player1 == null);
-        gameModel.getSecondGameModel().setAiEnabled(player2 == null);
+        gameTick++;
+        broadcaster.recordedTick = gameTick;
 
         // process the queues
-        synchronized (p1Queue) {
-            if (player1 == null)
-                p1Queue.clear();
-            else
-                processQueue(gameModel, p1Queue);
-        }
-        synchronized (p2Queue) {
-            if (player2 == null)
-                p2Queue.clear();
+        for (int i = 0; i < slotNum; i++) {
+            ServerMultiplayerModel boardModel = gameModel.getGameModel(i);
+            boardModel.setAiEnabled(players[i] == null);
+            if (players[i] == null)
+                inputQueues[i].clear();
             else
-                processQueue(gameModel.getSecondGameModel(), p2Queue);
+                processQueue(boardModel, inputQueues[i], i);
         }
 
         gameModel.update(delta);
 
-        if (gameModel.isGameOver()) {
+        if (gameModel.isGameDecided()) {
+            if (waitGameOver == WAIT_TIME_GAME_OVER)
+                ratePlayers();
             if (waitGameOver > 0)
                 waitGameOver = waitGameOver - delta;
             else {
-                gameModel = null;
-                waitGameOver = WAIT_TIME_GAME_OVER;
+                endGame();
+            }
+        }
+
+        if (fullInformationRequested) {
+            fullInformationRequested = false;
+            sendFullInformation();
+        }
+
+        // send all events of this tick
+        broadcaster.flush();
+
+        resyncPlayers();
+        updateSpectators(delta);
+    }
+
+    private static boolean isAway(@Nullable Player player) {
+        return player != null && player.state == Player.ConnectionState.DISCONNECTED;
+    }
+
+    /**
+     * to be called with the lock held whenever a slot changed
+     */
+    private void updateProtocols() {
+        hasPlayer = false;
+        hasTextPlayer = false;
+        hasBinaryPlayer = false;
+        for (int i = 0; i < slotNum; i++) {
+            Player player = players[i];
+            if (player != null) {
+                hasPlayer = true;
+                if (player.binaryProtocol)
+                    hasBinaryPlayer = true;
+                else
+                    hasTextPlayer = true;
+            }
+        }
+    }
+
+    /**
+     * puts resuming players into the slot their session belongs to and sends them what they missed.
+     * The session's old connection might not be noticed as lost yet, it is closed then.
+     */
+    private void resumePlayers() {
+        Player player;
+        while ((player = resumingPlayers.poll()) != null) {
+            String token = player.sessionToken;
+            Player away = null;
+            int slot;
+            synchronized (this) {
+                for (slot = 0; slot < slotNum; slot++) {
+                    if (players[slot] != null && token.equals(players[slot].sessionToken)) {
+                        away = players[slot];
+                        away.slot = -1;
+                        players[slot] = player;
+                        player.slot = slot;
+                        // the same player on a new connection, it did not leave
+                        lastPlayers[slot] = player;
+                        awayTimes[slot] = 0;
+                        updateProtocols();
+                        break;
+                    }
+                }
+            }
+            if (away == null) {
+                player.close(4104, "Session expired.");
+                continue;
+            }
+            if (!isAway(away))
+                away.close(LightblocksServer.CLOSE_RESUMED, "Session resumed on another connection.");
+
+            // a token is only good for one resume
+            server.sessions.remove(token);
+            player.sessionToken = server.sessions.register(this);
+            sendMissedEvents(player, slot, away.isRestored());
+        }
+    }
+
+    /**
+     * @param restored true if the player's session is from before a restart, the event log was
+     *                 started anew then
+     */
+    private void sendMissedEvents(Player player, int slot, boolean restored) {
+        EventLog eventLog = broadcaster.eventLog;
+        long fromSeq = player.resumeEventSeq + 1;
+        if (restored || gameModel == null || eventLog == null || player.resumeEventSeq < fullInformationSeq
+                || !eventLog.isAvailableFrom(fromSeq)) {
+            server.metrics.resumesWithFullInformation.incrementAndGet();
+            requestFullInformation();
+            return;
+        }
+
+        server.metrics.resumesFromEventLog.incrementAndGet();
+        // all players of a battle get the same events
+        ByteBuffer missedEvents = eventLog.copyFrom(fromSeq, slot == 1 && !isBattle());
+        if (missedEvents.hasRemaining()) {
+            BinaryFrame frame = new BinaryFrame();
+            frame.setPayload(missedEvents);
+            player.send(frame);
+        }
+        // the frame with the missed events is not counted, the client continues from here
+        player.send(server.serializer.serialize(new SessionInfo(player.sessionToken, eventLog.getLastSeq())));
+    }
+
+    private void checkSendBacklogs(float delta) {
+        for (int i = 0; i < slotNum; i++) {
+            Player player = players[i];
+            if (player != null)
+                player.checkSendBacklog(delta);
+        }
+    }
+
+    /**
+     * sends the full match information to players who missed events because their connection
+     * could not keep up, as soon as it caught up
+     */
+    private void resyncPlayers() {
+        if (gameModel == null)
+            return;
+
+        FullInformation fullInformation = null;
+        for (int i = 0; i < slotNum; i++) {
+            Player player = players[i];
+            if (player != null && player.canResync()) {
+                if (fullInformation == null)
+                    fullInformation = new FullInformation();
+                resync(player, fullInformation.get(i, player.compactBoard));
+            }
+        }
+    }
+
+    private void resync(Player player, String fullInformation) {
+        server.metrics.resyncs.incrementAndGet();
+        player.resyncNeeded = false;
+        player.send(fullInformation);
+        if (broadcaster.eventLog != null) {
+            // the player missed events of the log, it continues counting from here
+            sendSessionInfo(player);
+        }
+    }
+
+    /**
+     * removes disconnected spectators, adds joining ones and resyncs the ones that missed events
+     * because their connection could not keep up
+     */
+    private void updateSpectators(float delta) {
+        boolean changed = false;
+        for (int i = spectators.size - 1; i >= 0; i--) {
+            if (spectators.get(i).state == Player.ConnectionState.DISCONNECTED) {
+                spectators.removeIndex(i);
+                changed = true;
+            }
+        }
+
+        Player joining;
+        while ((joining = joiningSpectators.poll()) != null) {
+            joining.resyncNeeded = true;
+            spectators.add(joining);
+            changed = true;
+        }
+
+        if (changed) {
+            hasTextSpectator = false;
+            hasBinarySpectator = false;
+            for (int i = 0; i < spectators.size; i++) {
+                if (spectators.get(i).binaryProtocol)
+                    hasBinarySpectator = true;
+                else
+                    hasTextSpectator = true;
+            }
+        }
+
+        FullInformation fullInformation = null;
+        for (int i = 0; i < spectators.size; i++) {
+            Player spectator = spectators.get(i);
+            spectator.checkSendBacklog(delta);
+            if (spectator.canResync() && gameModel != null) {
+                if (fullInformation == null)
+                    fullInformation = new FullInformation();
+                spectator.resyncNeeded = false;
+                spectator.send(fullInformation.get(FullInformation.SPECTATOR, spectator.compactBoard));
             }
         }
     }
 
-    private void processQueue(ServerMultiplayerModel gameModel, Queue<InGameMessage> queue) {
-        while (!queue.isEmpty()) {
-            InGameMessage igm = queue.removeFirst();
-            switch (igm.message) {
-                case "SML":
+    /**
+     * @param slot the player's slot
+     */
+    private void processQueue(ServerMultiplayerModel gameModel, InputQueue queue, int slot) {
+        server.metrics.inputQueueDepth.record(queue.size());
+        long now = TimeUtils.nanoTime();
+        int input;
+        while ((input = queue.poll()) != InputQueue.NONE) {
+            server.metrics.inputLatency.record(now - queue.getPolledTimestamp());
+            if (recording != null)
+                recording.input(gameId, gameTick, slot, input);
+            switch (input) {
+                case InputQueue.MOVE_LEFT:
                     gameModel.inputStartMoveHorizontal(null, true);
                     break;
-                case "SMR":
+                case InputQueue.MOVE_RIGHT:
                     gameModel.inputStartMoveHorizontal(null, false);
                     break;
-                case "SMH":
+                case InputQueue.MOVE_END:
                     gameModel.inputEndMoveHorizontal(null, true);
                     gameModel.inputEndMoveHorizontal(null, false);
                     break;
-                case "HAT":
+                case InputQueue.HOLD:
                     gameModel.inputHoldActiveTetromino(null);
                     break;
-                case "ROR":
+                case InputQueue.ROTATE_RIGHT:
                     gameModel.inputRotate(null, true);
                     break;
-                case "ROL":
+                case InputQueue.ROTATE_LEFT:
                     gameModel.inputRotate(null, false);
                     break;
-                case "DRN":
+                case InputQueue.DROP_NONE:
                     gameModel.inputSetSoftDropFactor(null, GameModel.FACTOR_NO_DROP);
                     break;
-                case "DRS":
+                case InputQueue.DROP_SOFT:
                     gameModel.inputSetSoftDropFactor(null, GameModel.FACTOR_SOFT_DROP);
                     break;
-                case "DRH":
+                case InputQueue.DROP_HARD:
                     gameModel.inputSetSoftDropFactor(null, GameModel.FACTOR_HARD_DROP);
                     break;
-                default:
-                    Gdx.app.log("Match", "Unrecognized game message: " + igm.message);
             }
         }
     }
 
     private void initGameModel() {
-        gameModel = new ServerMultiplayerModel();
+        gameModel = newGameModel();
+        if (restoredGame != null) {
+            try {
+                readGame(new DataInputStream(new ByteArrayInputStream(restoredGame)));
+            } catch (IOException | RuntimeException e) {
+                Gdx.app.error("Match", "Could not restore game of match " + id + ", starting a new one", e);
+                gameModel = newGameModel();
+            }
+            restoredGame = null;
+        }
+
+        // every AI is paced by the board after its own
+        for (int i = 0; i < slotNum; i++) {
+            ServerMultiplayerModel boardModel = gameModel.getGameModel(i);
+            // before the user interface is set, or the first piece is planned for human players, too
+            boardModel.setAiEnabled(players[i] == null);
+            boardModel.setAiPlayer(new TimedArtificialPlayer(boardModel, gameModel.getGameModel((i + 1) % slotNum),
+                    server.metrics.aiPlanningDuration));
+            boardModel.setUserInterface(null, new Listener(i));
+        }
+
+        gameTick = 0;
+        if (recording != null) {
+            String[] nickNames = new String[slotNum];
+            for (int i = 0; i < slotNum; i++) {
+                nickNames[i] = players[i] != null ? players[i].nickName : null;
+            }
+            gameId = recording.gameStarted(id, gameParams.getModeType(), gameParams.getBeginningLevel(), nickNames);
+            broadcaster.recording = recording;
+            broadcaster.recordedGameId = gameId;
+        }
+    }
+
+    private ServerMultiplayerModel newGameModel() {
+        ServerMultiplayerModel gameModel = new ServerMultiplayerModel();
+        gameModel.setPlayerNum(slotNum);
+        gameModel.setGarbageTargeting(server.serverConfig.garbageTargeting);
         gameModel.startNewGame(gameParams);
-        ServerMultiplayerModel secondGameModel = gameModel.getSecondGameModel();
+        return gameModel;
+    }
 
-        gameModel.setAiPlayer(new ArtificialPlayer(gameModel, secondGameModel));
-        secondGameModel.setAiPlayer(new ArtificialPlayer(secondGameModel, gameModel));
+    /**
+     * updates the ratings after a game, the winner won against every other human in the match.
+     * Games against the AI are not rated, players who left before are rated by {@link #rateLeavers}.
+     */
+    private void ratePlayers() {
+        Player winner = null;
+        for (int i = 0; i < slotNum; i++) {
+            if (gameModel.getGameModel(i).isGameWon())
+                winner = players[i];
+        }
+        if (winner == null)
+            return;
 
-        gameModel.setUserInterface(new Listener(true));
-        secondGameModel.setUserInterface(new Listener(false));
+        for (int i = 0; i < slotNum; i++) {
+            Player loser = players[i];
+            if (loser != null && loser != winner)
+                server.ratings.gamePlayed(winner.userId, loser.userId);
+        }
+    }
+
+    /**
+     * a player who left a running game before it was decided lost against every human still
+     * playing, otherwise leaving would save a losing player's rating
+     */
+    private void rateLeavers() {
+        for (int i = 0; i < slotNum; i++) {
+            Player leaver = lastPlayers[i];
+            Player player = players[i];
+            lastPlayers[i] = player;
+            if (leaver == null || leaver == player || gameModel == null || gameModel.isGameDecided())
+                continue;
+
+            for (int j = 0; j < slotNum; j++) {
+                Player opponent = players[j];
+                if (opponent != null && opponent != leaver)
+                    server.ratings.gamePlayed(opponent.userId, leaver.userId);
+            }
+        }
+    }
+
+    private void endGame() {
+        if (gameModel != null && broadcaster.recording != null) {
+            // the game's last events belong to its recording
+            broadcaster.flush();
+            broadcaster.recording.gameEnded(gameId, gameTick);
+        }
+        broadcaster.recording = null;
+        gameModel = null;
+        waitGameOver = WAIT_TIME_GAME_OVER;
+    }
+
+    /**
+     * @return true if a game is running and one of its players can resume the session after a
+     * restart. Only to be called when the match's worker is stopped, like {@link #writeState}.
+     */
+    boolean isRestorable() {
+        if (gameModel == null || gameModel.isGameDecided())
+            return false;
+        for (int i = 0; i < slotNum; i++) {
+            if (players[i] != null && players[i].sessionToken != null)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * writes the match for {@link MatchSnapshot}, see {@link #readState}. The number of slots is
+     * written by the snapshot, it is needed to create the match.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeByte(gameParams.getModeType());
+        out.writeByte(gameParams.getBeginningLevel());
+        for (int i = 0; i < slotNum; i++) {
+            writeSlot(out, players[i]);
+        }
+
+        ByteArrayOutputStream game = new ByteArrayOutputStream(2048);
+        writeGame(new DataOutputStream(game));
+        out.writeShort(game.size());
+        out.write(game.toByteArray());
+    }
+
+    /**
+     * Players who can't resume their session are not kept, the AI takes over their game.
+     */
+    private static void writeSlot(DataOutput out, @Nullable Player player) throws IOException {
+        String sessionToken = player != null ? player.sessionToken : null;
+        out.writeBoolean(sessionToken != null);
+        if (sessionToken != null) {
+            out.writeUTF(player.nickName != null ? player.nickName : "");
+            out.writeUTF(sessionToken);
+        }
+    }
+
+    /**
+     * restores a match written by {@link #writeState}. Its players are away and get their slots
+     * back when they resume their sessions in time, the game is continued with the first update.
+     */
+    void readState(DataInput in) throws IOException {
+        gameParams.setModeType(in.readByte());
+        gameParams.setBeginningLevel(in.readByte());
+        for (int i = 0; i < slotNum; i++) {
+            players[i] = readSlot(in);
+            if (players[i] != null)
+                players[i].slot = i;
+        }
+        updateProtocols();
+
+        restoredGame = new byte[in.readUnsignedShort()];
+        in.readFully(restoredGame);
+    }
+
+    @Nullable
+    private Player readSlot(DataInput in) throws IOException {
+        if (!in.readBoolean())
+            return null;
+
+        Player player = Player.restored(server, in.readUTF(), in.readUTF());
+        server.sessions.restore(player.sessionToken, this);
+        return player;
+    }
+
+    private void writeGame(DataOutput out) throws IOException {
+        gameModel.write(new DataStateWriter(out));
+        out.writeFloat(waitGameOver);
+    }
+
+    private void readGame(DataInput in) throws IOException {
+        gameModel.read(new DataStateReader(in));
+        waitGameOver = in.readFloat();
+    }
+
+    /**
+     * the player is put into its slot with the next tick, if its session did not expire meanwhile
+     *
+     * @return false if the match is not running anymore
+     */
+    public boolean resumePlayer(Player player) {
+        synchronized (this) {
+            if (retired)
+                return false;
+            resumingPlayers.add(player);
+            return true;
+        }
+    }
+
+    /**
+     * the spectator is added with the next tick and gets the full match information then
+     *
+     * @return false if the match is not running anymore, or the spectator's client can't show it
+     */
+    public boolean addSpectator(Player spectator) {
+        synchronized (this) {
+            if (retired || getConnectedPlayerNum() == 0 || isBattle() && !spectator.battleProtocol)
+                return false;
+            joiningSpectators.add(spectator);
+            return true;
+        }
     }
 
     public boolean connectPlayer(Player player) {
         synchronized (this) {
-            if (player1 == null) {
-                player1 = player;
-                return true;
+            if (retired) {
+                return false;
             }
-            if (player2 == null) {
-                player2 = player;
-                return true;
+            for (int i = 0; i < slotNum; i++) {
+                if (players[i] == null) {
+                    players[i] = player;
+                    player.slot = i;
+                    updateProtocols();
+                    return true;
+                }
             }
             return false;
         }
     }
 
-    public void playerDisconnected(Player player) {
+    /**
+     * connects the player only if exactly one other player is connected to this match
+     */
+    public boolean connectOpponent(Player player) {
+        synchronized (this) {
+            return getConnectedPlayerNum() == 1 && connectPlayer(player);
+        }
+    }
+
+    /**
+     * @return the player if exactly one is connected
+     */
+    @Nullable
+    public Player getSinglePlayer() {
+        synchronized (this) {
+            if (getConnectedPlayerNum() != 1)
+                return null;
+            for (int i = 0; i < slotNum; i++) {
+                if (players[i] != null)
+                    return players[i];
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param resumable true to keep the player's slot for {@link #RESUME_WAIT_TIME}
+     */
+    public void playerDisconnected(Player player, boolean resumable) {
+        if (resumable && player.sessionToken != null) {
+            // the worker sees the disconnected state and removes the player if it does not resume in time
+            return;
+        }
+        removePlayer(player);
+    }
+
+    private void removePlayer(Player player) {
+        String sessionToken = player.sessionToken;
+        if (sessionToken != null)
+            server.sessions.remove(sessionToken);
+
         synchronized (this) {
-            if (player == player1) {
-                player1 = null;
-            } else if (player == player2) {
-                player2 = null;
+            for (int i = 0; i < slotNum; i++) {
+                if (players[i] == player)
+                    players[i] = null;
             }
+            player.slot = -1;
+            updateProtocols();
+        }
+        server.matchmaker.playerLeft(this);
+        requestFullInformation();
+    }
+
+    /**
+     * called by the worker after each update. When no player is connected and the game model was
+     * reset, the match is marked retired so that no player can connect anymore and it can be recycled.
+     *
+     * @return true if the match was retired
+     */
+    boolean retireIfIdle() {
+        synchronized (this) {
+            if (!retired && getConnectedPlayerNum() == 0 && gameModel == null) {
+                retired = true;
+                closeSpectators();
+                Player player;
+                while ((player = resumingPlayers.poll()) != null) {
+                    player.close(4104, "Session expired.");
+                }
+            }
+            return retired;
+        }
+    }
+
+    /**
+     * the players are removed when their connection is closed
+     */
+    private void closePlayers() {
+        for (int i = 0; i < slotNum; i++) {
+            Player player = players[i];
+            if (player != null)
+                player.close(LightblocksServer.CLOSE_SHUTDOWN, "Server is shutting down.");
+        }
+    }
+
+    private void closeSpectators() {
+        Player spectator;
+        while ((spectator = joiningSpectators.poll()) != null) {
+            spectator.close(4103, "Match ended.");
+        }
+        for (int i = 0; i < spectators.size; i++) {
+            spectators.get(i).close(4103, "Match ended.");
+        }
+        spectators.clear();
+        hasTextSpectator = false;
+        hasBinarySpectator = false;
+    }
+
+    /**
+     * prepares a retired match for reuse
+     */
+    void reset() {
+        synchronized (this) {
+            for (int i = 0; i < slotNum; i++) {
+                inputQueues[i].clear();
+                awayTimes[i] = 0;
+            }
+            if (broadcaster.eventLog != null)
+                broadcaster.eventLog.clear();
+            fullInformationSeq = 0;
+            chooseModeType();
+            retired = false;
         }
-        sendFullInformation();
     }
 
     public int getConnectedPlayerNum() {
-        return (player1 != null ? 1 : 0) + (player2 != null ? 1 : 0);
+        int connected = 0;
+        for (int i = 0; i < slotNum; i++) {
+            if (players[i] != null)
+                connected++;
+        }
+        return connected;
     }
 
-    public void sendFullInformation() {
+    /**
+     * the full match information will be sent to all players with the next tick
+     */
+    public void requestFullInformation() {
+        fullInformationRequested = true;
+    }
+
+    void sendFullInformation() {
         if (gameModel == null || getConnectedPlayerNum() == 0)
             return;
 
-        // send the full match information to the players after a connect or disconnect
-        // gameboard, score, nick names, ...
-        MatchInfo matchInfo1 = new MatchInfo();
-        MatchInfo matchInfo2 = new MatchInfo();
-
-        MatchInfo.PlayerInfo player1 = new MatchInfo.PlayerInfo();
-        MatchInfo.PlayerInfo player2 = new MatchInfo.PlayerInfo();
-        matchInfo1.player1 = player1;
-        matchInfo1.player2 = player2;
-        matchInfo1.isModern = gameModel.isModernRotation();
-        matchInfo2.player1 = player2;
-        matchInfo2.player2 = player1;
-        matchInfo2.isModern = gameModel.isModernRotation();
+        if (broadcaster.eventLog == null && isResumable())
+            broadcaster.eventLog = new EventLog();
 
-        player1.score = new MatchInfo.ScoreInfo(gameModel.getScore());
-        player2.score = new MatchInfo.ScoreInfo(gameModel.getSecondGameModel().getScore());
+        // events queued before must arrive first
+        broadcaster.flush();
 
-        player1.nickname = this.player1 != null ? this.player1.nickName : "AI";
-        player2.nickname = this.player2 != null ? this.player2.nickName : "AI";
+        // send the full match information to the players after a connect or disconnect
+        // gameboard, score, nick names, ...
+        FullInformation fullInformation = new FullInformation();
+        if (broadcaster.recording != null)
+            broadcaster.recording.fullInformation(gameId, gameTick, fullInformation.get(FullInformation.SPECTATOR, true));
+        // players waiting for a resync get it when their connection caught up
+        for (int i = 0; i < slotNum; i++) {
+            Player player = players[i];
+            if (player != null && !player.resyncNeeded)
+                player.send(fullInformation.get(i, player.compactBoard));
+        }
 
-        player1.gameboard = gameModel.getSerializedGameboard();
-        player2.gameboard = gameModel.getSecondGameModel().getSerializedGameboard();
+        if (broadcaster.eventLog != null) {
+            // resumes need to catch up from here on
+            fullInformationSeq = broadcaster.eventLog.getLastSeq();
+            for (int i = 0; i < slotNum; i++) {
+                sendSessionInfo(players[i]);
+            }
+        }
 
-        player1.holdPiece = serializeTetromino(gameModel.getHoldTetromino(), true);
-        player2.holdPiece = serializeTetromino(gameModel.getSecondGameModel().getHoldTetromino(), true);
+        // spectators waiting for a resync get it with the next tick anyway
+        for (int i = 0; i < spectators.size; i++) {
+            Player spectator = spectators.get(i);
+            if (!spectator.resyncNeeded)
+                spectator.send(fullInformation.get(FullInformation.SPECTATOR, spectator.compactBoard));
+        }
+    }
 
-        player1.activePiece = serializeTetromino(gameModel.getActiveTetromino(), false);
-        player2.activePiece = serializeTetromino(gameModel.getSecondGameModel().getActiveTetromino(), false);
+    private boolean isResumable() {
+        for (int i = 0; i < slotNum; i++) {
+            if (players[i] != null && players[i].resumable)
+                return true;
+        }
+        return false;
+    }
 
-        player1.nextPiece = serializeTetromino(gameModel.getNextTetromino(), true);
-        player2.nextPiece = serializeTetromino(gameModel.getSecondGameModel().getNextTetromino(), true);
+    private void sendSessionInfo(@Nullable Player player) {
+        String sessionToken = player != null ? player.sessionToken : null;
+        if (sessionToken != null && !player.resyncNeeded)
+            player.send(server.serializer.serialize(new SessionInfo(sessionToken, broadcaster.eventLog.getLastSeq())));
+    }
 
-        if (this.player1 != null)
-            this.player1.send(server.serializer.serialize(matchInfo1));
-        if (this.player2 != null)
-            this.player2.send(server.serializer.serialize(matchInfo2));
+    private MatchInfo.PlayerInfo serializePlayerInfo(ServerMultiplayerModel model, @Nullable Player player) {
+        MatchInfo.PlayerInfo playerInfo = new MatchInfo.PlayerInfo();
+        playerInfo.score = new MatchInfo.ScoreInfo(model.getScore());
+        playerInfo.nickname = player != null ? player.nickName : "AI";
+        playerInfo.holdPiece = serializeTetromino(model.getHoldTetromino(), true);
+        playerInfo.activePiece = serializeTetromino(model.getActiveTetromino(), false);
+        playerInfo.nextPiece = serializeTetromino(model.getNextTetromino(), true);
+        return playerInfo;
     }
 
     protected String serializeTetromino(Tetromino tetromino, boolean relative) {
@@ -216,42 +832,127 @@ public class Match {
         }
     }
 
-    public void gotMessage(Player player, InGameMessage igm) {
-        if (player == player1)
-            synchronized (p1Queue) {
-                p1Queue.addLast(igm);
+    /**
+     * called on the player's WebSocket thread, queues the input for the next tick
+     *
+     * @param input opcode, see {@link InputQueue}
+     */
+    public void gotInput(Player player, int input) {
+        int slot = player.slot;
+        if (slot < 0)
+            return;
+        InputQueue queue = inputQueues[slot];
+
+        if (!queue.offer(input, TimeUtils.nanoTime()))
+            Gdx.app.debug("Match", "Input queue full, dropped input of " + player.nickName);
+    }
+
+    /**
+     * The full match information of one moment. Every player's information is serialized lazily
+     * for each board encoding needed and shared by all perspectives, so that no variant is built
+     * more than once.
+     * <p>
+     * A duel is sent from the perspective of the receiving player as player1. A battle lists all
+     * boards in slot order and tells the receiving player which one is its own.
+     */
+    private class FullInformation {
+        static final int SPECTATOR = -1;
+        private final MatchInfo.PlayerInfo[] playerInfos = new MatchInfo.PlayerInfo[slotNum];
+        // index: slot, + slotNum with compact board
+        private final String[] playerJson = new String[slotNum * 2];
+        // duels only, index: 1 for the second player's perspective, + 2 with compact board
+        private final String[] matchInfo = new String[4];
+        // battles only, index: 1 with compact board
+        private final String[] boardList = new String[2];
+        private final boolean isModern;
+
+        FullInformation() {
+            for (int i = 0; i < slotNum; i++) {
+                playerInfos[i] = serializePlayerInfo(gameModel.getGameModel(i), players[i]);
             }
-        else if (player == player2)
-            synchronized (p2Queue) {
-                p2Queue.addLast(igm);
+            isModern = gameModel.isModernRotation();
+        }
+
+        /**
+         * @param slot the receiving player's slot, or {@link #SPECTATOR}
+         */
+        String get(int slot, boolean compactBoard) {
+            if (isBattle()) {
+                int index = compactBoard ? 1 : 0;
+                if (boardList[index] == null) {
+                    StringBuilder boards = new StringBuilder();
+                    for (int i = 0; i < slotNum; i++) {
+                        boards.append(i == 0 ? '[' : ',').append(getPlayerJson(i, compactBoard));
+                    }
+                    boardList[index] = boards.append(']').toString();
+                }
+                return server.serializer.serializeBattleInfo(boardList[index], slot, isModern);
+            }
+
+            boolean secondPerspective = slot == 1;
+            int index = (secondPerspective ? 1 : 0) + (compactBoard ? 2 : 0);
+            if (matchInfo[index] == null) {
+                matchInfo[index] = server.serializer.serializeMatchInfo(
+                        getPlayerJson(secondPerspective ? 1 : 0, compactBoard),
+                        getPlayerJson(secondPerspective ? 0 : 1, compactBoard), isModern);
+            }
+            return matchInfo[index];
+        }
+
+        private String getPlayerJson(int slot, boolean compactBoard) {
+            int index = slot + (compactBoard ? slotNum : 0);
+            if (playerJson[index] == null) {
+                MatchInfo.PlayerInfo playerInfo = playerInfos[slot];
+                ServerMultiplayerModel model = gameModel.getGameModel(slot);
+                if (compactBoard) {
+                    playerInfo.gameboard = null;
+                    playerInfo.board = BoardCodec.encode(model.getGameboardSquares());
+                } else {
+                    playerInfo.gameboard = model.getSerializedGameboard();
+                    playerInfo.board = null;
+                }
+                playerJson[index] = server.serializer.serializeJson(playerInfo);
             }
+            return playerJson[index];
+        }
     }
 
-    private class Listener implements IGameModelListener {
-        private final boolean first;
+    class Listener implements IGameModelListener {
+        private final int board;
         private int lastGarbageAmountReported = 0;
-        private String lastSentScore;
+        private int lastSentScore = -1;
+        private int lastSentLevel = -1;
+        private int lastSentLines = -1;
 
-        public Listener(boolean first) {
-            this.first = first;
+        /**
+         * @param board slot of the player whose board is listened to
+         */
+        public Listener(int board) {
+            this.board = board;
         }
 
         private void sendPlayer(String msg) {
-            if (first) {
-                if (player1 != null)
-                    player1.send("Y" + msg);
-                if (player2 != null)
-                    player2.send("O" + msg);
-            } else {
-                if (player1 != null)
-                    player1.send("O" + msg);
-                if (player2 != null)
-                    player2.send("Y" + msg);
-            }
+            broadcaster.sendText(board, msg, false);
+        }
+
+        private void sendMovement(String msg) {
+            broadcaster.sendText(board, msg, true);
+        }
+
+        private ByteBuffer beginBinary(byte opcode) {
+            return broadcaster.beginEvent(board, opcode);
         }
 
         private boolean hasPlayer() {
-            return player1 != null || player2 != null;
+            return hasPlayer;
+        }
+
+        private boolean hasTextPlayer() {
+            return hasTextPlayer || hasTextSpectator;
+        }
+
+        private boolean hasBinaryPlayer() {
+            return hasBinaryPlayer || hasBinarySpectator || broadcaster.recording != null;
         }
 
         @Override
@@ -261,29 +962,37 @@ public class Match {
 
         @Override
         public void moveTetro(Integer[][] v, int dx, int dy, int ghostPieceDistance) {
-            if (hasPlayer()) {
-                sendPlayer("MOV|" + dx + "|" + dy + "|" + ghostPieceDistance);
+            if (hasTextPlayer()) {
+                sendMovement("MOV|" + dx + "|" + dy + "|" + ghostPieceDistance);
+            }
+            if (hasBinaryPlayer()) {
+                beginBinary(BinaryProtocol.MOVE).put((byte) dx).put((byte) dy).put((byte) ghostPieceDistance);
             }
         }
 
         @Override
         public void rotateTetro(Integer[][] vOld, Integer[][] vNew, int ghostPieceDistance) {
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 StringBuilder builder = new StringBuilder();
                 builder.append("ROT-");
                 sendPiecePositions(vNew, builder);
                 builder.append(ghostPieceDistance);
-                sendPlayer(builder.toString());
+                sendMovement(builder.toString());
+            }
+            if (hasBinaryPlayer()) {
+                ByteBuffer event = beginBinary(BinaryProtocol.ROTATE);
+                BinaryProtocol.writeBlockPositions(event, vNew);
+                event.put((byte) ghostPieceDistance);
             }
         }
 
         @Override
-        public void clearAndInsertLines(IntArray linesToRemove, boolean special, int[] garbageHolePosition) {
+        public void clearAndInsertLines(IntList linesToRemove, boolean special, int[] garbageHolePosition) {
             int linesToInsert = (garbageHolePosition == null ? 0 : garbageHolePosition.length);
             if (linesToRemove.size <= 0 && linesToInsert <= 0)
                 return;
 
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 StringBuilder builder = new StringBuilder();
                 builder.append("CLR-");
                 for (int i = 0; i < linesToRemove.size; i++) {
@@ -297,45 +1006,69 @@ public class Match {
                 }
                 sendPlayer(builder.toString());
             }
+            if (hasBinaryPlayer()) {
+                ByteBuffer event = beginBinary(BinaryProtocol.CLEAR_AND_INSERT);
+                event.put((byte) (linesToRemove.size | (special ? 0x80 : 0)));
+                for (int i = 0; i < linesToRemove.size; i++) {
+                    event.put((byte) linesToRemove.get(i));
+                }
+                event.put((byte) linesToInsert);
+                for (int i = 0; i < linesToInsert; i++) {
+                    event.put((byte) garbageHolePosition[i]);
+                }
+            }
         }
 
         @Override
-        public void markAndMoveFreezedLines(boolean playSoundAndMove, IntArray removedLines, IntArray fullLines) {
+        public void markAndMoveFreezedLines(boolean playSoundAndMove, IntList removedLines, IntList fullLines) {
             // not supported
         }
 
         @Override
         public void setGameOver() {
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 sendPlayer("GOV");
             }
+            if (hasBinaryPlayer()) {
+                beginBinary(BinaryProtocol.GAME_OVER);
+            }
         }
 
         @Override
         public void showNextTetro(Integer[][] relativeBlockPositions, int blockType) {
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 StringBuilder builder = new StringBuilder();
                 builder.append("NXT-");
                 sendPiecePositions(relativeBlockPositions, builder);
                 builder.append(blockType);
                 sendPlayer(builder.toString());
             }
+            if (hasBinaryPlayer()) {
+                ByteBuffer event = beginBinary(BinaryProtocol.NEXT_PIECE);
+                BinaryProtocol.writeBlockPositions(event, relativeBlockPositions);
+                event.put((byte) blockType);
+            }
         }
 
         @Override
         public void activateNextTetro(Integer[][] boardBlockPositions, int blockType, int ghostPieceDistance) {
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 StringBuilder builder = new StringBuilder();
                 builder.append("ANT-");
                 sendPiecePositions(boardBlockPositions, builder);
                 builder.append(blockType).append('-').append(ghostPieceDistance);
                 sendPlayer(builder.toString());
             }
+            if (hasBinaryPlayer()) {
+                ByteBuffer event = beginBinary(BinaryProtocol.ACTIVATE_NEXT);
+                BinaryProtocol.writeBlockPositions(event, boardBlockPositions);
+                event.put((byte) blockType).put((byte) ghostPieceDistance);
+            }
         }
 
         @Override
         public void swapHoldAndActivePiece(Integer[][] newHoldPiecePositions, Integer[][] oldActivePiecePositions, Integer[][] newActivePiecePositions, int ghostPieceDistance, int holdBlockType) {
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 StringBuilder builder = new StringBuilder();
                 builder.append("HLD-");
                 sendPiecePositions(newHoldPiecePositions, builder);
@@ -345,32 +1078,53 @@ public class Match {
                 }
                 sendPlayer(builder.toString());
             }
+            if (hasBinaryPlayer()) {
+                ByteBuffer event = beginBinary(newActivePiecePositions != null ?
+                        BinaryProtocol.HOLD_AND_ACTIVE : BinaryProtocol.HOLD);
+                BinaryProtocol.writeBlockPositions(event, newHoldPiecePositions);
+                event.put((byte) ghostPieceDistance);
+                if (newActivePiecePositions != null) {
+                    BinaryProtocol.writeBlockPositions(event, newActivePiecePositions);
+                }
+            }
         }
 
         @Override
         public void pinTetromino(Integer[][] currentBlockPositions) {
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 sendPlayer("PIN");
             }
+            if (hasBinaryPlayer()) {
+                beginBinary(BinaryProtocol.PIN);
+            }
         }
 
         @Override
         public void updateScore(GameScore score, int gainedScore) {
-            if (hasPlayer()) {
-                MatchInfo.ScoreInfo scoreInfo = new MatchInfo.ScoreInfo(score);
-                String serialized = server.serializer.serialize(scoreInfo);
-                if (!serialized.equals(lastSentScore)) {
-                    lastSentScore = serialized;
-                    sendPlayer(serialized);
+            // called on every drop, so only compare the primitive values and serialize on changes
+            if (hasPlayer() && (score.getScore() != lastSentScore || score.getCurrentLevel() != lastSentLevel
+                    || score.getClearedLines() != lastSentLines)) {
+                lastSentScore = score.getScore();
+                lastSentLevel = score.getCurrentLevel();
+                lastSentLines = score.getClearedLines();
+                if (hasTextPlayer()) {
+                    sendPlayer(server.serializer.serialize(new MatchInfo.ScoreInfo(score)));
+                }
+                if (hasBinaryPlayer()) {
+                    beginBinary(BinaryProtocol.SCORE).putInt(lastSentScore)
+                            .putShort((short) lastSentLevel).putShort((short) lastSentLines);
                 }
             }
         }
 
         @Override
         public void markConflict(int x, int y) {
-            if (hasPlayer()) {
+            if (hasTextPlayer()) {
                 sendPlayer("CNF-" + x + "-" + y);
             }
+            if (hasBinaryPlayer()) {
+                beginBinary(BinaryProtocol.CONFLICT).put((byte) x).put((byte) y);
+            }
         }
 
         @Override
@@ -395,15 +1149,26 @@ public class Match {
                 default:
                     motivationMessage = null;
             }
-            if (motivationMessage != null)
-                sendPlayer("MTV-" + motivationMessage);
+            if (motivationMessage != null) {
+                if (hasTextPlayer()) {
+                    sendPlayer("MTV-" + motivationMessage);
+                }
+                if (hasBinaryPlayer()) {
+                    BinaryProtocol.writeAscii(beginBinary(BinaryProtocol.MOTIVATION), motivationMessage);
+                }
+            }
         }
 
         @Override
         public void showGarbageAmount(int lines) {
             if (hasPlayer()) {
                 if (lines != lastGarbageAmountReported) {
-                    sendPlayer("GBG-" + lines);
+                    if (hasTextPlayer()) {
+                        sendPlayer("GBG-" + lines);
+                    }
+                    if (hasBinaryPlayer()) {
+                        beginBinary(BinaryProtocol.GARBAGE_AMOUNT).put((byte) lines);
+                    }
                     lastGarbageAmountReported = lines;
                 }
             } else {
@@ -420,5 +1185,12 @@ public class Match {
         public void emphasizeTimeLabel() {
             // not used
         }
+
+        @Override
+        public void mergeFullInformation(int[][] gameboard, Integer[][] activePiecePos, int activePieceType,
+                                         Integer[][] nextPiecePos, int nextPieceType, Integer[][] holdPiecePos,
+                                         int holdPieceType, String gameTypeLabel) {
+            // only used by clients playing on a server
+        }
     }
 }
@@ -0,0 +1,453 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import de.golfgl.lightblocks.server.replay.RecordingBuffer;
+
+/**
+ * Runs all matches of the server on a small pool of worker threads. Every worker updates all of
+ * its matches one after another on each tick, so the number of matches a node can host is bounded
+ * by CPU and not by the number of threads.
+ * <p>
+ * Matches are created on demand and recycled as soon as no player is connected to them anymore.
+ * <p>
+ * With a factory of virtual threads, every match runs on a thread of its own instead, sleeping
+ * between its ticks. The workers' recording buffers are then shared by the matches.
+ */
+public class MatchScheduler {
+    // above, the tick interval gets too short to be slept and measured
+    public static final int MAX_TICK_RATE = 1000;
+    private final LightblocksServer server;
+    private final Worker[] workers;
+    // null if the matches run on the workers
+    @Nullable
+    private final ThreadFactory matchThreads;
+    @Nullable
+    private final RecordingBuffer[] recordings;
+    // workers of a single match, before they are started and while they run
+    private final Set<Worker> matchWorkers = Collections.newSetFromMap(new ConcurrentHashMap<Worker, Boolean>());
+    // statistics of the single match workers that ended, guarded by the scheduler
+    private long endedTickNum;
+    private long endedOverrunNum;
+    private long endedSkippedTickNum;
+    private long endedMaxTickDuration;
+    private final int maxMatches;
+    // matches that were recycled and can be reused for new players, duels and battles of the configured size
+    private final ConcurrentLinkedQueue<Match> freeMatches = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Match> freeBattles = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Integer, Match> runningMatches = new ConcurrentHashMap<>();
+    private final AtomicInteger activeMatchNum = new AtomicInteger();
+    private final AtomicInteger createdMatchNum = new AtomicInteger();
+    private volatile boolean running;
+    private boolean started;
+    private long tickInterval;
+    private int maxCatchUpTicks;
+
+    public MatchScheduler(LightblocksServer server, int workerNum, int maxMatches) {
+        this(server, workerNum, maxMatches, null);
+    }
+
+    /**
+     * @param matchThreads factory for a thread per match, or null to run the matches on workerNum
+     *                     worker threads
+     */
+    public MatchScheduler(LightblocksServer server, int workerNum, int maxMatches, @Nullable ThreadFactory matchThreads) {
+        this.server = server;
+        this.maxMatches = maxMatches;
+        this.matchThreads = matchThreads;
+        if (matchThreads != null) {
+            workers = new Worker[0];
+            recordings = server.recorder != null ? new RecordingBuffer[workerNum] : null;
+            for (int i = 0; recordings != null && i < workerNum; i++) {
+                recordings[i] = server.recorder.createBuffer();
+            }
+        } else {
+            recordings = null;
+            workers = new Worker[workerNum];
+            for (int i = 0; i < workerNum; i++) {
+                workers[i] = new Worker(server.metrics.tickDuration[i],
+                        server.recorder != null ? server.recorder.createBuffer() : null, false);
+                Thread thread = new Thread(workers[i], "MatchWorker" + i);
+                thread.setDaemon(true);
+                workers[i].thread = thread;
+            }
+        }
+    }
+
+    /**
+     * starts the worker threads
+     *
+     * @param tickRate        ticks per second, 1 up to {@link #MAX_TICK_RATE}
+     * @param maxCatchUpTicks maximum number of ticks run in a row when a worker fell behind. Time
+     *                        that can't be caught up with these is skipped.
+     */
+    public void start(int tickRate, int maxCatchUpTicks) {
+        if (tickRate < 1 || tickRate > MAX_TICK_RATE)
+            throw new IllegalArgumentException("Unsupported tick rate: " + tickRate);
+
+        synchronized (this) {
+            this.tickInterval = 1000000000L / tickRate;
+            this.maxCatchUpTicks = maxCatchUpTicks;
+            running = true;
+            started = true;
+            for (Worker worker : workers) {
+                worker.thread.start();
+            }
+            // restored matches
+            for (Worker worker : matchWorkers) {
+                worker.thread.start();
+            }
+        }
+        if (recordings != null) {
+            matchThreads.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    endRecordingTicks();
+                }
+            }).start();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        Collection<Worker> stopping = new ArrayList<>(matchWorkers);
+        Collections.addAll(stopping, workers);
+        for (Worker worker : stopping) {
+            try {
+                worker.thread.join(1000);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        if (recordings != null) {
+            for (RecordingBuffer recording : recordings) {
+                synchronized (recording) {
+                    recording.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * obtains a new or recycled duel, see {@link #scheduleNewMatch(int, Player...)}
+     */
+    @Nullable
+    public Match scheduleNewMatch(Player... players) {
+        return scheduleNewMatch(2, players);
+    }
+
+    /**
+     * obtains a new or recycled match, connects the given players to it and schedules it on the
+     * worker with the fewest matches
+     *
+     * @param slotNum number of players, 2 for a duel or the configured battle size
+     * @return the match, or null if the maximum number of matches is reached
+     */
+    @Nullable
+    public Match scheduleNewMatch(int slotNum, Player... players) {
+        if (activeMatchNum.incrementAndGet() > maxMatches) {
+            activeMatchNum.decrementAndGet();
+            return null;
+        }
+
+        ConcurrentLinkedQueue<Match> free = getFreeMatches(slotNum);
+        Match match = free != null ? free.poll() : null;
+        if (match == null) {
+            match = new Match(server, createdMatchNum.incrementAndGet(), slotNum);
+        }
+        // connect all players before the match is visible to a worker, otherwise it could be recycled
+        // immediately or start with the AI on the boards of players not connected yet
+        for (Player player : players)
+            match.connectPlayer(player);
+        schedule(match);
+
+        return match;
+    }
+
+    /**
+     * schedules a match restored from a snapshot. Must be called before the workers are started.
+     */
+    void scheduleRestoredMatch(Match match) {
+        activeMatchNum.incrementAndGet();
+        if (match.getId() > createdMatchNum.get())
+            createdMatchNum.set(match.getId());
+        schedule(match);
+    }
+
+    private void schedule(Match match) {
+        runningMatches.put(match.getId(), match);
+
+        if (matchThreads != null) {
+            RecordingBuffer recording = recordings != null ? recordings[match.getId() % recordings.length] : null;
+            Worker worker = new Worker(server.metrics.tickDuration[0], recording, true);
+            worker.schedule(match);
+            worker.thread = matchThreads.newThread(worker);
+            synchronized (this) {
+                matchWorkers.add(worker);
+                if (started)
+                    worker.thread.start();
+            }
+            return;
+        }
+
+        Worker worker = workers[0];
+        for (int i = 1; i < workers.length; i++) {
+            if (workers[i].matchNum.get() < worker.matchNum.get())
+                worker = workers[i];
+        }
+        worker.schedule(match);
+    }
+
+    /**
+     * @return all matches that are not recycled. Only consistent after the workers are stopped.
+     */
+    Collection<Match> getRunningMatches() {
+        return runningMatches.values();
+    }
+
+    /**
+     * @param matchId id of the match, or 0 for any match with a connected player
+     */
+    @Nullable
+    public Match findRunningMatch(int matchId) {
+        if (matchId > 0)
+            return runningMatches.get(matchId);
+
+        for (Match match : runningMatches.values()) {
+            if (match.getConnectedPlayerNum() > 0)
+                return match;
+        }
+        return null;
+    }
+
+    public int getActiveMatchNum() {
+        return activeMatchNum.get();
+    }
+
+    /**
+     * @return number of ticks run by all workers
+     */
+    public synchronized long getTickNum() {
+        long sum = endedTickNum;
+        for (Worker worker : getWorkers()) {
+            sum = sum + worker.tickNum;
+        }
+        return sum;
+    }
+
+    /**
+     * @return number of ticks that took longer than the tick interval
+     */
+    public synchronized long getTickOverrunNum() {
+        long sum = endedOverrunNum;
+        for (Worker worker : getWorkers()) {
+            sum = sum + worker.overrunNum;
+        }
+        return sum;
+    }
+
+    /**
+     * @return number of ticks that were skipped because a worker could not catch up
+     */
+    public synchronized long getSkippedTickNum() {
+        long sum = endedSkippedTickNum;
+        for (Worker worker : getWorkers()) {
+            sum = sum + worker.skippedTickNum;
+        }
+        return sum;
+    }
+
+    /**
+     * @return duration of the longest tick of all workers, in nanoseconds
+     */
+    public synchronized long getMaxTickDuration() {
+        long max = endedMaxTickDuration;
+        for (Worker worker : getWorkers()) {
+            max = Math.max(max, worker.maxTickDuration);
+        }
+        return max;
+    }
+
+    private Collection<Worker> getWorkers() {
+        return matchThreads != null ? matchWorkers : Arrays.asList(workers);
+    }
+
+    /**
+     * keeps the statistics of a single match worker that ended
+     */
+    private synchronized void workerEnded(Worker worker) {
+        matchWorkers.remove(worker);
+        endedTickNum = endedTickNum + worker.tickNum;
+        endedOverrunNum = endedOverrunNum + worker.overrunNum;
+        endedSkippedTickNum = endedSkippedTickNum + worker.skippedTickNum;
+        endedMaxTickDuration = Math.max(endedMaxTickDuration, worker.maxTickDuration);
+    }
+
+    /**
+     * ends a tick of the shared recording buffers on every tick interval, as the workers do with
+     * their own buffers
+     */
+    private void endRecordingTicks() {
+        while (running) {
+            try {
+                Thread.sleep(tickInterval / 1000000, (int) (tickInterval % 1000000));
+            } catch (InterruptedException ignored) {
+            }
+            for (RecordingBuffer recording : recordings) {
+                synchronized (recording) {
+                    recording.endTick();
+                }
+            }
+        }
+    }
+
+    private void recycle(Match match) {
+        runningMatches.remove(match.getId());
+        match.reset();
+        // a restored battle of another size than configured now is not needed anymore
+        ConcurrentLinkedQueue<Match> free = getFreeMatches(match.getSlotNum());
+        if (free != null)
+            free.offer(match);
+        activeMatchNum.decrementAndGet();
+        Gdx.app.debug("Scheduler", "Recycled match " + match.getId());
+    }
+
+    @Nullable
+    private ConcurrentLinkedQueue<Match> getFreeMatches(int slotNum) {
+        if (slotNum == 2)
+            return freeMatches;
+        return slotNum == server.serverConfig.battleSize ? freeBattles : null;
+    }
+
+    /**
+     * Runs its matches with a fixed timestep, so the game speed does not depend on how exactly
+     * the OS schedules the thread. Every tick advances the matches by the same delta, ticks that
+     * are late are caught up.
+     */
+    private class Worker implements Runnable {
+        private final ConcurrentLinkedQueue<Match> incoming = new ConcurrentLinkedQueue<>();
+        private final Array<Match> matches = new Array<>(false, 16);
+        private final AtomicInteger matchNum = new AtomicInteger();
+        private final Histogram tickDuration;
+        // shared with other workers of a single match
+        @Nullable
+        private final RecordingBuffer recording;
+        // runs only the match it was created for and ends when it is recycled
+        private final boolean singleMatch;
+        private Thread thread;
+        // statistics, only written by the worker itself
+        private volatile long tickNum;
+        private volatile long overrunNum;
+        private volatile long skippedTickNum;
+        private volatile long maxTickDuration;
+
+        public Worker(Histogram tickDuration, @Nullable RecordingBuffer recording, boolean singleMatch) {
+            this.tickDuration = tickDuration;
+            this.recording = recording;
+            this.singleMatch = singleMatch;
+        }
+
+        private void schedule(Match match) {
+            matchNum.incrementAndGet();
+            incoming.offer(match);
+        }
+
+        @Override
+        public void run() {
+            final float delta = tickInterval / 1000000000f;
+            long nextTick = TimeUtils.nanoTime() + tickInterval;
+            while (running) {
+                long now = TimeUtils.nanoTime();
+                if (now < nextTick) {
+                    try {
+                        long sleep = nextTick - now;
+                        Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+                    } catch (InterruptedException ignored) {
+                    }
+                    continue;
+                }
+
+                // run all ticks that are due, but not more than the cap
+                int ticks = 0;
+                while (now >= nextTick && ticks < maxCatchUpTicks) {
+                    if (singleMatch && recording != null) {
+                        synchronized (recording) {
+                            tick(delta);
+                        }
+                    } else {
+                        tick(delta);
+                    }
+                    long tickEnd = TimeUtils.nanoTime();
+                    long duration = tickEnd - now;
+                    tickDuration.record(duration);
+                    if (duration > tickInterval)
+                        overrunNum++;
+                    if (duration > maxTickDuration)
+                        maxTickDuration = duration;
+                    tickNum++;
+                    ticks++;
+                    nextTick = nextTick + tickInterval;
+                    now = tickEnd;
+                }
+
+                if (now >= nextTick) {
+                    // still behind, skip the time that could not be caught up
+                    long skipped = (now - nextTick) / tickInterval + 1;
+                    skippedTickNum = skippedTickNum + skipped;
+                    nextTick = nextTick + skipped * tickInterval;
+                    Gdx.app.debug("Scheduler", thread.getName() + " fell behind, skipped " + skipped + " ticks");
+                }
+
+                if (singleMatch && matchNum.get() == 0)
+                    break;
+            }
+
+            if (singleMatch)
+                workerEnded(this);
+            else if (recording != null)
+                recording.flush();
+        }
+
+        private void tick(float delta) {
+            Match newMatch;
+            while ((newMatch = incoming.poll()) != null) {
+                newMatch.recording = recording;
+                matches.add(newMatch);
+            }
+
+            for (int i = matches.size - 1; i >= 0; i--) {
+                Match match = matches.get(i);
+                long start = TimeUtils.nanoTime();
+                try {
+                    match.update(delta);
+                } catch (Throwable t) {
+                    Gdx.app.error("Scheduler", "Uncaught error in match " + match.getId(), t);
+                }
+                server.metrics.matchUpdateDuration.record(TimeUtils.nanoTime() - start);
+
+                if (match.retireIfIdle()) {
+                    matches.removeIndex(i);
+                    matchNum.decrementAndGet();
+                    recycle(match);
+                }
+            }
+
+            // the shared buffers end their ticks on their own
+            if (recording != null && !singleMatch)
+                recording.endTick();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package de.golfgl.lightblocks.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collection;
+
+/**
+ * Keeps the running matches over a restart of the server. On shutdown, every match with a player
+ * who can resume its session is written to the snapshot file, and read again on the next start.
+ * The players have {@link Match#RESUME_WAIT_TIME} to resume their sessions with the tokens they
+ * got before, otherwise the AI takes over their game.
+ * <p>
+ * Format: magic (int), version (byte), match count (int), then for every match its id (int) and
+ * number of slots (byte) followed by {@link Match#writeState}. Restoring only reads the matches, their game models are
+ * created by the workers with their first update like the ones of new matches.
+ */
+public class MatchSnapshot {
+    private static final int MAGIC = 0x4c42534e;
+    private static final int VERSION = 4;
+    private static final int BUFFER_SIZE = 65536;
+
+    private MatchSnapshot() {
+    }
+
+    /**
+     * writes the matches to the file, replacing it only when complete. Must be called after the
+     * workers are stopped.
+     *
+     * @return number of matches written
+     */
+    public static int write(File file, Collection<Match> matches) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE));
+        int matchNum = 0;
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(0);
+            for (Match match : matches) {
+                if (match.isRestorable()) {
+                    out.writeInt(match.getId());
+                    out.writeByte(match.getSlotNum());
+                    match.writeState(out);
+                    matchNum++;
+                }
+            }
+        } finally {
+            out.close();
+        }
+
+        // the count is only known now
+        RandomAccessFile header = new RandomAccessFile(tempFile, "rw");
+        try {
+            header.seek(5);
+            header.writeInt(matchNum);
+        } finally {
+            header.close();
+        }
+
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file))
+            throw new IOException("Could not replace " + file);
+        return matchNum;
+    }
+
+    /**
+     * reads the matches from the file and schedules them, then deletes the file so that the matches
+     * are not restored twice. Must be called before the workers are started.
+     *
+     * @return number of matches restored
+     */
+    public static int read(File file, LightblocksServer server, MatchScheduler scheduler) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        int matchNum;
+        try {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION)
+                throw new IOException(file + " is no snapshot of this server version");
+
+            matchNum = in.readInt();
+            for (int i = 0; i < matchNum; i++) {
+                Match match = new Match(server, in.readInt(), in.readUnsignedByte());
+                match.readState(in);
+                scheduler.scheduleRestoredMatch(match);
+                // a slot whose player could not resume is open for new players
+                server.matchmaker.playerLeft(match);
+            }
+        } finally {
+            in.close();
+        }
+
+        if (!file.delete())
+            throw new IOException("Could not delete " + file + ", its matches would be restored again");
+        return matchNum;
+    }
+}
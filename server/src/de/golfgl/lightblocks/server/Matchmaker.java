@@ -0,0 +1,341 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import de.golfgl.lightblocks.model.AbstractMultiplayerModel;
+
+/**
+ * Places connecting players into matches. New players wait in a pool that is matched in a batch
+ * every {@link #BATCH_INTERVAL} ms instead of on every connection, so a burst of joins costs one
+ * sort of the pool and no contention between the connecting players.
+ * <p>
+ * A batch pairs neighbours in the pool sorted by {@link RatingStore rating}. Two players are paired
+ * if their ratings differ by no more than the window of the one waiting longer, which starts at
+ * {@link #BASE_WINDOW} and widens by {@link #WINDOW_GROWTH} per second of waiting. A player who
+ * waited longer than {@link ServerConfiguration#matchmakingTimeout} plays against the AI: it takes
+ * over the AI's side in a match where a human within its window plays against it, or starts a new one.
+ * <p>
+ * Players whose client supports battles wait in a pool of their own if
+ * {@link ServerConfiguration#battleSize} is more than two. Its batch groups neighbours by rating the
+ * same way, a group is complete with the battle size or when its rating range exceeds the window.
+ * A complete group starts a battle. A smaller one waits for more players until its longest waiting
+ * player reached the timeout, then it starts a battle with the AI playing the empty boards. Battles
+ * are not filled up again, the AI goes on playing the boards of players who left.
+ * <p>
+ * Matches with a human playing against the AI are kept in a lock-free queue. Entries might be stale
+ * when a player left or joined in the meantime. This is checked when the entry is polled, stale
+ * entries are simply dropped.
+ */
+public class Matchmaker implements Runnable {
+    public static final long BATCH_INTERVAL = 250;
+    // rating difference accepted right away, and added per second of waiting
+    public static final int BASE_WINDOW = 50;
+    public static final int WINDOW_GROWTH = 25;
+    // matches against the AI looked at for a player who waited too long, before a new one is started
+    private static final int MAX_AI_MATCHES_CHECKED = 16;
+    private static final Comparator<Player> BY_RATING = new Comparator<Player>() {
+        @Override
+        public int compare(Player player1, Player player2) {
+            return player1.rating < player2.rating ? -1 : player1.rating == player2.rating ? 0 : 1;
+        }
+    };
+
+    private final LightblocksServer server;
+    private final MatchScheduler scheduler;
+    private final RatingStore ratings;
+    private final long timeout;
+    private final int battleSize;
+    private final ConcurrentLinkedQueue<Player> joiningPlayers = new ConcurrentLinkedQueue<>();
+    // matches where a human plays against the AI, because nobody else was found or the opponent left
+    private final ConcurrentLinkedQueue<Match> aiOpponent = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+    private volatile int waitingPlayerNum;
+    private Thread batcher;
+    // only used by the batcher thread
+    private Array<Player> pool = new Array<>(false, 64, Player.class);
+    private Array<Player> unmatched = new Array<>(false, 64, Player.class);
+    private Array<Player> battlePool = new Array<>(false, 64, Player.class);
+    private final Array<Player> battleGroup = new Array<>(false, AbstractMultiplayerModel.MAX_PLAYERS, Player.class);
+    private final Array<Match> skippedMatches = new Array<>(false, MAX_AI_MATCHES_CHECKED, Match.class);
+
+    public Matchmaker(LightblocksServer server, MatchScheduler scheduler, RatingStore ratings) {
+        this.server = server;
+        this.scheduler = scheduler;
+        this.ratings = ratings;
+        this.timeout = TimeUnit.SECONDS.toNanos(server.serverConfig.matchmakingTimeout);
+        this.battleSize = server.serverConfig.battleSize;
+    }
+
+    public void start() {
+        running = true;
+        batcher = new Thread(this, "Matchmaker");
+        batcher.setDaemon(true);
+        batcher.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (batcher != null) {
+            batcher.interrupt();
+            try {
+                batcher.join();
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    /**
+     * puts the player into the pool, it is placed into a match by the next batch
+     */
+    public void addPlayer(Player player) {
+        player.rating = ratings.getRating(player.userId);
+        player.queuedTime = TimeUtils.nanoTime();
+        joiningPlayers.offer(player);
+    }
+
+    /**
+     * to be called when a player left a match
+     */
+    public void playerLeft(Match match) {
+        if (!match.isBattle() && match.getConnectedPlayerNum() == 1)
+            offer(match);
+    }
+
+    /**
+     * @return players waiting in the pool for an opponent at the last batch
+     */
+    public int getWaitingPlayerNum() {
+        return waitingPlayerNum;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            long start = TimeUtils.nanoTime();
+            try {
+                matchPlayers(start);
+            } catch (Throwable t) {
+                // the players stay in the pool for the next batch
+                Gdx.app.error("Matchmaker", "Error while matching players", t);
+            }
+            server.metrics.matchmakingDuration.record(TimeUtils.nanoTime() - start);
+
+            try {
+                Thread.sleep(BATCH_INTERVAL);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    void matchPlayers(long now) {
+        // left over if the last batch failed, its players are all still in the pools
+        unmatched.clear();
+        Player player;
+        while ((player = joiningPlayers.poll()) != null) {
+            if (battleSize > 2 && player.battleProtocol)
+                battlePool.add(player);
+            else
+                pool.add(player);
+        }
+
+        boolean draining = server.isDraining();
+        matchDuels(now, draining);
+        matchBattles(now, draining);
+        waitingPlayerNum = pool.size + battlePool.size;
+    }
+
+    private void matchDuels(long now, boolean draining) {
+        pool.sort(BY_RATING);
+        for (int i = 0; i < pool.size; i++) {
+            Player player = pool.get(i);
+            if (player.state != Player.ConnectionState.QUEUED) {
+                // left while waiting
+                continue;
+            }
+            if (draining) {
+                player.close(LightblocksServer.CLOSE_SHUTDOWN, "Server is shutting down.");
+                continue;
+            }
+
+            Player opponent = findOpponent(i, now);
+            if (opponent != null) {
+                startMatch(player, opponent, now);
+                i++;
+            } else if (now - player.queuedTime > timeout) {
+                startAiMatch(player, now);
+            } else {
+                unmatched.add(player);
+            }
+        }
+
+        // the unmatched players are the pool of the next batch
+        Array<Player> nextPool = unmatched;
+        unmatched = pool;
+        unmatched.clear();
+        pool = nextPool;
+    }
+
+    private void matchBattles(long now, boolean draining) {
+        battleGroup.clear();
+        battlePool.sort(BY_RATING);
+        // queued time of the group's longest waiting player
+        long groupQueuedTime = 0;
+        for (int i = 0; i < battlePool.size; i++) {
+            Player player = battlePool.get(i);
+            if (player.state != Player.ConnectionState.QUEUED) {
+                // left while waiting
+                continue;
+            }
+            if (draining) {
+                player.close(LightblocksServer.CLOSE_SHUTDOWN, "Server is shutting down.");
+                continue;
+            }
+
+            if (battleGroup.size > 0 && player.rating - battleGroup.first().rating
+                    > getWindow(now - Math.min(groupQueuedTime, player.queuedTime))) {
+                closeBattleGroup(groupQueuedTime, now);
+            }
+            groupQueuedTime = battleGroup.size > 0 ? Math.min(groupQueuedTime, player.queuedTime) : player.queuedTime;
+            battleGroup.add(player);
+            if (battleGroup.size == battleSize)
+                closeBattleGroup(groupQueuedTime, now);
+        }
+        closeBattleGroup(groupQueuedTime, now);
+
+        // the unmatched players are the battle pool of the next batch
+        Array<Player> nextPool = unmatched;
+        unmatched = battlePool;
+        unmatched.clear();
+        battlePool = nextPool;
+    }
+
+    /**
+     * starts a battle for the group if it is complete or waited long enough, otherwise its players
+     * wait for the next batch
+     */
+    private void closeBattleGroup(long groupQueuedTime, long now) {
+        if (battleGroup.size == 0)
+            return;
+
+        if (battleGroup.size == battleSize || now - groupQueuedTime > timeout)
+            startBattle(now);
+        else
+            unmatched.addAll(battleGroup);
+        battleGroup.clear();
+    }
+
+    private void startBattle(long now) {
+        Match match = scheduler.scheduleNewMatch(battleSize, battleGroup.toArray());
+        if (match == null) {
+            for (int i = 0; i < battleGroup.size; i++) {
+                battleGroup.get(i).close(4100, "No match found for you.");
+            }
+            return;
+        }
+
+        server.metrics.matchmakingBattles.incrementAndGet();
+        for (int i = 0; i < battleGroup.size; i++) {
+            joinMatch(battleGroup.get(i), match, now);
+        }
+    }
+
+    /**
+     * @return the next player in the pool if it can be paired with the player at the index
+     */
+    @Nullable
+    private Player findOpponent(int index, long now) {
+        if (index + 1 >= pool.size)
+            return null;
+
+        Player player = pool.get(index);
+        Player next = pool.get(index + 1);
+        if (next.state != Player.ConnectionState.QUEUED)
+            return null;
+
+        long longestWait = now - Math.min(player.queuedTime, next.queuedTime);
+        return next.rating - player.rating <= getWindow(longestWait) ? next : null;
+    }
+
+    private void startMatch(Player player, Player opponent, long now) {
+        Match match = scheduler.scheduleNewMatch(player, opponent);
+        if (match == null) {
+            player.close(4100, "No match found for you.");
+            opponent.close(4100, "No match found for you.");
+            return;
+        }
+
+        server.metrics.matchmakingPairs.incrementAndGet();
+        joinMatch(player, match, now);
+        joinMatch(opponent, match, now);
+    }
+
+    private void startAiMatch(Player player, long now) {
+        Match match = takeOverAi(player, getWindow(now - player.queuedTime));
+
+        if (match == null) {
+            match = scheduler.scheduleNewMatch(player);
+            if (match == null) {
+                player.close(4100, "No match found for you.");
+                return;
+            }
+            offer(match);
+        }
+
+        server.metrics.matchmakingAiFallbacks.incrementAndGet();
+        joinMatch(player, match, now);
+    }
+
+    /**
+     * connects the player to a match where a human of similar rating plays against the AI
+     *
+     * @return the match, or null if none of the first matches in the queue fits
+     */
+    @Nullable
+    private Match takeOverAi(Player player, long window) {
+        Match found = null;
+        Match match;
+        while (found == null && skippedMatches.size < MAX_AI_MATCHES_CHECKED && (match = aiOpponent.poll()) != null) {
+            match.openSlotQueued.set(false);
+            Player human = match.getSinglePlayer();
+            if (human == null)
+                continue;
+
+            if (Math.abs(ratings.getRating(human.userId) - player.rating) > window)
+                skippedMatches.add(match);
+            else if (match.connectOpponent(player))
+                found = match;
+        }
+
+        for (int i = 0; i < skippedMatches.size; i++) {
+            offer(skippedMatches.get(i));
+        }
+        skippedMatches.clear();
+        return found;
+    }
+
+    private static long getWindow(long waitTime) {
+        return BASE_WINDOW + WINDOW_GROWTH * TimeUnit.NANOSECONDS.toSeconds(waitTime);
+    }
+
+    private void joinMatch(Player player, Match match, long now) {
+        server.metrics.matchmakingWait.record(now - player.queuedTime);
+        if (!player.joinedMatch(match)) {
+            // it left after this batch started, its slot is free for the AI or a human again
+            match.playerDisconnected(player, false);
+        }
+    }
+
+    private void offer(Match match) {
+        if (match.openSlotQueued.compareAndSet(false, true))
+            aiOpponent.offer(match);
+    }
+}
@@ -0,0 +1,67 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Gdx;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+
+/**
+ * Serves the {@link ServerMetrics} in Prometheus text format on http://localhost:port/metrics.
+ * Only bound to the loopback interface, scrapers are expected to run on the same host.
+ * <p>
+ * A POST to http://localhost:port/drain lets the server drain and stop, see
+ * {@link ServerConfiguration#drainTimeout}.
+ */
+public class MetricsEndpoint implements HttpHandler {
+    private final LightblocksServer server;
+    private HttpServer httpServer;
+
+    public MetricsEndpoint(LightblocksServer server) {
+        this.server = server;
+    }
+
+    public void start(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext("/metrics", this);
+        httpServer.createContext("/drain", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    exchange.close();
+                    return;
+                }
+                Gdx.app.log("Metrics", "Drain requested");
+                server.startDrain();
+                exchange.sendResponseHeaders(202, -1);
+                exchange.close();
+            }
+        });
+        httpServer.start();
+        Gdx.app.log("Metrics", "Serving metrics on port " + port);
+    }
+
+    public void stop() {
+        if (httpServer != null)
+            httpServer.stop(0);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        StringBuilder out = new StringBuilder(8192);
+        server.writeMetrics(out);
+        byte[] response = out.toString().getBytes(Charset.forName("UTF-8"));
+
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, response.length);
+        OutputStream body = exchange.getResponseBody();
+        body.write(response);
+        body.close();
+    }
+}
@@ -3,22 +3,91 @@ package de.golfgl.lightblocks.server;
 import com.badlogic.gdx.Gdx;
 
 import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.Framedata;
+
+import javax.annotation.Nullable;
 
-import de.golfgl.lightblocks.server.model.InGameMessage;
 import de.golfgl.lightblocks.server.model.PlayerInfo;
 
 public class Player {
+    // bytes waiting to be written to a connection until it gets no more movement events, it gets
+    // a resync with the full match information when it caught up
+    public static final int SEND_BUDGET = 16 * 1024;
+    // bytes waiting until the connection is closed, only messages sent regardless of the budget
+    // like the full match information can get it there
+    public static final int MAX_SEND_BACKLOG = 64 * 1024;
+    // time a connection may stay over its budget until it is closed
+    public static final float MAX_CONGESTED_TIME = 10f;
     private final LightblocksServer server;
+    // null for a player restored from a snapshot, who is away until it resumes its session
+    @Nullable
     private final WebSocket conn;
     public String nickName;
     public String userId;
     public String token;
+    public boolean binaryProtocol;
+    // gets the gameboards in match information encoded by BoardCodec
+    boolean compactBoard;
+    // understands SessionInfo and can resume its session after the connection was lost
+    boolean resumable;
+    // can play and watch battles with more than two players
+    boolean battleProtocol;
+    // set when put into the matchmaking pool
+    int rating;
+    long queuedTime;
+    // set when connected to a match, replaced by the worker on a resume
+    volatile String sessionToken;
+    // last frame the player received before it resumed its session
+    long resumeEventSeq;
     public ConnectionState state = ConnectionState.CONNECTED;
+    // set by the match's worker when the player missed events and needs the full information
+    boolean resyncNeeded;
+    private float congestedTime;
+    // frames sent since the connection's send queue was found empty, and the bytes its channel had
+    // written then
+    private long queuedBytes;
+    private long writtenBytesBase;
+    // null if inputs are not limited
+    @Nullable
+    private final TokenBucket inputLimit;
+    // runs the connection's messages in order on virtual threads, null if they are handled directly
+    @Nullable
+    final SerialExecutor messageExecutor;
     private Match match;
+    // the player's slot in its match, -1 if it has none. Changed under the match's lock, read by
+    // the connection's thread to queue inputs without scanning the slots
+    volatile int slot = -1;
 
     public Player(LightblocksServer server, WebSocket conn) {
         this.server = server;
         this.conn = conn;
+        ServerConfiguration config = server.serverConfig;
+        inputLimit = config.inputRate > 0 ? new TokenBucket(config.inputRate, config.inputBurst) : null;
+        messageExecutor = conn != null && server.connectionThreads != null
+                ? new SerialExecutor(server.connectionThreads) : null;
+    }
+
+    /**
+     * @return a player that was playing in a match before a restart, keeping its slot until it
+     * resumes its session with a new connection or the session expires
+     */
+    static Player restored(LightblocksServer server, String nickName, String sessionToken) {
+        Player player = new Player(server, null);
+        player.nickName = nickName;
+        player.sessionToken = sessionToken;
+        player.resumable = true;
+        player.binaryProtocol = true;
+        player.state = ConnectionState.DISCONNECTED;
+        return player;
+    }
+
+    /**
+     * @return true if the player was restored from a snapshot and never connected to this server
+     */
+    boolean isRestored() {
+        return conn == null;
     }
 
     private void connected(PlayerInfo playerInfo) {
@@ -30,26 +99,105 @@ public class Player {
         nickName = playerInfo.nickName;
         userId = playerInfo.userId;
         token = playerInfo.token;
+        binaryProtocol = playerInfo.protocolVersion >= BinaryProtocol.PROTOCOL_VERSION;
+        resumable = playerInfo.protocolVersion >= BinaryProtocol.RESUME_PROTOCOL_VERSION;
+        battleProtocol = playerInfo.protocolVersion >= BinaryProtocol.BATTLE_PROTOCOL_VERSION;
+        compactBoard = playerInfo.compactBoard;
+
+        if (playerInfo.spectator) {
+            spectate(playerInfo.matchId);
+            return;
+        }
+
+        if (playerInfo.resumeToken != null) {
+            resume(playerInfo.resumeToken, playerInfo.lastEventSeq);
+            return;
+        }
+
+        if (server.isDraining()) {
+            // running matches may end, but no new ones are started
+            conn.close(LightblocksServer.CLOSE_SHUTDOWN, "Server is shutting down.");
+            return;
+        }
+
+        synchronized (this) {
+            state = ConnectionState.QUEUED;
+        }
+        server.matchmaker.addPlayer(this);
+    }
+
+    /**
+     * called by the {@link Matchmaker} after it connected the player to the match
+     *
+     * @return false if the player left while it was waiting, it must be removed from the match then
+     */
+    synchronized boolean joinedMatch(Match match) {
+        if (state != ConnectionState.QUEUED)
+            return false;
+
+        Gdx.app.log("Player", "Successfully connected " + nickName + "/" + userId);
+        this.match = match;
+        state = ConnectionState.PLAYING;
+        server.metrics.playerNum.incrementAndGet();
+        if (resumable)
+            sessionToken = server.sessions.register(match);
+        match.requestFullInformation();
+        return true;
+    }
 
-        match = server.findMatchForPlayer(this);
+    private void resume(String resumeToken, long lastEventSeq) {
+        Match match = server.sessions.findMatch(resumeToken);
+        sessionToken = resumeToken;
+        resumeEventSeq = lastEventSeq;
 
-        if (match != null) {
-            Gdx.app.log("Player", "Successfully connected " + nickName + "/" + userId);
+        // the match's worker checks the token again and closes the connection if it expired meanwhile
+        if (resumable && match != null && match.resumePlayer(this)) {
+            Gdx.app.log("Player", "Resuming session in match " + match.getId() + ": " + nickName + "/" + userId);
+            this.match = match;
             state = ConnectionState.PLAYING;
-            match.sendFullInformation();
+            server.metrics.playerNum.incrementAndGet();
         } else {
-            conn.close(4100, "No match found for you.");
+            conn.close(4104, "Session expired.");
         }
     }
 
-    public void disconnected() {
+    private void spectate(int matchId) {
+        Match match = server.findMatchToSpectate(matchId);
+
+        if (match != null && match.addSpectator(this)) {
+            Gdx.app.log("Player", "Spectating match " + match.getId() + ": " + nickName + "/" + userId);
+            this.match = match;
+            state = ConnectionState.SPECTATING;
+            server.metrics.spectatorNum.incrementAndGet();
+        } else {
+            conn.close(4100, "No match found to spectate.");
+        }
+    }
+
+    /**
+     * @param code close code of the connection, see {@link CloseFrame}
+     */
+    public void disconnected(int code) {
         if (state != ConnectionState.CONNECTED) {
             Gdx.app.log("Player", "Disconnect: " + nickName + "/" + userId);
         }
-        state = ConnectionState.DISCONNECTED;
-        // dispose everything here
-        if (match != null) {
-            match.playerDisconnected(this);
+        boolean wasPlaying;
+        // the matchmaker must not connect the player to a match anymore, see joinedMatch
+        synchronized (this) {
+            wasPlaying = state == ConnectionState.PLAYING;
+            if (wasPlaying) {
+                server.metrics.playerNum.decrementAndGet();
+            } else if (state == ConnectionState.SPECTATING) {
+                // the match's worker removes the spectator with its next tick
+                server.metrics.spectatorNum.decrementAndGet();
+            }
+            state = ConnectionState.DISCONNECTED;
+        }
+        // dispose everything here. A player whose session was resumed on another connection lost
+        // its slot already
+        if (match != null && wasPlaying && slot >= 0) {
+            // every lost or closed connection can be resumed, only a player leaving on purpose can't
+            match.playerDisconnected(this, resumable && code != CloseFrame.NORMAL);
         }
     }
 
@@ -57,22 +205,144 @@ public class Player {
         if (object instanceof PlayerInfo && state == ConnectionState.CONNECTED) {
             connected((PlayerInfo) object);
 
-            if (state != ConnectionState.PLAYING && conn.isOpen()) {
+            if (state == ConnectionState.CONNECTED && conn.isOpen()) {
                 // if connection was not successfully established, disconnect the player
                 conn.close();
             }
-        } else if (object instanceof InGameMessage && state == ConnectionState.PLAYING) {
-            match.gotMessage(this, (InGameMessage) object);
         } else
             throw new UnexpectedException();
     }
 
+    /**
+     * @param input opcode, see {@link InputQueue}
+     */
+    public void onInput(int input) throws UnexpectedException {
+        if (state == ConnectionState.QUEUED)
+            // there is no game yet
+            return;
+        if (state != ConnectionState.PLAYING)
+            throw new UnexpectedException();
+
+        // releases always pass, otherwise the piece would keep moving or dropping after a
+        // rejected one until the next release gets through
+        if (inputLimit != null && !InputQueue.isRelease(input) && !inputLimit.tryAcquire()) {
+            // dropped before it is queued, so a flooding client can't slow down the match's worker
+            server.metrics.inputsRejected.incrementAndGet();
+            return;
+        }
+
+        match.gotInput(this, input);
+    }
+
+    /**
+     * Must only be called by the match's worker thread, like {@link #send(Framedata)}
+     */
     public void send(String string) {
-        if (conn.isOpen())
+        if (conn != null && conn.isOpen()) {
             conn.send(string);
+            int length = getUtf8Length(string);
+            queuedBytes = queuedBytes + getFrameLength(length);
+            server.metrics.messageSent(length);
+        }
+    }
+
+    /**
+     * sends a prepared frame. The frame can be sent to further players afterwards.
+     */
+    public void send(Framedata frame) {
+        if (conn != null && conn.isOpen()) {
+            // payload is rewound after sending
+            conn.sendFrame(frame);
+            int length = frame.getPayloadData().remaining();
+            queuedBytes = queuedBytes + getFrameLength(length);
+            server.metrics.messageSent(length);
+        }
+    }
+
+    /**
+     * Called by the match's worker once per tick. When more than {@link #SEND_BUDGET} bytes are
+     * waiting to be written to the connection, the player gets no more movement events until it
+     * caught up and is resynced, see {@link EventBroadcaster}. If it does not catch up in time or falls behind too far anyway, the
+     * connection is closed, so the memory a player takes stays bounded however slow its client is.
+     */
+    void checkSendBacklog(float delta) {
+        if (conn == null || !conn.isOpen())
+            return;
+
+        long backlog = getSendBacklogBytes();
+        if (backlog > SEND_BUDGET && !resyncNeeded) {
+            resyncNeeded = true;
+            server.metrics.congestedConnections.incrementAndGet();
+        }
+        congestedTime = resyncNeeded ? congestedTime + delta : 0;
+
+        if (backlog > MAX_SEND_BACKLOG || congestedTime > MAX_CONGESTED_TIME) {
+            Gdx.app.log("Player", "Connection too slow, " + backlog + " bytes waiting: " + nickName + "/" + userId);
+            server.metrics.slowConnectionsClosed.incrementAndGet();
+            conn.close(4106, "Connection too slow.");
+        }
+    }
+
+    /**
+     * @return true if the player needs a resync and its connection caught up far enough to get it
+     */
+    boolean canResync() {
+        return resyncNeeded && getSendBacklogBytes() <= SEND_BUDGET / 2;
+    }
+
+    /**
+     * @return bytes sent, but not written to the connection yet. Only counted on connections of
+     * the {@link WriteCountingFactory}, whenever their queue is empty the count starts over, so
+     * that the handshake and control frames can't make it drift.
+     */
+    private long getSendBacklogBytes() {
+        if (!(conn instanceof WebSocketImpl)
+                || !(((WebSocketImpl) conn).getChannel() instanceof WriteCountingFactory.CountingChannel))
+            return 0;
+
+        WebSocketImpl webSocket = (WebSocketImpl) conn;
+        long writtenBytes = ((WriteCountingFactory.CountingChannel) webSocket.getChannel()).getWrittenBytes();
+        if (webSocket.outQueue.isEmpty()) {
+            // the selector thread only takes a frame from the queue after writing it completely
+            queuedBytes = 0;
+            writtenBytesBase = writtenBytes;
+            return 0;
+        }
+        return Math.max(0, queuedBytes - (writtenBytes - writtenBytesBase));
+    }
+
+    /**
+     * @return bytes of a frame sent by the server, which is not masked
+     */
+    private static int getFrameLength(int payloadLength) {
+        return payloadLength + (payloadLength <= 125 ? 2 : payloadLength <= 0xffff ? 4 : 10);
+    }
+
+    /**
+     * @return bytes the string takes in UTF-8, like it is sent in a text frame
+     */
+    static int getUtf8Length(String string) {
+        int length = string.length();
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c >= 0x800) {
+                length = length + 2;
+                // a surrogate pair takes four bytes, not six
+                if (Character.isHighSurrogate(c))
+                    i++;
+            } else if (c >= 0x80) {
+                length = length + 1;
+            }
+        }
+        return length;
+    }
+
+    void close(int code, String reason) {
+        if (conn != null)
+            conn.close(code, reason);
     }
 
-    enum ConnectionState {CONNECTED, PLAYING, DISCONNECTED}
+    enum ConnectionState {CONNECTED, QUEUED, PLAYING, SPECTATING, DISCONNECTED}
 
     static class UnexpectedException extends Exception {
 
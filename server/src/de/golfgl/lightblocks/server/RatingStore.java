@@ -0,0 +1,120 @@
+package de.golfgl.lightblocks.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Elo ratings of the players by their user id, used by the {@link Matchmaker} to pair players of
+ * similar strength. Players without a user id always have the initial rating. User ids are not
+ * authenticated, so a rating is only as trustworthy as the client sending it.
+ * <p>
+ * Format of the file: magic (int), version (byte), count (int), then user id (UTF) and rating
+ * (int) for every player.
+ */
+public class RatingStore {
+    public static final int INITIAL_RATING = 1500;
+    // maximum change of a rating by one game
+    private static final int K_FACTOR = 32;
+    private static final int MAGIC = 0x4c425254;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 65536;
+    // longer user ids are not stored, the players are treated like players without a user id
+    private static final int MAX_USER_ID_LENGTH = 128;
+
+    // guarded by this, games end rarely compared to everything else
+    private final HashMap<String, Integer> ratings = new HashMap<>();
+    private boolean changed;
+
+    public synchronized int getRating(@Nullable String userId) {
+        Integer rating = isStored(userId) ? ratings.get(userId) : null;
+        return rating != null ? rating : INITIAL_RATING;
+    }
+
+    /**
+     * updates the ratings of both players after a game between them
+     */
+    public synchronized void gamePlayed(@Nullable String winnerId, @Nullable String loserId) {
+        int winnerRating = getRating(winnerId);
+        int loserRating = getRating(loserId);
+        float expected = 1 / (1 + (float) Math.pow(10, (loserRating - winnerRating) / 400f));
+        int change = Math.max(1, Math.round(K_FACTOR * (1 - expected)));
+
+        if (isStored(winnerId))
+            ratings.put(winnerId, winnerRating + change);
+        if (isStored(loserId))
+            ratings.put(loserId, loserRating - change);
+        changed = true;
+    }
+
+    private static boolean isStored(@Nullable String userId) {
+        return userId != null && !userId.isEmpty() && userId.length() <= MAX_USER_ID_LENGTH;
+    }
+
+    public synchronized int getPlayerNum() {
+        return ratings.size();
+    }
+
+    /**
+     * @return true if ratings changed since they were read or written the last time
+     */
+    public synchronized boolean isChanged() {
+        return changed;
+    }
+
+    public void read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        try {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION)
+                throw new IOException(file + " holds no ratings of this server version");
+
+            int playerNum = in.readInt();
+            synchronized (this) {
+                for (int i = 0; i < playerNum; i++) {
+                    ratings.put(in.readUTF(), in.readInt());
+                }
+                changed = false;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * writes all ratings, replacing the file only when complete
+     */
+    public void write(File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE));
+        try {
+            HashMap<String, Integer> copy;
+            // copied so that the workers ending games don't wait for the file
+            synchronized (this) {
+                copy = new HashMap<>(ratings);
+                changed = false;
+            }
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(copy.size());
+            for (Map.Entry<String, Integer> rating : copy.entrySet()) {
+                out.writeUTF(rating.getKey());
+                out.writeInt(rating.getValue());
+            }
+        } finally {
+            out.close();
+        }
+
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file))
+            throw new IOException("Could not replace " + file);
+    }
+}
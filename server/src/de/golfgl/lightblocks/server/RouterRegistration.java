@@ -0,0 +1,126 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+
+import de.golfgl.lightblocks.server.model.NodeStatus;
+
+/**
+ * Registers the server with a {@link de.golfgl.lightblocks.server.router.MatchRouter} by posting
+ * its {@link NodeStatus} to the router's /nodes endpoint every {@link #REPORT_INTERVAL} ms. The
+ * router forgets a node that stopped reporting, so there is no explicit deregistration.
+ */
+public class RouterRegistration implements Runnable {
+    public static final long REPORT_INTERVAL = 1000;
+    private static final int TIMEOUT = 2000;
+
+    private final LightblocksServer server;
+    private final MatchScheduler scheduler;
+    private final URL nodesUrl;
+    private final NodeStatus status = new NodeStatus();
+    private volatile boolean running;
+    private Thread reporter;
+    private boolean reachable = true;
+    // only used by the reporter thread
+    private long lastTickSum;
+    private long lastReport;
+
+    public RouterRegistration(LightblocksServer server, MatchScheduler scheduler, String routerUrl,
+                              String nodeId, String address) throws IOException {
+        this.server = server;
+        this.scheduler = scheduler;
+        this.nodesUrl = new URL(routerUrl + "/nodes");
+        status.nodeId = nodeId;
+        status.address = address;
+        status.maxMatches = server.serverConfig.maxMatches;
+    }
+
+    public void start() {
+        running = true;
+        lastReport = TimeUtils.nanoTime();
+        reporter = new Thread(this, "RouterRegistration");
+        reporter.setDaemon(true);
+        reporter.start();
+        Gdx.app.log("Router", "Registering as " + status.nodeId + " at " + nodesUrl);
+    }
+
+    /**
+     * stops reporting after telling the router that no new players should be sent here
+     */
+    public void stop() {
+        running = false;
+        if (reporter != null) {
+            reporter.interrupt();
+            try {
+                reporter.join();
+            } catch (InterruptedException ignored) {
+            }
+        }
+        status.draining = true;
+        report();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            updateStatus();
+            report();
+            try {
+                Thread.sleep(REPORT_INTERVAL);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void updateStatus() {
+        long tickSum = 0;
+        for (Histogram tickDuration : server.metrics.tickDuration) {
+            tickSum = tickSum + tickDuration.getSum();
+        }
+        long now = TimeUtils.nanoTime();
+        long elapsed = Math.max(1, now - lastReport) * server.metrics.tickThreadNum;
+        status.load = (float) (tickSum - lastTickSum) / elapsed;
+        lastTickSum = tickSum;
+        lastReport = now;
+
+        status.activeMatches = scheduler.getActiveMatchNum();
+        status.waitingPlayers = server.matchmaker.getWaitingPlayerNum();
+        status.draining = server.isDraining();
+    }
+
+    private void report() {
+        try {
+            byte[] body = server.serializer.serializeJson(status).getBytes(Charset.forName("UTF-8"));
+            HttpURLConnection connection = (HttpURLConnection) nodesUrl.openConnection();
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            connection.setDoOutput(true);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(body.length);
+            OutputStream out = connection.getOutputStream();
+            out.write(body);
+            out.close();
+            int responseCode = connection.getResponseCode();
+            connection.disconnect();
+            if (responseCode != HttpURLConnection.HTTP_NO_CONTENT)
+                throw new IOException("Router answered " + responseCode);
+
+            if (!reachable)
+                Gdx.app.log("Router", "Registered at " + nodesUrl + " again");
+            reachable = true;
+        } catch (IOException e) {
+            // logged once, the node keeps running on its own meanwhile
+            if (reachable)
+                Gdx.app.error("Router", "Could not report to " + nodesUrl + ": " + e.getMessage());
+            reachable = false;
+        }
+    }
+}
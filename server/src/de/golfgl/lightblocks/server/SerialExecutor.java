@@ -0,0 +1,47 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Gdx;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the tasks given to it one after another in the order they were given, on a new thread of
+ * the factory whenever there are tasks and none is running. Used to handle the messages of one
+ * connection on virtual threads without reordering them.
+ */
+class SerialExecutor implements Executor, Runnable {
+    private final ThreadFactory threadFactory;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // true while a thread runs the tasks or is about to
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    SerialExecutor(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.offer(task);
+        if (scheduled.compareAndSet(false, true))
+            threadFactory.newThread(this).start();
+    }
+
+    @Override
+    public void run() {
+        do {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Gdx.app.error("Server", "Error while handling a message", e);
+                }
+            }
+            scheduled.set(false);
+            // a task given after the queue was found empty, but before the flag was reset, is run here
+        } while (!tasks.isEmpty() && scheduled.compareAndSet(false, true));
+    }
+}
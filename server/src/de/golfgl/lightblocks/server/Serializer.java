@@ -4,18 +4,26 @@ import com.badlogic.gdx.Gdx;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import de.golfgl.lightblocks.server.model.InGameMessage;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
 import de.golfgl.lightblocks.server.model.MatchInfo;
 import de.golfgl.lightblocks.server.model.PlayerInfo;
 import de.golfgl.lightblocks.server.model.ServerInfo;
+import de.golfgl.lightblocks.server.model.SessionInfo;
 
 public class Serializer {
     public static final String ID_SERVERINFO = "HSH";
     public static final String ID_PLAYERINFO = "PIN";
     public static final String ID_IN_GAME_MSG = "IGM";
+    public static final String ID_MATCHINFO = "MCH";
+    public static final String ID_SESSIONINFO = "SSN";
 
     // jackson is thread safe
     private final ObjectMapper json = new ObjectMapper();
+    private final AtomicLong malformedMessages = new AtomicLong();
 
     public String serialize(Object object) {
         try {
@@ -25,31 +33,116 @@ public class Serializer {
         }
     }
 
-    public Object deserialize(String message) {
+    /**
+     * @return the object as JSON, without a message prefix
+     */
+    public String serializeJson(Object object) {
         try {
-            if (message.length() >= 4 && message.charAt(3) == '{') {
-                String id = message.substring(0, 3);
-
-                switch (id) {
-                    case ID_PLAYERINFO:
-                        return json.readValue(message.substring(3), PlayerInfo.class);
-                }
-            } else if (message.startsWith(ID_IN_GAME_MSG)) {
-                return new InGameMessage(message.substring(ID_IN_GAME_MSG.length()));
+            return json.writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * builds a {@link MatchInfo} message from the already serialized player information, so
+     * that every player information needs to be serialized only once for both perspectives
+     */
+    public String serializeMatchInfo(String player1Json, String player2Json, boolean isModern) {
+        return ID_MATCHINFO + "{\"player1\":" + player1Json + ",\"player2\":" + player2Json
+                + ",\"isModern\":" + isModern + "}";
+    }
+
+    /**
+     * builds a {@link MatchInfo} message of a battle from the already serialized list of all
+     * players' information, so that the list needs to be serialized only once for all players
+     *
+     * @param board the receiving player's board, -1 for spectators
+     */
+    public String serializeBattleInfo(String playersJson, int board, boolean isModern) {
+        return ID_MATCHINFO + "{\"players\":" + playersJson + ",\"board\":" + board
+                + ",\"isModern\":" + isModern + "}";
+    }
+
+    /**
+     * @return the deserialized JSON message, or null if it is malformed
+     */
+    @Nullable
+    public Object deserialize(String message) {
+        // dispatch on the prefix without creating intermediate strings
+        if (message.length() >= 4 && message.charAt(3) == '{') {
+            try {
+                if (message.startsWith(ID_PLAYERINFO))
+                    return json.readValue(message.substring(ID_PLAYERINFO.length()), PlayerInfo.class);
+            } catch (IOException e) {
+                Gdx.app.debug("Serializer", "Malformed message: " + e.getMessage());
             }
-        } catch (Throwable t) {
-            Gdx.app.error("Serializer", "Error deserializing message", t);
         }
+        malformedMessages.incrementAndGet();
         return null;
     }
 
+    public static boolean isInGameMessage(String message) {
+        return message.startsWith(ID_IN_GAME_MSG);
+    }
+
+    /**
+     * decodes an in-game message directly to its input opcode
+     *
+     * @return the opcode, or {@link InputQueue#NONE} if the message is malformed
+     */
+    public int deserializeInput(String message) {
+        int opcode = InputQueue.NONE;
+        int offset = ID_IN_GAME_MSG.length();
+        if (message.length() == offset + 3) {
+            char c1 = message.charAt(offset + 1);
+            char c2 = message.charAt(offset + 2);
+            switch (message.charAt(offset)) {
+                case 'S':
+                    if (c1 == 'M')
+                        opcode = c2 == 'L' ? InputQueue.MOVE_LEFT : c2 == 'R' ? InputQueue.MOVE_RIGHT
+                                : c2 == 'H' ? InputQueue.MOVE_END : InputQueue.NONE;
+                    break;
+                case 'H':
+                    if (c1 == 'A' && c2 == 'T')
+                        opcode = InputQueue.HOLD;
+                    break;
+                case 'R':
+                    if (c1 == 'O')
+                        opcode = c2 == 'R' ? InputQueue.ROTATE_RIGHT : c2 == 'L' ? InputQueue.ROTATE_LEFT
+                                : InputQueue.NONE;
+                    break;
+                case 'D':
+                    if (c1 == 'R')
+                        opcode = c2 == 'N' ? InputQueue.DROP_NONE : c2 == 'S' ? InputQueue.DROP_SOFT
+                                : c2 == 'H' ? InputQueue.DROP_HARD : InputQueue.NONE;
+                    break;
+            }
+        }
+
+        if (opcode == InputQueue.NONE) {
+            Gdx.app.debug("Serializer", "Unknown input: " + message);
+            malformedMessages.incrementAndGet();
+        }
+        return opcode;
+    }
+
+    /**
+     * @return number of messages that could not be decoded since server start
+     */
+    public long getMalformedMessages() {
+        return malformedMessages.get();
+    }
+
     private String getPrefixFromObject(Object object) {
         if (object instanceof ServerInfo)
             return ID_SERVERINFO;
         else if (object instanceof MatchInfo)
-            return "MCH";
+            return ID_MATCHINFO;
         else if (object instanceof MatchInfo.ScoreInfo)
             return "SCO";
+        else if (object instanceof SessionInfo)
+            return ID_SESSIONINFO;
 
         return "";
     }
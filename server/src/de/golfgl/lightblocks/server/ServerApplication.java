@@ -0,0 +1,445 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.ApplicationLogger;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.LifecycleListener;
+import com.badlogic.gdx.Net;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Clipboard;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+import de.golfgl.lightblocks.engine.Engine;
+import de.golfgl.lightblocks.engine.ILogger;
+
+/**
+ * Minimal libGDX application for the server, the router and the load generator. It only provides
+ * {@link Gdx#app} and {@link Engine#logger} for logging and a loop calling the listener's render() method. Unlike the
+ * headless backend it loads no native libraries and has no graphics, audio, input, files or net,
+ * so it starts instantly. Preferences are not kept.
+ * <p>
+ * Messages are logged through java.util.logging, so they can be routed and formatted with a
+ * logging configuration, or another logger can be set with
+ * {@link #setApplicationLogger(ApplicationLogger)}.
+ * <p>
+ * The listener is created on the calling thread before the constructor returns, render() is
+ * called on a thread of its own until {@link #exit()}.
+ */
+public class ServerApplication implements Application, ILogger {
+    private final ApplicationListener listener;
+    private final long renderInterval;
+    private final Array<Runnable> runnables = new Array<>();
+    private final Array<LifecycleListener> lifecycleListeners = new Array<>();
+    private final JulLogger julLogger = new JulLogger();
+    private final Preferences preferences = new NoPreferences();
+    private ApplicationLogger logger = julLogger;
+    private volatile int logLevel = LOG_INFO;
+    private volatile boolean running = true;
+
+    public ServerApplication(ApplicationListener listener) {
+        this(listener, 1 / 60f);
+    }
+
+    /**
+     * @param renderInterval seconds between two calls of the listener's render() method
+     */
+    public ServerApplication(ApplicationListener listener, float renderInterval) {
+        this.listener = listener;
+        this.renderInterval = (long) (renderInterval * 1000000000L);
+        Gdx.app = this;
+        Engine.logger = this;
+
+        listener.create();
+        Thread mainLoop = new Thread("ServerApplication") {
+            @Override
+            public void run() {
+                mainLoop();
+            }
+        };
+        mainLoop.start();
+    }
+
+    private void mainLoop() {
+        long nextRender = TimeUtils.nanoTime();
+        while (running) {
+            long now = TimeUtils.nanoTime();
+            if (now < nextRender) {
+                try {
+                    long sleep = nextRender - now;
+                    Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+                } catch (InterruptedException ignored) {
+                }
+                continue;
+            }
+            nextRender = now + renderInterval;
+
+            executeRunnables();
+            if (running)
+                listener.render();
+        }
+
+        synchronized (lifecycleListeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
+                lifecycleListener.pause();
+                lifecycleListener.dispose();
+            }
+        }
+        listener.pause();
+        listener.dispose();
+    }
+
+    private void executeRunnables() {
+        Runnable[] executed;
+        synchronized (runnables) {
+            if (runnables.size == 0)
+                return;
+            executed = runnables.toArray(Runnable.class);
+            runnables.clear();
+        }
+        for (Runnable runnable : executed) {
+            runnable.run();
+        }
+    }
+
+    @Override
+    public ApplicationListener getApplicationListener() {
+        return listener;
+    }
+
+    @Override
+    public Graphics getGraphics() {
+        return null;
+    }
+
+    @Override
+    public Audio getAudio() {
+        return null;
+    }
+
+    @Override
+    public Input getInput() {
+        return null;
+    }
+
+    @Override
+    public Files getFiles() {
+        return null;
+    }
+
+    @Override
+    public Net getNet() {
+        return null;
+    }
+
+    @Override
+    public void log(String tag, String message) {
+        if (logLevel >= LOG_INFO)
+            logger.log(tag, message);
+    }
+
+    @Override
+    public void log(String tag, String message, Throwable exception) {
+        if (logLevel >= LOG_INFO)
+            logger.log(tag, message, exception);
+    }
+
+    @Override
+    public void error(String tag, String message) {
+        if (logLevel >= LOG_ERROR)
+            logger.error(tag, message);
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable exception) {
+        if (logLevel >= LOG_ERROR)
+            logger.error(tag, message, exception);
+    }
+
+    @Override
+    public void debug(String tag, String message) {
+        if (logLevel >= LOG_DEBUG)
+            logger.debug(tag, message);
+    }
+
+    @Override
+    public void debug(String tag, String message, Throwable exception) {
+        if (logLevel >= LOG_DEBUG)
+            logger.debug(tag, message, exception);
+    }
+
+    @Override
+    public void setLogLevel(int logLevel) {
+        this.logLevel = logLevel;
+        julLogger.setLogLevel(logLevel);
+    }
+
+    @Override
+    public int getLogLevel() {
+        return logLevel;
+    }
+
+    @Override
+    public void setApplicationLogger(ApplicationLogger applicationLogger) {
+        this.logger = applicationLogger;
+    }
+
+    @Override
+    public ApplicationLogger getApplicationLogger() {
+        return logger;
+    }
+
+    @Override
+    public ApplicationType getType() {
+        return ApplicationType.HeadlessDesktop;
+    }
+
+    @Override
+    public int getVersion() {
+        return 0;
+    }
+
+    @Override
+    public long getJavaHeap() {
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+
+    @Override
+    public long getNativeHeap() {
+        return getJavaHeap();
+    }
+
+    @Override
+    public Preferences getPreferences(String name) {
+        return preferences;
+    }
+
+    @Override
+    public Clipboard getClipboard() {
+        return null;
+    }
+
+    @Override
+    public void postRunnable(Runnable runnable) {
+        synchronized (runnables) {
+            runnables.add(runnable);
+        }
+    }
+
+    @Override
+    public void exit() {
+        postRunnable(new Runnable() {
+            @Override
+            public void run() {
+                running = false;
+            }
+        });
+    }
+
+    @Override
+    public void addLifecycleListener(LifecycleListener listener) {
+        synchronized (lifecycleListeners) {
+            lifecycleListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void removeLifecycleListener(LifecycleListener listener) {
+        synchronized (lifecycleListeners) {
+            lifecycleListeners.removeValue(listener, true);
+        }
+    }
+
+    /**
+     * Logs through java.util.logging below the logger "lightblocks", with the tag as the last part
+     * of the logger's name. Without a logging configuration of its own, messages go to the
+     * console on a single line each. That console handler is not added to a logger, as
+     * java.util.logging removes all handlers in a shutdown hook and the server still logs in its own.
+     */
+    private static class JulLogger implements ApplicationLogger {
+        private static final String ROOT = "lightblocks";
+        private final java.util.logging.Logger root = java.util.logging.Logger.getLogger(ROOT);
+        // null if there is a logging configuration
+        private final ConsoleHandler handler;
+
+        JulLogger() {
+            if (System.getProperty("java.util.logging.config.file") == null
+                    && System.getProperty("java.util.logging.config.class") == null) {
+                if (System.getProperty("java.util.logging.SimpleFormatter.format") == null)
+                    System.setProperty("java.util.logging.SimpleFormatter.format", "%1$tF %1$tT %4$s [%3$s] %5$s%6$s%n");
+                handler = new ConsoleHandler();
+                // the level is filtered by the application
+                handler.setLevel(Level.ALL);
+                handler.setFormatter(new SimpleFormatter());
+            } else {
+                handler = null;
+            }
+        }
+
+        void setLogLevel(int logLevel) {
+            root.setLevel(logLevel >= LOG_DEBUG ? Level.FINE
+                    : logLevel >= LOG_INFO ? Level.INFO
+                    : logLevel >= LOG_ERROR ? Level.SEVERE : Level.OFF);
+        }
+
+        @Override
+        public void log(String tag, String message) {
+            log(Level.INFO, tag, message, null);
+        }
+
+        @Override
+        public void log(String tag, String message, Throwable exception) {
+            log(Level.INFO, tag, message, exception);
+        }
+
+        @Override
+        public void error(String tag, String message) {
+            log(Level.SEVERE, tag, message, null);
+        }
+
+        @Override
+        public void error(String tag, String message, Throwable exception) {
+            log(Level.SEVERE, tag, message, exception);
+        }
+
+        @Override
+        public void debug(String tag, String message) {
+            log(Level.FINE, tag, message, null);
+        }
+
+        @Override
+        public void debug(String tag, String message, Throwable exception) {
+            log(Level.FINE, tag, message, exception);
+        }
+
+        private void log(Level level, String tag, String message, Throwable exception) {
+            if (handler == null) {
+                java.util.logging.Logger.getLogger(ROOT + "." + tag).log(level, message, exception);
+                return;
+            }
+            LogRecord record = new LogRecord(level, message);
+            record.setLoggerName(ROOT + "." + tag);
+            record.setThrown(exception);
+            handler.publish(record);
+        }
+    }
+
+    /**
+     * the server keeps nothing in preferences: nothing is stored, every value is its default
+     */
+    private static class NoPreferences implements Preferences {
+        @Override
+        public Preferences putBoolean(String key, boolean val) {
+            return this;
+        }
+
+        @Override
+        public Preferences putInteger(String key, int val) {
+            return this;
+        }
+
+        @Override
+        public Preferences putLong(String key, long val) {
+            return this;
+        }
+
+        @Override
+        public Preferences putFloat(String key, float val) {
+            return this;
+        }
+
+        @Override
+        public Preferences putString(String key, String val) {
+            return this;
+        }
+
+        @Override
+        public Preferences put(Map<String, ?> vals) {
+            return this;
+        }
+
+        @Override
+        public boolean getBoolean(String key) {
+            return false;
+        }
+
+        @Override
+        public int getInteger(String key) {
+            return 0;
+        }
+
+        @Override
+        public long getLong(String key) {
+            return 0;
+        }
+
+        @Override
+        public float getFloat(String key) {
+            return 0;
+        }
+
+        @Override
+        public String getString(String key) {
+            return "";
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            return defValue;
+        }
+
+        @Override
+        public int getInteger(String key, int defValue) {
+            return defValue;
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            return defValue;
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            return defValue;
+        }
+
+        @Override
+        public String getString(String key, String defValue) {
+            return defValue;
+        }
+
+        @Override
+        public Map<String, ?> get() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return false;
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public void remove(String key) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
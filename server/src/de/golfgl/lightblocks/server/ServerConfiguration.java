@@ -4,15 +4,55 @@ import com.badlogic.gdx.Application;
 
 import javax.annotation.Nullable;
 
-import de.golfgl.lightblocks.state.InitGameParameters;
+import de.golfgl.lightblocks.model.AbstractMultiplayerModel;
+import de.golfgl.lightblocks.model.GarbageTargeting;
+import de.golfgl.lightblocks.state.GameParameters;
 
 public class ServerConfiguration {
     private final String[] args;
-    public int threadNum = 10;
+    public int threadNum = Runtime.getRuntime().availableProcessors();
+    // a virtual thread per match and per connection instead of threadNum workers, needs Java 21
+    public boolean virtualThreads;
+    public int maxMatches = 5000;
+    public int tickRate = 60;
+    // ticks a worker may run in a row to catch up after it fell behind
+    public int maxCatchUpTicks = 5;
+    // 0 disables the metrics endpoint
+    public int metricsPort = 0;
+    // directory to record all games to, null disables recording
+    @Nullable
+    public String recordingDir;
+    public int recordingSegmentSize = 64 * 1024 * 1024;
+    // inputs a player may send per second on average, 0 disables the limit
+    public int inputRate = 0;
+    // inputs a player may send in a row before the rate applies
+    public int inputBurst = 20;
+    // seconds a player waits for a human opponent of similar rating before playing against the AI
+    public int matchmakingTimeout = 10;
+    // players in a battle for clients supporting it, 2 puts all players into duels
+    public int battleSize = 2;
+    // who gets the garbage a player sends in a battle
+    public GarbageTargeting garbageTargeting = GarbageTargeting.RANDOM;
+    // file to keep the players' ratings in, null keeps them in memory only
+    @Nullable
+    public String ratingFile;
+    // file to keep the running matches in over a restart, null disables snapshots
+    @Nullable
+    public String snapshotFile;
+    // seconds to wait for running matches to end when the server is stopped or drained, 0 stops
+    // immediately. Not waited on shutdown if the matches are kept in a snapshot.
+    public int drainTimeout = 60;
+    // router to register with, like http://host:port, null runs the server on its own
+    @Nullable
+    public String routerUrl;
+    // unique among the nodes of a router, the port by default
+    public String nodeId;
+    // WebSocket address the router connects clients to, ws://localhost:port by default
+    public String publicAddress;
     public int port = 8887;
     public int loglevel = Application.LOG_INFO;
     public int beginningLevel = 0;
-    public int modeType = InitGameParameters.TYPE_MIX;
+    public int modeType = GameParameters.TYPE_MIX;
     public String name = "Lighblocks Server";
     public boolean enableNsd;
 
@@ -34,6 +74,127 @@ public class ServerConfiguration {
             System.out.println("Using " + this.threadNum + " threads. Configure with --server.threads=xxxx");
         }
 
+        virtualThreads = 0 != findInt("server.virtualThreads", 0);
+        if (virtualThreads) {
+            System.out.println("Running every match and connection on virtual threads if the JVM supports them.");
+        } else {
+            System.out.println("Running matches on platform threads. Use virtual threads on Java 21+ with --server.virtualThreads=1");
+        }
+
+        int maxMatches = findInt("server.maxMatches", 0);
+        if (maxMatches > 0) {
+            this.maxMatches = maxMatches;
+        }
+        System.out.println("Hosting up to " + this.maxMatches + " matches. Configure with --server.maxMatches=xxxx");
+
+        int tickRate = findInt("server.tickRate", 0);
+        if (tickRate > 0 && tickRate <= MatchScheduler.MAX_TICK_RATE) {
+            this.tickRate = tickRate;
+        } else if (tickRate != 0) {
+            System.out.println("Unsupported tick rate " + tickRate + ", using " + this.tickRate + ".");
+        }
+        System.out.println("Updating matches " + this.tickRate + " times per second, up to "
+                + MatchScheduler.MAX_TICK_RATE + ". Configure with --server.tickRate=xxxx");
+
+        int maxCatchUpTicks = findInt("server.maxCatchUpTicks", 0);
+        if (maxCatchUpTicks > 0) {
+            this.maxCatchUpTicks = maxCatchUpTicks;
+        }
+
+        metricsPort = findInt("server.metricsPort", 0);
+        if (metricsPort > 0) {
+            System.out.println("Serving metrics on http://localhost:" + metricsPort + "/metrics");
+        } else {
+            System.out.println("Metrics endpoint disabled. Enable with --server.metricsPort=xxxx");
+        }
+
+        int inputRate = findInt("server.inputRate", -1);
+        if (inputRate >= 0) {
+            this.inputRate = inputRate;
+        }
+        int inputBurst = findInt("server.inputBurst", 0);
+        if (inputBurst > 0) {
+            this.inputBurst = inputBurst;
+        }
+        if (this.inputRate > 0) {
+            System.out.println("Limiting inputs to " + this.inputRate + " per second, bursts of " + this.inputBurst
+                    + ". Configure with --server.inputRate=xxxx and --server.inputBurst=xxxx");
+        } else {
+            System.out.println("Inputs are not limited. Limit them with --server.inputRate=xxxx and --server.inputBurst=xxxx");
+        }
+
+        int matchmakingTimeout = findInt("server.matchmakingTimeout", -1);
+        if (matchmakingTimeout >= 0) {
+            this.matchmakingTimeout = matchmakingTimeout;
+        }
+        System.out.println("Waiting up to " + this.matchmakingTimeout + " s for a human opponent. Configure with --server.matchmakingTimeout=xxxx");
+
+        int battleSize = findInt("server.battleSize", 0);
+        if (battleSize >= 2 && battleSize <= AbstractMultiplayerModel.MAX_PLAYERS) {
+            this.battleSize = battleSize;
+        }
+        String garbageTargeting = findString("server.garbageTargeting", null);
+        if (garbageTargeting != null) {
+            try {
+                this.garbageTargeting = GarbageTargeting.valueOf(garbageTargeting.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown garbage targeting " + garbageTargeting + ", using " + this.garbageTargeting + ".");
+            }
+        }
+        if (this.battleSize > 2) {
+            System.out.println("Battles of up to " + this.battleSize + " players, garbage targeting "
+                    + this.garbageTargeting.name().toLowerCase()
+                    + ". Configure with --server.battleSize=xxxx and --server.garbageTargeting={random,attacker,leader}");
+        } else {
+            System.out.println("Battles disabled. Enable with --server.battleSize=xxxx, up to "
+                    + AbstractMultiplayerModel.MAX_PLAYERS + " players");
+        }
+
+        ratingFile = findString("server.ratingFile", null);
+        if (ratingFile != null) {
+            System.out.println("Keeping player ratings in " + ratingFile + ".");
+        } else {
+            System.out.println("Player ratings are lost on restart. Keep them with --server.ratingFile=xxxx");
+        }
+
+        recordingDir = findString("server.recordingDir", null);
+        int recordingSegmentMb = findInt("server.recordingSegmentMb", 0);
+        if (recordingSegmentMb > 0 && recordingSegmentMb < 2048) {
+            recordingSegmentSize = recordingSegmentMb * 1024 * 1024;
+        }
+        if (recordingDir != null) {
+            System.out.println("Recording games to " + recordingDir + " in segments of "
+                    + recordingSegmentSize / 1024 / 1024 + " MB. Configure with --server.recordingSegmentMb=xxxx");
+        } else {
+            System.out.println("Game recording disabled. Enable with --server.recordingDir=xxxx");
+        }
+
+        snapshotFile = findString("server.snapshotFile", null);
+        if (snapshotFile != null) {
+            System.out.println("Keeping running matches in " + snapshotFile + " over restarts.");
+        } else {
+            System.out.println("Matches end on shutdown. Keep them over restarts with --server.snapshotFile=xxxx");
+        }
+
+        int drainTimeout = findInt("server.drainTimeout", -1);
+        if (drainTimeout >= 0) {
+            this.drainTimeout = drainTimeout;
+        }
+        if (snapshotFile != null) {
+            System.out.println("Keeping running matches in the snapshot on shutdown, waiting up to " + this.drainTimeout
+                    + " s for them only when drained. Configure with --server.drainTimeout=xxxx");
+        } else {
+            System.out.println("Waiting up to " + this.drainTimeout + " s for running matches on shutdown. Configure with --server.drainTimeout=xxxx");
+        }
+
+        routerUrl = findString("server.routerUrl", null);
+        nodeId = findString("server.nodeId", String.valueOf(port));
+        publicAddress = findString("server.publicAddress", "ws://localhost:" + port);
+        if (routerUrl != null) {
+            System.out.println("Registering with router " + routerUrl + " as node " + nodeId + " reachable on " + publicAddress
+                    + ". Configure with --server.nodeId=xxxx and --server.publicAddress=xxxx");
+        }
+
         int loglevel = findInt("verbosity", -1);
         if (loglevel >= 0) {
             this.loglevel = loglevel;
@@ -0,0 +1,180 @@
+package de.golfgl.lightblocks.server;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import de.golfgl.lightblocks.server.replay.ReplayRecorder;
+
+/**
+ * Operational metrics of the server, written in Prometheus text format by {@link MetricsEndpoint}.
+ * Message and byte numbers are counters, rates per second are left to Prometheus.
+ */
+public class ServerMetrics {
+    private static final double NANOS_TO_SECONDS = 1 / 1000000000d;
+
+    // a single histogram of all matches if they run on threads of their own
+    final Histogram[] tickDuration;
+    // threads the ticks are run on, the carrier threads of virtual threads
+    final int tickThreadNum;
+    private final boolean workerTicks;
+    final Histogram matchUpdateDuration = new Histogram(Histogram.DURATION_BUCKETS);
+    final Histogram aiPlanningDuration = new Histogram(Histogram.DURATION_BUCKETS);
+    final Histogram inputQueueDepth = new Histogram(Histogram.DEPTH_BUCKETS);
+    final Histogram inputLatency = new Histogram(Histogram.DURATION_BUCKETS);
+    final Histogram matchmakingDuration = new Histogram(Histogram.DURATION_BUCKETS);
+    final Histogram matchmakingWait = new Histogram(Histogram.WAIT_BUCKETS);
+    final AtomicLong matchmakingPairs = new AtomicLong();
+    final AtomicLong matchmakingAiFallbacks = new AtomicLong();
+    final AtomicLong matchmakingBattles = new AtomicLong();
+    final AtomicInteger playerNum = new AtomicInteger();
+    final AtomicInteger spectatorNum = new AtomicInteger();
+    final AtomicLong resumesFromEventLog = new AtomicLong();
+    final AtomicLong resumesWithFullInformation = new AtomicLong();
+    final AtomicLong expiredSessions = new AtomicLong();
+    final AtomicLong inputsRejected = new AtomicLong();
+    final AtomicLong congestedConnections = new AtomicLong();
+    final AtomicLong resyncs = new AtomicLong();
+    final AtomicLong slowConnectionsClosed = new AtomicLong();
+    volatile boolean draining;
+    private final AtomicLong messagesIn = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong messagesOut = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    /**
+     * @param workerNum worker threads running the matches, 0 if every match runs on a virtual
+     *                  thread of its own
+     */
+    public ServerMetrics(int workerNum) {
+        tickDuration = new Histogram[Math.max(1, workerNum)];
+        for (int i = 0; i < tickDuration.length; i++) {
+            tickDuration[i] = new Histogram(Histogram.DURATION_BUCKETS);
+        }
+        workerTicks = workerNum > 0;
+        tickThreadNum = workerTicks ? workerNum : Runtime.getRuntime().availableProcessors();
+    }
+
+    public void messageReceived(int bytes) {
+        messagesIn.incrementAndGet();
+        bytesIn.addAndGet(bytes);
+    }
+
+    public void messageSent(int bytes) {
+        messagesOut.incrementAndGet();
+        bytesOut.addAndGet(bytes);
+    }
+
+    void write(StringBuilder out, MatchScheduler scheduler, Matchmaker matchmaker, Collection<WebSocket> connections,
+               Serializer serializer, SessionRegistry sessions, @Nullable ReplayRecorder recorder) {
+        if (workerTicks) {
+            writeHeader(out, "lightblocks_tick_duration_seconds", "histogram", "Duration of a worker's tick");
+            for (int i = 0; i < tickDuration.length; i++) {
+                tickDuration[i].write(out, "lightblocks_tick_duration_seconds", "worker=\"" + i + "\"", NANOS_TO_SECONDS);
+            }
+        } else {
+            writeHeader(out, "lightblocks_tick_duration_seconds", "histogram", "Duration of a match's tick on its own thread");
+            tickDuration[0].write(out, "lightblocks_tick_duration_seconds", "", NANOS_TO_SECONDS);
+        }
+        writeCounter(out, "lightblocks_ticks_total", "Ticks run by all workers", scheduler.getTickNum());
+        writeCounter(out, "lightblocks_tick_overruns_total", "Ticks that took longer than the tick interval",
+                scheduler.getTickOverrunNum());
+        writeCounter(out, "lightblocks_ticks_skipped_total", "Ticks skipped because a worker could not catch up",
+                scheduler.getSkippedTickNum());
+
+        writeHeader(out, "lightblocks_match_update_duration_seconds", "histogram", "Duration of a match update");
+        matchUpdateDuration.write(out, "lightblocks_match_update_duration_seconds", "", NANOS_TO_SECONDS);
+        writeHeader(out, "lightblocks_ai_planning_duration_seconds", "histogram", "Duration of an AI placing a new piece");
+        aiPlanningDuration.write(out, "lightblocks_ai_planning_duration_seconds", "", NANOS_TO_SECONDS);
+        writeHeader(out, "lightblocks_input_queue_depth", "histogram", "Pending inputs of a player when drained");
+        inputQueueDepth.write(out, "lightblocks_input_queue_depth", "", 1);
+        writeHeader(out, "lightblocks_input_latency_seconds", "histogram", "Time an input waited in the queue until its tick");
+        inputLatency.write(out, "lightblocks_input_latency_seconds", "", NANOS_TO_SECONDS);
+        writeCounter(out, "lightblocks_inputs_rejected_total", "Inputs dropped because a player exceeded its input rate",
+                inputsRejected.get());
+
+        writeHeader(out, "lightblocks_matchmaking_duration_seconds", "histogram", "Duration of a matchmaking batch");
+        matchmakingDuration.write(out, "lightblocks_matchmaking_duration_seconds", "", NANOS_TO_SECONDS);
+        writeHeader(out, "lightblocks_matchmaking_wait_seconds", "histogram", "Time a player waited for a match");
+        matchmakingWait.write(out, "lightblocks_matchmaking_wait_seconds", "", NANOS_TO_SECONDS);
+        writeGauge(out, "lightblocks_matchmaking_waiting_players", "Players waiting in the matchmaking pool",
+                matchmaker.getWaitingPlayerNum());
+        writeCounter(out, "lightblocks_matchmaking_pairs_total", "Matches started for two waiting players",
+                matchmakingPairs.get());
+        writeCounter(out, "lightblocks_matchmaking_ai_fallbacks_total", "Players who got an AI opponent after waiting too long",
+                matchmakingAiFallbacks.get());
+        writeCounter(out, "lightblocks_matchmaking_battles_total", "Battles started for more than two players",
+                matchmakingBattles.get());
+
+        writeGauge(out, "lightblocks_draining", "1 while no new players are placed because the server shuts down",
+                draining ? 1 : 0);
+        writeGauge(out, "lightblocks_matches_active", "Matches currently running", scheduler.getActiveMatchNum());
+        writeGauge(out, "lightblocks_players", "Players connected to a match", playerNum.get());
+        writeGauge(out, "lightblocks_spectators", "Spectators watching a match", spectatorNum.get());
+        writeGauge(out, "lightblocks_connections", "Open WebSocket connections", connections.size());
+        writeGauge(out, "lightblocks_sessions", "Players that can resume their session", sessions.getSessionNum());
+        writeHeader(out, "lightblocks_session_resumes_total", "counter", "Resumed sessions by the way the player caught up");
+        out.append("lightblocks_session_resumes_total{catch_up=\"events\"} ").append(resumesFromEventLog.get()).append('\n');
+        out.append("lightblocks_session_resumes_total{catch_up=\"full\"} ").append(resumesWithFullInformation.get()).append('\n');
+        writeCounter(out, "lightblocks_sessions_expired_total", "Sessions not resumed in time", expiredSessions.get());
+
+        writeCounter(out, "lightblocks_messages_received_total", "Messages received", messagesIn.get());
+        writeCounter(out, "lightblocks_received_bytes_total", "Payload bytes received", bytesIn.get());
+        writeCounter(out, "lightblocks_messages_sent_total", "Messages sent", messagesOut.get());
+        writeCounter(out, "lightblocks_sent_bytes_total", "Payload bytes sent", bytesOut.get());
+        writeCounter(out, "lightblocks_messages_malformed_total", "Messages that could not be decoded",
+                serializer.getMalformedMessages());
+
+        if (recorder != null) {
+            writeCounter(out, "lightblocks_replay_written_bytes_total", "Bytes of game records written",
+                    recorder.getWrittenBytes());
+            writeCounter(out, "lightblocks_replay_dropped_records_total", "Game records dropped because the writer fell behind",
+                    recorder.getDroppedRecords());
+        }
+
+        long backlogFrames = 0;
+        long backlogBytes = 0;
+        long maxBacklogBytes = 0;
+        for (WebSocket conn : connections) {
+            if (conn instanceof WebSocketImpl) {
+                long connBytes = 0;
+                for (ByteBuffer buffer : ((WebSocketImpl) conn).outQueue) {
+                    connBytes = connBytes + buffer.remaining();
+                    backlogFrames++;
+                }
+                backlogBytes = backlogBytes + connBytes;
+                maxBacklogBytes = Math.max(maxBacklogBytes, connBytes);
+            }
+        }
+        writeGauge(out, "lightblocks_send_backlog_frames", "Frames waiting in the connections' send buffers", backlogFrames);
+        writeGauge(out, "lightblocks_send_backlog_bytes", "Bytes waiting in the connections' send buffers", backlogBytes);
+        writeGauge(out, "lightblocks_send_backlog_max_bytes", "Bytes waiting in the fullest send buffer", maxBacklogBytes);
+        writeCounter(out, "lightblocks_connections_congested_total", "Times a connection exceeded its send budget and missed events",
+                congestedConnections.get());
+        writeCounter(out, "lightblocks_resyncs_total", "Full match information sent after a connection caught up",
+                resyncs.get());
+        writeCounter(out, "lightblocks_connections_too_slow_total", "Connections closed because they could not keep up",
+                slowConnectionsClosed.get());
+    }
+
+    private static void writeHeader(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeCounter(StringBuilder out, String name, String help, long value) {
+        writeHeader(out, name, "counter", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void writeGauge(StringBuilder out, String name, String help, long value) {
+        writeHeader(out, name, "gauge", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+}
@@ -1,7 +1,8 @@
-package de.golfgl.lightblocks.model;
+package de.golfgl.lightblocks.server;
 
+import de.golfgl.lightblocks.model.AbstractMultiplayerModel;
 import de.golfgl.lightblocks.multiplayer.ai.ArtificialPlayer;
-import de.golfgl.lightblocks.state.InitGameParameters;
+import de.golfgl.lightblocks.state.GameParameters;
 
 /**
  * Two player mode that can be used to play between humans and AIs
@@ -11,8 +12,13 @@ public class ServerMultiplayerModel extends AbstractMultiplayerModel<ServerMulti
     private ArtificialPlayer aiPlayer;
     private boolean aiEnabled = true;
 
+    public ServerMultiplayerModel() {
+        // replays are recorded by the match, see ReplayRecorder
+        replay = null;
+    }
+
     @Override
-    protected ServerMultiplayerModel createSecondGameModel(InitGameParameters newGameParams) {
+    protected ServerMultiplayerModel createSecondGameModel(GameParameters newGameParams) {
         return new ServerMultiplayerModel();
     }
 
@@ -32,8 +38,9 @@ public class ServerMultiplayerModel extends AbstractMultiplayerModel<ServerMulti
     @Override
     protected void fireUserInterfaceTetrominoSwap() {
         super.fireUserInterfaceTetrominoSwap();
-        if (aiPlayer != null) {
-            // calculate what's the best to do for the current active piece and save it
+        if (aiPlayer != null && aiEnabled) {
+            // calculate what's the best to do for the current active piece and save it,
+            // enabling the AI later plans for the piece active then
             aiPlayer.onNextPiece(getGameboard(), getActiveTetromino());
         }
     }
@@ -0,0 +1,64 @@
+package de.golfgl.lightblocks.server;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Short-lived tokens that let a player get back into its match after the connection was lost.
+ * A token is valid as long as the match keeps the player's slot, see {@link Match#RESUME_WAIT_TIME},
+ * and is replaced by a new one on every resume.
+ * <p>
+ * Behind a {@link de.golfgl.lightblocks.server.router.MatchRouter}, tokens start with the node id
+ * and {@link #NODE_SEPARATOR}, so that the router can send a resuming player back to its node.
+ */
+public class SessionRegistry {
+    public static final char NODE_SEPARATOR = '.';
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Match> matches = new ConcurrentHashMap<>();
+    private final String tokenPrefix;
+
+    public SessionRegistry(@Nullable String nodeId) {
+        tokenPrefix = nodeId != null ? nodeId + NODE_SEPARATOR : "";
+    }
+
+    /**
+     * @return the node id the token was issued by, or null if it has none
+     */
+    @Nullable
+    public static String getNodeId(String token) {
+        int separator = token.indexOf(NODE_SEPARATOR);
+        return separator > 0 ? token.substring(0, separator) : null;
+    }
+
+    /**
+     * @return a new token for a player of the given match
+     */
+    public String register(Match match) {
+        String token = tokenPrefix + new BigInteger(130, random).toString(32);
+        matches.put(token, match);
+        return token;
+    }
+
+    /**
+     * registers a token issued before a restart again, see {@link MatchSnapshot}
+     */
+    public void restore(String token, Match match) {
+        matches.put(token, match);
+    }
+
+    @Nullable
+    public Match findMatch(String token) {
+        return matches.get(token);
+    }
+
+    public void remove(String token) {
+        matches.remove(token);
+    }
+
+    public int getSessionNum() {
+        return matches.size();
+    }
+}
@@ -0,0 +1,28 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import de.golfgl.lightblocks.model.Gameboard;
+import de.golfgl.lightblocks.model.Tetromino;
+import de.golfgl.lightblocks.multiplayer.ai.AiAcessibleGameModel;
+import de.golfgl.lightblocks.multiplayer.ai.ArtificialPlayer;
+
+/**
+ * Artificial player recording its planning time to the server metrics
+ */
+class TimedArtificialPlayer extends ArtificialPlayer {
+    private final Histogram planningDuration;
+
+    TimedArtificialPlayer(AiAcessibleGameModel aiGameModel, AiAcessibleGameModel opponentGameModel,
+                          Histogram planningDuration) {
+        super(aiGameModel, opponentGameModel);
+        this.planningDuration = planningDuration;
+    }
+
+    @Override
+    public void onNextPiece(Gameboard gameboard, Tetromino activePiece) {
+        long start = TimeUtils.nanoTime();
+        super.onNextPiece(gameboard, activePiece);
+        planningDuration.record(TimeUtils.nanoTime() - start);
+    }
+}
@@ -0,0 +1,42 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Token bucket limiting the rate of a player's inputs. The bucket holds up to burst tokens and
+ * is refilled continuously at the given rate, every input takes one token.
+ * <p>
+ * Not thread safe: Java-WebSocket hands all messages of a connection to the same WebSocket
+ * worker thread, which is the only one to use the player's bucket.
+ */
+public class TokenBucket {
+    private final float tokensPerNano;
+    private final float burst;
+    private float tokens;
+    private long lastRefill;
+
+    /**
+     * @param rate  tokens added per second
+     * @param burst maximum number of tokens, the bucket starts full
+     */
+    public TokenBucket(int rate, int burst) {
+        this.tokensPerNano = rate / 1000000000f;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = TimeUtils.nanoTime();
+    }
+
+    /**
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    public boolean tryAcquire() {
+        long now = TimeUtils.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        if (tokens < 1)
+            return false;
+        tokens = tokens - 1;
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package de.golfgl.lightblocks.server;
+
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.Nullable;
+
+/**
+ * Virtual threads of Java 21 and newer. The server is built for Java 7, so they are looked up by
+ * reflection and only used if the JVM running the server has them.
+ */
+final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * @param prefix name of the threads, followed by a counter
+     * @return factory of virtual threads, or null if the JVM has none
+     */
+    @Nullable
+    static ThreadFactory createFactory(String prefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // before Java 21, or a preview feature that is not enabled
+            return null;
+        }
+    }
+}
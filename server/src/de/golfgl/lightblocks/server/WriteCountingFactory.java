@@ -0,0 +1,78 @@
+package de.golfgl.lightblocks.server;
+
+import org.java_websocket.WebSocketAdapter;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.WebSocketServerFactory;
+import org.java_websocket.drafts.Draft;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+/**
+ * Creates the server's connections on channels counting the bytes written to them, so that the
+ * bytes still waiting to be sent to a client are known without walking its send queue, see
+ * {@link Player#checkSendBacklog}
+ */
+class WriteCountingFactory implements WebSocketServerFactory {
+    @Override
+    public WebSocketImpl createWebSocket(WebSocketAdapter adapter, Draft draft) {
+        return new WebSocketImpl(adapter, draft);
+    }
+
+    @Override
+    public WebSocketImpl createWebSocket(WebSocketAdapter adapter, List<Draft> drafts) {
+        return new WebSocketImpl(adapter, drafts);
+    }
+
+    @Override
+    public ByteChannel wrapChannel(SocketChannel channel, SelectionKey key) {
+        return new CountingChannel(channel);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    static class CountingChannel implements ByteChannel {
+        private final SocketChannel channel;
+        // only written by the server's selector thread
+        private volatile long writtenBytes;
+
+        CountingChannel(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * @return bytes written since the connection was opened, the handshake and control frames included
+         */
+        long getWrittenBytes() {
+            return writtenBytes;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int written = channel.write(src);
+            writtenBytes = writtenBytes + written;
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package de.golfgl.lightblocks.server.loadtest;
+
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import de.golfgl.lightblocks.engine.IntList;
+import de.golfgl.lightblocks.input.InputIdentifier;
+import de.golfgl.lightblocks.model.GameModel;
+import de.golfgl.lightblocks.model.GameScore;
+import de.golfgl.lightblocks.model.IGameModelListener;
+import de.golfgl.lightblocks.multiplayer.ai.ArtificialPlayer;
+import de.golfgl.lightblocks.server.BinaryProtocol;
+import de.golfgl.lightblocks.server.ServerMultiplayerModel;
+import de.golfgl.lightblocks.state.GameParameters;
+
+/**
+ * One simulated player. An {@link ArtificialPlayer} plays a local game, and every input it makes
+ * is sent to the server as in-game message. The local game is not synced with the server's, so
+ * this only produces a realistic input stream, not a meaningful game.
+ */
+class LoadClient extends WebSocketClient {
+    // inputs not answered within this time probably had no visible effect, like a blocked move
+    private static final long MAX_ROUND_TRIP = 1000000000L;
+    private static final float KEY_PRESS_TIME = .05f;
+    private final LoadGenerator generator;
+    private final String nickName;
+    private final boolean binaryProtocol;
+    private final LongArray roundTripTimes = new LongArray();
+    private volatile long connectStart;
+    private volatile long connectTime = -1;
+    private volatile long matchTime = -1;
+    // time the oldest move or rotation not yet answered by an event on the own board was sent, 0 if none
+    private final AtomicLong pendingInputSince = new AtomicLong();
+    private InputSendingModel gameModel;
+    private float endMoveCountdown;
+
+    LoadClient(LoadGenerator generator, URI serverUri, String nickName, boolean binaryProtocol) {
+        super(serverUri);
+        this.generator = generator;
+        this.nickName = nickName;
+        this.binaryProtocol = binaryProtocol;
+        setTcpNoDelay(true);
+    }
+
+    void start() {
+        connectStart = TimeUtils.nanoTime();
+        connect();
+    }
+
+    /**
+     * called on the generator's render thread
+     */
+    void update(float delta) {
+        if (matchTime < 0 || !isOpen())
+            return;
+
+        if (endMoveCountdown > 0) {
+            endMoveCountdown = endMoveCountdown - delta;
+            if (endMoveCountdown <= 0)
+                sendInput("SMH", false);
+        }
+
+        long since = pendingInputSince.get();
+        if (since != 0 && TimeUtils.nanoTime() - since > MAX_ROUND_TRIP && pendingInputSince.compareAndSet(since, 0))
+            generator.unansweredInputs.incrementAndGet();
+
+        if (gameModel == null || gameModel.isGameOver()) {
+            gameModel = new InputSendingModel();
+            gameModel.startNewGame(new GameParameters());
+            ServerMultiplayerModel secondGameModel = gameModel.getSecondGameModel();
+            gameModel.setAiPlayer(new ArtificialPlayer(gameModel, secondGameModel));
+            secondGameModel.setAiPlayer(new ArtificialPlayer(secondGameModel, gameModel));
+            gameModel.setUserInterface(null, new SilentListener());
+            secondGameModel.setUserInterface(null, new SilentListener());
+        }
+
+        gameModel.update(delta);
+    }
+
+    /**
+     * @param measure true for inputs the server normally answers with an event on the own board
+     *                within the next tick. Others, like drops with lock delay, would distort the
+     *                round trip times.
+     */
+    private void sendInput(String input, boolean measure) {
+        if (!isOpen())
+            return;
+
+        if (measure)
+            pendingInputSince.compareAndSet(0, TimeUtils.nanoTime());
+        send("IGM" + input);
+        generator.inputsSent.incrementAndGet();
+    }
+
+    private void eventForOwnBoard() {
+        long since = pendingInputSince.get();
+        if (since != 0 && pendingInputSince.compareAndSet(since, 0)) {
+            synchronized (roundTripTimes) {
+                roundTripTimes.add(TimeUtils.nanoTime() - since);
+            }
+        }
+    }
+
+    @Override
+    public void onOpen(ServerHandshake handshake) {
+        connectTime = TimeUtils.nanoTime() - connectStart;
+        send("PIN{\"nickName\":\"" + nickName + "\",\"protocolVersion\":"
+                + (binaryProtocol ? BinaryProtocol.PROTOCOL_VERSION : 0) + "}");
+    }
+
+    @Override
+    public void onMessage(String message) {
+        generator.messageReceived(message.length());
+        if (message.startsWith("MCH")) {
+            if (matchTime < 0)
+                matchTime = TimeUtils.nanoTime() - connectStart;
+        } else if (message.startsWith("Y")) {
+            eventForOwnBoard();
+        }
+    }
+
+    @Override
+    public void onMessage(ByteBuffer bytes) {
+        generator.messageReceived(bytes.remaining());
+        int position = bytes.position();
+        while (position < bytes.limit()) {
+            if ((bytes.get(position) & BinaryProtocol.FLAG_OPPONENT) == 0) {
+                eventForOwnBoard();
+                return;
+            }
+            int length = BinaryProtocol.getEventLength(bytes, position);
+            if (length <= 0)
+                return;
+            position = position + length;
+        }
+    }
+
+    @Override
+    public void onClose(int code, String reason, boolean remote) {
+        if (remote && code != 1000)
+            generator.closedByServer(code, reason);
+    }
+
+    @Override
+    public void onError(Exception ex) {
+        generator.error(ex);
+    }
+
+    long getConnectTime() {
+        return connectTime;
+    }
+
+    long getMatchTime() {
+        return matchTime;
+    }
+
+    void addRoundTripTimes(LongArray all) {
+        synchronized (roundTripTimes) {
+            all.addAll(roundTripTimes);
+        }
+    }
+
+    /**
+     * forwards the local AI's inputs to the server
+     */
+    private class InputSendingModel extends ServerMultiplayerModel {
+        @Override
+        public void inputDoOneHorizontalMove(InputIdentifier inputId, boolean isLeft) {
+            super.inputDoOneHorizontalMove(inputId, isLeft);
+            // the server knows no single move, so tap the key like a human player
+            sendInput(isLeft ? "SML" : "SMR", true);
+            endMoveCountdown = KEY_PRESS_TIME;
+        }
+
+        @Override
+        public void inputRotate(InputIdentifier inputId, boolean clockwise) {
+            super.inputRotate(inputId, clockwise);
+            sendInput(clockwise ? "ROR" : "ROL", true);
+        }
+
+        @Override
+        public void inputSetSoftDropFactor(InputIdentifier inputId, float newVal) {
+            super.inputSetSoftDropFactor(inputId, newVal);
+            sendInput(newVal == GameModel.FACTOR_HARD_DROP ? "DRH" : newVal == GameModel.FACTOR_SOFT_DROP ? "DRS" : "DRN",
+                    false);
+        }
+
+        @Override
+        public boolean inputHoldActiveTetromino(InputIdentifier inputId) {
+            sendInput("HAT", false);
+            return super.inputHoldActiveTetromino(inputId);
+        }
+    }
+
+    private static class SilentListener implements IGameModelListener {
+        @Override
+        public void insertNewBlock(int x, int y, int blockType) {
+        }
+
+        @Override
+        public void moveTetro(Integer[][] v, int dx, int dy, int ghostPieceDistance) {
+        }
+
+        @Override
+        public void rotateTetro(Integer[][] vOld, Integer[][] vNew, int ghostPieceDistance) {
+        }
+
+        @Override
+        public void clearAndInsertLines(IntList linesToRemove, boolean special, int[] garbageHolePosition) {
+        }
+
+        @Override
+        public void markAndMoveFreezedLines(boolean playSoundAndMove, IntList removedLines, IntList fullLines) {
+        }
+
+        @Override
+        public void setGameOver() {
+        }
+
+        @Override
+        public void showNextTetro(Integer[][] relativeBlockPositions, int blockType) {
+        }
+
+        @Override
+        public void activateNextTetro(Integer[][] boardBlockPositions, int blockType, int ghostPieceDistance) {
+        }
+
+        @Override
+        public void swapHoldAndActivePiece(Integer[][] newHoldPiecePositions, Integer[][] oldActivePiecePositions,
+                                           Integer[][] newActivePiecePositions, int ghostPieceDistance, int holdBlockType) {
+        }
+
+        @Override
+        public void pinTetromino(Integer[][] currentBlockPositions) {
+        }
+
+        @Override
+        public void updateScore(GameScore score, int gainedScore) {
+        }
+
+        @Override
+        public void markConflict(int x, int y) {
+        }
+
+        @Override
+        public void showMotivation(MotivationTypes achievement, @Nullable String extra) {
+        }
+
+        @Override
+        public void showGarbageAmount(int lines) {
+        }
+
+        @Override
+        public void showComboHeight(int comboHeight) {
+        }
+
+        @Override
+        public void emphasizeTimeLabel() {
+        }
+
+        @Override
+        public void mergeFullInformation(int[][] gameboard, Integer[][] activePiecePos, int activePieceType,
+                                         Integer[][] nextPiecePos, int nextPieceType, Integer[][] holdPiecePos,
+                                         int holdPieceType, String gameTypeLabel) {
+        }
+    }
+}
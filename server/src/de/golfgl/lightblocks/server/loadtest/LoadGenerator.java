@@ -0,0 +1,173 @@
+package de.golfgl.lightblocks.server.loadtest;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.golfgl.lightblocks.server.ServerApplication;
+
+/**
+ * Puts load on a Lightblocks server: opens the given number of connections, lets every one of them
+ * play with an AI driven input stream and reports latencies and throughput at the end.
+ * <p>
+ * Usage: --host=localhost --port=8887 --clients=100 --connectRate=50 --duration=60 --binary=1
+ * <p>
+ * Every connection uses its own WebSocket client threads, so a few thousand clients are the
+ * practical limit for one machine.
+ */
+public class LoadGenerator extends ApplicationAdapter {
+    final AtomicLong inputsSent = new AtomicLong();
+    final AtomicLong unansweredInputs = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicInteger closedByServer = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final String[] args;
+    private final Array<LoadClient> clients = new Array<>();
+    private URI serverUri;
+    private int clientNum;
+    private int connectRate;
+    private int duration;
+    private boolean binaryProtocol;
+    private long startTime;
+    private long lastRenderTime;
+    private float connectBudget;
+    private boolean finished;
+
+    public LoadGenerator(String[] args) {
+        this.args = args;
+    }
+
+    public static void main(String[] args) {
+        new ServerApplication(new LoadGenerator(args));
+    }
+
+    @Override
+    public void create() {
+        String host = findString("host", "localhost");
+        int port = findInt("port", 8887);
+        clientNum = findInt("clients", 100);
+        connectRate = findInt("connectRate", 50);
+        duration = findInt("duration", 60);
+        binaryProtocol = findInt("binary", 1) != 0;
+        serverUri = URI.create("ws://" + host + ":" + port);
+
+        System.out.println("Connecting " + clientNum + " clients to " + serverUri + " with " + connectRate
+                + " connections per second, running for " + duration + " seconds using the "
+                + (binaryProtocol ? "binary" : "text") + " protocol");
+        startTime = TimeUtils.nanoTime();
+        lastRenderTime = startTime;
+    }
+
+    @Override
+    public void render() {
+        if (finished)
+            return;
+
+        long now = TimeUtils.nanoTime();
+        float delta = (now - lastRenderTime) / 1000000000f;
+        lastRenderTime = now;
+
+        connectBudget = connectBudget + delta * connectRate;
+        while (clients.size < clientNum && connectBudget >= 1) {
+            LoadClient client = new LoadClient(this, serverUri, "load" + clients.size, binaryProtocol);
+            clients.add(client);
+            client.start();
+            connectBudget = connectBudget - 1;
+        }
+
+        for (int i = 0; i < clients.size; i++) {
+            clients.get(i).update(delta);
+        }
+
+        if (TimeUtils.nanoTime() - startTime >= duration * 1000000000L) {
+            finished = true;
+            report();
+            for (LoadClient client : clients) {
+                client.close();
+            }
+            Gdx.app.exit();
+        }
+    }
+
+    void messageReceived(int bytes) {
+        messagesReceived.incrementAndGet();
+        bytesReceived.addAndGet(bytes);
+    }
+
+    void closedByServer(int code, String reason) {
+        if (closedByServer.incrementAndGet() <= 10)
+            System.out.println("Connection closed by server: " + code + " " + reason);
+    }
+
+    void error(Exception ex) {
+        if (errors.incrementAndGet() <= 10)
+            System.out.println("Connection error: " + ex);
+    }
+
+    private void report() {
+        float seconds = (TimeUtils.nanoTime() - startTime) / 1000000000f;
+        LongArray connectTimes = new LongArray();
+        LongArray matchTimes = new LongArray();
+        LongArray roundTripTimes = new LongArray();
+        for (LoadClient client : clients) {
+            if (client.getConnectTime() >= 0)
+                connectTimes.add(client.getConnectTime());
+            if (client.getMatchTime() >= 0)
+                matchTimes.add(client.getMatchTime());
+            client.addRoundTripTimes(roundTripTimes);
+        }
+
+        System.out.println();
+        System.out.println("Clients: " + clients.size + " started, " + connectTimes.size + " connected, "
+                + matchTimes.size + " in a match, " + closedByServer.get() + " closed by server, "
+                + errors.get() + " errors");
+        printPercentiles("Connect latency", connectTimes);
+        printPercentiles("Time to match", matchTimes);
+        printPercentiles("Input round trip", roundTripTimes);
+        System.out.println("Moves and rotations without visible effect: " + unansweredInputs.get());
+        System.out.println(String.format("Throughput: %.0f messages/s, %.1f KB/s received, %.0f inputs/s sent",
+                messagesReceived.get() / seconds, bytesReceived.get() / seconds / 1024, inputsSent.get() / seconds));
+    }
+
+    private static void printPercentiles(String name, LongArray nanos) {
+        if (nanos.size == 0) {
+            System.out.println(name + ": no samples");
+            return;
+        }
+        long[] sorted = Arrays.copyOf(nanos.items, nanos.size);
+        Arrays.sort(sorted);
+        System.out.println(String.format("%s (ms, %d samples): p50 %.2f, p95 %.2f, p99 %.2f, max %.2f",
+                name, sorted.length, percentile(sorted, .5), percentile(sorted, .95), percentile(sorted, .99),
+                sorted[sorted.length - 1] / 1000000d));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000000d;
+    }
+
+    private int findInt(String name, int defaultVal) {
+        try {
+            return Integer.parseInt(findString(name, String.valueOf(defaultVal)));
+        } catch (NumberFormatException e) {
+            return defaultVal;
+        }
+    }
+
+    private String findString(String name, String defaultVal) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + name + "=")) {
+                return arg.substring(name.length() + 3);
+            }
+        }
+        return defaultVal;
+    }
+}
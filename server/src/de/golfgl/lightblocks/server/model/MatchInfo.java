@@ -1,14 +1,26 @@
 package de.golfgl.lightblocks.server.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import de.golfgl.lightblocks.model.GameScore;
 
 public class MatchInfo {
+    // duels only, player1 is the receiving player
     public PlayerInfo player1;
     public PlayerInfo player2;
+    // battles only, all players in the order of their boards
+    public PlayerInfo[] players;
+    // battles only, the receiving player's board or -1 for spectators
+    public int board;
     public boolean isModern;
 
     public static class PlayerInfo {
+        // only one of the board encodings is sent
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         public String gameboard;
+        // see BoardCodec, base64 encoded by Jackson
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public byte[] board;
         public ScoreInfo score;
         public String nickname;
         public String activePiece;
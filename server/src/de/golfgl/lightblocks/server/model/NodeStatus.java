@@ -0,0 +1,19 @@
+package de.golfgl.lightblocks.server.model;
+
+/**
+ * Reported by a server node to the router once per second, see RouterRegistration
+ */
+public class NodeStatus {
+    // unique among the nodes of a router, prefixes the node's session tokens
+    public String nodeId;
+    // WebSocket address the router connects clients to, like ws://host:port
+    public String address;
+    public int maxMatches;
+    public int activeMatches;
+    // players in the matchmaking pool waiting for an opponent
+    public int waitingPlayers;
+    // share of the workers' time spent in ticks since the last report, 1 is fully loaded
+    public float load;
+    // no new players are accepted, only resumes
+    public boolean draining;
+}
@@ -4,5 +4,17 @@ public class PlayerInfo {
     public String nickName;
     public String userId;
     public String token;
+    // 0 for the text protocol, see BinaryProtocol
+    public int protocolVersion;
+    // watch a match instead of playing
+    public boolean spectator;
+    // match to spectate, 0 for any running match
+    public int matchId;
+    // token of a SessionInfo when reconnecting after the connection was lost
+    public String resumeToken;
+    // sequence number of the last binary frame received before the connection was lost
+    public long lastEventSeq;
+    // gameboards in match information encoded by BoardCodec instead of as text
+    public boolean compactBoard;
 
 }
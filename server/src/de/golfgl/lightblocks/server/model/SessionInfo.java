@@ -0,0 +1,13 @@
+package de.golfgl.lightblocks.server.model;
+
+public class SessionInfo {
+    // to be sent back in PlayerInfo.resumeToken after the connection was lost
+    public String token;
+    // sequence number of the last binary frame sent, every following frame counts one up
+    public long eventSeq;
+
+    public SessionInfo(String token, long eventSeq) {
+        this.token = token;
+        this.eventSeq = eventSeq;
+    }
+}
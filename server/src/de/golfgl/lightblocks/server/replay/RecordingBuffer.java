@@ -0,0 +1,140 @@
+package de.golfgl.lightblocks.server.replay;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collects the records of one match worker's games, see {@link ReplayRecorder} for the format.
+ * Only to be used from the worker thread.
+ */
+public class RecordingBuffer {
+    // hand over a chunk at least every quarter of a second at 60 ticks per second
+    private static final int MAX_TICKS_PER_CHUNK = 15;
+    private static final int MAX_NICKNAME_LENGTH = 255;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ReplayRecorder recorder;
+    @Nullable
+    private ByteBuffer chunk;
+    private int ticksSinceSubmit;
+
+    RecordingBuffer(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @param nickNames nick name of the player in every slot, null for slots the AI plays
+     * @return id of the new game, to be passed for all its following records
+     */
+    public long gameStarted(int matchId, int modeType, int beginningLevel, String[] nickNames) {
+        long gameId = recorder.nextGameId();
+        byte[][] nicks = new byte[nickNames.length][];
+        int length = 15;
+        for (int i = 0; i < nickNames.length; i++) {
+            nicks[i] = toBytes(nickNames[i] != null ? nickNames[i] : "");
+            length = length + 2 + nicks[i].length;
+        }
+        ByteBuffer out = begin(ReplayRecorder.RECORD_GAME_START, gameId, 0, length);
+        if (out != null) {
+            out.putInt(matchId).putLong(System.currentTimeMillis()).put((byte) modeType).put((byte) beginningLevel);
+            out.put((byte) nickNames.length);
+            for (int i = 0; i < nickNames.length; i++) {
+                out.put((byte) (nickNames[i] == null ? 1 : 0)).put((byte) nicks[i].length).put(nicks[i]);
+            }
+        }
+        return gameId;
+    }
+
+    /**
+     * @param player the player's slot, see the game start's roster
+     */
+    public void input(long gameId, int tick, int player, int opcode) {
+        ByteBuffer out = begin(ReplayRecorder.RECORD_INPUT, gameId, tick, 2);
+        if (out != null)
+            out.put((byte) player).put((byte) opcode);
+    }
+
+    /**
+     * @param events binary events from position to limit, the buffer is not changed
+     */
+    public void events(long gameId, int tick, ByteBuffer events) {
+        int length = events.remaining();
+        ByteBuffer out = begin(ReplayRecorder.RECORD_EVENTS, gameId, tick, length);
+        if (out != null) {
+            int position = events.position();
+            out.put(events);
+            events.position(position);
+        }
+    }
+
+    /**
+     * @param matchInfo full match information as sent to the first player
+     */
+    public void fullInformation(long gameId, int tick, String matchInfo) {
+        byte[] json = matchInfo.getBytes(UTF8);
+        ByteBuffer out = begin(ReplayRecorder.RECORD_FULL_INFORMATION, gameId, tick, json.length);
+        if (out != null)
+            out.put(json);
+    }
+
+    public void gameEnded(long gameId, int tick) {
+        begin(ReplayRecorder.RECORD_GAME_END, gameId, tick, 0);
+    }
+
+    /**
+     * called by the worker after every tick, hands the records over to the writer from time to time
+     */
+    public void endTick() {
+        ticksSinceSubmit++;
+        if (chunk != null && (ticksSinceSubmit >= MAX_TICKS_PER_CHUNK
+                || chunk.remaining() < ReplayRecorder.CHUNK_SIZE / 2)) {
+            submit();
+        }
+    }
+
+    /**
+     * hands all records over to the writer, called by the worker when it stops
+     */
+    public void flush() {
+        if (chunk != null)
+            submit();
+    }
+
+    @Nullable
+    private ByteBuffer begin(byte type, long gameId, int tick, int payloadLength) {
+        int length = ReplayRecorder.HEADER_SIZE + payloadLength;
+        if (length > ReplayRecorder.MAX_RECORD_SIZE) {
+            recorder.recordDropped();
+            return null;
+        }
+
+        if (chunk != null && chunk.remaining() < length)
+            submit();
+        if (chunk == null)
+            chunk = recorder.obtainChunk();
+        if (chunk == null) {
+            // the writer can't keep up, never make the tick wait for it
+            recorder.recordDropped();
+            return null;
+        }
+
+        return chunk.putShort((short) length).put(type).putLong(gameId).putInt(tick);
+    }
+
+    private void submit() {
+        recorder.submit(chunk);
+        chunk = null;
+        ticksSinceSubmit = 0;
+    }
+
+    private static byte[] toBytes(String nickName) {
+        byte[] bytes = nickName.getBytes(UTF8);
+        if (bytes.length <= MAX_NICKNAME_LENGTH)
+            return bytes;
+        byte[] truncated = new byte[MAX_NICKNAME_LENGTH];
+        System.arraycopy(bytes, 0, truncated, 0, MAX_NICKNAME_LENGTH);
+        return truncated;
+    }
+}
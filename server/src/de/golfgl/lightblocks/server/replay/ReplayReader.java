@@ -0,0 +1,172 @@
+package de.golfgl.lightblocks.server.replay;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Prints the records of one recorded game, found by the segment indexes.
+ * <p>
+ * Usage: ReplayReader directory gameId
+ */
+public class ReplayReader {
+    private static final String SEGMENT_PREFIX = "replay-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ReplayReader directory gameId");
+            return;
+        }
+
+        File directory = new File(args[0]);
+        long gameId = Long.parseLong(args[1]);
+        String[] files = directory.list();
+        if (files == null) {
+            System.out.println("No such directory: " + directory);
+            return;
+        }
+        Arrays.sort(files);
+
+        boolean found = false;
+        for (String file : files) {
+            int segmentNum = getSegmentNum(file);
+            if (segmentNum > 0) {
+                int offset = findInIndex(new File(directory, getIndexName(segmentNum)), gameId);
+                if (offset >= 0) {
+                    found = true;
+                    printRecords(new File(directory, file), offset, gameId);
+                }
+            }
+        }
+        if (!found)
+            System.out.println("Game " + gameId + " not found");
+    }
+
+    /**
+     * @return offset of the game's first record in the segment, or -1 if it has none
+     */
+    private static int findInIndex(File indexFile, long gameId) throws IOException {
+        if (!indexFile.exists())
+            return -1;
+
+        DataInputStream index = new DataInputStream(new FileInputStream(indexFile));
+        try {
+            while (true) {
+                long indexedGameId = index.readLong();
+                index.readInt();
+                int offset = index.readInt();
+                if (indexedGameId == gameId)
+                    return offset;
+            }
+        } catch (EOFException e) {
+            return -1;
+        } finally {
+            index.close();
+        }
+    }
+
+    private static void printRecords(File segmentFile, int offset, long gameId) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segmentFile, "r");
+        ByteBuffer segment;
+        try {
+            segment = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            file.close();
+        }
+
+        segment.position(offset);
+        while (segment.remaining() >= ReplayRecorder.HEADER_SIZE) {
+            int start = segment.position();
+            int length = segment.getShort(start) & 0xffff;
+            if (length == 0)
+                break;
+            if (segment.getLong(start + 3) == gameId && !printRecord(segment, start, length))
+                break;
+            segment.position(start + length);
+        }
+    }
+
+    /**
+     * @return false if this was the game's last record
+     */
+    private static boolean printRecord(ByteBuffer segment, int start, int length) {
+        byte type = segment.get(start + 2);
+        int tick = segment.getInt(start + 11);
+        int payload = start + ReplayRecorder.HEADER_SIZE;
+        StringBuilder line = new StringBuilder().append(tick).append(' ');
+        switch (type) {
+            case ReplayRecorder.RECORD_GAME_START:
+                line.append("START match ").append(segment.getInt(payload))
+                        .append(" at ").append(segment.getLong(payload + 4))
+                        .append(" mode ").append(segment.get(payload + 12))
+                        .append(" level ").append(segment.get(payload + 13));
+                int slotNum = segment.get(payload + 14);
+                int position = payload + 15;
+                for (int slot = 0; slot < slotNum; slot++) {
+                    boolean ai = segment.get(position) != 0;
+                    int nickLength = segment.get(position + 1) & 0xff;
+                    line.append(slot == 0 ? " " : " vs ").append(slot).append(':')
+                            .append(ai ? "AI" : readString(segment, position + 2, nickLength));
+                    position = position + 2 + nickLength;
+                }
+                break;
+            case ReplayRecorder.RECORD_INPUT:
+                line.append("INPUT player ").append(segment.get(payload)).append(" opcode ").append(segment.get(payload + 1));
+                break;
+            case ReplayRecorder.RECORD_EVENTS:
+                line.append("EVENTS");
+                for (int i = payload; i < start + length; i++) {
+                    line.append(' ').append(segment.get(i) & 0xff);
+                }
+                break;
+            case ReplayRecorder.RECORD_FULL_INFORMATION:
+                line.append("FULL ").append(readString(segment, payload, start + length - payload));
+                break;
+            case ReplayRecorder.RECORD_GAME_END:
+                line.append("END");
+                break;
+            default:
+                line.append("unknown record type ").append(type);
+        }
+        System.out.println(line);
+        return type != ReplayRecorder.RECORD_GAME_END;
+    }
+
+    private static String readString(ByteBuffer segment, int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = segment.get(position + i);
+        }
+        return new String(bytes, Charset.forName("UTF-8"));
+    }
+
+    static String getSegmentName(int segmentNum) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, segmentNum, SEGMENT_SUFFIX);
+    }
+
+    static String getIndexName(int segmentNum) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, segmentNum, INDEX_SUFFIX);
+    }
+
+    /**
+     * @return number of the segment file, or 0 if the file name is no segment
+     */
+    static int getSegmentNum(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX))
+            return 0;
+        try {
+            return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package de.golfgl.lightblocks.server.replay;
+
+import com.badlogic.gdx.Gdx;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records the inputs and events of every game into append-only segment files, for dispute
+ * handling and AI training.
+ * <p>
+ * Match workers write records into their own {@link RecordingBuffer} and hand over full chunks
+ * to the recorder's writer thread, which copies them into the current memory-mapped segment
+ * file. The OS writes the mapped pages back sequentially. A worker never waits for the writer:
+ * when all chunks are in use, records are dropped and counted.
+ * <p>
+ * Segments are named replay-000001.seg and rolled when full. Every record starts with a header:
+ * length including the header (unsigned short), type (byte), game id (long), tick of the game
+ * (int). The payload depends on the type:
+ * <ul>
+ * <li>{@link #RECORD_GAME_START}: match id (int), start time in ms (long), mode type (byte),
+ * beginning level (byte), number of slots (byte), then the roster: for every slot 1 if the AI
+ * plays it or 0 (byte) and the player's nick name (unsigned byte length, UTF-8), empty for the AI</li>
+ * <li>{@link #RECORD_INPUT}: the player's slot (byte), input opcode (byte), see InputQueue</li>
+ * <li>{@link #RECORD_EVENTS}: binary events of a tick in the first player's perspective, see
+ * BinaryProtocol</li>
+ * <li>{@link #RECORD_FULL_INFORMATION}: MatchInfo message as sent to the first player with
+ * compact boards (UTF-8), at the game's start and whenever it was sent to the players</li>
+ * <li>{@link #RECORD_GAME_END}: nothing</li>
+ * </ul>
+ * A length of 0 marks the end of a segment. For every game with records in a segment, its index
+ * file replay-000001.idx holds game id (long), match id (int) and offset of its first record
+ * in the segment (int).
+ */
+public class ReplayRecorder implements Runnable {
+    public static final byte RECORD_GAME_START = 1;
+    public static final byte RECORD_INPUT = 2;
+    public static final byte RECORD_EVENTS = 3;
+    public static final byte RECORD_GAME_END = 4;
+    public static final byte RECORD_FULL_INFORMATION = 5;
+    public static final int HEADER_SIZE = 15;
+    public static final int MAX_RECORD_SIZE = 0xffff;
+    static final int CHUNK_SIZE = 65536;
+    // 16 MB of records waiting to be written before records are dropped
+    private static final int MAX_CHUNKS = 256;
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final File directory;
+    private final int segmentSize;
+    private final ConcurrentLinkedQueue<ByteBuffer> fullChunks = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<ByteBuffer> freeChunks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger chunkNum = new AtomicInteger();
+    // unique across restarts as long as less than 1000 games are started per millisecond
+    private final AtomicLong lastGameId = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private volatile boolean running;
+    private Thread writer;
+    // only used by the writer thread after start
+    private final HashSet<Long> indexedGames = new HashSet<>();
+    // match ids of the games started but not ended yet
+    private final HashMap<Long, Integer> runningGames = new HashMap<>();
+    private int segmentNum;
+    private MappedByteBuffer segment;
+    private DataOutputStream index;
+
+    private ReplayRecorder(File directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * opens the first segment after all segments already in the directory
+     *
+     * @param segmentSize size of a segment file in bytes
+     */
+    public static ReplayRecorder open(File directory, int segmentSize) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Could not create " + directory);
+
+        ReplayRecorder recorder = new ReplayRecorder(directory, segmentSize);
+        String[] files = directory.list();
+        for (String file : files != null ? files : new String[0]) {
+            int num = ReplayReader.getSegmentNum(file);
+            if (num > recorder.segmentNum)
+                recorder.segmentNum = num;
+        }
+        recorder.rollSegment();
+        return recorder;
+    }
+
+    public void start() {
+        running = true;
+        writer = new Thread(this, "ReplayWriter");
+        writer.setDaemon(true);
+        writer.start();
+        Gdx.app.log("Replay", "Recording games to " + directory);
+    }
+
+    /**
+     * writes all records handed over until now and closes the segment
+     */
+    public void stop() {
+        running = false;
+        if (writer != null) try {
+            writer.join();
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    /**
+     * @return a buffer for one match worker
+     */
+    public RecordingBuffer createBuffer() {
+        return new RecordingBuffer(this);
+    }
+
+    long nextGameId() {
+        return lastGameId.incrementAndGet();
+    }
+
+    /**
+     * @return an empty chunk, or null if all are in use
+     */
+    ByteBuffer obtainChunk() {
+        ByteBuffer chunk = freeChunks.poll();
+        if (chunk == null && chunkNum.get() < MAX_CHUNKS && chunkNum.incrementAndGet() <= MAX_CHUNKS)
+            chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        return chunk;
+    }
+
+    void submit(ByteBuffer chunk) {
+        fullChunks.offer(chunk);
+    }
+
+    void recordDropped() {
+        droppedRecords.incrementAndGet();
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    @Override
+    public void run() {
+        while (running || !fullChunks.isEmpty()) {
+            ByteBuffer chunk = fullChunks.poll();
+            if (chunk == null) {
+                flushIndex();
+                LockSupport.parkNanos(IDLE_WAIT);
+                continue;
+            }
+
+            chunk.flip();
+            try {
+                write(chunk);
+            } catch (IOException e) {
+                Gdx.app.error("Replay", "Could not write records", e);
+            }
+            chunk.clear();
+            freeChunks.offer(chunk);
+        }
+
+        segment.force();
+        try {
+            index.close();
+        } catch (IOException e) {
+            Gdx.app.error("Replay", "Could not write index", e);
+        }
+    }
+
+    private void write(ByteBuffer chunk) throws IOException {
+        int end = chunk.limit();
+        while (chunk.hasRemaining()) {
+            int start = chunk.position();
+            int length = chunk.getShort(start) & 0xffff;
+            if (length == 0)
+                break;
+            // keep room for the end marker
+            if (segment.remaining() < length + 2) {
+                rollSegment();
+                Gdx.app.debug("Replay", "Continuing with segment " + segmentNum);
+            }
+
+            long gameId = chunk.getLong(start + 3);
+            byte type = chunk.get(start + 2);
+            if (type == RECORD_GAME_START)
+                runningGames.put(gameId, chunk.getInt(start + HEADER_SIZE));
+            if (indexedGames.add(gameId)) {
+                Integer matchId = runningGames.get(gameId);
+                index.writeLong(gameId);
+                index.writeInt(matchId != null ? matchId : -1);
+                index.writeInt(segment.position());
+            }
+            if (type == RECORD_GAME_END)
+                runningGames.remove(gameId);
+
+            chunk.limit(start + length);
+            segment.put(chunk);
+            chunk.limit(end);
+            writtenBytes.addAndGet(length);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            index.close();
+        }
+
+        segmentNum++;
+        File segmentFile = new File(directory, ReplayReader.getSegmentName(segmentNum));
+        RandomAccessFile file = new RandomAccessFile(segmentFile, "rw");
+        try {
+            segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } finally {
+            // the mapping stays valid
+            file.close();
+        }
+        index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+                new File(directory, ReplayReader.getIndexName(segmentNum)))));
+        indexedGames.clear();
+    }
+
+    private void flushIndex() {
+        try {
+            index.flush();
+        } catch (IOException e) {
+            Gdx.app.error("Replay", "Could not write index", e);
+        }
+    }
+}
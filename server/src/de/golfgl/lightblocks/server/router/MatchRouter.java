@@ -0,0 +1,232 @@
+package de.golfgl.lightblocks.server.router;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import de.golfgl.lightblocks.server.Serializer;
+import de.golfgl.lightblocks.server.ServerApplication;
+import de.golfgl.lightblocks.server.SessionRegistry;
+import de.golfgl.lightblocks.server.model.PlayerInfo;
+
+/**
+ * Spreads the players over several server nodes, without the clients knowing about it. Nodes
+ * register with the router's {@link NodeEndpoint}, see --server.routerUrl, and clients connect
+ * to the router like to a single server. Every client connection is proxied to the node chosen
+ * by {@link NodeRegistry#chooseNode}.
+ * <p>
+ * The node is chosen when the client connects, because the client waits for the ServerInfo before
+ * it sends its PlayerInfo. A player resuming a session is moved to the node that issued the token
+ * afterwards, the client does not get the ServerInfo of that node a second time. Spectators are placed
+ * like players, the match id they ask for is looked up on the chosen node.
+ * <p>
+ * Usage: --router.port=8887 --router.nodesPort=8880 --verbosity=2
+ * <p>
+ * Every proxied connection uses its own WebSocket client threads, so a few thousand connections
+ * are the practical limit for one router.
+ */
+public class MatchRouter extends WebSocketServer implements ApplicationListener {
+    // close code when no node can take the player, the same as of a full server
+    public static final int CLOSE_NO_NODE = 4100;
+    // nodes tried for one client before giving up
+    private static final int MAX_ATTEMPTS = 3;
+    private final String[] args;
+    private final Serializer serializer = new Serializer();
+    private final NodeRegistry registry = new NodeRegistry();
+    private final NodeEndpoint nodeEndpoint = new NodeEndpoint(registry);
+
+    public MatchRouter(InetSocketAddress address, String[] args) {
+        super(address);
+        this.args = args;
+        // all clients depend on the router, it must get its port back right after a restart
+        setReuseAddr(true);
+    }
+
+    public static void main(String[] args) {
+        int port = findInt(args, "router.port", 8887);
+        int nodesPort = findInt(args, "router.nodesPort", 8880);
+
+        final MatchRouter router = new MatchRouter(new InetSocketAddress(port), args);
+        new ServerApplication(router, 1f);
+        try {
+            router.nodeEndpoint.start(nodesPort);
+        } catch (IOException e) {
+            Gdx.app.error("Router", "Could not accept nodes on port " + nodesPort, e);
+            Gdx.app.exit();
+            return;
+        }
+        System.out.println("Routing players from port " + port + " to the nodes registered on port " + nodesPort
+                + ". Configure with --router.port=xxxx and --router.nodesPort=xxxx");
+
+        // this will block when successful, so don't do it inside create()
+        router.run();
+
+        Gdx.app.exit();
+    }
+
+    /**
+     * connects the client to the node chosen for a new player
+     */
+    private void connectToBestNode(WebSocket client) {
+        NodeRegistry.Node node = registry.chooseNode(null);
+        if (node == null) {
+            Gdx.app.log("Router", "No node available for " + client.getRemoteSocketAddress());
+            client.close(CLOSE_NO_NODE, "No server available.");
+            return;
+        }
+
+        connectToNode(client, node, 1, false);
+    }
+
+    private ProxiedConnection connectToNode(WebSocket client, NodeRegistry.Node node, int attempt, boolean serverInfoPassed) {
+        Gdx.app.debug("Router", "Routing " + client.getRemoteSocketAddress() + " to node " + node.status.nodeId);
+        ProxiedConnection upstream = new ProxiedConnection(this, client, node, attempt, serverInfoPassed);
+        client.setAttachment(upstream);
+        upstream.connect();
+        return upstream;
+    }
+
+    /**
+     * called when the connection to a node could not be established, tries the next best node
+     */
+    void nodeUnreachable(ProxiedConnection upstream) {
+        Gdx.app.error("Router", "Node " + upstream.node.status.nodeId + " on " + upstream.node.status.address
+                + " is unreachable");
+        registry.remove(upstream.node);
+
+        WebSocket client = upstream.getClientConnection();
+        if (!client.isOpen() || client.getAttachment() != upstream)
+            return;
+
+        NodeRegistry.Node node = upstream.attempt < MAX_ATTEMPTS ? registry.chooseNode(upstream.node) : null;
+        if (node == null) {
+            client.close(CLOSE_NO_NODE, "No server available.");
+            return;
+        }
+        ProxiedConnection replacement = connectToNode(client, node, upstream.attempt + 1, upstream.isServerInfoPassed());
+        upstream.transferPendingMessages(replacement);
+    }
+
+    /**
+     * moves a resuming player to the node that issued its token, if it is another one
+     */
+    private void routePlayer(WebSocket client, ProxiedConnection upstream, String message) {
+        Object object = serializer.deserialize(message);
+        if (!(object instanceof PlayerInfo))
+            return;
+
+        PlayerInfo playerInfo = (PlayerInfo) object;
+        if (playerInfo.resumeToken == null) {
+            if (!playerInfo.spectator)
+                registry.playerPlaced(upstream.node);
+            return;
+        }
+
+        String nodeId = SessionRegistry.getNodeId(playerInfo.resumeToken);
+        // when the node is gone, the current one tells the player that the session expired
+        NodeRegistry.Node node = nodeId != null ? registry.findNode(nodeId) : null;
+        if (node != null && !nodeId.equals(upstream.node.status.nodeId)) {
+            Gdx.app.debug("Router", "Resuming " + client.getRemoteSocketAddress() + " on node " + nodeId);
+            upstream.detach();
+            connectToNode(client, node, 1, upstream.isServerInfoPassed());
+        }
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        connectToBestNode(conn);
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        ProxiedConnection upstream = conn.getAttachment();
+        if (upstream != null)
+            upstream.clientClosed(code, reason);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        ProxiedConnection upstream = conn.getAttachment();
+        if (upstream == null)
+            return;
+
+        if (message.startsWith(Serializer.ID_PLAYERINFO)) {
+            routePlayer(conn, upstream, message);
+            upstream = conn.getAttachment();
+        }
+        upstream.forward(message);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, ByteBuffer message) {
+        ProxiedConnection upstream = conn.getAttachment();
+        if (upstream != null)
+            upstream.forward(message);
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        Gdx.app.error("Router", "an error occurred on connection " + conn, ex);
+    }
+
+    @Override
+    public void onStart() {
+        Gdx.app.log("Router", "router started successfully, listening on port " + getPort());
+    }
+
+    @Override
+    public void create() {
+        int loglevel = findInt(args, "verbosity", -1);
+        Gdx.app.setLogLevel(loglevel >= 0 ? loglevel : Application.LOG_INFO);
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        // will not happen
+    }
+
+    @Override
+    public void render() {
+        // nothing to do here, messages are relayed by the WebSocket threads
+    }
+
+    @Override
+    public void pause() {
+        // not needed
+    }
+
+    @Override
+    public void resume() {
+        // will not happen
+    }
+
+    @Override
+    public void dispose() {
+        nodeEndpoint.stop();
+        try {
+            stop();
+        } catch (IOException | InterruptedException e) {
+            Gdx.app.error("Router", "Error while stopping router.", e);
+        }
+        Gdx.app.log("Router", "Stopped.");
+    }
+
+    private static int findInt(String[] args, String name, int defaultVal) {
+        int retVal = defaultVal;
+        for (String arg : args) {
+            if (arg.startsWith("--" + name + "=")) try {
+                retVal = Integer.parseInt(arg.substring(name.length() + 3));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return retVal;
+    }
+}
@@ -0,0 +1,77 @@
+package de.golfgl.lightblocks.server.router;
+
+import com.badlogic.gdx.Gdx;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import de.golfgl.lightblocks.server.model.NodeStatus;
+
+/**
+ * Lets the server nodes register with the router: a POST of a {@link NodeStatus} to
+ * http://host:port/nodes adds or updates a node, a GET lists the nodes alive.
+ * <p>
+ * Bound to all interfaces because the nodes may run on other hosts. Anyone able to reach the port
+ * can register a node, so it must only be reachable from the internal network.
+ */
+public class NodeEndpoint implements HttpHandler {
+    private final NodeRegistry registry;
+    private final ObjectMapper json = new ObjectMapper();
+    private HttpServer httpServer;
+
+    public NodeEndpoint(NodeRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void start(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        httpServer.createContext("/nodes", this);
+        httpServer.start();
+        Gdx.app.log("Router", "Accepting nodes on port " + port);
+    }
+
+    public void stop() {
+        if (httpServer != null)
+            httpServer.stop(0);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if ("POST".equals(exchange.getRequestMethod())) {
+            NodeStatus status;
+            InputStream body = exchange.getRequestBody();
+            try {
+                status = json.readValue(body, NodeStatus.class);
+            } catch (IOException e) {
+                status = null;
+            } finally {
+                body.close();
+            }
+
+            if (status == null || status.nodeId == null || status.address == null || status.maxMatches <= 0) {
+                exchange.sendResponseHeaders(400, -1);
+            } else {
+                if (registry.update(status))
+                    Gdx.app.log("Router", "Node " + status.nodeId + " registered on " + status.address);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            exchange.close();
+        } else if ("GET".equals(exchange.getRequestMethod())) {
+            byte[] response = json.writeValueAsBytes(registry.getNodes());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(response);
+            out.close();
+        } else {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.golfgl.lightblocks.server.router;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import de.golfgl.lightblocks.server.RouterRegistration;
+import de.golfgl.lightblocks.server.model.NodeStatus;
+
+/**
+ * The server nodes known to the router with their last reported {@link NodeStatus}. A node that
+ * did not report for {@link #NODE_TIMEOUT} ms is not chosen anymore.
+ * <p>
+ * Connections sent to a node since its last report count against its free matches and its load,
+ * so that a burst of connections between two reports is spread over the nodes instead of all going
+ * to the one that looked best before. New players placed since then update the estimate of the
+ * humans waiting for an opponent.
+ */
+public class NodeRegistry {
+    public static final long NODE_TIMEOUT = 3 * RouterRegistration.REPORT_INTERVAL;
+
+    private final ConcurrentHashMap<String, Node> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if the node was not known before
+     */
+    public boolean update(NodeStatus status) {
+        Node node = new Node(status);
+        return nodes.put(status.nodeId, node) == null;
+    }
+
+    /**
+     * forgets a node that could not be reached, it is known again with its next report
+     */
+    public void remove(Node node) {
+        nodes.remove(node.status.nodeId, node);
+    }
+
+    /**
+     * @return the node that issued the session token, if it is still alive
+     */
+    @Nullable
+    public Node findNode(String nodeId) {
+        Node node = nodes.get(nodeId);
+        return node != null && node.isAlive() ? node : null;
+    }
+
+    /**
+     * chooses the node for a new player. A node where a human waits for an opponent is preferred,
+     * so that humans meet each other even when spread over several nodes. Otherwise the node with
+     * the lowest utilization, being the greater of its tick load and its share of used matches.
+     *
+     * @param exclude node not to choose because it could not be reached, may be null
+     * @return the chosen node, or null if all nodes are full, draining or gone
+     */
+    @Nullable
+    public synchronized Node chooseNode(@Nullable Node exclude) {
+        Node best = null;
+        float bestUtilization = Float.MAX_VALUE;
+        for (Node node : nodes.values()) {
+            if (node == exclude || !node.isAlive() || node.status.draining)
+                continue;
+
+            if (node.getWaitingPlayerNum() > 0) {
+                best = node;
+                break;
+            }
+
+            int usedMatches = node.status.activeMatches + node.routed;
+            if (usedMatches >= node.status.maxMatches)
+                continue;
+            float utilization = Math.max(node.status.load, (float) usedMatches / node.status.maxMatches);
+            if (utilization < bestUtilization) {
+                best = node;
+                bestUtilization = utilization;
+            }
+        }
+
+        if (best != null)
+            best.routed++;
+        return best;
+    }
+
+    /**
+     * to be called when a client connected to the node turned out to be a new player, not
+     * resuming a session or spectating
+     */
+    public synchronized void playerPlaced(Node node) {
+        node.placed++;
+    }
+
+    public List<NodeStatus> getNodes() {
+        List<NodeStatus> statuses = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.isAlive())
+                statuses.add(node.status);
+        }
+        return statuses;
+    }
+
+    public static class Node {
+        public final NodeStatus status;
+        private final long reportTime = TimeUtils.millis();
+        // connections and new players sent to the node since its report, guarded by the registry
+        private int routed;
+        private int placed;
+
+        Node(NodeStatus status) {
+            this.status = status;
+        }
+
+        /**
+         * every new player is paired with a waiting one, or waits itself if there is none
+         */
+        private int getWaitingPlayerNum() {
+            int waitingPlayers = status.waitingPlayers;
+            return placed <= waitingPlayers ? waitingPlayers - placed : (placed - waitingPlayers) % 2;
+        }
+
+        boolean isAlive() {
+            return TimeUtils.timeSinceMillis(reportTime) < NODE_TIMEOUT;
+        }
+    }
+}
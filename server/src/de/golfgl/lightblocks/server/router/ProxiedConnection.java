@@ -0,0 +1,170 @@
+package de.golfgl.lightblocks.server.router;
+
+import com.badlogic.gdx.Gdx;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import de.golfgl.lightblocks.server.Serializer;
+
+/**
+ * Connection from the router to a node on behalf of one client. Messages are relayed unchanged in
+ * both directions, messages of the client arriving before the node accepted the connection are
+ * kept until then.
+ * <p>
+ * A lost connection on one side is passed on as a lost connection to the other side, without a
+ * close frame, so that the player can resume its session like without the router. All other
+ * close codes are passed on as they are.
+ */
+class ProxiedConnection extends WebSocketClient {
+    private final MatchRouter router;
+    private final WebSocket client;
+    final NodeRegistry.Node node;
+    // connection attempts for this client so far, including this one
+    final int attempt;
+    // the client already got the ServerInfo of another node, set when it got this node's one
+    private volatile boolean serverInfoPassed;
+    // guarded by this
+    private final ArrayList<Object> pendingMessages = new ArrayList<>();
+    private boolean opened;
+    // set when the node could not be reached, gets the messages arriving afterwards
+    private ProxiedConnection replacement;
+    private volatile boolean detached;
+
+    ProxiedConnection(MatchRouter router, WebSocket client, NodeRegistry.Node node, int attempt, boolean serverInfoPassed) {
+        super(URI.create(node.status.address));
+        this.router = router;
+        this.client = client;
+        this.node = node;
+        this.attempt = attempt;
+        this.serverInfoPassed = serverInfoPassed;
+    }
+
+    /**
+     * sends a message of the client to the node, a String or a ByteBuffer
+     */
+    synchronized void forward(Object message) {
+        if (replacement != null) {
+            replacement.forward(message);
+            return;
+        }
+        if (detached)
+            return;
+
+        if (opened)
+            send(message);
+        else
+            pendingMessages.add(message);
+    }
+
+    /**
+     * hands the messages not sent yet over to the connection replacing this one
+     */
+    synchronized void transferPendingMessages(ProxiedConnection replacement) {
+        this.replacement = replacement;
+        for (Object message : pendingMessages) {
+            replacement.forward(message);
+        }
+        pendingMessages.clear();
+    }
+
+    WebSocket getClientConnection() {
+        return client;
+    }
+
+    /**
+     * @return true if the client got a ServerInfo, so a connection replacing this one must not
+     * pass on its own
+     */
+    boolean isServerInfoPassed() {
+        return serverInfoPassed;
+    }
+
+    /**
+     * closes the connection to the node without passing it on to the client
+     */
+    void detach() {
+        detached = true;
+        close();
+    }
+
+    /**
+     * to be called when the client's connection ended
+     */
+    void clientClosed(int code, String reason) {
+        detached = true;
+        if (code == CloseFrame.ABNORMAL_CLOSE)
+            closeConnection(CloseFrame.ABNORMAL_CLOSE, reason);
+        else
+            close(code, reason);
+    }
+
+    @Override
+    public synchronized void onOpen(ServerHandshake handshake) {
+        if (detached) {
+            close();
+            return;
+        }
+
+        opened = true;
+        for (Object message : pendingMessages) {
+            send(message);
+        }
+        pendingMessages.clear();
+    }
+
+    @Override
+    public void onMessage(String message) {
+        if (message.startsWith(Serializer.ID_SERVERINFO)) {
+            if (serverInfoPassed)
+                return;
+            serverInfoPassed = true;
+        }
+        if (!detached && client.isOpen())
+            client.send(message);
+    }
+
+    @Override
+    public void onMessage(ByteBuffer bytes) {
+        if (!detached && client.isOpen())
+            client.send(bytes);
+    }
+
+    @Override
+    public void onClose(int code, String reason, boolean remote) {
+        if (detached)
+            return;
+
+        boolean wasOpened;
+        synchronized (this) {
+            wasOpened = opened;
+        }
+        if (!wasOpened) {
+            router.nodeUnreachable(this);
+        } else if (code < CloseFrame.NORMAL || code == CloseFrame.NOCODE || code == CloseFrame.ABNORMAL_CLOSE
+                || code == CloseFrame.TLS_ERROR) {
+            // these codes can't be sent in a close frame
+            client.closeConnection(CloseFrame.ABNORMAL_CLOSE, reason);
+        } else {
+            client.close(code, reason);
+        }
+    }
+
+    @Override
+    public void onError(Exception ex) {
+        Gdx.app.debug("Router", "Error on connection to node " + node.status.nodeId + ": " + ex.getMessage());
+    }
+
+    private void send(Object message) {
+        if (message instanceof String)
+            send((String) message);
+        else
+            send((ByteBuffer) message);
+    }
+}
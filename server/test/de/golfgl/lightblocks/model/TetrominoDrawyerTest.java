@@ -0,0 +1,40 @@
+package de.golfgl.lightblocks.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import de.golfgl.lightblocks.server.DataStateReader;
+import de.golfgl.lightblocks.server.DataStateWriter;
+
+/**
+ * A drawer of a multiplayer match holds every piece the leading board is ahead of the others, so
+ * it must survive a snapshot with more pieces than fit in a byte
+ */
+public class TetrominoDrawyerTest {
+    private static final int PIECES = 700;
+
+    @Test
+    public void testLongDrawyerRoundTrip() throws IOException {
+        TetrominoDrawyer drawyer = new TetrominoDrawyer();
+        while (drawyer.drawyer.size < PIECES)
+            drawyer.determineNextTetrominos();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        drawyer.write(new DataStateWriter(out));
+        out.close();
+
+        TetrominoDrawyer restored = new TetrominoDrawyer();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        restored.read(new DataStateReader(in));
+
+        Assert.assertEquals(-1, in.read());
+        Assert.assertArrayEquals(drawyer.drawyer.toArray(), restored.drawyer.toArray());
+    }
+}
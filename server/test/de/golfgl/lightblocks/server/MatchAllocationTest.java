@@ -0,0 +1,131 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+
+import de.golfgl.lightblocks.model.GameScore;
+
+/**
+ * Every match is updated 60 times per second, so a tick of a running game must not allocate, from
+ * queueing the inputs over the game model to sending the events
+ */
+public class MatchAllocationTest {
+    private static final int CALLS = 100000;
+    // some slack for the measurement itself
+    private static final long ALLOWED_BYTES = 1024;
+    private static final int TICKS = 20000;
+    private static final float DELTA = 1 / 60f;
+    // every new piece is a new Tetromino of about 250 bytes, a piece takes dozens of ticks
+    private static final long ALLOWED_BYTES_PER_TICK = 16;
+    private static final int[] INPUTS = {InputQueue.MOVE_LEFT, InputQueue.MOVE_END, InputQueue.ROTATE_RIGHT,
+            InputQueue.MOVE_RIGHT, InputQueue.MOVE_END, InputQueue.ROTATE_LEFT, InputQueue.DROP_SOFT,
+            InputQueue.DROP_NONE, InputQueue.HOLD, InputQueue.DROP_HARD};
+
+    private com.sun.management.ThreadMXBean threadBean;
+    private Application app;
+    private Match match;
+    private Player[] players;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        // the game models need Gdx.app for logging
+        app = new ServerApplication(new ApplicationAdapter() {
+        });
+        app.setLogLevel(Application.LOG_ERROR);
+
+        LightblocksServer server = new LightblocksServer(new InetSocketAddress(0),
+                new ServerConfiguration(new String[0]));
+        match = new Match(server, 1);
+        // binary players on connections discarding everything, connected like the matchmaker does
+        players = new Player[match.getSlotNum()];
+        for (int i = 0; i < players.length; i++) {
+            Player player = new Player(server, new NullWebSocket());
+            player.nickName = "player" + i;
+            player.binaryProtocol = true;
+            player.resumable = true;
+            player.state = Player.ConnectionState.QUEUED;
+            match.connectPlayer(player);
+            Assert.assertTrue(player.joinedMatch(match));
+            players[i] = player;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        app.exit();
+        Gdx.app = null;
+    }
+
+    @Test
+    public void testUnchangedScoreDoesNotAllocate() {
+        Match.Listener listener = match.new Listener(0);
+        GameScore score = new GameScore();
+        score.addBonusScore(100);
+        // warm up, the first call sends the score
+        for (int i = 0; i < CALLS; i++) {
+            listener.updateScore(score, 0);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; i++) {
+            listener.updateScore(score, 0);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        Assert.assertTrue("updateScore allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+
+    @Test
+    public void testGameTickDoesNotAllocate() throws Exception {
+        // warm up over several games
+        for (int tick = 0; tick < TICKS; tick++) {
+            tick(tick);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocated = 0;
+        int measuredTicks = 0;
+        for (int tick = 0; tick < TICKS; tick++) {
+            boolean running = match.isRestorable();
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            tick(tick);
+            long after = threadBean.getThreadAllocatedBytes(threadId);
+            // starting and ending a game sets up a new game model and sends the full information
+            if (running && match.isRestorable()) {
+                allocated = allocated + after - before;
+                measuredTicks++;
+            }
+        }
+
+        Assert.assertTrue("Only " + measuredTicks + " ticks of running games", measuredTicks > TICKS / 2);
+        Assert.assertTrue("A tick allocated " + allocated / measuredTicks + " bytes on average",
+                allocated / measuredTicks < ALLOWED_BYTES_PER_TICK);
+    }
+
+    /**
+     * gives every player an input now and then, like its connection thread does, and updates the match
+     */
+    private void tick(int tick) throws Exception {
+        for (int i = 0; i < players.length; i++) {
+            if ((tick + i * 5) % 10 == 0)
+                players[i].onInput(INPUTS[(tick / 10 + i) % INPUTS.length]);
+        }
+        match.update(DELTA);
+    }
+}
@@ -0,0 +1,129 @@
+package de.golfgl.lightblocks.server;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+
+import org.java_websocket.framing.CloseFrame;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+
+import de.golfgl.lightblocks.server.model.PlayerInfo;
+
+/**
+ * A player keeps its slot when its connection is lost, and gets it back by resuming its session on
+ * a new connection, even before the server noticed the old one is gone
+ */
+public class MatchResumeTest {
+    private static final float DELTA = 1 / 60f;
+
+    private Application app;
+    private LightblocksServer server;
+    private Match match;
+    private Player[] players;
+    private NullWebSocket[] connections;
+
+    @Before
+    public void setUp() {
+        // the game models need Gdx.app for logging
+        app = new ServerApplication(new ApplicationAdapter() {
+        });
+        app.setLogLevel(Application.LOG_ERROR);
+
+        server = new LightblocksServer(new InetSocketAddress(0), new ServerConfiguration(new String[0]));
+        match = new Match(server, 1);
+        // players who can resume, connected like the matchmaker does
+        players = new Player[match.getSlotNum()];
+        connections = new NullWebSocket[players.length];
+        for (int i = 0; i < players.length; i++) {
+            connections[i] = new NullWebSocket();
+            Player player = new Player(server, connections[i]);
+            player.nickName = "player" + i;
+            player.binaryProtocol = true;
+            player.resumable = true;
+            player.state = Player.ConnectionState.QUEUED;
+            match.connectPlayer(player);
+            Assert.assertTrue(player.joinedMatch(match));
+            players[i] = player;
+        }
+        update();
+    }
+
+    @After
+    public void tearDown() {
+        app.exit();
+        Gdx.app = null;
+    }
+
+    @Test
+    public void testResumeWhileOldConnectionIsOpen() {
+        Player old = players[1];
+        Player resumed = resume(old, new NullWebSocket());
+        update();
+
+        // the slot is handed over and the old connection is closed
+        Assert.assertEquals(LightblocksServer.CLOSE_RESUMED, connections[1].closeCode);
+        Assert.assertEquals(1, resumed.slot);
+        Assert.assertEquals(-1, old.slot);
+        Assert.assertEquals(Player.ConnectionState.PLAYING, resumed.state);
+        Assert.assertNotEquals(old.sessionToken, resumed.sessionToken);
+
+        // the old connection's close must not free the slot it lost already
+        old.disconnected(LightblocksServer.CLOSE_RESUMED);
+        update();
+        Assert.assertEquals(2, match.getConnectedPlayerNum());
+        Assert.assertEquals(1, resumed.slot);
+        Assert.assertEquals(0, connections[0].closeCode);
+    }
+
+    @Test
+    public void testResumeAfterConnectionWasLost() {
+        Player old = players[1];
+        old.disconnected(CloseFrame.GOING_AWAY);
+        update();
+        Assert.assertEquals(2, match.getConnectedPlayerNum());
+
+        Player resumed = resume(old, new NullWebSocket());
+        update();
+        Assert.assertEquals(1, resumed.slot);
+        Assert.assertEquals(Player.ConnectionState.PLAYING, resumed.state);
+    }
+
+    @Test
+    public void testLeavingFreesSlot() {
+        players[1].disconnected(CloseFrame.NORMAL);
+        update();
+        Assert.assertEquals(1, match.getConnectedPlayerNum());
+        Assert.assertEquals(-1, players[1].slot);
+
+        NullWebSocket connection = new NullWebSocket();
+        resume(players[1], connection);
+        update();
+        Assert.assertEquals(4104, connection.closeCode);
+    }
+
+    /**
+     * @return the player on a new connection, resuming the session of the given one
+     */
+    private Player resume(Player player, NullWebSocket connection) {
+        Player resumed = new Player(server, connection);
+        PlayerInfo playerInfo = new PlayerInfo();
+        playerInfo.nickName = player.nickName;
+        playerInfo.protocolVersion = BinaryProtocol.RESUME_PROTOCOL_VERSION;
+        playerInfo.resumeToken = player.sessionToken;
+        try {
+            resumed.onMessage(playerInfo);
+        } catch (Player.UnexpectedException e) {
+            throw new AssertionError(e);
+        }
+        return resumed;
+    }
+
+    private void update() {
+        match.update(DELTA);
+    }
+}
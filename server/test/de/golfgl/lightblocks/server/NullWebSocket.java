@@ -0,0 +1,139 @@
+package de.golfgl.lightblocks.server;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.enums.Opcode;
+import org.java_websocket.enums.ReadyState;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.Framedata;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * Open connection that discards everything sent, only counting the bytes. Closing it only keeps
+ * the close code, the player is not told like by a real connection.
+ */
+class NullWebSocket implements WebSocket {
+    long sentBytes;
+    // 0 while open
+    int closeCode;
+    private Object attachment;
+
+    @Override
+    public void close(int code, String message) {
+        closeCode = code;
+    }
+
+    @Override
+    public void close(int code) {
+        closeCode = code;
+    }
+
+    @Override
+    public void close() {
+        closeCode = CloseFrame.NORMAL;
+    }
+
+    @Override
+    public void closeConnection(int code, String message) {
+    }
+
+    @Override
+    public void send(String text) {
+        sentBytes = sentBytes + text.length();
+    }
+
+    @Override
+    public void send(ByteBuffer bytes) {
+        sentBytes = sentBytes + bytes.remaining();
+    }
+
+    @Override
+    public void send(byte[] bytes) {
+        sentBytes = sentBytes + bytes.length;
+    }
+
+    @Override
+    public void sendFrame(Framedata framedata) {
+        sentBytes = sentBytes + framedata.getPayloadData().remaining();
+    }
+
+    @Override
+    public void sendFrame(Collection<Framedata> frames) {
+        for (Framedata frame : frames) {
+            sendFrame(frame);
+        }
+    }
+
+    @Override
+    public void sendPing() {
+    }
+
+    @Override
+    public void sendFragmentedFrame(Opcode op, ByteBuffer buffer, boolean fin) {
+        send(buffer);
+    }
+
+    @Override
+    public boolean hasBufferedData() {
+        return false;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteSocketAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalSocketAddress() {
+        return null;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return closeCode == 0;
+    }
+
+    @Override
+    public boolean isClosing() {
+        return false;
+    }
+
+    @Override
+    public boolean isFlushAndClose() {
+        return false;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closeCode != 0;
+    }
+
+    @Override
+    public Draft getDraft() {
+        return null;
+    }
+
+    @Override
+    public ReadyState getReadyState() {
+        return closeCode == 0 ? ReadyState.OPEN : ReadyState.CLOSED;
+    }
+
+    @Override
+    public String getResourceDescriptor() {
+        return null;
+    }
+
+    @Override
+    public <T> void setAttachment(T attachment) {
+        this.attachment = attachment;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getAttachment() {
+        return (T) attachment;
+    }
+}